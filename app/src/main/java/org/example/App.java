@@ -1,10 +1,19 @@
 package org.example;
 
 
+import org.example.cli.ValidacaoEmLote;
 import org.example.view.MainView;
 
 public class App {
     public static void main(String[] args) {
+        // Com argumentos, valida em lote sem carregar a interface gráfica
+        if (args.length > 0) {
+            System.exit(ValidacaoEmLote.executar(args));
+        }
+        iniciarInterfaceGrafica();
+    }
+
+    private static void iniciarInterfaceGrafica() {
         new MainView();
     }
 }
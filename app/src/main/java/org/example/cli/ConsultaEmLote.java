@@ -0,0 +1,360 @@
+package org.example.cli;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystem;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.example.model.ArquivoCSV;
+import org.example.service.IndiceMensal;
+import org.example.service.ValidadorArquivos;
+import org.example.snapshot.ConsultaIndice;
+import org.example.snapshot.IndiceSetores;
+import org.example.snapshot.IndiceSetores.Campo;
+
+/**
+ * Comando de linha de comando que consulta os minutos e setores das
+ * planilhas config e sect_config de um período pelo {@link IndiceSetores}.
+ *
+ * <p>
+ * O índice é montado na primeira consulta às planilhas e reaproveitado nas
+ * seguintes enquanto elas não mudarem, de modo que uma consulta lê apenas o
+ * índice. As linhas encontradas são impressas na saída padrão, separadas por
+ * ponto e vírgula, e o resumo da consulta na saída de erro, para que a saída
+ * possa ser redirecionada para um arquivo CSV.</p>
+ *
+ * @author luisg
+ */
+final class ConsultaEmLote {
+
+    /**
+     * Primeiro argumento que seleciona este comando.
+     */
+    static final String COMANDO = "consultar";
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final String SEPARADOR = ";";
+
+    private static final String USO = String.join(System.lineSeparator(),
+            "Uso: java -jar app.jar " + COMANDO + " [opções] [filtros] <arquivo|diretório|glob>...",
+            "",
+            "Consulta os minutos e setores das planilhas config e sect_config informadas, como as de um mês.",
+            "Na primeira consulta é montado o índice AAAAMMDD_a_AAAAMMDD_indice_setores.indice na pasta",
+            "Relatórios, reaproveitado enquanto as planilhas não mudarem.",
+            "",
+            "Filtros, todos combinados:",
+            "  --dia AAAA-MM-DD           apenas o dia informado",
+            "  --de AAAA-MM-DD            a partir do dia informado",
+            "  --ate AAAA-MM-DD           até o dia informado, inclusive",
+            "  --horario HH:MM-HH:MM      em cada dia, do primeiro horário até antes do segundo",
+            "  --setor S10[,S11...]       uma linha por setor informado em cada minuto",
+            "  --config-id, --ctr, --ass  texto do campo, sem aspas, opcionalmente precedido de != ",
+            "  --qtd-ctr, --qtd-ass, --mov, --mov-set, --mov-atco",
+            "                             número, opcionalmente precedido de =, !=, <, <=, > ou >=,",
+            "                             como --mov '>30'",
+            "Com --setor ou filtros de --ctr, --ass, --mov-set ou --mov-atco a consulta retorna uma linha",
+            "por setor em cada minuto, ordenadas pelo setor e pelo horário; sem eles, uma linha por minuto.",
+            "",
+            "Opções:",
+            "  -g, --agrupar      agrupa os minutos consecutivos de um setor com o mesmo config_id, CTR e ASS",
+            "  -n, --limite N     imprime no máximo N linhas (padrão: todas)",
+            "  -r, --reconstruir  monta o índice novamente, mesmo que esteja atualizado",
+            "  -t, --threads N    quantidade de dias lidos ao mesmo tempo na montagem do índice (padrão: "
+            + ValidadorArquivos.PARALELISMO_PADRAO + ")",
+            "  -h, --help         exibe esta mensagem",
+            "",
+            "Exemplos:",
+            "  " + COMANDO + " -g --dia 2024-06-14 --horario 14:00-16:00 --setor S10 dados/202406",
+            "  " + COMANDO + " --qtd-ctr 4 --mov '>30' dados/202406");
+
+    private ConsultaEmLote() {
+    }
+
+    static int executar(String[] args, PrintStream out, PrintStream err) {
+        ConsultaIndice consulta = new ConsultaIndice();
+        LocalDate de = null;
+        LocalDate ate = null;
+        boolean agrupar = false;
+        boolean reconstruir = false;
+        int limite = Integer.MAX_VALUE;
+        int paralelismo = ValidadorArquivos.PARALELISMO_PADRAO;
+        List<String> entradas = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                Campo campo = getCampo(arg);
+                if (campo != null) {
+                    consulta.adicionarFiltro(campo, valor(args, ++i, arg));
+                    continue;
+                }
+                switch (arg) {
+                    case "--dia":
+                        de = data(valor(args, ++i, arg));
+                        ate = de;
+                        break;
+                    case "--de":
+                        de = data(valor(args, ++i, arg));
+                        break;
+                    case "--ate":
+                        ate = data(valor(args, ++i, arg));
+                        break;
+                    case "--horario":
+                        String[] horarios = valor(args, ++i, arg).split("-", -1);
+                        if (horarios.length != 2) {
+                            throw new IllegalArgumentException("Intervalo de horário inválido: " + args[i]);
+                        }
+                        consulta.setHorario(minuto(horarios[0]), minuto(horarios[1]));
+                        break;
+                    case "--setor":
+                        for (String setor : valor(args, ++i, arg).split(",")) {
+                            consulta.adicionarSetor(setor.trim());
+                        }
+                        break;
+                    case "-g":
+                    case "--agrupar":
+                        agrupar = true;
+                        break;
+                    case "-r":
+                    case "--reconstruir":
+                        reconstruir = true;
+                        break;
+                    case "-n":
+                    case "--limite":
+                        limite = numero(valor(args, ++i, arg), 0);
+                        break;
+                    case "-t":
+                    case "--threads":
+                        paralelismo = numero(valor(args, ++i, arg), 1);
+                        break;
+                    case "-h":
+                    case "--help":
+                        out.println(USO);
+                        return ValidacaoEmLote.SAIDA_OK;
+                    default:
+                        if (arg.startsWith("-") && arg.length() > 1) {
+                            throw new IllegalArgumentException("Opção desconhecida: " + arg);
+                        }
+                        entradas.add(arg);
+                }
+            }
+            consulta.setPeriodo(de, ate);
+        } catch (IllegalArgumentException e) {
+            return usoIncorreto(err, e.getMessage());
+        }
+        if (entradas.isEmpty()) {
+            return usoIncorreto(err, "Nenhum arquivo informado");
+        }
+
+        List<FileSystem> zips = new ArrayList<>();
+        try {
+            List<ArquivoCSV> arquivos = new ArrayList<>();
+            Set<Path> caminhos = new LinkedHashSet<>();
+            for (String entrada : entradas) {
+                try {
+                    for (Path encontrado : ValidacaoEmLote.expandir(entrada)) {
+                        if (ValidacaoEmLote.isZip(encontrado)) {
+                            caminhos.addAll(ValidacaoEmLote.listarZip(encontrado, zips));
+                        } else {
+                            caminhos.add(encontrado.toAbsolutePath().normalize());
+                        }
+                    }
+                } catch (InvalidPathException | IOException e) {
+                    return usoIncorreto(err, "Caminho inválido: " + entrada + " (" + e.getMessage() + ")");
+                }
+            }
+            for (Path caminho : caminhos) {
+                arquivos.add(new ArquivoCSV(caminho));
+            }
+            return consultar(arquivos, consulta, agrupar, reconstruir, limite, paralelismo, out, err);
+        } finally {
+            ValidacaoEmLote.fechar(zips);
+        }
+    }
+
+    private static int consultar(List<ArquivoCSV> arquivos, ConsultaIndice consulta, boolean agrupar, boolean reconstruir, int limite,
+            int paralelismo, PrintStream out, PrintStream err) {
+        long inicio = System.nanoTime();
+        IndiceSetores indice;
+        boolean montado;
+        try {
+            indice = reconstruir ? null : IndiceMensal.abrirAtual(arquivos);
+            montado = indice == null;
+            if (montado) {
+                indice = IndiceMensal.construir(arquivos, paralelismo);
+            }
+        } catch (IllegalArgumentException e) {
+            return usoIncorreto(err, e.getMessage());
+        } catch (IOException e) {
+            err.println("Falha ao montar o índice: " + e.getMessage());
+            return ValidacaoEmLote.SAIDA_ERRO;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("Montagem do índice interrompida");
+            return ValidacaoEmLote.SAIDA_ERRO;
+        }
+        long inicioConsulta = System.nanoTime();
+
+        IndiceSetores.Resultado resultado;
+        try {
+            resultado = indice.consultar(consulta);
+        } catch (IllegalArgumentException e) {
+            return usoIncorreto(err, e.getMessage());
+        }
+        long fimConsulta = System.nanoTime();
+
+        int qtdImpressas = agrupar ? imprimirAgrupado(resultado, consulta.isPorSetor(), limite, out)
+                : imprimir(resultado, consulta.isPorSetor(), limite, out);
+        err.println(String.format(Locale.ROOT, "%d linhas (%d impressas) em %.1f ms; índice %s %s em %.2f s",
+                resultado.getQtdLinhas(), qtdImpressas, (fimConsulta - inicioConsulta) / 1e6,
+                indice.getPrimeiroDia().format(FORMATO_DATA) + " +" + indice.getQtdDias() + " dias",
+                montado ? "montado" : "reaproveitado", (inicioConsulta - inicio) / 1e9));
+        return ValidacaoEmLote.SAIDA_OK;
+    }
+
+    private static int imprimir(IndiceSetores.Resultado resultado, boolean porSetor, int limite, PrintStream out) {
+        out.println(porSetor ? "dia;horario;setor;config_id;CTR;ASS;MOV_SET;MOV_ATCO;QTD_CTR;QTD_ASS;MOV"
+                : "dia;horario;config_id;QTD_CTR;QTD_ASS;MOV");
+        int qtd = Math.min(limite, resultado.getQtdLinhas());
+        for (int linha = 0; linha < qtd; linha++) {
+            StringBuilder sb = new StringBuilder(96).append(resultado.getData(linha).format(FORMATO_DATA)).append(SEPARADOR)
+                    .append(horario(resultado.getMinuto(linha)));
+            if (porSetor) {
+                sb.append(SEPARADOR).append(resultado.getSetor(linha));
+            }
+            sb.append(SEPARADOR).append(texto(resultado, Campo.CONFIG_ID, linha));
+            if (porSetor) {
+                sb.append(SEPARADOR).append(texto(resultado, Campo.CTR, linha))
+                        .append(SEPARADOR).append(texto(resultado, Campo.ASS, linha))
+                        .append(SEPARADOR).append(texto(resultado, Campo.MOV_SET, linha))
+                        .append(SEPARADOR).append(texto(resultado, Campo.MOV_ATCO, linha));
+            }
+            sb.append(SEPARADOR).append(texto(resultado, Campo.QTD_CTR, linha))
+                    .append(SEPARADOR).append(texto(resultado, Campo.QTD_ASS, linha))
+                    .append(SEPARADOR).append(texto(resultado, Campo.MOV, linha));
+            out.println(sb);
+        }
+        return qtd;
+    }
+
+    /**
+     * Imprime os minutos consecutivos de um mesmo dia e setor com o mesmo
+     * config_id e, por setor, o mesmo CTR e ASS como um único intervalo.
+     */
+    private static int imprimirAgrupado(IndiceSetores.Resultado resultado, boolean porSetor, int limite, PrintStream out) {
+        out.println(porSetor ? "dia;inicio;fim;setor;config_id;CTR;ASS;minutos" : "dia;inicio;fim;config_id;minutos");
+        int qtdImpressas = 0;
+        int primeira = 0;
+        for (int linha = 1; linha <= resultado.getQtdLinhas() && qtdImpressas < limite; linha++) {
+            int anterior = linha - 1;
+            if (linha < resultado.getQtdLinhas()
+                    && resultado.getData(linha).equals(resultado.getData(anterior))
+                    && resultado.getMinuto(linha) == resultado.getMinuto(anterior) + 1
+                    && mesmoTexto(resultado, Campo.CONFIG_ID, linha, anterior)
+                    && (!porSetor || resultado.getSetor(linha).equals(resultado.getSetor(anterior))
+                    && mesmoTexto(resultado, Campo.CTR, linha, anterior) && mesmoTexto(resultado, Campo.ASS, linha, anterior))) {
+                continue;
+            }
+            StringBuilder sb = new StringBuilder(80).append(resultado.getData(primeira).format(FORMATO_DATA))
+                    .append(SEPARADOR).append(horario(resultado.getMinuto(primeira)))
+                    .append(SEPARADOR).append(horario(resultado.getMinuto(anterior) + 1));
+            if (porSetor) {
+                sb.append(SEPARADOR).append(resultado.getSetor(primeira));
+            }
+            sb.append(SEPARADOR).append(texto(resultado, Campo.CONFIG_ID, primeira));
+            if (porSetor) {
+                sb.append(SEPARADOR).append(texto(resultado, Campo.CTR, primeira))
+                        .append(SEPARADOR).append(texto(resultado, Campo.ASS, primeira));
+            }
+            out.println(sb.append(SEPARADOR).append(linha - primeira));
+            qtdImpressas++;
+            primeira = linha;
+        }
+        return qtdImpressas;
+    }
+
+    private static boolean mesmoTexto(IndiceSetores.Resultado resultado, Campo campo, int linha, int outra) {
+        String texto = resultado.getTexto(campo, linha);
+        return texto == null ? resultado.getTexto(campo, outra) == null : texto.equals(resultado.getTexto(campo, outra));
+    }
+
+    private static String texto(IndiceSetores.Resultado resultado, Campo campo, int linha) {
+        String texto = resultado.getTexto(campo, linha);
+        return texto == null ? "" : texto;
+    }
+
+    private static String horario(int minuto) {
+        return String.format(Locale.ROOT, "%02d:%02d", minuto / 60, minuto % 60);
+    }
+
+    /**
+     * @return o campo filtrado pela opção, como {@code --mov-set}, ou null se
+     * a opção não for de um campo
+     */
+    private static Campo getCampo(String opcao) {
+        for (Campo campo : Campo.values()) {
+            if (opcao.equals("--" + campo.name().toLowerCase(Locale.ROOT).replace('_', '-'))) {
+                return campo;
+            }
+        }
+        return null;
+    }
+
+    private static String valor(String[] args, int i, String opcao) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException("A opção " + opcao + " requer um valor");
+        }
+        return args[i];
+    }
+
+    private static LocalDate data(String texto) {
+        try {
+            return LocalDate.parse(texto);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data inválida, use AAAA-MM-DD: " + texto, e);
+        }
+    }
+
+    /**
+     * @return o minuto do dia de um horário HH:MM, aceitando 24:00 como o
+     * fim do dia
+     */
+    private static int minuto(String texto) {
+        if (texto.trim().equals("24:00")) {
+            return 24 * 60;
+        }
+        try {
+            return LocalTime.parse(texto.trim()).toSecondOfDay() / 60;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Horário inválido, use HH:MM: " + texto, e);
+        }
+    }
+
+    private static int numero(String texto, int minimo) {
+        try {
+            int numero = Integer.parseInt(texto);
+            if (numero >= minimo) {
+                return numero;
+            }
+        } catch (NumberFormatException e) {
+            // tratado abaixo
+        }
+        throw new IllegalArgumentException("Número inválido: " + texto);
+    }
+
+    private static int usoIncorreto(PrintStream err, String mensagem) {
+        err.println(mensagem);
+        err.println(USO);
+        return ValidacaoEmLote.SAIDA_USO_INCORRETO;
+    }
+}
@@ -0,0 +1,554 @@
+package org.example.cli;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.example.csv.LeitorCsvCompactado;
+import org.example.model.ArquivoCSV;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.example.model.TipoArquivo;
+import org.example.service.ConsistenciaDiaria;
+import org.example.service.EstatisticaEtapa;
+import org.example.service.MetricasValidacao;
+import org.example.service.MonitorPastas;
+import org.example.service.ValidadorArquivos;
+import org.example.util.LoggerUtil;
+
+/**
+ * Validação em lote pela linha de comando, sem interface gráfica.
+ *
+ * <p>
+ * Recebe arquivos, diretórios e padrões glob, identifica o tipo de cada
+ * arquivo, valida todos em paralelo gravando os relatórios na pasta
+ * Relatórios, como a janela principal, e encerra com um resumo da vazão da
+ * validação. Esta classe não referencia classes de AWT ou Swing, de modo que
+ * pode ser executada em servidores sem ambiente gráfico.</p>
+ *
+ * <p>
+ * Códigos de saída: {@value #SAIDA_OK} se nenhum arquivo terminou com
+ * {@link StatusArquivo#ERRO}, {@value #SAIDA_ERRO} caso contrário e
+ * {@value #SAIDA_USO_INCORRETO} para argumentos inválidos.</p>
+ *
+ * @author luisg
+ */
+public final class ValidacaoEmLote {
+
+    private static final Logger log = LoggerUtil.getLogger();
+
+    public static final int SAIDA_OK = 0;
+    public static final int SAIDA_ERRO = 1;
+    public static final int SAIDA_USO_INCORRETO = 2;
+
+    private static final String EXTENSAO = ".csv";
+    private static final String CARACTERES_GLOB = "*?[{";
+    private static final double BYTES_POR_MB = 1024.0 * 1024.0;
+    private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private static final String USO = String.join(System.lineSeparator(),
+            "Uso: java -jar app.jar [opções] <arquivo|diretório|glob>...",
+            "     java -jar app.jar " + ConsultaEmLote.COMANDO + " [opções] <arquivo|diretório|glob>...",
+            "",
+            "Valida os arquivos CSV exportados do SAGITARIO e grava os relatórios na pasta Relatórios.",
+            "Diretórios são expandidos para os arquivos *.csv, *.csv.gz e *.zip que contêm, sem recursão,",
+            "e arquivos zip para os arquivos *.csv que contêm, lidos sem extração;",
+            "padrões glob como 'dados/**/*_flights.csv' devem estar entre aspas.",
+            "",
+            "Opções:",
+            "  -d, --detalhar     detalha todas as verificações nos relatórios",
+            "  -f, --sem-cache    valida novamente arquivos que não mudaram desde a última validação",
+            "  -t, --threads N    quantidade de arquivos validados ao mesmo tempo (padrão: "
+            + ValidadorArquivos.PARALELISMO_PADRAO + ")",
+            "  -i, --incremental  lê apenas as linhas acrescentadas às planilhas config e flights desde a",
+            "                     última validação incremental, sem consultar o cache de validação",
+            "  -c, --consistencia cruza as planilhas config e sect_config de cada dia e grava",
+            "                     o relatório AAAAMMDD_consistencia.txt",
+            "  -M, --mensal       verifica a continuidade das planilhas config e sect_config informadas,",
+            "                     ordenadas pela data, inclusive na virada de cada dia",
+            "  -a, --carga        agrega a carga de cada setor e do ACC por hora e por dia das planilhas",
+            "                     sect_config informadas e grava o resumo AAAAMMDD_a_AAAAMMDD_carga_setores.resumo",
+            "                     e o relatório .txt; os dias com snapshot atual são lidos do snapshot",
+            "  -m, --metricas     exibe ao final o tempo de cada etapa da verificação, por tipo de arquivo",
+            "  -w, --monitorar    monitora os diretórios informados e valida cada planilha config,",
+            "                     sect_config ou flights criada ou alterada, até o processo ser encerrado",
+            "  -h, --help         exibe esta mensagem",
+            "",
+            "A propriedade -Dvalidador.relatorio.limite=N define quantas ocorrências são listadas",
+            "em cada seção do relatório (padrão: 1000; 0 lista todas).",
+            "A propriedade -Dvalidador.relatorio.tempos=true acrescenta aos relatórios o tempo de cada etapa.",
+            "A propriedade -Dvalidador.snapshot=true grava ao lado de cada arquivo validado um snapshot",
+            "binário (.csv.snap), com as linhas validadas em colunas, para leitura rápida por outras ferramentas.",
+            "A propriedade -Dvalidador.monitor.espera=MS define por quanto tempo um arquivo monitorado deve",
+            "ficar sem alterações antes de ser validado (padrão: " + MonitorPastas.ESPERA_PADRAO_MS + ").",
+            "",
+            "O comando " + ConsultaEmLote.COMANDO + " consulta os minutos e setores das planilhas config e sect_config",
+            "informadas; use '" + ConsultaEmLote.COMANDO + " --help' para as opções.",
+            "",
+            "Códigos de saída: 0 sem erros, 1 se algum arquivo terminou com erro, 2 para uso incorreto.");
+
+    private ValidacaoEmLote() {
+    }
+
+    /**
+     * Executa a validação em lote.
+     *
+     * @param args opções e caminhos informados na linha de comando
+     * @return o código de saída do processo
+     */
+    public static int executar(String[] args) {
+        return executar(args, System.out, System.err);
+    }
+
+    static int executar(String[] args, PrintStream out, PrintStream err) {
+        if (args.length > 0 && args[0].equals(ConsultaEmLote.COMANDO)) {
+            return ConsultaEmLote.executar(Arrays.copyOfRange(args, 1, args.length), out, err);
+        }
+        boolean detalhar = false;
+        boolean usarCache = true;
+        boolean metricas = false;
+        boolean consistencia = false;
+        boolean mensal = false;
+        boolean carga = false;
+        boolean monitorar = false;
+        boolean incremental = false;
+        int paralelismo = ValidadorArquivos.PARALELISMO_PADRAO;
+        List<String> entradas = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "-d":
+                case "--detalhar":
+                    detalhar = true;
+                    break;
+                case "-f":
+                case "--sem-cache":
+                    usarCache = false;
+                    break;
+                case "-i":
+                case "--incremental":
+                    incremental = true;
+                    break;
+                case "-c":
+                case "--consistencia":
+                    consistencia = true;
+                    break;
+                case "-M":
+                case "--mensal":
+                    mensal = true;
+                    break;
+                case "-a":
+                case "--carga":
+                    carga = true;
+                    break;
+                case "-m":
+                case "--metricas":
+                    metricas = true;
+                    break;
+                case "-w":
+                case "--monitorar":
+                    monitorar = true;
+                    break;
+                case "-t":
+                case "--threads":
+                    if (i + 1 >= args.length) {
+                        return usoIncorreto(err, "A opção " + arg + " requer a quantidade de threads");
+                    }
+                    try {
+                        paralelismo = Integer.parseInt(args[++i]);
+                    } catch (NumberFormatException e) {
+                        return usoIncorreto(err, "Quantidade de threads inválida: " + args[i]);
+                    }
+                    if (paralelismo < 1) {
+                        return usoIncorreto(err, "Quantidade de threads inválida: " + args[i]);
+                    }
+                    break;
+                case "-h":
+                case "--help":
+                    out.println(USO);
+                    return SAIDA_OK;
+                default:
+                    if (arg.startsWith("-") && arg.length() > 1) {
+                        return usoIncorreto(err, "Opção desconhecida: " + arg);
+                    }
+                    entradas.add(arg);
+            }
+        }
+
+        if (entradas.isEmpty()) {
+            return usoIncorreto(err, "Nenhum arquivo informado");
+        }
+        if (monitorar) {
+            return monitorar(entradas, detalhar, usarCache, incremental, paralelismo, out, err);
+        }
+
+        List<FileSystem> zips = new ArrayList<>();
+        try {
+            return validarEntradas(entradas, zips, detalhar, usarCache, incremental, consistencia, mensal, carga, metricas, paralelismo, out, err);
+        } finally {
+            fechar(zips);
+        }
+    }
+
+    /**
+     * Fecha os sistemas de arquivos dos arquivos zip abertos por
+     * {@link #listarZip(Path, List)}.
+     */
+    static void fechar(List<FileSystem> zips) {
+        for (FileSystem zip : zips) {
+            try {
+                zip.close();
+            } catch (IOException e) {
+                log.warning(() -> "Falha ao fechar " + zip + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Expande as entradas e valida os arquivos encontrados.
+     *
+     * @param zips recebe os sistemas de arquivos dos arquivos zip abertos, a
+     * serem fechados ao final da validação
+     */
+    private static int validarEntradas(List<String> entradas, List<FileSystem> zips, boolean detalhar, boolean usarCache, boolean incremental,
+            boolean consistencia, boolean mensal, boolean carga, boolean metricas, int paralelismo, PrintStream out, PrintStream err) {
+        Set<Path> caminhos = new LinkedHashSet<>();
+        for (String entrada : entradas) {
+            try {
+                List<Path> encontrados = expandir(entrada);
+                if (encontrados.isEmpty()) {
+                    err.println("Nenhum arquivo CSV encontrado em: " + entrada);
+                }
+                for (Path encontrado : encontrados) {
+                    if (isZip(encontrado)) {
+                        caminhos.addAll(listarZip(encontrado, zips));
+                    } else {
+                        caminhos.add(encontrado.toAbsolutePath().normalize());
+                    }
+                }
+            } catch (InvalidPathException | IOException e) {
+                return usoIncorreto(err, "Caminho inválido: " + entrada + " (" + e.getMessage() + ")");
+            }
+        }
+
+        if (caminhos.isEmpty()) {
+            return usoIncorreto(err, "Nenhum arquivo CSV encontrado");
+        }
+
+        List<ArquivoCSV> arquivos = new ArrayList<>();
+        for (Path caminho : caminhos) {
+            arquivos.add(new ArquivoCSV(caminho));
+        }
+        int saida = validar(arquivos, detalhar, usarCache, incremental, paralelismo, out, err);
+        if (consistencia && saida != SAIDA_USO_INCORRETO) {
+            int saidaConsistencia = verificarConsistencia(arquivos, detalhar, paralelismo, out, err);
+            saida = Math.max(saida, saidaConsistencia);
+        }
+        if (mensal && saida != SAIDA_USO_INCORRETO) {
+            saida = Math.max(saida, verificarContinuidade(arquivos, detalhar, paralelismo, out, err));
+        }
+        if (carga && saida != SAIDA_USO_INCORRETO) {
+            saida = Math.max(saida, agregarCarga(arquivos, paralelismo, out));
+        }
+        if (metricas) {
+            imprimirMetricas(out);
+        }
+        return saida;
+    }
+
+    private static int validar(List<ArquivoCSV> arquivos, boolean detalhar, boolean usarCache, boolean incremental, int paralelismo, PrintStream out, PrintStream err) {
+        Map<StatusArquivo, Integer> qtdPorStatus = new EnumMap<>(StatusArquivo.class);
+        AtomicLong qtdLinhas = new AtomicLong();
+        AtomicLong qtdBytes = new AtomicLong();
+        AtomicLong qtdDoCache = new AtomicLong();
+        log.info(() -> "Validação em lote de " + arquivos.size() + " arquivos");
+
+        long inicio = System.nanoTime();
+        try {
+            ValidadorArquivos.validarArquivos(arquivos, detalhar, usarCache, incremental, paralelismo, (arquivo, resultado) -> {
+                if (resultado.isDoCache()) {
+                    qtdDoCache.incrementAndGet();
+                } else {
+                    qtdLinhas.addAndGet(resultado.getQtdLinhas());
+                    qtdBytes.addAndGet(resultado.getQtdBytes());
+                }
+                synchronized (qtdPorStatus) {
+                    qtdPorStatus.merge(arquivo.getStatus(), 1, Integer::sum);
+                    out.println(formatarResultado(arquivo, resultado));
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("Validação interrompida");
+            return SAIDA_ERRO;
+        }
+        double segundos = Math.max(System.nanoTime() - inicio, 1L) / 1e9;
+
+        // A vazão considera apenas os arquivos lidos; os obtidos do cache são informados à parte
+        long qtdLidos = arquivos.size() - qtdDoCache.get();
+        out.println();
+        out.println(String.format(Locale.ROOT, "%d arquivos (%d sem alterações), %d linhas, %.1f MB em %.2f s",
+                arquivos.size(), qtdDoCache.get(), qtdLinhas.get(), qtdBytes.get() / BYTES_POR_MB, segundos));
+        out.println(String.format(Locale.ROOT, "%.1f arquivos/s, %.1f MB/s, %.0f linhas/s",
+                qtdLidos / segundos, qtdBytes.get() / BYTES_POR_MB / segundos, qtdLinhas.get() / segundos));
+        out.println(qtdPorStatus.entrySet().stream()
+                .map(e -> e.getKey() + ": " + e.getValue())
+                .collect(Collectors.joining(", ")));
+
+        return qtdPorStatus.containsKey(StatusArquivo.ERRO) ? SAIDA_ERRO : SAIDA_OK;
+    }
+
+    private static int verificarConsistencia(List<ArquivoCSV> arquivos, boolean detalhar, int paralelismo, PrintStream out, PrintStream err) {
+        AtomicLong qtdErros = new AtomicLong();
+        out.println();
+        try {
+            int qtdDias = ValidadorArquivos.verificarConsistencia(arquivos, detalhar, paralelismo, (config, resultado) -> {
+                if (resultado.getStatus() == StatusArquivo.ERRO) {
+                    qtdErros.incrementAndGet();
+                }
+                synchronized (out) {
+                    out.println(String.format(Locale.ROOT, "%-18s %-11s %10d linhas %8.2f s  %s",
+                            resultado.getStatus(), "consistência", resultado.getQtdLinhas(),
+                            resultado.getDuracaoNanos() / 1e9, descrever(config.resolveSibling(ConsistenciaDiaria.getPrefixo(config)))));
+                }
+            });
+            out.println(qtdDias + " dias com config e sect_config verificados");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("Verificação de consistência interrompida");
+            return SAIDA_ERRO;
+        }
+        return qtdErros.get() > 0 ? SAIDA_ERRO : SAIDA_OK;
+    }
+
+    private static int verificarContinuidade(List<ArquivoCSV> arquivos, boolean detalhar, int paralelismo, PrintStream out, PrintStream err) {
+        AtomicLong qtdErros = new AtomicLong();
+        out.println();
+        try {
+            ValidadorArquivos.verificarContinuidade(arquivos, detalhar, paralelismo, (tipo, resultado) -> {
+                if (resultado.getStatus() == StatusArquivo.ERRO) {
+                    qtdErros.incrementAndGet();
+                }
+                synchronized (out) {
+                    out.println(String.format(Locale.ROOT, "%-18s %-11s %10d linhas %8.2f s  continuidade %s",
+                            resultado.getStatus(), tipo, resultado.getQtdLinhas(), resultado.getDuracaoNanos() / 1e9, tipo));
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            err.println("Verificação de continuidade interrompida");
+            return SAIDA_ERRO;
+        }
+        return qtdErros.get() > 0 ? SAIDA_ERRO : SAIDA_OK;
+    }
+
+    private static int agregarCarga(List<ArquivoCSV> arquivos, int paralelismo, PrintStream out) {
+        out.println();
+        ResultadoValidacao resultado = ValidadorArquivos.agregarCargaSetores(arquivos, paralelismo);
+        if (resultado == null) {
+            out.println("Nenhuma planilha sect_config para agregar a carga dos setores");
+            return SAIDA_OK;
+        }
+        out.println(String.format(Locale.ROOT, "%-18s %-11s %10d linhas %8.2f s  carga dos setores",
+                resultado.getStatus(), TipoArquivo.SECT_CONFIG, resultado.getQtdLinhas(), resultado.getDuracaoNanos() / 1e9));
+        return resultado.getStatus() == StatusArquivo.ERRO ? SAIDA_ERRO : SAIDA_OK;
+    }
+
+    /**
+     * Monitora os diretórios informados até o processo ser encerrado,
+     * imprimindo o resultado de cada arquivo validado.
+     */
+    private static int monitorar(List<String> entradas, boolean detalhar, boolean usarCache, boolean incremental, int paralelismo, PrintStream out, PrintStream err) {
+        List<Path> pastas = new ArrayList<>();
+        for (String entrada : entradas) {
+            try {
+                Path pasta = Paths.get(entrada);
+                if (!Files.isDirectory(pasta)) {
+                    return usoIncorreto(err, "A opção --monitorar requer diretórios: " + entrada);
+                }
+                pastas.add(pasta);
+            } catch (InvalidPathException e) {
+                return usoIncorreto(err, "Caminho inválido: " + entrada + " (" + e.getMessage() + ")");
+            }
+        }
+
+        long espera = Long.getLong("validador.monitor.espera", MonitorPastas.ESPERA_PADRAO_MS);
+        MonitorPastas monitor;
+        try {
+            monitor = new MonitorPastas(pastas, detalhar, usarCache, incremental, paralelismo, espera, (arquivo, resultado) -> {
+                synchronized (out) {
+                    out.println(LocalTime.now().format(FORMATO_HORA) + " " + formatarResultado(arquivo, resultado));
+                }
+            });
+        } catch (IOException e) {
+            err.println("Não foi possível monitorar " + pastas + " (" + e.getMessage() + ")");
+            return SAIDA_ERRO;
+        }
+        // Ctrl+C encerra o monitoramento após concluir as validações em andamento
+        Runtime.getRuntime().addShutdownHook(new Thread(monitor::close, "Encerramento do monitor"));
+        out.println("Monitorando " + pastas + "; Ctrl+C encerra");
+        try {
+            monitor.executar();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            monitor.close();
+        }
+        return SAIDA_OK;
+    }
+
+    /**
+     * Imprime o tempo acumulado de cada etapa da verificação dos arquivos
+     * lidos, com os percentis do tempo por arquivo.
+     */
+    private static void imprimirMetricas(PrintStream out) {
+        out.println();
+        out.println(String.format(Locale.ROOT, "%-11s %-28s %8s %12s %10s %9s %9s %12s %9s",
+                "TIPO", "ETAPA", "ARQUIVOS", "LINHAS", "TOTAL s", "P50 ms", "P99 ms", "LINHAS/s", "MB/s"));
+        for (EstatisticaEtapa etapa : MetricasValidacao.getInstancia().getEtapas()) {
+            out.println(String.format(Locale.ROOT, "%-11s %-28s %8d %12d %10.3f %9.3f %9.3f %12.0f %9.1f",
+                    etapa.getTipo(), etapa.getEtapa(), etapa.getExecucoes(), etapa.getLinhas(),
+                    etapa.getTempoTotalMs() / 1e3, etapa.getTempoP50Ms(), etapa.getTempoP99Ms(),
+                    etapa.getLinhasPorSegundo(), etapa.getMegabytesPorSegundo()));
+        }
+    }
+
+    private static String formatarResultado(ArquivoCSV arquivo, ResultadoValidacao resultado) {
+        return String.format(Locale.ROOT, "%-18s %-11s %10d linhas %8.2f s%s  %s",
+                arquivo.getStatus(), arquivo.getTipo(), resultado.getQtdLinhas(),
+                resultado.getDuracaoNanos() / 1e9, resultado.isDoCache() ? " (cache)" : "", descrever(arquivo.getPath()));
+    }
+
+    /**
+     * Descreve o caminho de uma entrada de arquivo zip como
+     * {@code arquivo.zip!/entrada}, e os demais caminhos como são.
+     */
+    private static String descrever(Path caminho) {
+        if (!LeitorCsvCompactado.isEntradaZip(caminho)) {
+            return caminho.toString();
+        }
+        return LeitorCsvCompactado.getArquivoEmDisco(caminho) + "!" + caminho;
+    }
+
+    private static int usoIncorreto(PrintStream err, String mensagem) {
+        err.println(mensagem);
+        err.println(USO);
+        return SAIDA_USO_INCORRETO;
+    }
+
+    /**
+     * Expande uma entrada da linha de comando nos arquivos que ela designa: o
+     * próprio arquivo, os arquivos CSV de um diretório ou os arquivos que
+     * correspondem a um padrão glob.
+     */
+    static List<Path> expandir(String entrada) throws IOException {
+        if (!contemGlob(entrada)) {
+            Path caminho = Paths.get(entrada);
+            if (Files.isDirectory(caminho)) {
+                return listarCsv(caminho);
+            }
+            if (!Files.exists(caminho)) {
+                throw new IOException("arquivo não encontrado");
+            }
+            return Collections.singletonList(caminho);
+        }
+
+        // Percorre a partir do último diretório anterior ao primeiro segmento com caracteres glob
+        String[] segmentos = entrada.split("[/\\\\]", -1);
+        int primeiroGlob = 0;
+        while (!contemGlob(segmentos[primeiroGlob])) {
+            primeiroGlob++;
+        }
+        Path base = primeiroGlob == 0 ? Paths.get(".")
+                : Paths.get(String.join("/", Arrays.copyOf(segmentos, primeiroGlob)) + "/");
+        String padrao = String.join("/", Arrays.copyOfRange(segmentos, primeiroGlob, segmentos.length));
+        int profundidade = padrao.contains("**") ? Integer.MAX_VALUE : segmentos.length - primeiroGlob;
+
+        if (!Files.isDirectory(base)) {
+            return Collections.emptyList();
+        }
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + padrao);
+        try (Stream<Path> arquivos = Files.walk(base, profundidade, FileVisitOption.FOLLOW_LINKS)) {
+            return arquivos
+                    .filter(Files::isRegularFile)
+                    .filter(p -> matcher.matches(p.subpath(base.getNameCount(), p.getNameCount())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static List<Path> listarCsv(Path diretorio) throws IOException {
+        List<Path> arquivos = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(diretorio)) {
+            for (Path p : stream) {
+                if (Files.isRegularFile(p) && (isCsv(p) || isZip(p))) {
+                    arquivos.add(p);
+                }
+            }
+        }
+        Collections.sort(arquivos);
+        return arquivos;
+    }
+
+    /**
+     * Abre o arquivo zip como sistema de arquivos e lista os arquivos CSV que
+     * ele contém, em qualquer pasta, para que sejam lidos sem extração.
+     *
+     * @param zips recebe o sistema de arquivos aberto, que deve permanecer
+     * aberto enquanto os arquivos forem lidos
+     */
+    static List<Path> listarZip(Path zip, List<FileSystem> zips) throws IOException {
+        FileSystem sistema = FileSystems.newFileSystem(zip.toAbsolutePath().normalize(), (ClassLoader) null);
+        zips.add(sistema);
+        List<Path> arquivos = new ArrayList<>();
+        for (Path raiz : sistema.getRootDirectories()) {
+            try (Stream<Path> stream = Files.walk(raiz)) {
+                stream.filter(p -> Files.isRegularFile(p) && isCsv(p)).forEach(arquivos::add);
+            }
+        }
+        Collections.sort(arquivos);
+        return arquivos;
+    }
+
+    private static boolean isCsv(Path arquivo) {
+        String nome = arquivo.getFileName().toString().toLowerCase(Locale.ROOT);
+        return nome.endsWith(EXTENSAO) || nome.endsWith(EXTENSAO + LeitorCsvCompactado.EXTENSAO_GZIP);
+    }
+
+    static boolean isZip(Path arquivo) {
+        return arquivo.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(LeitorCsvCompactado.EXTENSAO_ZIP);
+    }
+
+    private static boolean contemGlob(String texto) {
+        for (int i = 0; i < texto.length(); i++) {
+            if (CARACTERES_GLOB.indexOf(texto.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
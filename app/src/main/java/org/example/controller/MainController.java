@@ -1,17 +1,15 @@
 package org.example.controller;
 
 import org.example.model.ArquivoCSV;
+import org.example.model.ResultadoValidacao;
 import org.example.model.StatusArquivo;
-import org.example.model.TipoArquivo;
-import org.example.service.PlanilhaConfig;
-import org.example.service.PlanilhaFlights;
-import org.example.service.PlanilhaSectConfig;
+import org.example.service.ValidadorArquivos;
 import org.example.util.LoggerUtil;
 
 import java.io.File;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.BiConsumer;
 import java.util.logging.Logger;
 
 import javax.swing.JFileChooser;
@@ -22,6 +20,11 @@ import javax.swing.filechooser.FileNameExtensionFilter;
 public class MainController {
 
     private static final Logger log = LoggerUtil.getLogger();
+    /**
+     * Grau de paralelismo padrão da validação: uma thread por processador
+     * disponível.
+     */
+    public static final int PARALELISMO_PADRAO = ValidadorArquivos.PARALELISMO_PADRAO;
 
     public MainController(){
         log.info("MainController inicializado");
@@ -46,34 +49,22 @@ public class MainController {
         return listaArquivosCSV;
     }
     
-    public void validarArquivo(ArquivoCSV arquivoCSV, boolean detalhar) {
-        Path path = arquivoCSV.getPath();
-        TipoArquivo tipoArquivo = arquivoCSV.getTipo();
-        boolean resultadoValidacao;
-        log.info("Iniciando validação de: " + path);
-
-        switch (tipoArquivo) {
-            case CONFIG:
-                resultadoValidacao = PlanilhaConfig.verificarIntegridade(path, detalhar);
-                break;
-            case SECT_CONFIG:
-                resultadoValidacao = PlanilhaSectConfig.verificarIntegridade(path, detalhar);
-                break;
-            case FLIGHTS:
-                resultadoValidacao = PlanilhaFlights.verificarIntegridade(path, detalhar);
-                break;
-            case DESCONHECIDO:
-                log.warning("Tipo de arquivo inválido para validação: " + TipoArquivo.DESCONHECIDO);
-                arquivoCSV.setStatus(StatusArquivo.TIPO_DESCONHECIDO);
-                return;
-            default:
-                throw new IllegalArgumentException("Tipo de arquivo não tratado: " + tipoArquivo);
-        }
+    public StatusArquivo validarArquivo(ArquivoCSV arquivoCSV, boolean detalhar) {
+        return ValidadorArquivos.validarArquivo(arquivoCSV, detalhar).getStatus();
+    }
 
-        if (resultadoValidacao) {
-            arquivoCSV.setStatus(StatusArquivo.VALIDADO);
-        } else {
-            arquivoCSV.setStatus(StatusArquivo.ERRO);
-        }
+    /**
+     * Valida uma lista de arquivos em paralelo.
+     *
+     * @param arquivos arquivos a serem validados
+     * @param detalhar define se os relatórios detalham todas as verificações
+     * @param paralelismo quantidade máxima de arquivos validados ao mesmo tempo
+     * @param aoConcluir chamado ao final da validação de cada arquivo
+     * @throws InterruptedException se a thread for interrompida enquanto
+     * aguarda as validações
+     * @see ValidadorArquivos#validarArquivos(List, boolean, int, BiConsumer)
+     */
+    public void validarArquivos(List<ArquivoCSV> arquivos, boolean detalhar, int paralelismo, BiConsumer<ArquivoCSV, ResultadoValidacao> aoConcluir) throws InterruptedException {
+        ValidadorArquivos.validarArquivos(arquivos, detalhar, paralelismo, aoConcluir);
     }
 }
@@ -5,13 +5,15 @@ import org.example.util.LoggerUtil;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -23,6 +25,11 @@ import java.util.logging.Logger;
 public class Csv {
 
     private static final Logger log = LoggerUtil.getLogger();
+    /**
+     * Charset used to decode CSV files and to encode written files.
+     */
+    public static final Charset CHARSET = StandardCharsets.UTF_8;
+
     public Csv(){
         log.info("Csv inicializada");
     }
@@ -33,19 +40,28 @@ public class Csv {
      * @return List containing read lines and the addresses of said lines in the file.
      */
     public static List<Linha> getLines(Path path) throws IOException {
-        try (BufferedReader br = new BufferedReader(new FileReader(path.toFile()))) {
-            List<Linha> lines = new ArrayList<>();
+        List<Linha> lines = new ArrayList<>();
+        readLines(path, lines::add);
+        return lines;
+    }
+
+    /**
+     * Reads a CSV file line by line, handing each line to the consumer as soon
+     * as it is read, so that no more than one line is held in memory by the
+     * reader.
+     * @param path path to CSV file.
+     * @param consumer receives each read line and its address in the file.
+     */
+    public static void readLines(Path path, Consumer<Linha> consumer) throws IOException {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(Files.newInputStream(path), CHARSET))) {
             String csvLine;
             int address = 0;
 
             csvLine = br.readLine();
             while (csvLine != null) {
-                Linha line = new Linha(++address, csvLine);
-                lines.add(line);
+                consumer.accept(new Linha(++address, csvLine));
                 csvLine = br.readLine();
             }
-
-            return lines;
         } catch (IOException e) {
             log.warning("I/O error while reading :" + path + ". Details: " + e.getMessage());
             throw new IOException("Falha ao processar o arquivo CSV: " + path.getFileName(), e);
@@ -67,7 +83,7 @@ public class Csv {
         }
 
         try {
-            Files.write(path, content);
+            Files.write(path, content, CHARSET);
         } catch (IOException e) {
             log.log(Level.WARNING, "I/O error while writing CSV file: " + path, e);
             throw new IOException("Falha ao escrever o arquivo CSV: " + path.getFileName(), e);
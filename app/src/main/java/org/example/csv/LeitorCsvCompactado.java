@@ -0,0 +1,359 @@
+package org.example.csv;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+import org.example.util.LoggerUtil;
+
+/**
+ * Leitor de arquivos CSV compactados, lidos sem extração para o disco:
+ * arquivos {@code .csv.gz} e arquivos CSV dentro de um arquivo zip.
+ *
+ * <p>
+ * Uma entrada de um arquivo zip é designada pelo seu caminho no sistema de
+ * arquivos zip do JDK, obtido com
+ * {@link java.nio.file.FileSystems#newFileSystem(Path, ClassLoader)}. A
+ * descompactação é feita por uma thread própria, que preenche blocos de
+ * {@value #TAMANHO_BLOCO} bytes enquanto a thread que chamou o leitor separa
+ * as linhas e os campos do bloco anterior, de modo que descompactar e
+ * verificar se sobrepõem. Os blocos circulam entre as duas threads por filas
+ * limitadas e são reutilizados, de modo que a memória usada não depende do
+ * tamanho do arquivo. As linhas são entregues como {@link RegistroCsv}, com os
+ * mesmos números de linha e terminadores de {@link LeitorCsvMapeado}.</p>
+ *
+ * @author luisg
+ */
+public final class LeitorCsvCompactado {
+
+    private static final Logger log = LoggerUtil.getLogger();
+
+    /**
+     * Extensão dos arquivos CSV compactados com gzip.
+     */
+    public static final String EXTENSAO_GZIP = ".gz";
+    /**
+     * Extensão dos arquivos zip cujas entradas CSV podem ser validadas.
+     */
+    public static final String EXTENSAO_ZIP = ".zip";
+    /**
+     * Esquema das URIs do sistema de arquivos zip do JDK.
+     */
+    private static final String ESQUEMA_ZIP = "jar";
+    private static final String SEPARADOR_ZIP = "!/";
+
+    /**
+     * Tamanho de cada bloco descompactado entregue ao leitor.
+     */
+    static final int TAMANHO_BLOCO = 1 << 20;
+    private static final int QTD_BLOCOS = 4;
+    private static final int TAMANHO_BUFFER_ENTRADA = 1 << 16;
+
+    private LeitorCsvCompactado() {
+    }
+
+    /**
+     * @param path caminho de um arquivo
+     * @return true se o arquivo é um {@code .gz} ou uma entrada de um arquivo
+     * zip, que devem ser lidos por este leitor
+     */
+    public static boolean isCompactado(Path path) {
+        return isEntradaZip(path) || isGzip(path);
+    }
+
+    /**
+     * @return true se o arquivo, dentro ou fora de um arquivo zip, é um
+     * {@code .gz}
+     */
+    private static boolean isGzip(Path path) {
+        return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(EXTENSAO_GZIP);
+    }
+
+    /**
+     * @param path caminho de um arquivo
+     * @return true se o caminho pertence ao sistema de arquivos de um arquivo
+     * zip
+     */
+    public static boolean isEntradaZip(Path path) {
+        return ESQUEMA_ZIP.equals(path.getFileSystem().provider().getScheme());
+    }
+
+    /**
+     * Obtém o nome do arquivo CSV, sem a extensão {@code .gz}. Para uma
+     * entrada de arquivo zip, é o nome da entrada.
+     *
+     * @param path caminho do arquivo
+     * @return o nome do arquivo CSV
+     */
+    public static String getNomeCsv(Path path) {
+        String nome = path.getFileName().toString();
+        if (nome.toLowerCase(Locale.ROOT).endsWith(EXTENSAO_GZIP)) {
+            return nome.substring(0, nome.length() - EXTENSAO_GZIP.length());
+        }
+        return nome;
+    }
+
+    /**
+     * Obtém o nome que distingue o arquivo dos demais arquivos da mesma pasta
+     * nos arquivos gerados a partir dele, como relatórios e snapshots: o
+     * próprio nome do arquivo, com a extensão {@code .gz}, ou, para uma
+     * entrada de arquivo zip, o nome do arquivo zip seguido de {@code !} e do
+     * caminho da entrada, com as pastas separadas por {@code !}. Assim
+     * {@code X.csv}, {@code X.csv.gz} e entradas {@code X.csv} de arquivos zip
+     * diferentes não compartilham relatório, cache ou snapshot.
+     *
+     * @param path caminho do arquivo
+     * @return o nome do arquivo
+     */
+    public static String getNomeSaida(Path path) {
+        if (!isEntradaZip(path)) {
+            return path.getFileName().toString();
+        }
+        String entrada = path.toAbsolutePath().toString();
+        while (entrada.startsWith("/")) {
+            entrada = entrada.substring(1);
+        }
+        return getArquivoEmDisco(path).getFileName() + "!" + entrada.replace('/', '!');
+    }
+
+    /**
+     * Obtém o arquivo gravado no disco que contém o arquivo CSV: o arquivo zip,
+     * para uma entrada de arquivo zip, ou o próprio arquivo nos demais casos.
+     * Os relatórios de uma entrada são gravados ao lado do arquivo zip, e não
+     * dentro dele.
+     *
+     * @param path caminho do arquivo
+     * @return o arquivo no sistema de arquivos padrão
+     */
+    public static Path getArquivoEmDisco(Path path) {
+        if (!isEntradaZip(path)) {
+            return path;
+        }
+        String uri = path.toUri().getRawSchemeSpecificPart();
+        int separador = uri.indexOf(SEPARADOR_ZIP);
+        return Paths.get(URI.create(separador < 0 ? uri : uri.substring(0, separador)));
+    }
+
+    /**
+     * Abre o conteúdo descompactado do arquivo. Arquivos {@code .gz} são
+     * descompactados também quando são entradas de um arquivo zip; os demais
+     * são abertos sem conversão.
+     *
+     * @param path caminho do arquivo
+     * @return o conteúdo do arquivo CSV
+     * @throws IOException se o arquivo não puder ser aberto
+     */
+    public static InputStream abrir(Path path) throws IOException {
+        InputStream in = Files.newInputStream(path);
+        if (!isGzip(path)) {
+            return in;
+        }
+        try {
+            return new GZIPInputStream(in, TAMANHO_BUFFER_ENTRADA);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Lê um arquivo CSV compactado linha a linha, descompactando-o em uma
+     * thread própria.
+     *
+     * @param path caminho do arquivo {@code .gz} ou da entrada do arquivo zip
+     * @param consumidor recebe cada linha lida, na thread que chamou o método;
+     * o registro é reutilizado e só é válido durante a chamada
+     * @return a quantidade de linhas lidas
+     * @throws IOException se o arquivo não puder ser lido ou descompactado
+     */
+    public static int ler(Path path, Consumer<RegistroCsv> consumidor) throws IOException {
+        return ler(path, consumidor, qtdBytes -> {
+        });
+    }
+
+    /**
+     * Lê um arquivo CSV compactado linha a linha, como
+     * {@link #ler(Path, Consumer)}, informando ao final a quantidade de bytes
+     * descompactados, que corresponde ao tamanho do arquivo CSV.
+     *
+     * @param path caminho do arquivo {@code .gz} ou da entrada do arquivo zip
+     * @param consumidor recebe cada linha lida, na thread que chamou o método;
+     * o registro é reutilizado e só é válido durante a chamada
+     * @param aoConcluir recebe a quantidade de bytes descompactados, se a
+     * leitura terminar sem erros
+     * @return a quantidade de linhas lidas
+     * @throws IOException se o arquivo não puder ser lido ou descompactado
+     */
+    public static int ler(Path path, Consumer<RegistroCsv> consumidor, LongConsumer aoConcluir) throws IOException {
+        return ler(path, TAMANHO_BLOCO, consumidor, aoConcluir);
+    }
+
+    /**
+     * Lê o arquivo em blocos descompactados de {@code tamanhoBloco} bytes.
+     * Blocos menores que {@link #TAMANHO_BLOCO} são usados nos testes, para
+     * que as linhas e os terminadores sejam divididos entre blocos.
+     */
+    static int ler(Path path, int tamanhoBloco, Consumer<RegistroCsv> consumidor, LongConsumer aoConcluir) throws IOException {
+        Descompactacao descompactacao = new Descompactacao(path, tamanhoBloco);
+        Thread thread = new Thread(descompactacao, "Descompactação " + path.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            return lerBlocos(descompactacao, consumidor, aoConcluir);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Leitura interrompida");
+        } catch (IOException e) {
+            log.warning("I/O error while reading :" + path + ". Details: " + e.getMessage());
+            throw new IOException("Falha ao processar o arquivo CSV: " + path.getFileName(), e);
+        } finally {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Recebe os blocos descompactados e entrega as linhas ao consumidor. Cada
+     * bloco é copiado após o trecho da última linha incompleta do bloco
+     * anterior, e apenas as linhas completas são lidas; o trecho restante
+     * passa para o próximo bloco.
+     */
+    private static int lerBlocos(Descompactacao descompactacao, Consumer<RegistroCsv> consumidor, LongConsumer aoConcluir) throws IOException, InterruptedException {
+        RegistroCsv registro = new RegistroCsv();
+        byte[] dados = new byte[2 * descompactacao.tamanhoBloco];
+        int qtdDados = 0;
+        int endereco = 0;
+        long qtdBytes = 0;
+
+        while (true) {
+            Bloco bloco = descompactacao.cheios.take();
+            if (bloco == Bloco.FIM) {
+                break;
+            }
+            if (qtdDados + bloco.tamanho > dados.length) {
+                dados = Arrays.copyOf(dados, Math.max(dados.length * 2, qtdDados + bloco.tamanho));
+            }
+            System.arraycopy(bloco.dados, 0, dados, qtdDados, bloco.tamanho);
+            qtdDados += bloco.tamanho;
+            qtdBytes += bloco.tamanho;
+            descompactacao.livres.put(bloco);
+
+            int fimLinhas = fimDaUltimaLinha(dados, qtdDados);
+            endereco = LeitorCsvMapeado.lerIntervalo(ByteBuffer.wrap(dados), 0, fimLinhas, endereco, registro, consumidor);
+            qtdDados -= fimLinhas;
+            System.arraycopy(dados, fimLinhas, dados, 0, qtdDados);
+        }
+
+        Throwable erro = descompactacao.erro;
+        if (erro instanceof IOException) {
+            throw (IOException) erro;
+        }
+        if (erro instanceof RuntimeException) {
+            throw (RuntimeException) erro;
+        }
+        if (erro instanceof Error) {
+            throw (Error) erro;
+        }
+        endereco = LeitorCsvMapeado.lerIntervalo(ByteBuffer.wrap(dados), 0, qtdDados, endereco, registro, consumidor);
+        aoConcluir.accept(qtdBytes);
+        return endereco;
+    }
+
+    /**
+     * Localiza o fim da última linha que certamente está completa: a posição
+     * seguinte ao último terminador de linha, exceto um {@code \r} no último
+     * byte, que pode ser seguido por um {@code \n} no próximo bloco.
+     *
+     * @return a posição seguinte ao terminador, ou 0 se não houver nenhum
+     */
+    static int fimDaUltimaLinha(byte[] dados, int fim) {
+        for (int i = fim - 1; i >= 0; i--) {
+            byte b = dados[i];
+            if (b == '\n' || (b == '\r' && i < fim - 1)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Bloco de bytes descompactados.
+     */
+    private static final class Bloco {
+
+        /**
+         * Marca o fim do arquivo ou um erro na descompactação.
+         */
+        private static final Bloco FIM = new Bloco(0);
+
+        private final byte[] dados;
+        private int tamanho;
+
+        private Bloco(int capacidade) {
+            this.dados = new byte[capacidade];
+        }
+    }
+
+    /**
+     * Descompacta o arquivo em blocos. Um erro de leitura, ou qualquer outra
+     * falha da descompactação, é guardado e lançado pelo leitor após o último
+     * bloco completo; o fim é sempre sinalizado, para que o leitor nunca fique
+     * aguardando um bloco que não virá.
+     */
+    private static final class Descompactacao implements Runnable {
+
+        private final Path path;
+        private final int tamanhoBloco;
+        private final BlockingQueue<Bloco> livres = new ArrayBlockingQueue<>(QTD_BLOCOS);
+        private final BlockingQueue<Bloco> cheios = new ArrayBlockingQueue<>(QTD_BLOCOS + 1);
+        private volatile Throwable erro;
+
+        private Descompactacao(Path path, int tamanhoBloco) {
+            this.path = path;
+            this.tamanhoBloco = tamanhoBloco;
+            for (int i = 0; i < QTD_BLOCOS; i++) {
+                livres.add(new Bloco(tamanhoBloco));
+            }
+        }
+
+        @Override
+        public void run() {
+            try (InputStream in = abrir(path)) {
+                while (true) {
+                    Bloco bloco = livres.take();
+                    int tamanho = 0;
+                    int lidos = 0;
+                    while (tamanho < bloco.dados.length && (lidos = in.read(bloco.dados, tamanho, bloco.dados.length - tamanho)) >= 0) {
+                        tamanho += lidos;
+                    }
+                    bloco.tamanho = tamanho;
+                    if (tamanho > 0) {
+                        cheios.put(bloco);
+                    }
+                    if (lidos < 0) {
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                // O leitor desistiu da leitura
+            } catch (IOException | RuntimeException | Error e) {
+                erro = e;
+            } finally {
+                // cabe sempre: a fila comporta todos os blocos mais o fim
+                cheios.offer(Bloco.FIM);
+            }
+        }
+    }
+}
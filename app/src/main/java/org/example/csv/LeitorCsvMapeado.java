@@ -0,0 +1,432 @@
+package org.example.csv;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import org.example.util.LoggerUtil;
+
+/**
+ * Leitor de arquivos CSV que mapeia o arquivo em memória e entrega cada linha
+ * como um {@link RegistroCsv} sobre os bytes mapeados.
+ *
+ * <p>
+ * O arquivo não é copiado para a memória da JVM nem decodificado: as linhas e
+ * os separadores de campos são localizados em uma única varredura dos bytes
+ * mapeados, e um único registro é reutilizado para todas as linhas. Arquivos
+ * maiores que a janela de mapeamento são mapeados em partes, sempre terminando
+ * em uma quebra de linha. Os terminadores de linha aceitos são os mesmos de
+ * {@link java.io.BufferedReader#readLine()}: {@code \n}, {@code \r} e
+ * {@code \r\n}.</p>
+ *
+ * @author luisg
+ */
+public final class LeitorCsvMapeado {
+
+    private static final Logger log = LoggerUtil.getLogger();
+
+    /**
+     * Tamanho máximo, em bytes, de cada parte do arquivo mapeada em memória.
+     */
+    static final int TAMANHO_JANELA = 1 << 30;
+    private static final int TAMANHO_BLOCO_FIM = 1 << 16;
+
+    private LeitorCsvMapeado() {
+    }
+
+    /**
+     * Lê um arquivo CSV linha a linha.
+     *
+     * @param path caminho do arquivo CSV
+     * @param consumidor recebe cada linha lida; o registro é reutilizado e só
+     * é válido durante a chamada
+     * @return a quantidade de linhas lidas
+     * @throws IOException se o arquivo não puder ser lido
+     */
+    public static int ler(Path path, Consumer<RegistroCsv> consumidor) throws IOException {
+        return ler(path, TAMANHO_JANELA, consumidor);
+    }
+
+    /**
+     * Lê um arquivo CSV linha a linha, mapeando-o em partes de no máximo
+     * {@code tamanhoMaximoJanela} bytes.
+     */
+    static int ler(Path path, int tamanhoMaximoJanela, Consumer<RegistroCsv> consumidor) throws IOException {
+        RegistroCsv registro = new RegistroCsv();
+        return lerJanelas(path, 0, Long.MAX_VALUE, 0, tamanhoMaximoJanela,
+                (janela, fimJanela, endereco) -> lerIntervalo(janela, 0, fimJanela, endereco, registro, consumidor));
+    }
+
+    /**
+     * Lê linha a linha o trecho {@code [inicio, fim)} de um arquivo CSV. O
+     * trecho deve começar no início de uma linha, e as linhas são numeradas a
+     * partir de {@code enderecoAnterior + 1}, de modo que a leitura de um
+     * arquivo pode continuar de onde uma leitura anterior parou.
+     *
+     * @param path caminho do arquivo CSV
+     * @param inicio posição do primeiro byte lido
+     * @param fim posição seguinte ao último byte lido; se maior que o
+     * tamanho do arquivo, o arquivo é lido até o fim
+     * @param enderecoAnterior número da linha que precede o trecho
+     * @param consumidor recebe cada linha lida; o registro é reutilizado e só
+     * é válido durante a chamada
+     * @return o número da última linha lida, ou {@code enderecoAnterior} se o
+     * trecho estiver vazio
+     * @throws IOException se o arquivo não puder ser lido
+     */
+    public static int ler(Path path, long inicio, long fim, int enderecoAnterior, Consumer<RegistroCsv> consumidor) throws IOException {
+        RegistroCsv registro = new RegistroCsv();
+        return lerJanelas(path, inicio, fim, enderecoAnterior, TAMANHO_JANELA,
+                (janela, fimJanela, endereco) -> lerIntervalo(janela, 0, fimJanela, endereco, registro, consumidor));
+    }
+
+    /**
+     * Lê um arquivo CSV dividindo-o em partes que são lidas em paralelo.
+     *
+     * <p>
+     * Cada parte termina em uma quebra de linha e recebe um estado próprio,
+     * criado por {@code criarParte}, que acumula as linhas da parte por meio
+     * de {@code consumidor}. As linhas de uma mesma parte são entregues em
+     * ordem e por uma única thread, e os números de linha
+     * ({@link RegistroCsv#getEndereco()}) são os mesmos de uma leitura
+     * sequencial. Partes menores que {@code tamanhoMinimoParte} bytes não são
+     * criadas; um arquivo pequeno é lido como uma única parte, na thread que
+     * chamou o método.</p>
+     *
+     * @param <T> tipo do estado de cada parte
+     * @param path caminho do arquivo CSV
+     * @param pool pool onde as partes são lidas
+     * @param tamanhoMinimoParte tamanho mínimo, em bytes, de cada parte
+     * @param criarParte cria o estado de uma parte
+     * @param consumidor recebe o estado da parte e cada uma de suas linhas
+     * @param partes recebe os estados das partes, na ordem em que aparecem no
+     * arquivo
+     * @return a quantidade de linhas lidas
+     * @throws IOException se o arquivo não puder ser lido
+     */
+    public static <T> int lerEmPartes(Path path, ForkJoinPool pool, int tamanhoMinimoParte, Supplier<T> criarParte, BiConsumer<T, RegistroCsv> consumidor, List<T> partes) throws IOException {
+        return lerEmPartes(path, 0, Long.MAX_VALUE, 0, pool, tamanhoMinimoParte, criarParte, consumidor, partes);
+    }
+
+    /**
+     * Lê o trecho {@code [inicioTrecho, fimTrecho)} de um arquivo CSV
+     * dividindo-o em partes lidas em paralelo, como em
+     * {@link #lerEmPartes(Path, ForkJoinPool, int, Supplier, BiConsumer, List)},
+     * numerando as linhas a partir de {@code enderecoTrecho + 1}. O trecho
+     * deve começar no início de uma linha; um trecho vazio não cria nenhuma
+     * parte.
+     *
+     * @param <T> tipo do estado de cada parte
+     * @param path caminho do arquivo CSV
+     * @param inicioTrecho posição do primeiro byte lido
+     * @param fimTrecho posição seguinte ao último byte lido; se maior que o
+     * tamanho do arquivo, o arquivo é lido até o fim
+     * @param enderecoTrecho número da linha que precede o trecho
+     * @param pool pool onde as partes são lidas
+     * @param tamanhoMinimoParte tamanho mínimo, em bytes, de cada parte
+     * @param criarParte cria o estado de uma parte
+     * @param consumidor recebe o estado da parte e cada uma de suas linhas
+     * @param partes recebe os estados das partes, na ordem em que aparecem no
+     * arquivo
+     * @return o número da última linha lida, ou {@code enderecoTrecho} se o
+     * trecho estiver vazio
+     * @throws IOException se o arquivo não puder ser lido
+     */
+    public static <T> int lerEmPartes(Path path, long inicioTrecho, long fimTrecho, int enderecoTrecho, ForkJoinPool pool, int tamanhoMinimoParte, Supplier<T> criarParte, BiConsumer<T, RegistroCsv> consumidor, List<T> partes) throws IOException {
+        return lerJanelas(path, inicioTrecho, fimTrecho, enderecoTrecho, TAMANHO_JANELA, (janela, fimJanela, endereco) -> {
+            int qtdPartes = Math.max(1, Math.min(pool.getParallelism() * 2, fimJanela / tamanhoMinimoParte));
+            int[] limites = dividirEmPartes(janela, 0, fimJanela, qtdPartes);
+
+            if (limites.length == 2) {
+                T parte = criarParte.get();
+                partes.add(parte);
+                return lerIntervalo(janela, 0, fimJanela, endereco, new RegistroCsv(), registro -> consumidor.accept(parte, registro));
+            }
+
+            List<Callable<Integer>> contagens = new ArrayList<>();
+            for (int k = 0; k + 1 < limites.length; k++) {
+                int inicio = limites[k];
+                int fim = limites[k + 1];
+                contagens.add(() -> contarLinhas(janela, inicio, fim));
+            }
+            List<Integer> qtdLinhas = executar(pool, contagens);
+
+            List<Callable<T>> leituras = new ArrayList<>();
+            int enderecoAnterior = endereco;
+            for (int k = 0; k + 1 < limites.length; k++) {
+                int inicio = limites[k];
+                int fim = limites[k + 1];
+                int enderecoParte = enderecoAnterior;
+                leituras.add(() -> {
+                    T parte = criarParte.get();
+                    lerIntervalo(janela.duplicate(), inicio, fim, enderecoParte, new RegistroCsv(), registro -> consumidor.accept(parte, registro));
+                    return parte;
+                });
+                enderecoAnterior += qtdLinhas.get(k);
+            }
+            partes.addAll(executar(pool, leituras));
+            return enderecoAnterior;
+        });
+    }
+
+    /**
+     * Localiza o fim da última linha completa do trecho {@code [inicio, fim)}
+     * de um arquivo, lendo-o de trás para frente: a posição seguinte à última
+     * quebra de linha ({@code \n}) do trecho. Usado para deixar de fora de
+     * uma leitura a linha que ainda está sendo gravada.
+     *
+     * @param path caminho do arquivo
+     * @param inicio início do trecho
+     * @param fim fim do trecho; se maior que o tamanho do arquivo, o trecho
+     * vai até o fim do arquivo
+     * @return a posição seguinte à última quebra de linha, ou {@code inicio}
+     * se o trecho não contém nenhuma
+     * @throws IOException se o arquivo não puder ser lido
+     */
+    public static long fimDaUltimaLinha(Path path, long inicio, long fim) throws IOException {
+        try (FileChannel canal = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer bloco = ByteBuffer.allocate(TAMANHO_BLOCO_FIM);
+            long fimBloco = Math.min(fim, canal.size());
+            while (fimBloco > inicio) {
+                long inicioBloco = Math.max(inicio, fimBloco - TAMANHO_BLOCO_FIM);
+                bloco.clear().limit((int) (fimBloco - inicioBloco));
+                while (bloco.hasRemaining()) {
+                    if (canal.read(bloco, inicioBloco + bloco.position()) < 0) {
+                        throw new IOException("Arquivo truncado durante a leitura: " + path.getFileName());
+                    }
+                }
+                int fimLinha = fimDaUltimaLinha(bloco, 0, bloco.limit());
+                if (fimLinha > 0) {
+                    return inicioBloco + fimLinha;
+                }
+                fimBloco = inicioBloco;
+            }
+            return inicio;
+        }
+    }
+
+    /**
+     * Mapeia o trecho {@code [inicio, fim)} do arquivo em janelas terminadas
+     * em quebra de linha e entrega cada janela, em ordem, ao processador.
+     *
+     * @param fim fim do trecho; se maior que o tamanho do arquivo, o trecho
+     * vai até o fim do arquivo
+     * @param enderecoAnterior número da linha que precede o trecho
+     * @return o número da última linha do trecho
+     */
+    private static int lerJanelas(Path path, long inicio, long fim, int enderecoAnterior, int tamanhoMaximoJanela, ProcessadorDeJanela processador) throws IOException {
+        try (FileChannel canal = FileChannel.open(path, StandardOpenOption.READ)) {
+            long tamanho = Math.min(fim, canal.size());
+            long posicao = inicio;
+            int endereco = enderecoAnterior;
+
+            while (posicao < tamanho) {
+                int tamanhoJanela = (int) Math.min(tamanho - posicao, tamanhoMaximoJanela);
+                MappedByteBuffer janela = canal.map(FileChannel.MapMode.READ_ONLY, posicao, tamanhoJanela);
+                int fimJanela = tamanhoJanela;
+                if (posicao + tamanhoJanela < tamanho) {
+                    fimJanela = fimDaJanela(janela, tamanhoJanela);
+                    if (fimJanela == 0) {
+                        throw new IOException("Linha maior que " + tamanhoMaximoJanela + " bytes na posição " + posicao);
+                    }
+                }
+                endereco = processador.processar(janela, fimJanela, endereco);
+                posicao += fimJanela;
+            }
+            return endereco;
+        } catch (IOException e) {
+            log.warning("I/O error while reading :" + path + ". Details: " + e.getMessage());
+            throw new IOException("Falha ao processar o arquivo CSV: " + path.getFileName(), e);
+        }
+    }
+
+    /**
+     * Lê as linhas contidas no intervalo {@code [inicio, fim)} de um buffer. O
+     * intervalo deve começar no início de uma linha.
+     *
+     * @param buffer bytes do arquivo
+     * @param inicio posição da primeira linha do intervalo
+     * @param fim posição seguinte ao último byte do intervalo
+     * @param enderecoAnterior número da linha que precede o intervalo no
+     * arquivo
+     * @param registro registro reutilizado para as linhas do intervalo
+     * @param consumidor recebe cada linha lida
+     * @return o número da última linha lida
+     */
+    public static int lerIntervalo(ByteBuffer buffer, int inicio, int fim, int enderecoAnterior, RegistroCsv registro, Consumer<RegistroCsv> consumidor) {
+        int endereco = enderecoAnterior;
+        int i = inicio;
+
+        while (i < fim) {
+            registro.iniciar(buffer, i, ++endereco);
+            byte b = 0;
+            while (i < fim) {
+                b = buffer.get(i);
+                if (b == '\n' || b == '\r') {
+                    break;
+                }
+                if (b == ';') {
+                    registro.adicionarSeparador(i);
+                }
+                i++;
+            }
+            registro.concluir(i);
+            consumidor.accept(registro);
+
+            if (b == '\r' && i + 1 < fim && buffer.get(i + 1) == '\n') {
+                i++;
+            }
+            i++;
+        }
+
+        return endereco;
+    }
+
+    /**
+     * Localiza o fim da última linha completa do intervalo
+     * {@code [inicio, fim)}, ou seja, a posição seguinte à última quebra de
+     * linha ({@code \n}) do intervalo.
+     *
+     * @return a posição seguinte à última quebra de linha, ou {@code inicio}
+     * se o intervalo não contém nenhuma
+     */
+    static int fimDaUltimaLinha(ByteBuffer buffer, int inicio, int fim) {
+        for (int i = fim - 1; i >= inicio; i--) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return inicio;
+    }
+
+    /**
+     * Localiza o fim da última linha que certamente está completa em uma
+     * janela seguida por outra: a posição seguinte ao último terminador de
+     * linha, exceto um {@code \r} no último byte, que pode ser seguido por
+     * um {@code \n} na próxima janela.
+     *
+     * @return a posição seguinte ao terminador, ou 0 se não houver nenhum
+     */
+    static int fimDaJanela(ByteBuffer janela, int fim) {
+        for (int i = fim - 1; i >= 0; i--) {
+            byte b = janela.get(i);
+            if (b == '\n' || (b == '\r' && i < fim - 1)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Divide o intervalo {@code [inicio, fim)} em até {@code qtdPartes} partes,
+     * cada uma terminando em uma quebra de linha ({@code \n}) ou no fim do
+     * intervalo.
+     *
+     * @return os limites das partes: a parte {@code k} ocupa
+     * {@code [limites[k], limites[k + 1])}
+     */
+    static int[] dividirEmPartes(ByteBuffer buffer, int inicio, int fim, int qtdPartes) {
+        int[] limites = new int[qtdPartes + 1];
+        int qtdLimites = 0;
+        limites[qtdLimites++] = inicio;
+
+        for (int k = 1; k < qtdPartes; k++) {
+            int nominal = (int) (inicio + (long) (fim - inicio) * k / qtdPartes);
+            int limite = Math.max(nominal, limites[qtdLimites - 1]);
+            while (limite < fim && buffer.get(limite) != '\n') {
+                limite++;
+            }
+            if (limite >= fim) {
+                break;
+            }
+            limite++;
+            if (limite > limites[qtdLimites - 1] && limite < fim) {
+                limites[qtdLimites++] = limite;
+            }
+        }
+
+        limites[qtdLimites++] = fim;
+        return Arrays.copyOf(limites, qtdLimites);
+    }
+
+    /**
+     * Conta as linhas do intervalo {@code [inicio, fim)} com a mesma regra de
+     * {@link #lerIntervalo}, sem criar registros.
+     */
+    static int contarLinhas(ByteBuffer buffer, int inicio, int fim) {
+        int linhas = 0;
+        for (int i = inicio; i < fim; i++) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                linhas++;
+            } else if (b == '\r') {
+                linhas++;
+                if (i + 1 < fim && buffer.get(i + 1) == '\n') {
+                    i++;
+                }
+            }
+        }
+        if (fim > inicio) {
+            byte ultimo = buffer.get(fim - 1);
+            if (ultimo != '\n' && ultimo != '\r') {
+                linhas++;
+            }
+        }
+        return linhas;
+    }
+
+    /**
+     * Executa as tarefas no pool e retorna seus resultados na ordem das
+     * tarefas.
+     */
+    private static <T> List<T> executar(ForkJoinPool pool, List<Callable<T>> tarefas) throws IOException {
+        List<T> resultados = new ArrayList<>(tarefas.size());
+        try {
+            for (Future<T> futuro : pool.invokeAll(tarefas)) {
+                resultados.add(futuro.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Leitura interrompida");
+        } catch (ExecutionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof RuntimeException) {
+                throw (RuntimeException) causa;
+            }
+            if (causa instanceof Error) {
+                throw (Error) causa;
+            }
+            throw new IOException(causa);
+        }
+        return resultados;
+    }
+
+    /**
+     * Processa uma janela mapeada do arquivo.
+     */
+    private interface ProcessadorDeJanela {
+
+        /**
+         * @param janela bytes da janela
+         * @param fimJanela posição seguinte à última linha completa da janela
+         * @param enderecoAnterior número da linha que precede a janela
+         * @return o número da última linha da janela
+         */
+        int processar(ByteBuffer janela, int fimJanela, int enderecoAnterior) throws IOException;
+    }
+}
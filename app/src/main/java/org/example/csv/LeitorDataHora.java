@@ -0,0 +1,197 @@
+package org.example.csv;
+
+/**
+ * Leitura das datas e horários de formato fixo exportados pelo SAGITARIO.
+ *
+ * <p>
+ * Os valores são lidos diretamente do trecho do conteúdo da linha que
+ * corresponde ao campo, sem criar {@code String}, {@code LocalDate} ou
+ * {@code LocalTime}, e o resultado é um valor primitivo: segundo ou minuto do
+ * dia e dia ou segundo desde a época (1970-01-01). Um valor malformado, ou uma
+ * data que não existe no calendário, não lança exceção: o método retorna
+ * {@link #INVALIDO} ou {@link #DIA_INVALIDO} para que a verificação o registre
+ * no relatório.</p>
+ *
+ * <p>
+ * Formatos aceitos:</p>
+ * <ul>
+ * <li>horário: {@code HH:MM:SS}, de 00:00:00 a 23:59:59;</li>
+ * <li>data: {@code dd/MM/yyyy} ou {@code yyyy-MM-dd};</li>
+ * <li>timestamp: {@code yyyy-MM-ddHH:MM:SS}.</li>
+ * </ul>
+ *
+ * @author luisg
+ */
+public final class LeitorDataHora {
+
+    /**
+     * Resultado de um horário malformado.
+     */
+    public static final int INVALIDO = -1;
+    /**
+     * Resultado de uma data ou timestamp malformado.
+     */
+    public static final long DIA_INVALIDO = Long.MIN_VALUE;
+
+    private static final int SEGUNDOS_DIA = 24 * 60 * 60;
+    private static final int DIAS_CICLO_400_ANOS = 146097;
+    private static final long DIAS_0000_A_1970 = (DIAS_CICLO_400_ANOS * 5L) - (30L * 365L + 7L);
+
+    private LeitorDataHora() {
+    }
+
+    /**
+     * Lê um horário no formato {@code HH:MM:SS}.
+     *
+     * @param s conteúdo que contém o horário
+     * @param inicio posição do primeiro caractere do horário
+     * @param fim posição seguinte ao último caractere do horário
+     * @return o segundo do dia, de 0 a 86399, ou {@link #INVALIDO}
+     */
+    public static int segundoDoDia(CharSequence s, int inicio, int fim) {
+        if (fim - inicio != 8 || s.charAt(inicio + 2) != ':' || s.charAt(inicio + 5) != ':') {
+            return INVALIDO;
+        }
+        int hora = doisDigitos(s, inicio);
+        int minuto = doisDigitos(s, inicio + 3);
+        int segundo = doisDigitos(s, inicio + 6);
+        if (hora < 0 || hora > 23 || minuto < 0 || minuto > 59 || segundo < 0 || segundo > 59) {
+            return INVALIDO;
+        }
+        return hora * 3600 + minuto * 60 + segundo;
+    }
+
+    /**
+     * Lê um horário no formato {@code HH:MM:SS} e descarta os segundos.
+     *
+     * @param s conteúdo que contém o horário
+     * @param inicio posição do primeiro caractere do horário
+     * @param fim posição seguinte ao último caractere do horário
+     * @return o minuto do dia, de 0 a 1439, ou {@link #INVALIDO}
+     */
+    public static int minutoDoDia(CharSequence s, int inicio, int fim) {
+        int segundo = segundoDoDia(s, inicio, fim);
+        return segundo == INVALIDO ? INVALIDO : segundo / 60;
+    }
+
+    /**
+     * Lê uma data no formato {@code dd/MM/yyyy}, usado nas planilhas config e
+     * sect_config.
+     *
+     * @param s conteúdo que contém a data
+     * @param inicio posição do primeiro caractere da data
+     * @param fim posição seguinte ao último caractere da data
+     * @return o dia desde a época, ou {@link #DIA_INVALIDO}
+     */
+    public static long diaEpochDiaMesAno(CharSequence s, int inicio, int fim) {
+        if (fim - inicio != 10 || s.charAt(inicio + 2) != '/' || s.charAt(inicio + 5) != '/') {
+            return DIA_INVALIDO;
+        }
+        return diaEpoch(quatroDigitos(s, inicio + 6), doisDigitos(s, inicio + 3), doisDigitos(s, inicio));
+    }
+
+    /**
+     * Lê uma data no formato {@code yyyy-MM-dd}, usado no timestamp da
+     * planilha flights.
+     *
+     * @param s conteúdo que contém a data
+     * @param inicio posição do primeiro caractere da data
+     * @param fim posição seguinte ao último caractere da data
+     * @return o dia desde a época, ou {@link #DIA_INVALIDO}
+     */
+    public static long diaEpochAnoMesDia(CharSequence s, int inicio, int fim) {
+        if (fim - inicio != 10 || s.charAt(inicio + 4) != '-' || s.charAt(inicio + 7) != '-') {
+            return DIA_INVALIDO;
+        }
+        return diaEpoch(quatroDigitos(s, inicio), doisDigitos(s, inicio + 5), doisDigitos(s, inicio + 8));
+    }
+
+    /**
+     * Lê um timestamp no formato {@code yyyy-MM-ddHH:MM:SS}, sem separador
+     * entre a data e o horário, como exportado na planilha flights.
+     *
+     * @param s conteúdo que contém o timestamp
+     * @param inicio posição do primeiro caractere do timestamp
+     * @param fim posição seguinte ao último caractere do timestamp
+     * @return o segundo desde a época, ou {@link #DIA_INVALIDO}
+     */
+    public static long segundoEpoch(CharSequence s, int inicio, int fim) {
+        if (fim - inicio != 18) {
+            return DIA_INVALIDO;
+        }
+        long dia = diaEpochAnoMesDia(s, inicio, inicio + 10);
+        int segundo = segundoDoDia(s, inicio + 10, fim);
+        if (dia == DIA_INVALIDO || segundo == INVALIDO) {
+            return DIA_INVALIDO;
+        }
+        return dia * SEGUNDOS_DIA + segundo;
+    }
+
+    /**
+     * Converte ano, mês e dia em dia desde a época, com o mesmo cálculo de
+     * {@code LocalDate.toEpochDay()}.
+     *
+     * @return o dia desde a época, ou {@link #DIA_INVALIDO} se a data não
+     * existir
+     */
+    static long diaEpoch(int ano, int mes, int dia) {
+        if (ano < 0 || mes < 1 || mes > 12 || dia < 1 || dia > diasDoMes(ano, mes)) {
+            return DIA_INVALIDO;
+        }
+        long total = 365L * ano;
+        total += (ano + 3) / 4 - (ano + 99) / 100 + (ano + 399) / 400;
+        total += (367 * mes - 362) / 12;
+        total += dia - 1;
+        if (mes > 2) {
+            total--;
+            if (!bissexto(ano)) {
+                total--;
+            }
+        }
+        return total - DIAS_0000_A_1970;
+    }
+
+    private static int diasDoMes(int ano, int mes) {
+        switch (mes) {
+            case 2:
+                return bissexto(ano) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    private static boolean bissexto(int ano) {
+        return (ano & 3) == 0 && (ano % 100 != 0 || ano % 400 == 0);
+    }
+
+    /**
+     * @return o valor dos dois dígitos a partir de {@code i}, ou um valor
+     * negativo se algum dos caracteres não for um dígito
+     */
+    private static int doisDigitos(CharSequence s, int i) {
+        int d1 = s.charAt(i) - '0';
+        int d2 = s.charAt(i + 1) - '0';
+        if (d1 < 0 || d1 > 9 || d2 < 0 || d2 > 9) {
+            return -1;
+        }
+        return d1 * 10 + d2;
+    }
+
+    /**
+     * @return o valor dos quatro dígitos a partir de {@code i}, ou um valor
+     * negativo se algum dos caracteres não for um dígito
+     */
+    private static int quatroDigitos(CharSequence s, int i) {
+        int alto = doisDigitos(s, i);
+        int baixo = doisDigitos(s, i + 2);
+        if (alto < 0 || baixo < 0) {
+            return -1;
+        }
+        return alto * 100 + baixo;
+    }
+}
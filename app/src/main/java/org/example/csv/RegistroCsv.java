@@ -0,0 +1,260 @@
+package org.example.csv;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.example.model.Linha;
+
+/**
+ * Visão de uma linha de um arquivo CSV sobre os bytes lidos do arquivo.
+ *
+ * <p>
+ * O registro não copia o conteúdo da linha: ele guarda apenas o intervalo da
+ * linha no buffer e a posição de cada separador (;) encontrado durante a
+ * leitura. A mesma instância é reutilizada pelo leitor para todas as linhas do
+ * arquivo, portanto um registro só é válido durante a chamada que o recebe;
+ * para guardar a linha use {@link #toLinha()}. Os campos só se tornam
+ * {@code String} quando solicitados, tipicamente ao escrever um relatório.</p>
+ *
+ * <p>
+ * Como {@link CharSequence}, o registro expõe os bytes da linha como
+ * caracteres ASCII. Bytes fora da faixa ASCII aparecem como {@code U+FFFD};
+ * {@link #getConteudo()} e {@link #subSequence(int, int)} decodificam o
+ * conteúdo com {@link Csv#CHARSET}.</p>
+ *
+ * @author luisg
+ */
+public final class RegistroCsv implements CharSequence {
+
+    private static final char NAO_ASCII = '\uFFFD';
+
+    private ByteBuffer buffer;
+    private int inicio;
+    private int fim;
+    private int endereco;
+    private int[] separadores = new int[32];
+    private int qtdSeparadores;
+    private int qtdCampos;
+
+    /**
+     * Posiciona o registro no início de uma nova linha.
+     */
+    void iniciar(ByteBuffer buffer, int inicio, int endereco) {
+        this.buffer = buffer;
+        this.inicio = inicio;
+        this.endereco = endereco;
+        this.qtdSeparadores = 0;
+    }
+
+    /**
+     * Registra um separador na posição absoluta {@code posicao} do buffer.
+     */
+    void adicionarSeparador(int posicao) {
+        if (qtdSeparadores == separadores.length) {
+            separadores = Arrays.copyOf(separadores, separadores.length * 2);
+        }
+        separadores[qtdSeparadores++] = posicao;
+    }
+
+    /**
+     * Encerra a linha na posição absoluta {@code fim} do buffer, excluindo o
+     * terminador de linha, e calcula a quantidade de campos.
+     */
+    void concluir(int fim) {
+        this.fim = fim;
+        if (fim == inicio) {
+            qtdCampos = 1;
+            return;
+        }
+        int qtd = qtdSeparadores + 1;
+        while (qtd > 0 && fimAbsoluto(qtd - 1) == inicioAbsoluto(qtd - 1)) {
+            qtd--;
+        }
+        qtdCampos = qtd;
+    }
+
+    /**
+     * Obtém o número da linha no arquivo, a partir de 1.
+     *
+     * @return o número de endereço da linha
+     */
+    public int getEndereco() {
+        return endereco;
+    }
+
+    /**
+     * Obtém a quantidade de campos da linha com a mesma semântica de
+     * {@code String.split(";")}: campos vazios no final da linha são
+     * desconsiderados e uma linha vazia possui um campo.
+     *
+     * @return a quantidade de campos da linha
+     */
+    public int getQtdCampos() {
+        return qtdCampos;
+    }
+
+    /**
+     * @param campo índice do campo, a partir de 0
+     * @return índice, nesta sequência de caracteres, do primeiro caractere do
+     * campo
+     */
+    public int inicioCampo(int campo) {
+        return inicioAbsoluto(campo) - inicio;
+    }
+
+    /**
+     * @param campo índice do campo, a partir de 0
+     * @return índice, nesta sequência de caracteres, seguinte ao último
+     * caractere do campo
+     */
+    public int fimCampo(int campo) {
+        return fimAbsoluto(campo) - inicio;
+    }
+
+    /**
+     * @param campo índice do campo, a partir de 0
+     * @return true se o campo não possui nenhum caractere
+     */
+    public boolean campoVazio(int campo) {
+        return inicioAbsoluto(campo) == fimAbsoluto(campo);
+    }
+
+    /**
+     * Verifica se algum dos campos da linha está vazio.
+     *
+     * @return true se a linha contiver um campo vazio
+     */
+    public boolean temCampoVazio() {
+        for (int i = 0; i < qtdCampos; i++) {
+            if (campoVazio(i)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Obtém o conteúdo de um campo. Cria uma nova {@code String}.
+     *
+     * @param campo índice do campo, a partir de 0
+     * @return o conteúdo do campo
+     */
+    public String getCampo(int campo) {
+        return texto(inicioAbsoluto(campo), fimAbsoluto(campo));
+    }
+
+    /**
+     * Obtém o conteúdo da linha, sem o terminador. Cria uma nova
+     * {@code String}.
+     *
+     * @return o conteúdo da linha
+     */
+    public String getConteudo() {
+        return texto(inicio, fim);
+    }
+
+    /**
+     * Copia os bytes da linha, sem o terminador, para um vetor. Permite
+     * guardar muitas linhas em um único vetor sem criar uma {@code String}
+     * para cada uma.
+     *
+     * @param destino vetor que recebe os bytes; deve ter espaço para
+     * {@link #length()} bytes a partir de {@code posicao}
+     * @param posicao posição, no destino, do primeiro byte copiado
+     */
+    public void copiarConteudo(byte[] destino, int posicao) {
+        for (int i = inicio; i < fim; i++) {
+            destino[posicao++] = buffer.get(i);
+        }
+    }
+
+    /**
+     * Compara o conteúdo da linha com um texto sem criar objetos quando o
+     * texto é ASCII.
+     *
+     * @param texto o texto a ser comparado
+     * @return true se o conteúdo da linha é igual ao texto
+     */
+    public boolean conteudoIgual(String texto) {
+        int tamanho = texto.length();
+        int qtdBytes = length();
+        for (int i = 0; i < tamanho; i++) {
+            char c = texto.charAt(i);
+            if (c > 0x7F) {
+                return getConteudo().equals(texto);
+            }
+            // Com o prefixo ASCII igual, um byte diferente já torna o texto decodificado diferente
+            if (i == qtdBytes || buffer.get(inicio + i) != c) {
+                return false;
+            }
+        }
+        return tamanho == qtdBytes;
+    }
+
+    /**
+     * Cria uma cópia da linha que permanece válida após a leitura avançar.
+     *
+     * @return a linha com seu endereço e conteúdo
+     */
+    public Linha toLinha() {
+        return new Linha(endereco, getConteudo());
+    }
+
+    /**
+     * Obtém um byte da linha sem convertê-lo em caractere.
+     *
+     * @param index índice do byte, de 0 a {@link #length()} - 1
+     * @return o byte na posição informada
+     */
+    public byte byteAt(int index) {
+        return buffer.get(inicio + index);
+    }
+
+    /**
+     * Obtém oito bytes consecutivos da linha em um único {@code long}, o
+     * primeiro deles no byte mais significativo.
+     *
+     * @param index índice do primeiro byte, de 0 a {@link #length()} - 8
+     * @return os bytes a partir da posição informada
+     */
+    public long longAt(int index) {
+        return buffer.getLong(inicio + index);
+    }
+
+    @Override
+    public int length() {
+        return fim - inicio;
+    }
+
+    @Override
+    public char charAt(int index) {
+        byte b = buffer.get(inicio + index);
+        return b >= 0 ? (char) b : NAO_ASCII;
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return texto(inicio + start, inicio + end);
+    }
+
+    @Override
+    public String toString() {
+        return getConteudo();
+    }
+
+    private int inicioAbsoluto(int campo) {
+        return campo == 0 ? inicio : separadores[campo - 1] + 1;
+    }
+
+    private int fimAbsoluto(int campo) {
+        return campo < qtdSeparadores ? separadores[campo] : fim;
+    }
+
+    private String texto(int de, int ate) {
+        byte[] bytes = new byte[ate - de];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(de + i);
+        }
+        return new String(bytes, Csv.CHARSET);
+    }
+}
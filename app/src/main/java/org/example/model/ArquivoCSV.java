@@ -1,15 +1,16 @@
 package org.example.model;
 
 import java.nio.file.Path;
+import org.example.csv.LeitorCsvCompactado;
 import org.example.service.PlanilhaConfig;
 import org.example.service.PlanilhaFlights;
 import org.example.service.PlanilhaSectConfig;
 
 public class ArquivoCSV {
-    
+
     private final Path path;
     private final TipoArquivo tipo;
-    private StatusArquivo status;
+    private volatile StatusArquivo status;
     
     
     public ArquivoCSV(Path path){
@@ -31,14 +32,15 @@ public class ArquivoCSV {
         return status;
     }
     
-    // setter
+    // setter - pode ser chamado pelas threads de validação enquanto a tabela é lida na EDT
     public void setStatus(StatusArquivo status) {
         this.status = status;
     }
     
     // Métodos privados auxiliares
+    // Arquivos .csv.gz e entradas de arquivos zip são identificados pelo nome do CSV que contêm
     private TipoArquivo identificarTipo(Path path){
-        String nome = path.getFileName().toString();
+        String nome = LeitorCsvCompactado.getNomeCsv(path);
         if (nome.endsWith(PlanilhaFlights.SUFIXO)) return TipoArquivo.FLIGHTS;
         if (nome.endsWith(PlanilhaSectConfig.SUFIXO)) return TipoArquivo.SECT_CONFIG;
         if (nome.endsWith(PlanilhaConfig.SUFIXO))return TipoArquivo.CONFIG;
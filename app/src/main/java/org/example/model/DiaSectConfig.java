@@ -0,0 +1,420 @@
+package org.example.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.example.csv.LeitorDataHora;
+import org.example.csv.RegistroCsv;
+
+/**
+ * Representação em colunas de um dia de uma planilha sect_config.
+ *
+ * <p>
+ * Cada coluna da planilha é guardada em um vetor primitivo, com uma posição
+ * por linha: semana, dia, minuto do dia e as quantidades e movimentos como
+ * inteiros; os códigos de CTR, ASS e setor como ordinais de um byte; e o
+ * config_id e o SECT_CONFIG como ordinais de dicionários, já que um dia tem
+ * poucos valores distintos dessas colunas. O conteúdo das linhas não é
+ * guardado: ele é reconstruído a partir das colunas quando uma linha precisa
+ * ser exibida. As poucas linhas que não podem ser reconstruídas exatamente,
+ * como as que têm horário malformado ou números com zeros à esquerda, são
+ * guardadas também como texto.</p>
+ *
+ * <p>
+ * Os ordinais de setor menores que a quantidade de setores informada na
+ * criação correspondem à posição do setor nessa lista.</p>
+ *
+ * @author luisg
+ */
+public final class DiaSectConfig {
+
+    public static final int SEMANA = 0;
+    public static final int DIA = 1;
+    public static final int HORARIO = 2;
+    public static final int CONFIG_ID = 3;
+    public static final int CTR = 4;
+    public static final int ASS = 5;
+    public static final int SETOR = 6;
+    public static final int QTD_CTR = 7;
+    public static final int QTD_ASS = 8;
+    public static final int MOV_ATCO = 9;
+    public static final int MOV_SET = 10;
+    public static final int SECT_CONFIG = 11;
+    /**
+     * Quantidade de colunas de uma linha.
+     */
+    public static final int QTD_COLUNAS = 12;
+
+    /**
+     * Valor de uma coluna numérica que não contém um inteiro não negativo sem
+     * zeros à esquerda.
+     */
+    public static final int NUMERO_INVALIDO = -1;
+    /**
+     * Valor da coluna dia quando a data está malformada.
+     */
+    public static final int DIA_INVALIDO = Integer.MIN_VALUE;
+    /**
+     * Valor da coluna minuto quando o horário está malformado.
+     */
+    public static final int MINUTO_INVALIDO = LeitorDataHora.INVALIDO;
+
+    private static final int CAPACIDADE_INICIAL = 1024;
+    private static final int CAPACIDADE_CODIGOS = 255;
+    private static final int CAPACIDADE_DICIONARIOS = Short.MAX_VALUE;
+    private static final int MAXIMO_DIGITOS = 9;
+
+    private final Dicionario configIds = new Dicionario(CAPACIDADE_DICIONARIOS);
+    private final Dicionario sectConfigs = new Dicionario(CAPACIDADE_DICIONARIOS);
+    private final Dicionario ctrs = new Dicionario(CAPACIDADE_CODIGOS);
+    private final Dicionario asss = new Dicionario(CAPACIDADE_CODIGOS);
+    private final Dicionario setores = new Dicionario(CAPACIDADE_CODIGOS);
+
+    private int qtdLinhas;
+    private int[] enderecos = new int[CAPACIDADE_INICIAL];
+    private int[] semanas = new int[CAPACIDADE_INICIAL];
+    private int[] dias = new int[CAPACIDADE_INICIAL];
+    private short[] minutos = new short[CAPACIDADE_INICIAL];
+    private short[] colunaConfigId = new short[CAPACIDADE_INICIAL];
+    private byte[] colunaCtr = new byte[CAPACIDADE_INICIAL];
+    private byte[] colunaAss = new byte[CAPACIDADE_INICIAL];
+    private byte[] colunaSetor = new byte[CAPACIDADE_INICIAL];
+    private int[] qtdsCtr = new int[CAPACIDADE_INICIAL];
+    private int[] qtdsAss = new int[CAPACIDADE_INICIAL];
+    private int[] movsAtco = new int[CAPACIDADE_INICIAL];
+    private int[] movsSet = new int[CAPACIDADE_INICIAL];
+    private short[] colunaSectConfig = new short[CAPACIDADE_INICIAL];
+    /**
+     * Conteúdo das linhas que não podem ser reconstruídas a partir das
+     * colunas, pelo índice da linha.
+     */
+    private final Map<Integer, String> linhasOriginais = new HashMap<>();
+
+    /**
+     * Cria um dia vazio.
+     *
+     * @param setoresConhecidos códigos dos setores, sem aspas, cujos ordinais
+     * devem corresponder à sua posição na lista
+     */
+    public DiaSectConfig(String[] setoresConhecidos) {
+        for (String setor : setoresConhecidos) {
+            setores.ordinal('"' + setor + '"');
+        }
+    }
+
+    /**
+     * Acrescenta uma linha ao dia. A linha deve ter {@value #QTD_COLUNAS}
+     * campos.
+     *
+     * @param registro a linha lida do arquivo
+     */
+    public void adicionar(RegistroCsv registro) {
+        if (qtdLinhas == enderecos.length) {
+            aumentarCapacidade();
+        }
+        int linha = qtdLinhas++;
+        boolean reconstruivel = registro.getQtdCampos() == QTD_COLUNAS
+                && registro.fimCampo(QTD_COLUNAS - 1) == registro.length();
+
+        enderecos[linha] = registro.getEndereco();
+        semanas[linha] = numero(registro, SEMANA);
+
+        long dia = LeitorDataHora.diaEpochDiaMesAno(registro, registro.inicioCampo(DIA), registro.fimCampo(DIA));
+        dias[linha] = dia == LeitorDataHora.DIA_INVALIDO ? DIA_INVALIDO : (int) dia;
+        int segundo = LeitorDataHora.segundoDoDia(registro, registro.inicioCampo(HORARIO), registro.fimCampo(HORARIO));
+        minutos[linha] = (short) (segundo == LeitorDataHora.INVALIDO ? MINUTO_INVALIDO : segundo / 60);
+        reconstruivel &= dias[linha] != DIA_INVALIDO && segundo != LeitorDataHora.INVALIDO && segundo % 60 == 0;
+
+        colunaConfigId[linha] = (short) configIds.ordinal(registro, CONFIG_ID);
+        colunaCtr[linha] = (byte) ctrs.ordinal(registro, CTR);
+        colunaAss[linha] = (byte) asss.ordinal(registro, ASS);
+        colunaSetor[linha] = (byte) setores.ordinal(registro, SETOR);
+        colunaSectConfig[linha] = (short) sectConfigs.ordinal(registro, SECT_CONFIG);
+        reconstruivel &= colunaConfigId[linha] != Dicionario.AUSENTE
+                && colunaCtr[linha] != Dicionario.AUSENTE
+                && colunaAss[linha] != Dicionario.AUSENTE
+                && colunaSetor[linha] != Dicionario.AUSENTE
+                && colunaSectConfig[linha] != Dicionario.AUSENTE;
+
+        qtdsCtr[linha] = numero(registro, QTD_CTR);
+        qtdsAss[linha] = numero(registro, QTD_ASS);
+        movsAtco[linha] = numero(registro, MOV_ATCO);
+        movsSet[linha] = numero(registro, MOV_SET);
+        reconstruivel &= semanas[linha] != NUMERO_INVALIDO
+                && qtdsCtr[linha] != NUMERO_INVALIDO
+                && qtdsAss[linha] != NUMERO_INVALIDO
+                && movsAtco[linha] != NUMERO_INVALIDO
+                && movsSet[linha] != NUMERO_INVALIDO;
+
+        if (!reconstruivel) {
+            linhasOriginais.put(linha, registro.getConteudo());
+        }
+    }
+
+    /**
+     * @return a quantidade de linhas do dia
+     */
+    public int getQtdLinhas() {
+        return qtdLinhas;
+    }
+
+    /**
+     * @param linha índice da linha no dia, a partir de 0
+     * @return o número da linha no arquivo
+     */
+    public int getEndereco(int linha) {
+        return enderecos[linha];
+    }
+
+    public int getSemana(int linha) {
+        return semanas[linha];
+    }
+
+    /**
+     * @param linha índice da linha no dia, a partir de 0
+     * @return o dia desde a época (1970-01-01), ou {@link #DIA_INVALIDO}
+     */
+    public int getDia(int linha) {
+        return dias[linha];
+    }
+
+    /**
+     * @param linha índice da linha no dia, a partir de 0
+     * @return o minuto do dia, de 0 a 1439, ou {@link #MINUTO_INVALIDO}
+     */
+    public int getMinuto(int linha) {
+        return minutos[linha];
+    }
+
+    /**
+     * @param linha índice da linha no dia, a partir de 0
+     * @return o ordinal do config_id no dicionário {@link #getConfigIds()},
+     * ou {@link Dicionario#AUSENTE}
+     */
+    public int getConfigId(int linha) {
+        return colunaConfigId[linha];
+    }
+
+    public int getCtr(int linha) {
+        return ordinalCodigo(colunaCtr[linha]);
+    }
+
+    public int getAss(int linha) {
+        return ordinalCodigo(colunaAss[linha]);
+    }
+
+    /**
+     * @param linha índice da linha no dia, a partir de 0
+     * @return o ordinal do setor; ordinais menores que a quantidade de setores
+     * conhecidos correspondem à posição do setor na lista informada na
+     * criação do dia
+     */
+    public int getSetor(int linha) {
+        return ordinalCodigo(colunaSetor[linha]);
+    }
+
+    public int getQtdCtr(int linha) {
+        return qtdsCtr[linha];
+    }
+
+    public int getQtdAss(int linha) {
+        return qtdsAss[linha];
+    }
+
+    public int getMovAtco(int linha) {
+        return movsAtco[linha];
+    }
+
+    public int getMovSet(int linha) {
+        return movsSet[linha];
+    }
+
+    public int getSectConfig(int linha) {
+        return colunaSectConfig[linha];
+    }
+
+    public Dicionario getConfigIds() {
+        return configIds;
+    }
+
+    public Dicionario getCtrs() {
+        return ctrs;
+    }
+
+    public Dicionario getAsss() {
+        return asss;
+    }
+
+    public Dicionario getSetores() {
+        return setores;
+    }
+
+    public Dicionario getSectConfigs() {
+        return sectConfigs;
+    }
+
+    /**
+     * @param linha índice da linha no dia, a partir de 0
+     * @return true se o conteúdo da linha não pôde ser representado apenas
+     * pelas colunas, por conter algum valor malformado
+     */
+    public boolean isOriginal(int linha) {
+        return linhasOriginais.containsKey(linha);
+    }
+
+    /**
+     * Obtém o texto de um campo da linha, exatamente como no arquivo.
+     *
+     * @param linha índice da linha no dia, a partir de 0
+     * @param coluna índice da coluna, de 0 a {@value #QTD_COLUNAS} - 1
+     * @return o texto do campo
+     */
+    public String getCampo(int linha, int coluna) {
+        String original = linhasOriginais.get(linha);
+        if (original != null) {
+            return campoOriginal(original, coluna);
+        }
+        switch (coluna) {
+            case SEMANA:
+                return Integer.toString(semanas[linha]);
+            case DIA:
+                LocalDate data = LocalDate.ofEpochDay(dias[linha]);
+                // A data foi lida com quatro dígitos no ano
+                char[] texto = new char[10];
+                doisDigitos(texto, 0, data.getDayOfMonth());
+                texto[2] = '/';
+                doisDigitos(texto, 3, data.getMonthValue());
+                texto[5] = '/';
+                doisDigitos(texto, 6, data.getYear() / 100);
+                doisDigitos(texto, 8, data.getYear() % 100);
+                return new String(texto);
+            case HORARIO:
+                char[] horario = {0, 0, ':', 0, 0, ':', '0', '0'};
+                doisDigitos(horario, 0, minutos[linha] / 60);
+                doisDigitos(horario, 3, minutos[linha] % 60);
+                return new String(horario);
+            case CONFIG_ID:
+                return configIds.getTexto(colunaConfigId[linha]);
+            case CTR:
+                return ctrs.getTexto(getCtr(linha));
+            case ASS:
+                return asss.getTexto(getAss(linha));
+            case SETOR:
+                return setores.getTexto(getSetor(linha));
+            case QTD_CTR:
+                return Integer.toString(qtdsCtr[linha]);
+            case QTD_ASS:
+                return Integer.toString(qtdsAss[linha]);
+            case MOV_ATCO:
+                return Integer.toString(movsAtco[linha]);
+            case MOV_SET:
+                return Integer.toString(movsSet[linha]);
+            case SECT_CONFIG:
+                return sectConfigs.getTexto(colunaSectConfig[linha]);
+            default:
+                throw new IndexOutOfBoundsException("Coluna inexistente: " + coluna);
+        }
+    }
+
+    /**
+     * Obtém o conteúdo da linha, exatamente como no arquivo.
+     *
+     * @param linha índice da linha no dia, a partir de 0
+     * @return o conteúdo da linha, sem o terminador
+     */
+    public String getConteudo(int linha) {
+        String original = linhasOriginais.get(linha);
+        if (original != null) {
+            return original;
+        }
+        StringBuilder conteudo = new StringBuilder(160);
+        for (int coluna = 0; coluna < QTD_COLUNAS; coluna++) {
+            if (coluna > 0) {
+                conteudo.append(';');
+            }
+            conteudo.append(getCampo(linha, coluna));
+        }
+        return conteudo.toString();
+    }
+
+    /**
+     * Cria uma cópia da linha com seu endereço e conteúdo.
+     *
+     * @param linha índice da linha no dia, a partir de 0
+     * @return a linha
+     */
+    public Linha getLinha(int linha) {
+        return new Linha(enderecos[linha], getConteudo(linha));
+    }
+
+    /**
+     * Obtém um campo do conteúdo de uma linha guardada como texto, da mesma
+     * forma que {@code original.split(";", -1)}, sem dividir a linha inteira.
+     */
+    private static String campoOriginal(String original, int coluna) {
+        int inicio = 0;
+        for (int i = 0; i < coluna; i++) {
+            inicio = original.indexOf(';', inicio) + 1;
+            if (inicio == 0) {
+                return "";
+            }
+        }
+        int fim = original.indexOf(';', inicio);
+        return original.substring(inicio, fim < 0 ? original.length() : fim);
+    }
+
+    private static void doisDigitos(char[] destino, int posicao, int valor) {
+        destino[posicao] = (char) ('0' + valor / 10);
+        destino[posicao + 1] = (char) ('0' + valor % 10);
+    }
+
+    private static int ordinalCodigo(byte valor) {
+        return valor == Dicionario.AUSENTE ? Dicionario.AUSENTE : valor & 0xFF;
+    }
+
+    /**
+     * Lê um inteiro não negativo sem zeros à esquerda, a única forma que pode
+     * ser reconstruída exatamente a partir do valor.
+     *
+     * @param registro a linha lida do arquivo
+     * @param campo índice do campo, a partir de 0
+     * @return o valor do campo, ou {@link #NUMERO_INVALIDO} se o campo não
+     * contém um inteiro nessa forma
+     */
+    public static int numero(RegistroCsv registro, int campo) {
+        int inicio = registro.inicioCampo(campo);
+        int fim = registro.fimCampo(campo);
+        int qtdDigitos = fim - inicio;
+        if (qtdDigitos == 0 || qtdDigitos > MAXIMO_DIGITOS || (qtdDigitos > 1 && registro.charAt(inicio) == '0')) {
+            return NUMERO_INVALIDO;
+        }
+        int valor = 0;
+        for (int i = inicio; i < fim; i++) {
+            int digito = registro.charAt(i) - '0';
+            if (digito < 0 || digito > 9) {
+                return NUMERO_INVALIDO;
+            }
+            valor = valor * 10 + digito;
+        }
+        return valor;
+    }
+
+    private void aumentarCapacidade() {
+        int capacidade = enderecos.length * 2;
+        enderecos = Arrays.copyOf(enderecos, capacidade);
+        semanas = Arrays.copyOf(semanas, capacidade);
+        dias = Arrays.copyOf(dias, capacidade);
+        minutos = Arrays.copyOf(minutos, capacidade);
+        colunaConfigId = Arrays.copyOf(colunaConfigId, capacidade);
+        colunaCtr = Arrays.copyOf(colunaCtr, capacidade);
+        colunaAss = Arrays.copyOf(colunaAss, capacidade);
+        colunaSetor = Arrays.copyOf(colunaSetor, capacidade);
+        qtdsCtr = Arrays.copyOf(qtdsCtr, capacidade);
+        qtdsAss = Arrays.copyOf(qtdsAss, capacidade);
+        movsAtco = Arrays.copyOf(movsAtco, capacidade);
+        movsSet = Arrays.copyOf(movsSet, capacidade);
+        colunaSectConfig = Arrays.copyOf(colunaSectConfig, capacidade);
+    }
+}
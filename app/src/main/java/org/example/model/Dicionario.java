@@ -0,0 +1,220 @@
+package org.example.model;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.example.csv.Csv;
+import org.example.csv.RegistroCsv;
+
+/**
+ * Dicionário de textos de uma coluna, que associa cada texto distinto a um
+ * ordinal.
+ *
+ * <p>
+ * Usado para guardar colunas com poucos valores distintos, como códigos de
+ * setor e posição, como vetores de ordinais. A busca compara os bytes do
+ * campo diretamente no registro lido, de modo que um valor já conhecido não
+ * cria nenhum objeto; cada texto distinto é convertido em {@code String} uma
+ * única vez.</p>
+ *
+ * <p>
+ * Como linhas consecutivas costumam repetir o valor da coluna, como o
+ * config_id e o SECT_CONFIG das linhas de um mesmo minuto, o último ordinal
+ * encontrado é comparado antes de calcular o hash do campo. As comparações
+ * são feitas oito bytes por vez, com cada texto também guardado em
+ * {@code long}s.</p>
+ *
+ * @author luisg
+ */
+public final class Dicionario implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Ordinal retornado quando o dicionário está cheio e o texto não faz parte
+     * dele.
+     */
+    public static final int AUSENTE = -1;
+
+    private final int capacidade;
+    private byte[][] entradas = new byte[16][];
+    private long[][] palavras = new long[16][];
+    private String[] textos = new String[16];
+    private int[] hashes = new int[16];
+    private int tamanho;
+    private int ultimo = AUSENTE;
+    /**
+     * Tabela de espalhamento com endereçamento aberto; cada posição guarda o
+     * ordinal + 1, ou 0 se estiver livre.
+     */
+    private int[] tabela = new int[32];
+
+    /**
+     * @param capacidade quantidade máxima de textos distintos
+     */
+    public Dicionario(int capacidade) {
+        this.capacidade = capacidade;
+    }
+
+    /**
+     * Obtém o ordinal de um campo de um registro, acrescentando-o ao
+     * dicionário se ainda não existir.
+     *
+     * @param registro a linha lida do arquivo
+     * @param campo índice do campo, a partir de 0
+     * @return o ordinal do texto do campo, ou {@link #AUSENTE} se o dicionário
+     * estiver cheio
+     */
+    public int ordinal(RegistroCsv registro, int campo) {
+        int inicio = registro.inicioCampo(campo);
+        int fim = registro.fimCampo(campo);
+        if (ultimo != AUSENTE && iguais(ultimo, registro, inicio, fim)) {
+            return ultimo;
+        }
+        int hash = 1;
+        for (int i = inicio; i < fim; i++) {
+            hash = 31 * hash + registro.byteAt(i);
+        }
+
+        int mascara = tabela.length - 1;
+        for (int posicao = espalhar(hash) & mascara;; posicao = (posicao + 1) & mascara) {
+            int ordinal = tabela[posicao] - 1;
+            if (ordinal < 0) {
+                break;
+            }
+            if (hashes[ordinal] == hash && iguais(ordinal, registro, inicio, fim)) {
+                ultimo = ordinal;
+                return ordinal;
+            }
+        }
+
+        byte[] bytes = new byte[fim - inicio];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = registro.byteAt(inicio + i);
+        }
+        int ordinal = acrescentar(bytes, hash);
+        if (ordinal != AUSENTE) {
+            ultimo = ordinal;
+        }
+        return ordinal;
+    }
+
+    /**
+     * Acrescenta um texto ao dicionário, caso ainda não exista. Permite fixar
+     * os ordinais de valores conhecidos antes da leitura.
+     *
+     * @param texto o texto a ser acrescentado
+     * @return o ordinal do texto, ou {@link #AUSENTE} se o dicionário estiver
+     * cheio
+     */
+    public int ordinal(String texto) {
+        byte[] bytes = texto.getBytes(Csv.CHARSET);
+        int hash = 1;
+        for (byte b : bytes) {
+            hash = 31 * hash + b;
+        }
+        int mascara = tabela.length - 1;
+        for (int posicao = espalhar(hash) & mascara;; posicao = (posicao + 1) & mascara) {
+            int ordinal = tabela[posicao] - 1;
+            if (ordinal < 0) {
+                break;
+            }
+            if (hashes[ordinal] == hash && Arrays.equals(entradas[ordinal], bytes)) {
+                return ordinal;
+            }
+        }
+        return acrescentar(bytes, hash);
+    }
+
+    /**
+     * @param ordinal o ordinal de um texto do dicionário
+     * @return o texto correspondente ao ordinal
+     */
+    public String getTexto(int ordinal) {
+        if (textos[ordinal] == null) {
+            textos[ordinal] = new String(entradas[ordinal], Csv.CHARSET);
+        }
+        return textos[ordinal];
+    }
+
+    /**
+     * @return a quantidade de textos distintos do dicionário
+     */
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    private int acrescentar(byte[] bytes, int hash) {
+        if (tamanho == capacidade) {
+            return AUSENTE;
+        }
+        if (tamanho == entradas.length) {
+            entradas = Arrays.copyOf(entradas, tamanho * 2);
+            palavras = Arrays.copyOf(palavras, tamanho * 2);
+            textos = Arrays.copyOf(textos, tamanho * 2);
+            hashes = Arrays.copyOf(hashes, tamanho * 2);
+        }
+        int ordinal = tamanho++;
+        entradas[ordinal] = bytes;
+        palavras[ordinal] = agrupar(bytes);
+        hashes[ordinal] = hash;
+        if (tamanho * 2 > tabela.length) {
+            tabela = new int[tabela.length * 2];
+            for (int i = 0; i < tamanho; i++) {
+                inserir(i);
+            }
+        } else {
+            inserir(ordinal);
+        }
+        return ordinal;
+    }
+
+    private void inserir(int ordinal) {
+        int mascara = tabela.length - 1;
+        int posicao = espalhar(hashes[ordinal]) & mascara;
+        while (tabela[posicao] != 0) {
+            posicao = (posicao + 1) & mascara;
+        }
+        tabela[posicao] = ordinal + 1;
+    }
+
+    private static int espalhar(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean iguais(int ordinal, RegistroCsv registro, int inicio, int fim) {
+        byte[] entrada = entradas[ordinal];
+        if (entrada.length != fim - inicio) {
+            return false;
+        }
+        long[] palavrasEntrada = palavras[ordinal];
+        for (int i = 0; i < palavrasEntrada.length; i++) {
+            if (palavrasEntrada[i] != registro.longAt(inicio + i * Long.BYTES)) {
+                return false;
+            }
+        }
+        for (int i = palavrasEntrada.length * Long.BYTES; i < entrada.length; i++) {
+            if (entrada[i] != registro.byteAt(inicio + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Agrupa os bytes do texto em {@code long}s, na mesma ordem de
+     * {@link RegistroCsv#longAt(int)}; os bytes que não completam um
+     * {@code long} ficam de fora.
+     */
+    private static long[] agrupar(byte[] bytes) {
+        long[] agrupados = new long[bytes.length / Long.BYTES];
+        for (int i = 0; i < agrupados.length; i++) {
+            long palavra = 0;
+            for (int j = 0; j < Long.BYTES; j++) {
+                palavra = (palavra << 8) | (bytes[i * Long.BYTES + j] & 0xFF);
+            }
+            agrupados[i] = palavra;
+        }
+        return agrupados;
+    }
+}
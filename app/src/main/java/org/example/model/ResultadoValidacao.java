@@ -0,0 +1,85 @@
+package org.example.model;
+
+/**
+ * Resultado da validação de um arquivo CSV: o status final do arquivo e o
+ * volume de dados processado.
+ *
+ * @author luisg
+ */
+public class ResultadoValidacao {
+
+    private final StatusArquivo status;
+    private final long qtdLinhas;
+    private final long qtdBytes;
+    private final long duracaoNanos;
+    private final boolean doCache;
+
+    /**
+     * Cria um novo resultado de validação.
+     *
+     * @param status o status do arquivo após a validação
+     * @param qtdLinhas a quantidade de linhas lidas do arquivo
+     * @param qtdBytes a quantidade de bytes lidos do arquivo
+     * @param duracaoNanos o tempo gasto na validação, em nanossegundos
+     */
+    public ResultadoValidacao(StatusArquivo status, long qtdLinhas, long qtdBytes, long duracaoNanos) {
+        this(status, qtdLinhas, qtdBytes, duracaoNanos, false);
+    }
+
+    private ResultadoValidacao(StatusArquivo status, long qtdLinhas, long qtdBytes, long duracaoNanos, boolean doCache) {
+        this.status = status;
+        this.qtdLinhas = qtdLinhas;
+        this.qtdBytes = qtdBytes;
+        this.duracaoNanos = duracaoNanos;
+        this.doCache = doCache;
+    }
+
+    /**
+     * Cria o resultado de um arquivo que não chegou a ser lido.
+     *
+     * @param status o status do arquivo
+     * @return o resultado sem linhas nem bytes lidos
+     */
+    public static ResultadoValidacao semLeitura(StatusArquivo status) {
+        return new ResultadoValidacao(status, 0, 0, 0);
+    }
+
+    /**
+     * Cria o resultado de um arquivo que não foi lido novamente porque o
+     * resultado de uma validação anterior do mesmo conteúdo foi reaproveitado.
+     *
+     * @param status o status registrado na validação anterior
+     * @param qtdLinhas a quantidade de linhas registrada na validação anterior
+     * @param qtdBytes o tamanho do arquivo
+     * @param duracaoNanos o tempo gasto para consultar o cache, em
+     * nanossegundos
+     * @return o resultado obtido do cache
+     */
+    public static ResultadoValidacao doCache(StatusArquivo status, long qtdLinhas, long qtdBytes, long duracaoNanos) {
+        return new ResultadoValidacao(status, qtdLinhas, qtdBytes, duracaoNanos, true);
+    }
+
+    public StatusArquivo getStatus() {
+        return status;
+    }
+
+    public long getQtdLinhas() {
+        return qtdLinhas;
+    }
+
+    public long getQtdBytes() {
+        return qtdBytes;
+    }
+
+    public long getDuracaoNanos() {
+        return duracaoNanos;
+    }
+
+    /**
+     * @return true se o resultado foi obtido de uma validação anterior do
+     * mesmo conteúdo, sem ler o arquivo novamente
+     */
+    public boolean isDoCache() {
+        return doCache;
+    }
+}
@@ -0,0 +1,337 @@
+package org.example.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.example.csv.LeitorCsvCompactado;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.example.snapshot.Snapshot;
+import org.example.util.LoggerUtil;
+
+/**
+ * Cache persistente dos resultados de validação, usado para não validar
+ * novamente arquivos que não mudaram.
+ *
+ * <p>
+ * Cada diretório de arquivos validados guarda o seu cache na pasta Relatórios,
+ * ao lado dos relatórios que descreve, com uma entrada por arquivo. A entrada
+ * é válida enquanto o hash SHA-256 do conteúdo do arquivo, a
+ * {@link ValidadorArquivos#VERSAO_VALIDADOR versão do validador}, o limite de
+ * ocorrências listadas por seção, o rodapé de tempos e a opção
+ * {@code detalhar} forem os mesmos da validação registrada e o relatório gerado por ela ainda existir,
+ * assim como o {@link Snapshot} do arquivo, quando a gravação de snapshots
+ * está ativa. Quando o tamanho e a data de modificação do
+ * arquivo não mudaram o hash registrado é reaproveitado sem ler o arquivo. Uma
+ * entrada de arquivo zip é identificada pelo CRC-32 e pelo tamanho
+ * registrados no arquivo zip, sem ser descompactada para o cálculo do hash.
+ * Somente validações concluídas com {@link StatusArquivo#VALIDADO} são
+ * registradas: um erro de leitura pode ser transitório e é sempre
+ * reavaliado.</p>
+ *
+ * @author luisg
+ */
+final class CacheValidacao {
+
+    /**
+     * Versão registrada nas entradas: a versão do validador, o limite de
+     * ocorrências listadas por seção e a presença do rodapé com os tempos de
+     * processamento, que também alteram o relatório, e a gravação de
+     * snapshots.
+     */
+    static final String VERSAO = ValidadorArquivos.VERSAO_VALIDADOR + "." + Ocorrencias.LIMITE
+            + (Planilha.RODAPE_TEMPOS ? ".tempos" : "") + (Planilha.SNAPSHOT ? ".snapshot" : "");
+
+    private static final Logger log = LoggerUtil.getLogger();
+    /**
+     * Nome do arquivo de cache, gravado na pasta Relatórios.
+     */
+    static final String NOME_ARQUIVO = ".cache-validacao.properties";
+    private static final String ALGORITMO_HASH = "SHA-256";
+    private static final int TAMANHO_BUFFER_HASH = 1 << 16;
+    private static final String SEPARADOR = ";";
+    private static final int QTD_CAMPOS_ENTRADA = 8;
+    private static final String ATRIBUTO_CRC_ZIP = "zip:crc";
+
+    private static final Map<Path, Properties> CACHES = new ConcurrentHashMap<>();
+
+    private CacheValidacao() {
+    }
+
+    /**
+     * Consulta o cache de um arquivo.
+     *
+     * @param arquivo arquivo a ser validado
+     * @param detalhar opção de detalhamento da validação
+     * @return a consulta, que indica se o resultado anterior pode ser
+     * reaproveitado e guarda os dados necessários para registrar o novo
+     * resultado
+     * @throws IOException se os atributos ou o conteúdo do arquivo não puderem
+     * ser lidos
+     */
+    static Consulta consultar(Path arquivo, boolean detalhar) throws IOException {
+        BasicFileAttributes atributos = Files.readAttributes(arquivo, BasicFileAttributes.class);
+        long tamanho = atributos.size();
+        long modificado = atributos.lastModifiedTime().toMillis();
+        Path relatorio = Planilha.getOutputPath(arquivo);
+        Entrada anterior = Entrada.ler(cacheDoDiretorio(relatorio.getParent()).getProperty(nomeDoArquivo(arquivo)));
+
+        boolean compativel = anterior != null
+                && anterior.versao.equals(VERSAO)
+                && anterior.detalhar == detalhar
+                && anterior.relatorio.equals(relatorio.getFileName().toString())
+                && Files.isRegularFile(relatorio)
+                && (!Planilha.SNAPSHOT || Snapshot.isAtual(arquivo));
+        if (compativel && anterior.tamanho == tamanho && anterior.modificado == modificado) {
+            return new Consulta(arquivo, detalhar, tamanho, modificado, anterior.hash, anterior);
+        }
+
+        String hash = calcularHash(arquivo);
+        if (compativel && anterior.hash.equals(hash)) {
+            Consulta consulta = new Consulta(arquivo, detalhar, tamanho, modificado, hash, anterior);
+            gravar(consulta, anterior.status, anterior.qtdLinhas);
+            return consulta;
+        }
+        return new Consulta(arquivo, detalhar, tamanho, modificado, hash, null);
+    }
+
+    /**
+     * Registra o resultado de uma validação. Apenas resultados
+     * {@link StatusArquivo#VALIDADO} são gravados; qualquer outro remove a
+     * entrada anterior do arquivo.
+     *
+     * @param consulta a consulta feita antes da validação
+     * @param resultado o resultado da validação
+     */
+    static void registrar(Consulta consulta, ResultadoValidacao resultado) {
+        try {
+            if (resultado.getStatus() == StatusArquivo.VALIDADO) {
+                gravar(consulta, resultado.getStatus(), resultado.getQtdLinhas());
+            } else {
+                remover(consulta.arquivo);
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Não foi possível atualizar o cache de validação de " + consulta.arquivo, e);
+        }
+    }
+
+    /**
+     * Remove a entrada de um arquivo, usado quando o relatório descrito por ela
+     * é gravado novamente sem passar pelo cache, como na verificação
+     * incremental.
+     *
+     * @param arquivo arquivo cuja entrada deve ser removida
+     */
+    static void invalidar(Path arquivo) {
+        try {
+            remover(arquivo);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Não foi possível atualizar o cache de validação de " + arquivo, e);
+        }
+    }
+
+    private static void gravar(Consulta consulta, StatusArquivo status, long qtdLinhas) throws IOException {
+        Path relatorio = Planilha.getOutputPath(consulta.arquivo);
+        Entrada entrada = new Entrada(VERSAO, consulta.detalhar, consulta.tamanho,
+                consulta.modificado, consulta.hash, status, qtdLinhas, relatorio.getFileName().toString());
+        Path diretorio = relatorio.getParent();
+        Properties cache = cacheDoDiretorio(diretorio);
+        synchronized (cache) {
+            cache.setProperty(nomeDoArquivo(consulta.arquivo), entrada.toString());
+            salvar(diretorio, cache);
+        }
+    }
+
+    private static void remover(Path arquivo) throws IOException {
+        Path diretorio = Planilha.getOutputPath(arquivo).getParent();
+        Properties cache = cacheDoDiretorio(diretorio);
+        synchronized (cache) {
+            if (cache.remove(nomeDoArquivo(arquivo)) != null) {
+                salvar(diretorio, cache);
+            }
+        }
+    }
+
+    private static Properties cacheDoDiretorio(Path diretorio) {
+        return CACHES.computeIfAbsent(diretorio.toAbsolutePath().normalize(), CacheValidacao::carregar);
+    }
+
+    private static Properties carregar(Path diretorio) {
+        Properties cache = new Properties();
+        Path arquivoCache = diretorio.resolve(NOME_ARQUIVO);
+        if (Files.isRegularFile(arquivoCache)) {
+            try (InputStream in = Files.newInputStream(arquivoCache)) {
+                cache.load(in);
+            } catch (IOException | IllegalArgumentException e) {
+                log.log(Level.WARNING, "Cache de validação ignorado: " + arquivoCache, e);
+                cache.clear();
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Grava o cache em um arquivo temporário e o move sobre o anterior, de
+     * modo que uma interrupção não deixe o cache pela metade.
+     */
+    private static void salvar(Path diretorio, Properties cache) throws IOException {
+        Files.createDirectories(diretorio);
+        Path arquivoCache = diretorio.resolve(NOME_ARQUIVO);
+        Path temporario = Files.createTempFile(diretorio, NOME_ARQUIVO, ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temporario)) {
+                cache.store(out, "Cache de validacao - gerado automaticamente");
+            }
+            try {
+                Files.move(temporario, arquivoCache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporario, arquivoCache, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    private static String nomeDoArquivo(Path arquivo) {
+        return LeitorCsvCompactado.getNomeSaida(arquivo);
+    }
+
+    private static String calcularHash(Path arquivo) throws IOException {
+        if (LeitorCsvCompactado.isEntradaZip(arquivo)) {
+            return "crc32-" + Long.toHexString((Long) Files.getAttribute(arquivo, ATRIBUTO_CRC_ZIP)) + "-" + Files.size(arquivo);
+        }
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(ALGORITMO_HASH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITMO_HASH + " indisponível", e);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER_HASH);
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            while (canal.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Resultado da consulta ao cache de um arquivo.
+     */
+    static final class Consulta {
+
+        private final Path arquivo;
+        private final boolean detalhar;
+        private final long tamanho;
+        private final long modificado;
+        private final String hash;
+        private final Entrada anterior;
+
+        private Consulta(Path arquivo, boolean detalhar, long tamanho, long modificado, String hash, Entrada anterior) {
+            this.arquivo = arquivo;
+            this.detalhar = detalhar;
+            this.tamanho = tamanho;
+            this.modificado = modificado;
+            this.hash = hash;
+            this.anterior = anterior;
+        }
+
+        /**
+         * @return true se o resultado da validação anterior pode ser
+         * reaproveitado
+         */
+        boolean isValida() {
+            return anterior != null;
+        }
+
+        /**
+         * Obtém o resultado registrado na validação anterior. Só deve ser
+         * chamado quando {@link #isValida()} é true.
+         *
+         * @param duracaoNanos o tempo gasto na consulta
+         * @return o resultado registrado
+         */
+        ResultadoValidacao getResultado(long duracaoNanos) {
+            return ResultadoValidacao.doCache(anterior.status, anterior.qtdLinhas, tamanho, duracaoNanos);
+        }
+    }
+
+    /**
+     * Entrada do cache de um arquivo, gravada como uma linha de campos
+     * separados por ponto e vírgula.
+     */
+    private static final class Entrada {
+
+        private final String versao;
+        private final boolean detalhar;
+        private final long tamanho;
+        private final long modificado;
+        private final String hash;
+        private final StatusArquivo status;
+        private final long qtdLinhas;
+        private final String relatorio;
+
+        private Entrada(String versao, boolean detalhar, long tamanho, long modificado, String hash,
+                StatusArquivo status, long qtdLinhas, String relatorio) {
+            this.versao = versao;
+            this.detalhar = detalhar;
+            this.tamanho = tamanho;
+            this.modificado = modificado;
+            this.hash = hash;
+            this.status = status;
+            this.qtdLinhas = qtdLinhas;
+            this.relatorio = relatorio;
+        }
+
+        /**
+         * @return a entrada, ou null se o valor estiver ausente ou não puder
+         * ser interpretado
+         */
+        private static Entrada ler(String valor) {
+            if (valor == null) {
+                return null;
+            }
+            String[] campos = valor.split(SEPARADOR, QTD_CAMPOS_ENTRADA);
+            if (campos.length != QTD_CAMPOS_ENTRADA) {
+                return null;
+            }
+            try {
+                return new Entrada(campos[0], Boolean.parseBoolean(campos[1]), Long.parseLong(campos[2]),
+                        Long.parseLong(campos[3]), campos[4], StatusArquivo.valueOf(campos[5]),
+                        Long.parseLong(campos[6]), campos[7]);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.join(SEPARADOR, versao, String.valueOf(detalhar), String.valueOf(tamanho),
+                    String.valueOf(modificado), hash, status.name(), String.valueOf(qtdLinhas), relatorio);
+        }
+    }
+}
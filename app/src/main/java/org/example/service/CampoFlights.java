@@ -0,0 +1,333 @@
+package org.example.service;
+
+import org.example.csv.LeitorDataHora;
+
+/**
+ * Campos de uma linha da planilha flights e suas respectivas regras de
+ * validação.
+ *
+ * <p>
+ * Todos os campos exportados pelo SAGITARIO possuem formato fixo, portanto cada
+ * regra é verificada caractere a caractere sobre o trecho do conteúdo da linha
+ * que corresponde ao campo, sem compilar expressões regulares e sem criar
+ * objetos. A expressão regular equivalente a cada regra está documentada na
+ * respectiva constante. A ordem das constantes corresponde à ordem dos campos
+ * na linha, considerando o timestamp dividido em data e hora.</p>
+ *
+ * @author luisg
+ */
+enum CampoFlights {
+
+    /**
+     * {@code ^\d{4}-(0[1-9]|1[0-2])-(0[1-9]|[1-2][0-9]|3[0-1])$}, sendo que a
+     * data também deve existir no calendário.
+     */
+    DATA("Data: ") {
+        @Override
+        boolean aceita(CharSequence s, int inicio, int fim) {
+            return LeitorDataHora.diaEpochAnoMesDia(s, inicio, fim) != LeitorDataHora.DIA_INVALIDO;
+        }
+    },
+    /**
+     * {@code ^(0[0-9]|1[0-9]|2[0-3]):([0-5][0-9]):([0-5][0-9])$}
+     */
+    HORA("Hora: ") {
+        @Override
+        boolean aceita(CharSequence s, int inicio, int fim) {
+            return LeitorDataHora.segundoDoDia(s, inicio, fim) != LeitorDataHora.INVALIDO;
+        }
+    },
+    /**
+     * {@code ^"([2-9]|1[0-8]).[0-9]{1,5}.([0-9]|1[0-8])"$}, onde {@code .}
+     * aceita qualquer caractere.
+     */
+    CONFIG_ID("config_id: ") {
+        @Override
+        boolean aceita(CharSequence s, int inicio, int fim) {
+            if (fim - inicio < 7 || s.charAt(inicio) != '"' || s.charAt(fim - 1) != '"') {
+                return false;
+            }
+            int i = inicio + 1;
+            int fimInterno = fim - 1;
+            char c = s.charAt(i);
+            if (entre(c, '2', '9')) {
+                i += 1;
+            } else if (c == '1' && entre(s.charAt(i + 1), '0', '8')) {
+                i += 2;
+            } else {
+                return false;
+            }
+            // um caractere qualquer separa o primeiro grupo dos dígitos
+            if (terminadorDeLinha(s.charAt(i))) {
+                return false;
+            }
+            i++;
+            // o último grupo pode ter um dígito ou ser 10-18
+            if (digito(s.charAt(fimInterno - 1)) && digitosSeparados(s, i, fimInterno - 1)) {
+                return true;
+            }
+            return fimInterno - 2 > i
+                    && s.charAt(fimInterno - 2) == '1' && entre(s.charAt(fimInterno - 1), '0', '8')
+                    && digitosSeparados(s, i, fimInterno - 2);
+        }
+    },
+    /**
+     * {@code .*} - o conteúdo não é validado, apenas a ausência de
+     * terminadores de linha.
+     */
+    SECT_CONFIG("") {
+        @Override
+        boolean aceita(CharSequence s, int inicio, int fim) {
+            for (int i = inicio; i < fim; i++) {
+                if (terminadorDeLinha(s.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    },
+    /**
+     * {@code ^"CTR([0-1][0-9]|2[0-1])"$}
+     */
+    CTR("CTR: ") {
+        @Override
+        boolean aceita(CharSequence s, int inicio, int fim) {
+            return fim - inicio == 7
+                    && s.charAt(inicio) == '"'
+                    && s.charAt(inicio + 1) == 'C' && s.charAt(inicio + 2) == 'T' && s.charAt(inicio + 3) == 'R'
+                    && posicao(s.charAt(inicio + 4), s.charAt(inicio + 5))
+                    && s.charAt(inicio + 6) == '"';
+        }
+    },
+    /**
+     * {@code ^"(ASS([0-1][0-9]|2[0-1])|)"$}
+     */
+    ASS("ASS: ") {
+        @Override
+        boolean aceita(CharSequence s, int inicio, int fim) {
+            if (fim - inicio == 2) {
+                return s.charAt(inicio) == '"' && s.charAt(inicio + 1) == '"';
+            }
+            return fim - inicio == 7
+                    && s.charAt(inicio) == '"'
+                    && s.charAt(inicio + 1) == 'A' && s.charAt(inicio + 2) == 'S' && s.charAt(inicio + 3) == 'S'
+                    && posicao(s.charAt(inicio + 4), s.charAt(inicio + 5))
+                    && s.charAt(inicio + 6) == '"';
+        }
+    },
+    /**
+     * {@code ^"(S0[1-9]|S1[0-8]|S6F|18F)"$}
+     */
+    SECTOR("sector: ") {
+        @Override
+        boolean aceita(CharSequence s, int inicio, int fim) {
+            if (fim - inicio != 5 || s.charAt(inicio) != '"' || s.charAt(inicio + 4) != '"') {
+                return false;
+            }
+            char c1 = s.charAt(inicio + 1);
+            char c2 = s.charAt(inicio + 2);
+            char c3 = s.charAt(inicio + 3);
+            if (c1 == 'S') {
+                return (c2 == '0' && entre(c3, '1', '9'))
+                        || (c2 == '1' && entre(c3, '0', '8'))
+                        || (c2 == '6' && c3 == 'F');
+            }
+            return c1 == '1' && c2 == '8' && c3 == 'F';
+        }
+    },
+    /**
+     * {@code ^([1-9]|1[0-8])$}
+     */
+    QTD_SECTORS("qtd_sector: ") {
+        @Override
+        boolean aceita(CharSequence s, int inicio, int fim) {
+            if (fim - inicio == 1) {
+                return entre(s.charAt(inicio), '1', '9');
+            }
+            return fim - inicio == 2 && s.charAt(inicio) == '1' && entre(s.charAt(inicio + 1), '0', '8');
+        }
+    },
+    /**
+     * {@code ^([0-9]|1[0-8])$}
+     */
+    QTD_ASS("qtd_ass: ") {
+        @Override
+        boolean aceita(CharSequence s, int inicio, int fim) {
+            if (fim - inicio == 1) {
+                return digito(s.charAt(inicio));
+            }
+            return fim - inicio == 2 && s.charAt(inicio) == '1' && entre(s.charAt(inicio + 1), '0', '8');
+        }
+    },
+    /**
+     * {@code ^([a-zA-Z0-9]{4,7})$}
+     */
+    CALLSIGN("callsign: ") {
+        @Override
+        boolean aceita(CharSequence s, int inicio, int fim) {
+            int tamanho = fim - inicio;
+            if (tamanho < 4 || tamanho > 7) {
+                return false;
+            }
+            for (int i = inicio; i < fim; i++) {
+                char c = s.charAt(i);
+                if (!(digito(c) || entre(c, 'A', 'Z') || entre(c, 'a', 'z'))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    },
+    /**
+     * {@code ^([A-Z]{2}[A-Z0-9]{2})$}
+     */
+    ADEP("ADEP: ") {
+        @Override
+        boolean aceita(CharSequence s, int inicio, int fim) {
+            return icao(s, inicio, fim);
+        }
+    },
+    /**
+     * {@code ^([A-Z]{2}[A-Z0-9]{2})$}
+     */
+    ADES("ADES: ") {
+        @Override
+        boolean aceita(CharSequence s, int inicio, int fim) {
+            return icao(s, inicio, fim);
+        }
+    },
+    /**
+     * {@code ^([0-9]{6})$}
+     */
+    DOF("DOF: ") {
+        @Override
+        boolean aceita(CharSequence s, int inicio, int fim) {
+            return fim - inicio == 6 && digitos(s, inicio, fim);
+        }
+    },
+    /**
+     * {@code ^([0-1][0-9]|2[0-3])[0-5][0-9]$}. A ausência de informação é
+     * permitida.
+     */
+    EOBT("EOBT: ") {
+        @Override
+        boolean aceita(CharSequence s, int inicio, int fim) {
+            return fim - inicio == 4
+                    && hora(s.charAt(inicio), s.charAt(inicio + 1))
+                    && minuto(s.charAt(inicio + 2), s.charAt(inicio + 3));
+        }
+
+        @Override
+        boolean permiteVazio() {
+            return true;
+        }
+    },
+    /**
+     * {@code ^A[0-7]{4}$}
+     */
+    SSR("SSR: ") {
+        @Override
+        boolean aceita(CharSequence s, int inicio, int fim) {
+            return fim - inicio == 5
+                    && s.charAt(inicio) == 'A'
+                    && entre(s.charAt(inicio + 1), '0', '7') && entre(s.charAt(inicio + 2), '0', '7')
+                    && entre(s.charAt(inicio + 3), '0', '7') && entre(s.charAt(inicio + 4), '0', '7');
+        }
+    },
+    /**
+     * {@code ^([IVYZ])$}
+     */
+    FLRUL("flrul: ") {
+        @Override
+        boolean aceita(CharSequence s, int inicio, int fim) {
+            if (fim - inicio != 1) {
+                return false;
+            }
+            char c = s.charAt(inicio);
+            return c == 'I' || c == 'V' || c == 'Y' || c == 'Z';
+        }
+    };
+
+    private final String rotulo;
+
+    CampoFlights(String rotulo) {
+        this.rotulo = rotulo;
+    }
+
+    /**
+     * Verifica se o trecho {@code [inicio, fim)} de {@code s} satisfaz a regra
+     * do campo. O trecho nunca é vazio.
+     *
+     * @param s conteúdo da linha
+     * @param inicio índice do primeiro caractere do campo
+     * @param fim índice seguinte ao último caractere do campo
+     * @return true se o campo é válido
+     */
+    abstract boolean aceita(CharSequence s, int inicio, int fim);
+
+    /**
+     * @return true se o campo pode estar vazio
+     */
+    boolean permiteVazio() {
+        return false;
+    }
+
+    /**
+     * @return o prefixo usado na mensagem de erro do campo
+     */
+    String getRotulo() {
+        return rotulo;
+    }
+
+    private static boolean digito(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean entre(char c, char min, char max) {
+        return c >= min && c <= max;
+    }
+
+    private static boolean digitos(CharSequence s, int inicio, int fim) {
+        for (int i = inicio; i < fim; i++) {
+            if (!digito(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Verifica o trecho {@code [0-9]{1,5}.} que precede o último grupo do
+     * config_id.
+     */
+    private static boolean digitosSeparados(CharSequence s, int inicio, int fim) {
+        int qtdDigitos = fim - inicio - 1;
+        return qtdDigitos >= 1 && qtdDigitos <= 5 && digitos(s, inicio, fim - 1) && !terminadorDeLinha(s.charAt(fim - 1));
+    }
+
+    private static boolean terminadorDeLinha(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    private static boolean hora(char d1, char d2) {
+        return (entre(d1, '0', '1') && digito(d2)) || (d1 == '2' && entre(d2, '0', '3'));
+    }
+
+    private static boolean minuto(char d1, char d2) {
+        return entre(d1, '0', '5') && digito(d2);
+    }
+
+    private static boolean posicao(char d1, char d2) {
+        return (entre(d1, '0', '1') && digito(d2)) || (d1 == '2' && entre(d2, '0', '1'));
+    }
+
+    private static boolean icao(CharSequence s, int inicio, int fim) {
+        if (fim - inicio != 4) {
+            return false;
+        }
+        char c3 = s.charAt(inicio + 2);
+        char c4 = s.charAt(inicio + 3);
+        return entre(s.charAt(inicio), 'A', 'Z') && entre(s.charAt(inicio + 1), 'A', 'Z')
+                && (entre(c3, 'A', 'Z') || digito(c3)) && (entre(c4, 'A', 'Z') || digito(c4));
+    }
+}
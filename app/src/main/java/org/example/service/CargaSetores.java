@@ -0,0 +1,395 @@
+package org.example.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import org.example.csv.LeitorDataHora;
+import org.example.csv.RegistroCsv;
+import org.example.model.DiaSectConfig;
+import org.example.model.Dicionario;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.example.model.TipoArquivo;
+import org.example.snapshot.AcumuladorCarga;
+import org.example.snapshot.ResumoCargaSetores;
+import org.example.snapshot.ResumoCargaSetores.MetricaAcc;
+import org.example.snapshot.ResumoCargaSetores.MetricaSetor;
+import org.example.snapshot.Snapshot;
+import org.example.util.LoggerUtil;
+
+/**
+ * Agrega a carga de trabalho dos setores de uma sequência de planilhas
+ * sect_config, como as de um mês, por setor, hora e dia.
+ *
+ * <p>
+ * Cada dia é lido uma única vez, em paralelo com os demais, e acumulado em
+ * um {@link AcumuladorCarga} próprio, com vetores primitivos e sem
+ * sincronização entre os dias. Um dia com {@link Snapshot} atual, gravado
+ * pela validação da mesma versão do validador, é lido do snapshot; os demais
+ * são lidos da planilha, com os mesmos filtros da validação: o cabeçalho, as
+ * linhas com quantidade de campos incorreta ou campo vazio e as linhas com
+ * horário malformado são ignorados.</p>
+ *
+ * <p>
+ * O resultado é gravado na pasta Relatórios da primeira planilha em um
+ * {@link ResumoCargaSetores resumo} binário,
+ * {@code AAAAMMDD_a_AAAAMMDD_carga_setores.resumo}, em que a carga de um
+ * setor em uma hora ou em um dia é uma consulta direta, e em um relatório
+ * com a carga de cada setor no período, a do ACC em cada dia e o perfil
+ * médio de cada hora do dia, escrito a partir do próprio resumo.</p>
+ *
+ * @author luisg
+ */
+public final class CargaSetores {
+
+    private static final Logger log = LoggerUtil.getLogger();
+
+    /**
+     * O sufixo do resumo e do relatório de carga, precedido pelo período.
+     */
+    public static final String SUFIXO = "_carga_setores";
+
+    private static final DateTimeFormatter FORMATO_NOME = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final List<String> SETORES = Arrays.asList(PlanilhaSectConfig.SETORES);
+    private static final String[] COLUNAS = PlanilhaSectConfig.CABECALHO.split(";");
+    private static final String SEM_ASSISTENTE = "\"\"";
+
+    private CargaSetores() {
+    }
+
+    /**
+     * Agrega a carga dos setores das planilhas informadas e grava o resumo e
+     * o relatório de carga.
+     *
+     * @param arquivos as planilhas sect_config, em qualquer ordem; as que não
+     * têm a data no início do nome ou repetem a data de outra são ignoradas e
+     * listadas no relatório
+     * @param paralelismo quantidade máxima de dias lidos ao mesmo tempo
+     * @return o resultado da agregação, com status
+     * {@link StatusArquivo#VALIDADO} se o resumo e o relatório foram gravados
+     * ou {@link StatusArquivo#ERRO} em caso de erro, e a soma das linhas e
+     * bytes lidos
+     */
+    public static ResultadoValidacao agregar(List<Path> arquivos, int paralelismo) {
+        long inicio = System.nanoTime();
+        Ocorrencias ignorados = new Ocorrencias();
+        Map<Long, Dia> porData = new TreeMap<>();
+        for (Path arquivo : arquivos) {
+            long data;
+            try {
+                data = LocalDate.parse(ConsistenciaDiaria.getPrefixo(arquivo), FORMATO_NOME).toEpochDay();
+            } catch (DateTimeParseException e) {
+                ignorados.adicionar("\t" + arquivo.getFileName() + " (sem data no nome)");
+                continue;
+            }
+            if (porData.containsKey(data)) {
+                ignorados.adicionar("\t" + arquivo.getFileName() + " (mesma data de " + porData.get(data).arquivo.getFileName() + ")");
+            } else {
+                porData.put(data, new Dia(arquivo, data));
+            }
+        }
+        if (porData.isEmpty()) {
+            return ResultadoValidacao.semLeitura(StatusArquivo.ERRO);
+        }
+
+        List<Dia> dias = new ArrayList<>(porData.values());
+        Dia primeiro = dias.get(0);
+        Dia ultimo = dias.get(dias.size() - 1);
+        String periodo = ConsistenciaDiaria.getPrefixo(primeiro.arquivo) + "_a_" + ConsistenciaDiaria.getPrefixo(ultimo.arquivo);
+        Path pasta = Planilha.getPastaRelatorios(primeiro.arquivo);
+        Path resumo = pasta.resolve(periodo + SUFIXO + ResumoCargaSetores.EXTENSAO);
+        String descricao = formatarData(primeiro.data) + " a " + formatarData(ultimo.data) + " (" + dias.size() + " arquivos)";
+        log.info(() -> "Agregando a carga dos setores: " + descricao);
+
+        long qtdLinhas = 0;
+        long qtdBytes = 0;
+        try {
+            List<AcumuladorCarga> acumuladores = agregarDias(dias, paralelismo);
+            int qtdDeSnapshots = 0;
+            for (Dia dia : dias) {
+                qtdLinhas += dia.acumulador.getQtdLinhas();
+                qtdBytes += dia.qtdBytes;
+                qtdDeSnapshots += dia.doSnapshot ? 1 : 0;
+            }
+
+            Files.createDirectories(pasta);
+            ResumoCargaSetores.gravar(resumo, ValidadorArquivos.VERSAO_VALIDADOR, SETORES, acumuladores);
+            ResumoCargaSetores lido = ResumoCargaSetores.abrir(resumo);
+            try (Relatorio relatorio = Relatorio.criar(pasta.resolve(periodo + SUFIXO + ".txt"), "RELATÓRIO DE CARGA DOS SETORES",
+                    descricao + ", " + qtdDeSnapshots + " lidos de snapshots")) {
+                escreverSetores(relatorio, lido);
+                escreverDias(relatorio, lido);
+                escreverHoras(relatorio, lido);
+                if (!ignorados.isEmpty()) {
+                    relatorio.adicionar("\nARQUIVOS IGNORADOS");
+                    relatorio.adicionar(ignorados);
+                }
+                relatorio.concluir();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ResultadoValidacao(StatusArquivo.ERRO, qtdLinhas, qtdBytes, System.nanoTime() - inicio);
+        } catch (IOException | UncheckedIOException e) {
+            Planilha.registrarErro(primeiro.arquivo.resolveSibling(periodo + SUFIXO + ".csv"),
+                    "Erro ao agregar a carga dos setores " + descricao, e);
+            return new ResultadoValidacao(StatusArquivo.ERRO, qtdLinhas, qtdBytes, System.nanoTime() - inicio);
+        } catch (Exception e) {
+            Planilha.registrarErro(primeiro.arquivo.resolveSibling(periodo + SUFIXO + ".csv"),
+                    "Exceção ao agregar a carga dos setores " + descricao, e);
+            return new ResultadoValidacao(StatusArquivo.ERRO, qtdLinhas, qtdBytes, System.nanoTime() - inicio);
+        }
+        return new ResultadoValidacao(StatusArquivo.VALIDADO, qtdLinhas, qtdBytes, System.nanoTime() - inicio);
+    }
+
+    /**
+     * Lê os dias em paralelo, cada um com o seu acumulador.
+     *
+     * @return os acumuladores concluídos, na ordem dos dias
+     */
+    private static List<AcumuladorCarga> agregarDias(List<Dia> dias, int paralelismo) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(paralelismo, dias.size())),
+                new ValidadorArquivos.ThreadsDeValidacao());
+        try {
+            List<Future<AcumuladorCarga>> tarefas = new ArrayList<>();
+            for (Dia dia : dias) {
+                tarefas.add(executor.submit(dia::agregar));
+            }
+            List<AcumuladorCarga> acumuladores = new ArrayList<>();
+            for (Future<AcumuladorCarga> tarefa : tarefas) {
+                try {
+                    acumuladores.add(tarefa.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            return acumuladores;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void escreverSetores(Relatorio relatorio, ResumoCargaSetores resumo) {
+        relatorio.adicionar("\nCARGA POR SETOR NO PERÍODO");
+        relatorio.adicionar(String.format(Locale.ROOT, "\t%-6s %10s %8s %8s %6s  %-16s %12s %8s %8s",
+                "SETOR", "MOV_SET", "MINUTOS", "MOV/MIN", "PICO", "PICO EM", "MOV_ATCO/MIN", "PICO ATCO", "COM ASS"));
+        for (int setor = 0; setor < resumo.getSetores().size(); setor++) {
+            long movSet = 0;
+            long minutos = 0;
+            long movAtco = 0;
+            long comAssistente = 0;
+            int picoAtco = 0;
+            int pico = -1;
+            String picoEm = "-";
+            for (int dia = 0; dia < resumo.getQtdDias(); dia++) {
+                movSet += resumo.getSetor(dia, ResumoCargaSetores.DIA_INTEIRO, setor, MetricaSetor.MOV_SET);
+                minutos += resumo.getSetor(dia, ResumoCargaSetores.DIA_INTEIRO, setor, MetricaSetor.MINUTOS);
+                movAtco += resumo.getSetor(dia, ResumoCargaSetores.DIA_INTEIRO, setor, MetricaSetor.MOV_ATCO);
+                comAssistente += resumo.getSetor(dia, ResumoCargaSetores.DIA_INTEIRO, setor, MetricaSetor.MINUTOS_COM_ASS);
+                picoAtco = Math.max(picoAtco, resumo.getSetor(dia, ResumoCargaSetores.DIA_INTEIRO, setor, MetricaSetor.PICO_MOV_ATCO));
+                int minutoPico = resumo.getSetor(dia, ResumoCargaSetores.DIA_INTEIRO, setor, MetricaSetor.MINUTO_PICO);
+                int picoDia = resumo.getSetor(dia, ResumoCargaSetores.DIA_INTEIRO, setor, MetricaSetor.PICO_MOV_SET);
+                if (minutoPico >= 0 && picoDia > pico) {
+                    pico = picoDia;
+                    picoEm = resumo.getData(dia).format(FORMATO_DATA) + " " + formatarMinuto(minutoPico);
+                }
+            }
+            relatorio.adicionar(String.format(Locale.ROOT, "\t%-6s %10d %8d %8.2f %6s  %-16s %12.2f %8d %8d",
+                    resumo.getSetores().get(setor), movSet, minutos, razao(movSet, minutos), pico < 0 ? "-" : Integer.toString(pico),
+                    picoEm, razao(movAtco, minutos), picoAtco, comAssistente));
+        }
+    }
+
+    private static void escreverDias(Relatorio relatorio, ResumoCargaSetores resumo) {
+        relatorio.adicionar("\nCARGA DO ACC POR DIA");
+        relatorio.adicionar(String.format(Locale.ROOT, "\t%-10s %8s %10s %6s %8s %9s %8s %9s",
+                "DIA", "MINUTOS", "MOV_SET", "PICO", "PICO EM", "CTR MÉDIO", "PICO CTR", "ASS MÉDIO"));
+        for (int dia = 0; dia < resumo.getQtdDias(); dia++) {
+            int minutos = resumo.getAcc(dia, ResumoCargaSetores.DIA_INTEIRO, MetricaAcc.MINUTOS);
+            int minutoPico = resumo.getAcc(dia, ResumoCargaSetores.DIA_INTEIRO, MetricaAcc.MINUTO_PICO);
+            relatorio.adicionar(String.format(Locale.ROOT, "\t%-10s %8d %10d %6d %8s %9.2f %8d %9.2f",
+                    resumo.getData(dia).format(FORMATO_DATA), minutos,
+                    resumo.getAcc(dia, ResumoCargaSetores.DIA_INTEIRO, MetricaAcc.MOV_SET),
+                    resumo.getAcc(dia, ResumoCargaSetores.DIA_INTEIRO, MetricaAcc.PICO_MOV_SET),
+                    minutoPico < 0 ? "-" : formatarMinuto(minutoPico),
+                    razao(resumo.getAcc(dia, ResumoCargaSetores.DIA_INTEIRO, MetricaAcc.CTR_MINUTOS), minutos),
+                    resumo.getAcc(dia, ResumoCargaSetores.DIA_INTEIRO, MetricaAcc.PICO_QTD_CTR),
+                    razao(resumo.getAcc(dia, ResumoCargaSetores.DIA_INTEIRO, MetricaAcc.ASS_MINUTOS), minutos)));
+        }
+    }
+
+    /**
+     * Escreve o perfil de cada hora do dia: a média, entre os dias do
+     * período, do movimento e das posições abertas naquela hora.
+     */
+    private static void escreverHoras(Relatorio relatorio, ResumoCargaSetores resumo) {
+        relatorio.adicionar("\nCARGA DO ACC POR HORA, MÉDIA DOS DIAS");
+        relatorio.adicionar(String.format(Locale.ROOT, "\t%-5s %12s %6s %9s %8s",
+                "HORA", "MOV_SET/DIA", "PICO", "CTR MÉDIO", "PICO CTR"));
+        for (int hora = 0; hora < ResumoCargaSetores.DIA_INTEIRO; hora++) {
+            long minutos = 0;
+            long movSet = 0;
+            long ctrMinutos = 0;
+            int pico = 0;
+            int picoCtr = 0;
+            for (int dia = 0; dia < resumo.getQtdDias(); dia++) {
+                minutos += resumo.getAcc(dia, hora, MetricaAcc.MINUTOS);
+                movSet += resumo.getAcc(dia, hora, MetricaAcc.MOV_SET);
+                ctrMinutos += resumo.getAcc(dia, hora, MetricaAcc.CTR_MINUTOS);
+                pico = Math.max(pico, resumo.getAcc(dia, hora, MetricaAcc.PICO_MOV_SET));
+                picoCtr = Math.max(picoCtr, resumo.getAcc(dia, hora, MetricaAcc.PICO_QTD_CTR));
+            }
+            relatorio.adicionar(String.format(Locale.ROOT, "\t%02d:00 %12.1f %6d %9.2f %8d",
+                    hora, razao(movSet, resumo.getQtdDias()), pico, razao(ctrMinutos, minutos), picoCtr));
+        }
+    }
+
+    private static double razao(long valor, long divisor) {
+        return divisor == 0 ? 0 : (double) valor / divisor;
+    }
+
+    private static String formatarData(long diaEpoch) {
+        return LocalDate.ofEpochDay(diaEpoch).format(FORMATO_DATA);
+    }
+
+    private static String formatarMinuto(int minuto) {
+        return String.format(Locale.ROOT, "%02d:%02d", minuto / 60, minuto % 60);
+    }
+
+    /**
+     * Uma planilha, o dia do seu nome e o resultado da sua leitura.
+     */
+    private static final class Dia {
+
+        private final Path arquivo;
+        private final long data;
+        private AcumuladorCarga acumulador;
+        private long qtdBytes;
+        private boolean doSnapshot;
+
+        private Dia(Path arquivo, long data) {
+            this.arquivo = arquivo;
+            this.data = data;
+        }
+
+        private AcumuladorCarga agregar() throws IOException {
+            acumulador = new AcumuladorCarga(data, SETORES.size());
+            Snapshot snapshot = Snapshot.abrirAtual(arquivo, TipoArquivo.SECT_CONFIG, ValidadorArquivos.VERSAO_VALIDADOR);
+            doSnapshot = snapshot != null;
+            if (doSnapshot) {
+                agregarSnapshot(snapshot);
+            } else {
+                agregarPlanilha();
+            }
+            acumulador.concluir();
+            return acumulador;
+        }
+
+        /**
+         * Lê o dia do snapshot, convertendo o texto de cada código das
+         * colunas uma única vez.
+         */
+        private void agregarSnapshot(Snapshot snapshot) {
+
+            Snapshot.Coluna horarios = snapshot.getColuna(COLUNAS[DiaSectConfig.HORARIO]);
+            Snapshot.Coluna setores = snapshot.getColuna(COLUNAS[DiaSectConfig.SETOR]);
+            Snapshot.Coluna asss = snapshot.getColuna(COLUNAS[DiaSectConfig.ASS]);
+            Snapshot.Coluna movsSet = snapshot.getColuna(COLUNAS[DiaSectConfig.MOV_SET]);
+            Snapshot.Coluna movsAtco = snapshot.getColuna(COLUNAS[DiaSectConfig.MOV_ATCO]);
+            Snapshot.Coluna qtdsCtr = snapshot.getColuna(COLUNAS[DiaSectConfig.QTD_CTR]);
+            Snapshot.Coluna qtdsAss = snapshot.getColuna(COLUNAS[DiaSectConfig.QTD_ASS]);
+
+            int[] minutos = new int[horarios.getQtdValores()];
+            for (int codigo = 0; codigo < minutos.length; codigo++) {
+                String horario = horarios.getValor(codigo);
+                minutos[codigo] = LeitorDataHora.minutoDoDia(horario, 0, horario.length());
+            }
+            int[] indicesSetor = new int[setores.getQtdValores()];
+            for (int codigo = 0; codigo < indicesSetor.length; codigo++) {
+                indicesSetor[codigo] = indiceSetor(setores.getValor(codigo));
+            }
+            boolean[] comAssistente = new boolean[asss.getQtdValores()];
+            for (int codigo = 0; codigo < comAssistente.length; codigo++) {
+                comAssistente[codigo] = !SEM_ASSISTENTE.equals(asss.getValor(codigo));
+            }
+
+            for (int linha = 0; linha < snapshot.getQtdLinhas(); linha++) {
+                int minuto = minutos[horarios.getCodigo(linha)];
+                if (minuto == LeitorDataHora.INVALIDO) {
+                    continue;
+                }
+                acumulador.adicionar(minuto, indicesSetor[setores.getCodigo(linha)],
+                        positivo(movsSet.getNumero(movsSet.getCodigo(linha))), positivo(movsAtco.getNumero(movsAtco.getCodigo(linha))),
+                        comAssistente[asss.getCodigo(linha)],
+                        positivo(qtdsCtr.getNumero(qtdsCtr.getCodigo(linha))), positivo(qtdsAss.getNumero(qtdsAss.getCodigo(linha))));
+            }
+            try {
+                qtdBytes = Files.size(Snapshot.getCaminho(arquivo));
+            } catch (IOException e) {
+                qtdBytes = 0;
+            }
+        }
+
+        private void agregarPlanilha() throws IOException {
+            Dicionario setores = new Dicionario(Short.MAX_VALUE);
+            for (String setor : SETORES) {
+                setores.ordinal('"' + setor + '"');
+            }
+            Planilha.lerLinhas(arquivo, registro -> {
+                if (registro.getQtdCampos() != PlanilhaSectConfig.CABECALHO_LENGTH || registro.temCampoVazio()
+                        || registro.conteudoIgual(PlanilhaSectConfig.CABECALHO)) {
+                    return;
+                }
+                int minuto = LeitorDataHora.minutoDoDia(registro, registro.inicioCampo(DiaSectConfig.HORARIO), registro.fimCampo(DiaSectConfig.HORARIO));
+                if (minuto == LeitorDataHora.INVALIDO) {
+                    return;
+                }
+                int setor = setores.ordinal(registro, DiaSectConfig.SETOR);
+                acumulador.adicionar(minuto, setor < SETORES.size() ? setor : -1,
+                        positivo(DiaSectConfig.numero(registro, DiaSectConfig.MOV_SET)), positivo(DiaSectConfig.numero(registro, DiaSectConfig.MOV_ATCO)),
+                        comAssistente(registro),
+                        positivo(DiaSectConfig.numero(registro, DiaSectConfig.QTD_CTR)), positivo(DiaSectConfig.numero(registro, DiaSectConfig.QTD_ASS)));
+            }, qtd -> qtdBytes = qtd);
+        }
+
+        private static boolean comAssistente(RegistroCsv registro) {
+            int inicio = registro.inicioCampo(DiaSectConfig.ASS);
+            return registro.fimCampo(DiaSectConfig.ASS) - inicio != SEM_ASSISTENTE.length()
+                    || registro.charAt(inicio) != '"' || registro.charAt(inicio + 1) != '"';
+        }
+
+        /**
+         * @param setor o texto do campo SETOR, entre aspas
+         * @return o índice do setor, ou -1 se ele não é acompanhado
+         */
+        private static int indiceSetor(String setor) {
+            if (setor.length() < 2 || setor.charAt(0) != '"' || setor.charAt(setor.length() - 1) != '"') {
+                return -1;
+            }
+            return SETORES.indexOf(setor.substring(1, setor.length() - 1));
+        }
+
+        private static int positivo(int numero) {
+            return Math.max(numero, 0);
+        }
+    }
+}
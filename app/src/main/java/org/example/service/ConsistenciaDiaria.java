@@ -0,0 +1,315 @@
+package org.example.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import org.example.csv.LeitorCsvCompactado;
+import org.example.csv.LeitorDataHora;
+import org.example.csv.RegistroCsv;
+import org.example.model.DiaSectConfig;
+import org.example.model.Dicionario;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.example.util.LoggerUtil;
+
+/**
+ * Verifica a consistência entre as planilhas config e sect_config de um
+ * mesmo dia.
+ *
+ * <p>
+ * A planilha config tem uma linha por minuto com a configuração do ACC, e a
+ * sect_config tem, para o mesmo minuto, uma linha por setor com movimento. As
+ * duas são cruzadas pelo minuto do dia: o config_id, QTD_CTR, QTD_ASS e
+ * SECT_CONFIG de cada linha da sect_config devem ser os da linha da config do
+ * mesmo minuto, a soma de MOV_SET das linhas do minuto deve ser igual ao MOV
+ * da config, e cada SETOR deve fazer parte do SECT_CONFIG do minuto, uma
+ * única vez. Os setores sem movimento não aparecem na sect_config, então um
+ * setor do SECT_CONFIG sem linha no minuto não é uma divergência.</p>
+ *
+ * <p>
+ * Cada arquivo é lido uma única vez. A sect_config é carregada em um
+ * {@link DiaSectConfig} e indexada pelo minuto em vetores de
+ * {@value IndiceMinutos#MINUTOS_DIA} posições; a config é então lida linha a
+ * linha e cada linha é comparada diretamente com as linhas do seu minuto. Os
+ * textos de config_id e SECT_CONFIG da config são convertidos em ordinais dos
+ * dicionários do dia, de modo que a comparação é feita entre inteiros. As
+ * linhas com quantidade de campos incorreta ou horário malformado, que já
+ * constam do relatório de integridade de cada arquivo, são ignoradas, assim
+ * como as linhas repetidas de um mesmo minuto na config após a
+ * primeira.</p>
+ *
+ * @author luisg
+ */
+public final class ConsistenciaDiaria {
+
+    private static final Logger log = LoggerUtil.getLogger();
+
+    /**
+     * O sufixo do relatório de consistência, precedido pela data do dia.
+     */
+    public static final String SUFIXO = "_consistencia.txt";
+
+    private static final int CONFIG_ID = 3;
+    private static final int QTD_CTR = 4;
+    private static final int QTD_ASS = 5;
+    private static final int MOV = 6;
+    private static final int SECT_CONFIG = 7;
+
+    private ConsistenciaDiaria() {
+    }
+
+    /**
+     * Cruza as planilhas config e sect_config de um dia e grava o relatório
+     * de consistência na pasta Relatórios da planilha config, com o nome
+     * {@code AAAAMMDD_consistencia.txt}.
+     *
+     * @param config o caminho da planilha config
+     * @param sectConfig o caminho da planilha sect_config do mesmo dia
+     * @param detalhar caso true o relatório detalhará todas as verificações
+     * mesmo que não encontre divergências
+     * @return o resultado da verificação, com status
+     * {@link StatusArquivo#VALIDADO} se o relatório foi gerado ou
+     * {@link StatusArquivo#ERRO} em caso de erro, e a soma das linhas e bytes
+     * dos dois arquivos
+     */
+    public static ResultadoValidacao verificar(Path config, Path sectConfig, boolean detalhar) {
+        long inicio = System.nanoTime();
+        String prefixo = getPrefixo(config);
+        Path relatorio = Planilha.getPastaRelatorios(config).resolve(prefixo + SUFIXO);
+        String nomes = config.getFileName() + " x " + sectConfig.getFileName();
+        log.info(() -> "Verificando consistência entre " + nomes);
+
+        Cruzamento cruzamento = new Cruzamento(detalhar);
+        long qtdLinhas = 0;
+        LongAdder qtdBytes = new LongAdder();
+        try {
+            qtdLinhas += Planilha.lerLinhas(sectConfig, cruzamento::adicionarSectConfig, qtdBytes::add);
+            cruzamento.indexar();
+            qtdLinhas += Planilha.lerLinhas(config, cruzamento::compararConfig, qtdBytes::add);
+
+            try (Relatorio relatorioConsistencia = Relatorio.criar(relatorio, "RELATÓRIO DE CONSISTÊNCIA", nomes)) {
+                cruzamento.concluir(relatorioConsistencia);
+                relatorioConsistencia.concluir();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            Planilha.registrarErro(config.resolveSibling(prefixo + "_consistencia.csv"),
+                    "Erro ao verificar a consistência entre " + nomes, e);
+            return new ResultadoValidacao(StatusArquivo.ERRO, qtdLinhas, qtdBytes.sum(), System.nanoTime() - inicio);
+        } catch (Exception e) {
+            Planilha.registrarErro(config.resolveSibling(prefixo + "_consistencia.csv"),
+                    "Exceção ao verificar a consistência entre " + nomes, e);
+            return new ResultadoValidacao(StatusArquivo.ERRO, qtdLinhas, qtdBytes.sum(), System.nanoTime() - inicio);
+        }
+        return new ResultadoValidacao(StatusArquivo.VALIDADO, qtdLinhas, qtdBytes.sum(), System.nanoTime() - inicio);
+    }
+
+    /**
+     * @param arquivo o caminho de uma planilha config ou sect_config
+     * @return a parte do nome do arquivo que identifica o dia, antes do
+     * sufixo do tipo e da extensão .gz
+     */
+    public static String getPrefixo(Path arquivo) {
+        String nome = LeitorCsvCompactado.getNomeCsv(arquivo);
+        if (nome.endsWith(PlanilhaSectConfig.SUFIXO)) {
+            return nome.substring(0, nome.length() - PlanilhaSectConfig.SUFIXO.length());
+        }
+        if (nome.endsWith(PlanilhaConfig.SUFIXO)) {
+            return nome.substring(0, nome.length() - PlanilhaConfig.SUFIXO.length());
+        }
+        return nome;
+    }
+
+    /**
+     * Estado do cruzamento de um dia: as linhas da sect_config indexadas pelo
+     * minuto e as divergências encontradas.
+     */
+    private static class Cruzamento {
+
+        private final boolean detalhar;
+        private final DiaSectConfig dia = new DiaSectConfig(PlanilhaSectConfig.SETORES);
+        /**
+         * Linhas da sect_config do minuto {@code m}: {@code ordem[inicios[m]]}
+         * a {@code ordem[inicios[m + 1] - 1]}.
+         */
+        private final int[] inicios = new int[IndiceMinutos.MINUTOS_DIA + 1];
+        private int[] ordem;
+        private final BitSet minutosDaConfig = new BitSet(IndiceMinutos.MINUTOS_DIA);
+        /**
+         * Setores de cada SECT_CONFIG, pelo ordinal do SECT_CONFIG no
+         * dicionário do dia.
+         */
+        private final Map<Integer, BitSet> setoresPorSectConfig = new HashMap<>();
+        private final BitSet setoresDoMinuto = new BitSet();
+
+        private final Ocorrencias configIdDivergente = new Ocorrencias();
+        private final Ocorrencias qtdDivergente = new Ocorrencias();
+        private final Ocorrencias sectConfigDivergente = new Ocorrencias();
+        private final Ocorrencias movDivergente = new Ocorrencias();
+        private final Ocorrencias setorForaDoSectConfig = new Ocorrencias();
+        private final Ocorrencias setorRepetido = new Ocorrencias();
+        private final Ocorrencias minutoAusenteNaConfig = new Ocorrencias();
+
+        private Cruzamento(boolean detalhar) {
+            this.detalhar = detalhar;
+        }
+
+        private void adicionarSectConfig(RegistroCsv registro) {
+            if (registro.getQtdCampos() == PlanilhaSectConfig.CABECALHO_LENGTH
+                    && !registro.conteudoIgual(PlanilhaSectConfig.CABECALHO)) {
+                dia.adicionar(registro);
+            }
+        }
+
+        /**
+         * Ordena as linhas da sect_config pelo minuto, por contagem.
+         */
+        private void indexar() {
+            for (int linha = 0; linha < dia.getQtdLinhas(); linha++) {
+                int minuto = dia.getMinuto(linha);
+                if (minuto != DiaSectConfig.MINUTO_INVALIDO) {
+                    inicios[minuto + 1]++;
+                }
+            }
+            for (int minuto = 0; minuto < IndiceMinutos.MINUTOS_DIA; minuto++) {
+                inicios[minuto + 1] += inicios[minuto];
+            }
+            ordem = new int[inicios[IndiceMinutos.MINUTOS_DIA]];
+            int[] proximas = new int[IndiceMinutos.MINUTOS_DIA];
+            System.arraycopy(inicios, 0, proximas, 0, IndiceMinutos.MINUTOS_DIA);
+            for (int linha = 0; linha < dia.getQtdLinhas(); linha++) {
+                int minuto = dia.getMinuto(linha);
+                if (minuto != DiaSectConfig.MINUTO_INVALIDO) {
+                    ordem[proximas[minuto]++] = linha;
+                }
+            }
+        }
+
+        private void compararConfig(RegistroCsv registro) {
+            if (registro.getQtdCampos() != PlanilhaConfig.QTD_CAMPOS || registro.conteudoIgual(PlanilhaConfig.CABECALHO)) {
+                return;
+            }
+            int minuto = LeitorDataHora.minutoDoDia(registro, registro.inicioCampo(2), registro.fimCampo(2));
+            if (minuto == LeitorDataHora.INVALIDO || minutosDaConfig.get(minuto)) {
+                return;
+            }
+            minutosDaConfig.set(minuto);
+
+            int endereco = registro.getEndereco();
+            int configId = dia.getConfigIds().ordinal(registro, CONFIG_ID);
+            int sectConfig = dia.getSectConfigs().ordinal(registro, SECT_CONFIG);
+            int qtdCtr = DiaSectConfig.numero(registro, QTD_CTR);
+            int qtdAss = DiaSectConfig.numero(registro, QTD_ASS);
+            BitSet setores = getSetores(sectConfig);
+            setoresDoMinuto.clear();
+            long somaMovSet = 0;
+
+            for (int i = inicios[minuto]; i < inicios[minuto + 1]; i++) {
+                int linha = ordem[i];
+                if (dia.getConfigId(linha) != configId && configIdDivergente.contar()) {
+                    configIdDivergente.listar(ocorrencia(linha, endereco)
+                            .append(", config_id ").append(registro, registro.inicioCampo(CONFIG_ID), registro.fimCampo(CONFIG_ID))
+                            .append(')').toString());
+                }
+                if ((dia.getQtdCtr(linha) != qtdCtr || dia.getQtdAss(linha) != qtdAss) && qtdDivergente.contar()) {
+                    qtdDivergente.listar(ocorrencia(linha, endereco)
+                            .append(", QTD_CTR ").append(registro, registro.inicioCampo(QTD_CTR), registro.fimCampo(QTD_CTR))
+                            .append(", QTD_ASS ").append(registro, registro.inicioCampo(QTD_ASS), registro.fimCampo(QTD_ASS))
+                            .append(')').toString());
+                }
+                if (dia.getSectConfig(linha) != sectConfig && sectConfigDivergente.contar()) {
+                    sectConfigDivergente.listar(ocorrencia(linha, endereco).append(')').toString());
+                }
+
+                int setor = dia.getSetor(linha);
+                if (setor == Dicionario.AUSENTE || setores == null || !setores.get(setor)) {
+                    if (setorForaDoSectConfig.contar()) {
+                        setorForaDoSectConfig.listar(ocorrencia(linha, endereco).append(')').toString());
+                    }
+                } else if (setoresDoMinuto.get(setor)) {
+                    setorRepetido.adicionar(dia.getEndereco(linha), dia.getConteudo(linha));
+                } else {
+                    setoresDoMinuto.set(setor);
+                }
+
+                int movSet = dia.getMovSet(linha);
+                somaMovSet += movSet == DiaSectConfig.NUMERO_INVALIDO ? 0 : movSet;
+            }
+
+            if (DiaSectConfig.numero(registro, MOV) != somaMovSet && movDivergente.contar()) {
+                movDivergente.listar(Ocorrencias.linha(endereco).append(" - ").append(registro)
+                        .append(" (soma de MOV_SET: ").append(somaMovSet).append(')').toString());
+            }
+        }
+
+        /**
+         * Inicia a ocorrência de uma linha da sect_config com a referência à
+         * linha da config do mesmo minuto, sem fechar o parêntese.
+         */
+        private StringBuilder ocorrencia(int linha, int enderecoConfig) {
+            return Ocorrencias.linha(dia.getEndereco(linha)).append(" - ").append(dia.getConteudo(linha))
+                    .append(" (config: linha ").append(enderecoConfig);
+        }
+
+        /**
+         * Obtém os ordinais dos setores de um SECT_CONFIG, separados por
+         * vírgula dentro de cada grupo e por barra vertical entre os grupos,
+         * calculados uma única vez para cada SECT_CONFIG do dia.
+         *
+         * @return os ordinais dos setores, ou null se o dicionário está cheio
+         */
+        private BitSet getSetores(int sectConfig) {
+            if (sectConfig == Dicionario.AUSENTE) {
+                return null;
+            }
+            BitSet setores = setoresPorSectConfig.get(sectConfig);
+            if (setores == null) {
+                setores = new BitSet();
+                for (String setor : dia.getSectConfigs().getTexto(sectConfig).split("[,|]")) {
+                    int ordinal = dia.getSetores().ordinal('"' + setor.trim() + '"');
+                    if (ordinal != Dicionario.AUSENTE) {
+                        setores.set(ordinal);
+                    }
+                }
+                setoresPorSectConfig.put(sectConfig, setores);
+            }
+            return setores;
+        }
+
+        private void concluir(Relatorio relatorio) {
+            for (int minuto = 0; minuto < IndiceMinutos.MINUTOS_DIA; minuto++) {
+                if (!minutosDaConfig.get(minuto)) {
+                    for (int i = inicios[minuto]; i < inicios[minuto + 1]; i++) {
+                        minutoAusenteNaConfig.adicionar(dia.getEndereco(ordem[i]), dia.getConteudo(ordem[i]));
+                    }
+                }
+            }
+
+            escrever(relatorio, "CONFIG_ID DIVERGENTE DA CONFIG", configIdDivergente);
+            escrever(relatorio, "QTD_CTR OU QTD_ASS DIVERGENTE DA CONFIG", qtdDivergente);
+            escrever(relatorio, "SECT_CONFIG DIVERGENTE DA CONFIG", sectConfigDivergente);
+            escrever(relatorio, "MOV DA CONFIG DIFERENTE DA SOMA DE MOV_SET", movDivergente);
+            escrever(relatorio, "SETOR FORA DO SECT_CONFIG", setorForaDoSectConfig);
+            escrever(relatorio, "SETOR REPETIDO NO MESMO MINUTO", setorRepetido);
+            escrever(relatorio, "HORÁRIO DA SECT_CONFIG AUSENTE NA CONFIG", minutoAusenteNaConfig);
+        }
+
+        private void escrever(Relatorio relatorio, String titulo, Ocorrencias ocorrencias) {
+            if (ocorrencias.isEmpty() && !detalhar) {
+                return;
+            }
+            relatorio.adicionar("\n" + titulo);
+            if (ocorrencias.isEmpty()) {
+                relatorio.adicionar("\tNenhuma divergência");
+            } else {
+                relatorio.adicionar(ocorrencias);
+                relatorio.adicionar("\tQtd divergências: " + ocorrencias.getTotal());
+            }
+        }
+    }
+}
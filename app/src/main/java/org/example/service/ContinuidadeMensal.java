@@ -0,0 +1,316 @@
+package org.example.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import org.example.csv.LeitorDataHora;
+import org.example.csv.RegistroCsv;
+import org.example.model.DiaSectConfig;
+import org.example.model.Dicionario;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.example.model.TipoArquivo;
+import org.example.util.LoggerUtil;
+
+/**
+ * Verifica a continuidade de uma sequência de planilhas diárias do mesmo
+ * tipo, como as de um mês, inclusive na virada de um dia para o outro.
+ *
+ * <p>
+ * As planilhas são ordenadas pela data no nome do arquivo e lidas em ordem,
+ * uma única vez cada, como se fossem um único arquivo. Entre uma linha e a
+ * seguinte é guardado apenas o necessário para a comparação: o instante, o
+ * config_id e o SECT_CONFIG da linha anterior e onde ela está, de modo que a
+ * memória usada não depende da quantidade de arquivos. Os config_id e
+ * SECT_CONFIG são guardados como ordinais de dicionários, que crescem apenas
+ * com a quantidade de configurações distintas.</p>
+ *
+ * <p>
+ * São verificados os dias sem planilha entre o primeiro e o último, os
+ * intervalos sem registros e os registros sobrepostos ou fora de ordem,
+ * inclusive entre o último minuto de um dia e o primeiro do seguinte, as
+ * linhas com data diferente da data do arquivo, que ficam fora da sequência
+ * para não se repetirem como intervalos e sobreposições, a coluna week, que deve ser o
+ * dia da semana da data (1 para domingo a 7 para sábado), e as mudanças de
+ * config_id ou SECT_CONFIG exatamente na virada do dia, que indicam uma
+ * configuração interrompida pela exportação. Na planilha config cada minuto
+ * deve ter uma única linha; na sect_config as linhas de um mesmo minuto são
+ * consecutivas. As linhas com quantidade de campos incorreta ou data e
+ * horário malformados, que já constam do relatório de integridade de cada
+ * arquivo, são ignoradas.</p>
+ *
+ * @author luisg
+ */
+public final class ContinuidadeMensal {
+
+    private static final Logger log = LoggerUtil.getLogger();
+
+    private static final DateTimeFormatter FORMATO_NOME = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final int MINUTOS_DIA = IndiceMinutos.MINUTOS_DIA;
+    private static final long NENHUM = Long.MIN_VALUE;
+
+    private static final int SEMANA = 0;
+    private static final int DIA = 1;
+    private static final int HORARIO = 2;
+    private static final int CONFIG_ID = 3;
+
+    private ContinuidadeMensal() {
+    }
+
+    /**
+     * Verifica a continuidade das planilhas informadas e grava o relatório na
+     * pasta Relatórios da primeira delas, com o nome
+     * {@code AAAAMMDD_a_AAAAMMDD_continuidade_tipo.txt}.
+     *
+     * @param tipo {@link TipoArquivo#CONFIG} ou {@link TipoArquivo#SECT_CONFIG}
+     * @param arquivos as planilhas, em qualquer ordem; as que não têm a data
+     * no início do nome são ignoradas e listadas no relatório
+     * @param detalhar caso true o relatório detalhará todas as verificações
+     * mesmo que não encontre erros
+     * @return o resultado da verificação, com status
+     * {@link StatusArquivo#VALIDADO} se o relatório foi gerado ou
+     * {@link StatusArquivo#ERRO} em caso de erro, e a soma das linhas e bytes
+     * dos arquivos lidos
+     * @throws IllegalArgumentException se o tipo não for config nem
+     * sect_config
+     */
+    public static ResultadoValidacao verificar(TipoArquivo tipo, List<Path> arquivos, boolean detalhar) {
+        if (tipo != TipoArquivo.CONFIG && tipo != TipoArquivo.SECT_CONFIG) {
+            throw new IllegalArgumentException("Tipo de arquivo sem verificação de continuidade: " + tipo);
+        }
+        long inicio = System.nanoTime();
+        Sequencia sequencia = new Sequencia(tipo, detalhar);
+        List<Dia> dias = new ArrayList<>();
+        for (Path arquivo : arquivos) {
+            try {
+                dias.add(new Dia(arquivo, LocalDate.parse(ConsistenciaDiaria.getPrefixo(arquivo), FORMATO_NOME).toEpochDay()));
+            } catch (DateTimeParseException e) {
+                sequencia.semData.adicionar("\t" + arquivo.getFileName());
+            }
+        }
+        if (dias.isEmpty()) {
+            return ResultadoValidacao.semLeitura(StatusArquivo.ERRO);
+        }
+        dias.sort(Comparator.comparingLong((Dia dia) -> dia.data).thenComparing(dia -> dia.arquivo));
+
+        Dia primeiro = dias.get(0);
+        Dia ultimo = dias.get(dias.size() - 1);
+        String periodo = ConsistenciaDiaria.getPrefixo(primeiro.arquivo) + "_a_" + ConsistenciaDiaria.getPrefixo(ultimo.arquivo);
+        Path relatorio = Planilha.getPastaRelatorios(primeiro.arquivo).resolve(periodo + "_continuidade_" + tipo + ".txt");
+        String descricao = tipo + ": " + formatarData(primeiro.data) + " a " + formatarData(ultimo.data)
+                + " (" + dias.size() + " arquivos)";
+        log.info(() -> "Verificando continuidade " + descricao);
+
+        long qtdLinhas = 0;
+        LongAdder qtdBytes = new LongAdder();
+        try {
+            for (Dia dia : dias) {
+                sequencia.iniciarDia(dia);
+                qtdLinhas += Planilha.lerLinhas(dia.arquivo, sequencia::verificar, qtdBytes::add);
+            }
+
+            try (Relatorio relatorioContinuidade = Relatorio.criar(relatorio, "RELATÓRIO DE CONTINUIDADE", descricao)) {
+                sequencia.concluir(relatorioContinuidade);
+                relatorioContinuidade.concluir();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            Planilha.registrarErro(primeiro.arquivo.resolveSibling(periodo + "_continuidade_" + tipo + ".csv"),
+                    "Erro ao verificar a continuidade " + descricao, e);
+            return new ResultadoValidacao(StatusArquivo.ERRO, qtdLinhas, qtdBytes.sum(), System.nanoTime() - inicio);
+        } catch (Exception e) {
+            Planilha.registrarErro(primeiro.arquivo.resolveSibling(periodo + "_continuidade_" + tipo + ".csv"),
+                    "Exceção ao verificar a continuidade " + descricao, e);
+            return new ResultadoValidacao(StatusArquivo.ERRO, qtdLinhas, qtdBytes.sum(), System.nanoTime() - inicio);
+        }
+        return new ResultadoValidacao(StatusArquivo.VALIDADO, qtdLinhas, qtdBytes.sum(), System.nanoTime() - inicio);
+    }
+
+    /**
+     * @param diaEpoch dia desde a época
+     * @return o dia da semana na convenção da coluna week: 1 para domingo a 7
+     * para sábado
+     */
+    static int diaDaSemana(long diaEpoch) {
+        // 01/01/1970 foi uma quinta-feira
+        return (int) Math.floorMod(diaEpoch + 4, 7L) + 1;
+    }
+
+    private static String formatarData(long diaEpoch) {
+        return LocalDate.ofEpochDay(diaEpoch).format(FORMATO_DATA);
+    }
+
+    private static String formatarInstante(long minutoEpoch) {
+        int minuto = (int) Math.floorMod(minutoEpoch, (long) MINUTOS_DIA);
+        StringBuilder sb = new StringBuilder(formatarData(Math.floorDiv(minutoEpoch, (long) MINUTOS_DIA))).append(' ');
+        return sb.append(minuto / 60 < 10 ? "0" : "").append(minuto / 60).append(':')
+                .append(minuto % 60 < 10 ? "0" : "").append(minuto % 60).toString();
+    }
+
+    /**
+     * Uma planilha e o dia do seu nome.
+     */
+    private static class Dia {
+
+        private final Path arquivo;
+        private final long data;
+
+        private Dia(Path arquivo, long data) {
+            this.arquivo = arquivo;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Estado da leitura das planilhas, com a última linha lida e as
+     * ocorrências encontradas.
+     */
+    private static class Sequencia {
+
+        private static final int CAPACIDADE_DICIONARIOS = Short.MAX_VALUE;
+
+        private final boolean detalhar;
+        private final boolean umaLinhaPorMinuto;
+        private final int qtdCampos;
+        private final String cabecalho;
+        private final int colunaSectConfig;
+        private final Dicionario configIds = new Dicionario(CAPACIDADE_DICIONARIOS);
+        private final Dicionario sectConfigs = new Dicionario(CAPACIDADE_DICIONARIOS);
+
+        private Dia dia;
+        private long diaAnterior = NENHUM;
+        private long minutoAnterior = NENHUM;
+        private int configIdAnterior;
+        private int sectConfigAnterior;
+        private Path arquivoAnterior;
+        private int enderecoAnterior;
+
+        private final Ocorrencias semData = new Ocorrencias();
+        private final Ocorrencias diasAusentes = new Ocorrencias();
+        private final Ocorrencias intervalos = new Ocorrencias();
+        private final Ocorrencias sobrepostos = new Ocorrencias();
+        private final Ocorrencias outroDia = new Ocorrencias();
+        private final Ocorrencias semana = new Ocorrencias();
+        private final Ocorrencias viradaDoDia = new Ocorrencias();
+
+        private Sequencia(TipoArquivo tipo, boolean detalhar) {
+            this.detalhar = detalhar;
+            this.umaLinhaPorMinuto = tipo == TipoArquivo.CONFIG;
+            this.qtdCampos = umaLinhaPorMinuto ? PlanilhaConfig.QTD_CAMPOS : PlanilhaSectConfig.CABECALHO_LENGTH;
+            this.cabecalho = umaLinhaPorMinuto ? PlanilhaConfig.CABECALHO : PlanilhaSectConfig.CABECALHO;
+            this.colunaSectConfig = umaLinhaPorMinuto ? 7 : DiaSectConfig.SECT_CONFIG;
+        }
+
+        /**
+         * Registra os dias sem planilha entre o dia anterior e o que começa a
+         * ser lido.
+         */
+        private void iniciarDia(Dia proximo) {
+            if (diaAnterior != NENHUM) {
+                for (long ausente = diaAnterior + 1; ausente < proximo.data; ausente++) {
+                    diasAusentes.adicionar("\t" + formatarData(ausente));
+                }
+            }
+            diaAnterior = proximo.data;
+            dia = proximo;
+        }
+
+        private void verificar(RegistroCsv registro) {
+            if (registro.getQtdCampos() != qtdCampos || registro.conteudoIgual(cabecalho)) {
+                return;
+            }
+            long data = LeitorDataHora.diaEpochDiaMesAno(registro, registro.inicioCampo(DIA), registro.fimCampo(DIA));
+            int minutoDoDia = LeitorDataHora.minutoDoDia(registro, registro.inicioCampo(HORARIO), registro.fimCampo(HORARIO));
+            if (data == LeitorDataHora.DIA_INVALIDO || minutoDoDia == LeitorDataHora.INVALIDO) {
+                return;
+            }
+
+            int endereco = registro.getEndereco();
+            if (data != dia.data) {
+                if (outroDia.contar()) {
+                    outroDia.listar(linha(dia.arquivo, endereco).append(" - ").append(registro).toString());
+                }
+                return;
+            }
+            if (DiaSectConfig.numero(registro, SEMANA) != diaDaSemana(data) && semana.contar()) {
+                semana.listar(linha(dia.arquivo, endereco).append(" - ").append(registro)
+                        .append(" (dia da semana: ").append(diaDaSemana(data)).append(')').toString());
+            }
+
+            long minuto = data * MINUTOS_DIA + minutoDoDia;
+            int configId = configIds.ordinal(registro, CONFIG_ID);
+            int sectConfig = sectConfigs.ordinal(registro, colunaSectConfig);
+            if (minutoAnterior != NENHUM) {
+                long esperado = minutoAnterior + 1;
+                if (minuto > esperado) {
+                    if (intervalos.contar()) {
+                        intervalos.listar(new StringBuilder("\tSem registros de ").append(formatarInstante(esperado))
+                                .append(" a ").append(formatarInstante(minuto - 1))
+                                .append(" (").append(minuto - esperado).append(" minutos), antes de ")
+                                .append(dia.arquivo.getFileName()).append(", linha ").append(endereco).toString());
+                    }
+                } else if (minuto < minutoAnterior || (umaLinhaPorMinuto && minuto == minutoAnterior)) {
+                    if (sobrepostos.contar()) {
+                        sobrepostos.listar(linha(dia.arquivo, endereco).append(" - ").append(registro)
+                                .append(" (após ").append(formatarInstante(minutoAnterior)).append(')').toString());
+                    }
+                }
+
+                if (minuto == esperado && minutoDoDia == 0
+                        && (configId != configIdAnterior || sectConfig != sectConfigAnterior) && viradaDoDia.contar()) {
+                    viradaDoDia.listar(linha(dia.arquivo, endereco).append(" - ").append(registro)
+                            .append(" (anterior: ").append(arquivoAnterior.getFileName()).append(", linha ").append(enderecoAnterior)
+                            .append(", config_id ").append(textoOuAusente(configIds, configIdAnterior)).append(')').toString());
+                }
+            }
+
+            if (minutoAnterior == NENHUM || minuto >= minutoAnterior) {
+                minutoAnterior = minuto;
+                configIdAnterior = configId;
+                sectConfigAnterior = sectConfig;
+                arquivoAnterior = dia.arquivo;
+                enderecoAnterior = endereco;
+            }
+        }
+
+        private static StringBuilder linha(Path arquivo, int endereco) {
+            return new StringBuilder(160).append('\t').append(arquivo.getFileName()).append(Ocorrencias.linha(endereco));
+        }
+
+        private static String textoOuAusente(Dicionario dicionario, int ordinal) {
+            return ordinal == Dicionario.AUSENTE ? "?" : dicionario.getTexto(ordinal);
+        }
+
+        private void concluir(Relatorio relatorio) {
+            escrever(relatorio, "ARQUIVOS SEM DATA NO NOME", semData);
+            escrever(relatorio, "DIAS SEM ARQUIVO", diasAusentes);
+            escrever(relatorio, "INTERVALOS SEM REGISTROS", intervalos);
+            escrever(relatorio, "REGISTROS SOBREPOSTOS OU FORA DE ORDEM", sobrepostos);
+            escrever(relatorio, "LINHA COM DATA DIFERENTE DA DATA DO ARQUIVO", outroDia);
+            escrever(relatorio, "WEEK INCOMPATÍVEL COM O DIA DA SEMANA", semana);
+            escrever(relatorio, "MUDANÇA DE CONFIGURAÇÃO NA VIRADA DO DIA", viradaDoDia);
+        }
+
+        private void escrever(Relatorio relatorio, String titulo, Ocorrencias ocorrencias) {
+            if (ocorrencias.isEmpty() && !detalhar) {
+                return;
+            }
+            relatorio.adicionar("\n" + titulo);
+            if (ocorrencias.isEmpty()) {
+                relatorio.adicionar("\tNenhuma ocorrência");
+            } else {
+                relatorio.adicionar(ocorrencias);
+                relatorio.adicionar("\tQtd ocorrências: " + ocorrencias.getTotal());
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.example.service;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import org.example.csv.RegistroCsv;
+
+/**
+ * Encadeamento de verificações que recebe as linhas de um arquivo, ou de uma
+ * parte dele, e mede cada etapa.
+ *
+ * <p>
+ * Para cada verificação são contadas as linhas e os bytes que ela recebeu. O
+ * tempo é amostrado: apenas uma a cada {@link #AMOSTRAGEM} linhas é
+ * cronometrada, e o tempo da etapa é estimado proporcionalmente às linhas que
+ * ela recebeu. Cronometrar todas as linhas custaria uma leitura do relógio
+ * por etapa e por linha, o que é comparável ao custo das verificações mais
+ * simples.</p>
+ *
+ * <p>
+ * O encadeamento é serializável quando todas as suas verificações são, para
+ * que a verificação incremental de um arquivo continue, na execução
+ * seguinte, com o estado deixado pela anterior.</p>
+ *
+ * @param <V> tipo das verificações; apenas encadeamentos de
+ * {@link VerificacaoCombinavel} podem ser combinados
+ * @author luisg
+ */
+final class Encadeamento<V extends Verificacao> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Intervalo entre as linhas cronometradas; deve ser uma potência de 2.
+     */
+    static final int AMOSTRAGEM = 64;
+
+    private final List<V> verificacoes;
+    private final long[] linhas;
+    private final long[] bytes;
+    private final long[] linhasAmostradas;
+    private final long[] nanosAmostrados;
+    private int contador;
+
+    /**
+     * @param verificacoes verificações, na ordem em que devem receber as
+     * linhas
+     */
+    Encadeamento(List<V> verificacoes) {
+        this.verificacoes = verificacoes;
+        this.linhas = new long[verificacoes.size()];
+        this.bytes = new long[verificacoes.size()];
+        this.linhasAmostradas = new long[verificacoes.size()];
+        this.nanosAmostrados = new long[verificacoes.size()];
+    }
+
+    /**
+     * Entrega uma linha às verificações até que alguma delas a filtre.
+     *
+     * @param registro a linha lida do arquivo
+     */
+    void aplicar(RegistroCsv registro) {
+        int tamanho = registro.length();
+        if ((++contador & (AMOSTRAGEM - 1)) != 0) {
+            for (int i = 0; i < linhas.length; i++) {
+                linhas[i]++;
+                bytes[i] += tamanho;
+                if (!verificacoes.get(i).verificar(registro)) {
+                    return;
+                }
+            }
+            return;
+        }
+
+        long anterior = System.nanoTime();
+        for (int i = 0; i < linhas.length; i++) {
+            linhas[i]++;
+            bytes[i] += tamanho;
+            linhasAmostradas[i]++;
+            boolean segue = verificacoes.get(i).verificar(registro);
+            long agora = System.nanoTime();
+            nanosAmostrados[i] += agora - anterior;
+            anterior = agora;
+            if (!segue) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Incorpora ao encadeamento o que verificou o trecho do arquivo
+     * imediatamente posterior ao dele, combinando cada verificação com a
+     * correspondente.
+     *
+     * @param <V> tipo das verificações, que devem ser combináveis
+     * @param anterior encadeamento que recebe o resultado
+     * @param posterior encadeamento criado pela mesma fábrica
+     * @see VerificacaoCombinavel#combinar(VerificacaoCombinavel)
+     */
+    static <V extends VerificacaoCombinavel> void combinar(Encadeamento<V> anterior, Encadeamento<V> posterior) {
+        for (int i = 0; i < anterior.linhas.length; i++) {
+            anterior.verificacoes.get(i).combinar(posterior.verificacoes.get(i));
+            anterior.linhas[i] += posterior.linhas[i];
+            anterior.bytes[i] += posterior.bytes[i];
+            anterior.linhasAmostradas[i] += posterior.linhasAmostradas[i];
+            anterior.nanosAmostrados[i] += posterior.nanosAmostrados[i];
+        }
+    }
+
+    /**
+     * Registra na medição as linhas, os bytes e o tempo estimado de cada
+     * verificação durante a leitura.
+     *
+     * @param medicao medição do arquivo
+     */
+    void registrar(MedicaoArquivo medicao) {
+        for (int i = 0; i < linhas.length; i++) {
+            long nanos = linhasAmostradas[i] == 0 ? 0 : nanosAmostrados[i] * linhas[i] / linhasAmostradas[i];
+            medicao.registrar(verificacoes.get(i).getNome(), linhas[i], bytes[i], nanos);
+        }
+    }
+
+    /**
+     * Zera as linhas, os bytes e o tempo contados, mantendo o estado das
+     * verificações, para que a medição de uma verificação incremental
+     * considere apenas as linhas lidas nela.
+     */
+    void reiniciarMedicao() {
+        Arrays.fill(linhas, 0);
+        Arrays.fill(bytes, 0);
+        Arrays.fill(linhasAmostradas, 0);
+        Arrays.fill(nanosAmostrados, 0);
+    }
+
+    /**
+     * @return as verificações, na ordem do encadeamento
+     */
+    List<V> getVerificacoes() {
+        return verificacoes;
+    }
+}
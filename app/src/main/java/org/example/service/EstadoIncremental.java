@@ -0,0 +1,256 @@
+package org.example.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.example.csv.LeitorCsvCompactado;
+import org.example.util.LoggerUtil;
+
+/**
+ * Estado da verificação incremental de um arquivo que ainda recebe linhas ao
+ * longo do dia.
+ *
+ * <p>
+ * O estado guarda até onde o arquivo foi lido, em bytes e em linhas, e o
+ * {@link Encadeamento} de verificações com tudo o que elas acumularam até ali:
+ * o índice de minutos, as linhas filtradas e as ocorrências de cada seção. Na
+ * verificação seguinte o encadeamento continua a partir dessa posição, e o
+ * relatório é gerado como se o arquivo inteiro tivesse sido lido.</p>
+ *
+ * <p>
+ * O estado é gravado na pasta Relatórios, ao lado do relatório do arquivo, e
+ * só é reaproveitado se a {@link CacheValidacao#VERSAO versão}, a opção
+ * {@code detalhar} e a classe de cada verificação forem as mesmas e se o
+ * arquivo ainda começar com os mesmos bytes e tiver, antes da posição
+ * registrada, os mesmos bytes lidos da última vez. Um arquivo reescrito ou
+ * truncado, ou um estado de outra versão do validador, é verificado
+ * novamente desde o início.</p>
+ *
+ * @param <V> tipo das verificações do encadeamento
+ * @author luisg
+ */
+final class EstadoIncremental<V extends Verificacao> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger log = LoggerUtil.getLogger();
+
+    /**
+     * Extensão do arquivo de estado, gravado na pasta Relatórios com o nome
+     * do arquivo verificado precedido de ponto.
+     */
+    static final String EXTENSAO = ".estado";
+    private static final int TAMANHO_AMOSTRA = 4096;
+
+    /**
+     * Classes fora do pacote {@code org.example} aceitas na leitura do estado,
+     * para que um arquivo de estado adulterado não instancie outras classes.
+     */
+    private static final Set<String> CLASSES_PERMITIDAS = new HashSet<>(Arrays.asList(
+            "java.util.ArrayList", "java.lang.Number", "java.lang.Integer", "java.lang.Boolean",
+            "[Ljava.lang.Object;", "[Ljava.lang.String;", "[B", "[I", "[J", "[Z", "[[B", "[[J"));
+
+    private final String versao;
+    private final boolean detalhar;
+    private final Encadeamento<V> encadeamento;
+    private long posicao;
+    private int qtdLinhas;
+    private byte[] amostraInicio = new byte[0];
+    private byte[] amostraFim = new byte[0];
+
+    /**
+     * Cria o estado de um arquivo ainda não lido.
+     *
+     * @param detalhar opção de detalhamento da verificação
+     * @param encadeamento verificações que receberão as linhas do arquivo;
+     * todas devem ser serializáveis
+     */
+    EstadoIncremental(boolean detalhar, Encadeamento<V> encadeamento) {
+        this.versao = CacheValidacao.VERSAO;
+        this.detalhar = detalhar;
+        this.encadeamento = encadeamento;
+    }
+
+    /**
+     * Lê o estado gravado para o arquivo.
+     *
+     * @param <V> tipo das verificações esperadas
+     * @param arquivo arquivo verificado
+     * @param detalhar opção de detalhamento da verificação
+     * @param tipoVerificacao tipo das verificações esperadas; um estado com
+     * outra verificação não é reaproveitado
+     * @return o estado, ou null se não houver estado gravado ou se ele não
+     * puder ser reaproveitado
+     */
+    static <V extends Verificacao> EstadoIncremental<V> carregar(Path arquivo, boolean detalhar, Class<V> tipoVerificacao) {
+        Path caminho = getCaminho(arquivo);
+        if (!Files.isRegularFile(caminho)) {
+            return null;
+        }
+
+        EstadoIncremental<?> estado;
+        try (InputStream in = Files.newInputStream(caminho); ObjectInputStream entrada = new EntradaRestrita(in)) {
+            estado = (EstadoIncremental<?>) entrada.readObject();
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            log.log(Level.INFO, "Estado incremental ignorado: " + caminho, e);
+            return null;
+        }
+
+        if (!estado.versao.equals(CacheValidacao.VERSAO) || estado.detalhar != detalhar) {
+            log.info(() -> "Estado incremental de outra versão ou opção de detalhamento: " + caminho);
+            return null;
+        }
+        for (Verificacao verificacao : estado.encadeamento.getVerificacoes()) {
+            if (!tipoVerificacao.isInstance(verificacao)) {
+                log.info(() -> "Estado incremental com " + verificacao.getClass().getSimpleName()
+                        + ", que não é " + tipoVerificacao.getSimpleName() + ": " + caminho);
+                return null;
+            }
+        }
+        try {
+            if (!estado.continuaEm(arquivo)) {
+                log.info(() -> "Arquivo alterado antes da posição já verificada; verificando desde o início: " + arquivo);
+                return null;
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Não foi possível comparar o arquivo com o estado incremental: " + arquivo, e);
+            return null;
+        }
+        // todas as verificações são do tipo esperado
+        @SuppressWarnings("unchecked")
+        EstadoIncremental<V> conferido = (EstadoIncremental<V>) estado;
+        return conferido;
+    }
+
+    /**
+     * Registra que as linhas do arquivo foram verificadas até a posição
+     * informada, guardando amostras do conteúdo lido para reconhecer, na
+     * próxima verificação, se o arquivo apenas cresceu.
+     *
+     * @param arquivo arquivo verificado
+     * @param novaPosicao posição seguinte à última linha completa verificada
+     * @param novaQtdLinhas número da última linha completa verificada
+     * @throws IOException se as amostras não puderem ser lidas
+     */
+    void avancar(Path arquivo, long novaPosicao, int novaQtdLinhas) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            amostraInicio = ler(canal, 0, Math.min(novaPosicao, TAMANHO_AMOSTRA));
+            long inicioFim = Math.max(0, novaPosicao - TAMANHO_AMOSTRA);
+            amostraFim = ler(canal, inicioFim, novaPosicao - inicioFim);
+        }
+        posicao = novaPosicao;
+        qtdLinhas = novaQtdLinhas;
+    }
+
+    /**
+     * Grava o estado na pasta Relatórios, em um arquivo temporário movido
+     * sobre o anterior. Uma falha é apenas registrada no log: a próxima
+     * verificação lê o arquivo desde o início.
+     *
+     * @param arquivo arquivo verificado
+     */
+    void salvar(Path arquivo) {
+        Path caminho = getCaminho(arquivo);
+        try {
+            Files.createDirectories(caminho.getParent());
+            Path temporario = Files.createTempFile(caminho.getParent(), caminho.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temporario); ObjectOutputStream saida = new ObjectOutputStream(out)) {
+                    saida.writeObject(this);
+                }
+                try {
+                    Files.move(temporario, caminho, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporario, caminho, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporario);
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Não foi possível gravar o estado incremental de " + arquivo, e);
+        }
+    }
+
+    /**
+     * @return as verificações, com o estado acumulado até {@link #getPosicao()}
+     */
+    Encadeamento<V> getEncadeamento() {
+        return encadeamento;
+    }
+
+    /**
+     * @return a posição seguinte à última linha completa verificada
+     */
+    long getPosicao() {
+        return posicao;
+    }
+
+    /**
+     * @return o número da última linha completa verificada
+     */
+    int getQtdLinhas() {
+        return qtdLinhas;
+    }
+
+    static Path getCaminho(Path arquivo) {
+        return Planilha.getOutputPath(arquivo).resolveSibling("." + LeitorCsvCompactado.getNomeSaida(arquivo) + EXTENSAO);
+    }
+
+    private boolean continuaEm(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            if (canal.size() < posicao) {
+                return false;
+            }
+            return Arrays.equals(amostraInicio, ler(canal, 0, amostraInicio.length))
+                    && Arrays.equals(amostraFim, ler(canal, posicao - amostraFim.length, amostraFim.length));
+        }
+    }
+
+    private static byte[] ler(FileChannel canal, long inicio, long tamanho) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) tamanho);
+        while (buffer.hasRemaining()) {
+            if (canal.read(buffer, inicio + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Leitura do estado que aceita apenas as classes do validador e as
+     * poucas classes da biblioteca padrão usadas por elas.
+     */
+    private static final class EntradaRestrita extends ObjectInputStream {
+
+        private EntradaRestrita(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass descricao) throws IOException, ClassNotFoundException {
+            String nome = descricao.getName();
+            if (!nome.startsWith("org.example.") && !CLASSES_PERMITIDAS.contains(nome)) {
+                throw new InvalidClassException(nome, "classe não permitida no estado incremental");
+            }
+            return super.resolveClass(descricao);
+        }
+    }
+}
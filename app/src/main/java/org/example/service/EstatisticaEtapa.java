@@ -0,0 +1,136 @@
+package org.example.service;
+
+/**
+ * Estatísticas acumuladas de uma etapa de verificação para um tipo de
+ * arquivo.
+ *
+ * <p>
+ * Os tempos por arquivo são distribuídos em um histograma de escala
+ * logarítmica: a posição 0 de {@link #getHistograma()} conta as execuções com
+ * menos de 1 µs e a posição {@code i} as execuções com duração entre
+ * 2<sup>i-1</sup> e 2<sup>i</sup> µs. Os percentis são estimados pelo limite
+ * superior da faixa em que caem, de modo que são aproximados para cima em até
+ * o dobro do valor real.</p>
+ *
+ * @author luisg
+ */
+public final class EstatisticaEtapa {
+
+    private final String tipo;
+    private final String etapa;
+    private final long execucoes;
+    private final long linhas;
+    private final long bytes;
+    private final long nanos;
+    private final long nanosMaximo;
+    private final long[] histograma;
+
+    EstatisticaEtapa(String tipo, String etapa, long execucoes, long linhas, long bytes, long nanos, long nanosMaximo, long[] histograma) {
+        this.tipo = tipo;
+        this.etapa = etapa;
+        this.execucoes = execucoes;
+        this.linhas = linhas;
+        this.bytes = bytes;
+        this.nanos = nanos;
+        this.nanosMaximo = nanosMaximo;
+        this.histograma = histograma;
+    }
+
+    /**
+     * @return o tipo de arquivo, como em
+     * {@link org.example.model.TipoArquivo#toString()}
+     */
+    public String getTipo() {
+        return tipo;
+    }
+
+    /**
+     * @return o nome da etapa, como {@code verificarCamposVazios}
+     */
+    public String getEtapa() {
+        return etapa;
+    }
+
+    /**
+     * @return a quantidade de arquivos em que a etapa foi executada
+     */
+    public long getExecucoes() {
+        return execucoes;
+    }
+
+    /**
+     * @return o total de linhas recebidas pela etapa
+     */
+    public long getLinhas() {
+        return linhas;
+    }
+
+    /**
+     * @return o total de bytes das linhas recebidas pela etapa; zero para as
+     * etapas que não leem o arquivo
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public double getTempoTotalMs() {
+        return nanos / 1e6;
+    }
+
+    public double getTempoMedioMs() {
+        return execucoes == 0 ? 0 : nanos / 1e6 / execucoes;
+    }
+
+    public double getTempoMaximoMs() {
+        return nanosMaximo / 1e6;
+    }
+
+    public double getTempoP50Ms() {
+        return percentil(0.50);
+    }
+
+    public double getTempoP90Ms() {
+        return percentil(0.90);
+    }
+
+    public double getTempoP99Ms() {
+        return percentil(0.99);
+    }
+
+    /**
+     * @return as linhas processadas por segundo de tempo da etapa
+     */
+    public double getLinhasPorSegundo() {
+        return nanos == 0 ? 0 : linhas * 1e9 / nanos;
+    }
+
+    /**
+     * @return os megabytes processados por segundo de tempo da etapa
+     */
+    public double getMegabytesPorSegundo() {
+        return nanos == 0 ? 0 : bytes / (1024.0 * 1024.0) * 1e9 / nanos;
+    }
+
+    /**
+     * @return a quantidade de execuções em cada faixa de duração
+     */
+    public long[] getHistograma() {
+        return histograma.clone();
+    }
+
+    private double percentil(double fracao) {
+        long alvo = (long) Math.ceil(execucoes * fracao);
+        long acumulado = 0;
+        for (int i = 0; i < histograma.length; i++) {
+            acumulado += histograma[i];
+            if (acumulado >= alvo && acumulado > 0) {
+                return Math.min(limiteSuperiorMs(i), getTempoMaximoMs());
+            }
+        }
+        return getTempoMaximoMs();
+    }
+
+    private static double limiteSuperiorMs(int faixa) {
+        return (1L << faixa) / 1e3;
+    }
+}
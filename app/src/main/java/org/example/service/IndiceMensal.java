@@ -0,0 +1,346 @@
+package org.example.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import org.example.csv.LeitorDataHora;
+import org.example.model.ArquivoCSV;
+import org.example.model.DiaSectConfig;
+import org.example.model.Dicionario;
+import org.example.model.TipoArquivo;
+import org.example.snapshot.DiaIndice;
+import org.example.snapshot.IndiceSetores;
+import org.example.snapshot.IndiceSetores.Campo;
+import org.example.snapshot.IndiceSetores.Origem;
+import org.example.snapshot.Snapshot;
+import org.example.util.LoggerUtil;
+
+/**
+ * Monta e reaproveita o {@link IndiceSetores} das planilhas config e
+ * sect_config de um período, como um mês.
+ *
+ * <p>
+ * As planilhas são agrupadas pela data no início do nome; as sem data, as
+ * de outros tipos e as que repetem a data de outra planilha do mesmo tipo
+ * são ignoradas. O índice é gravado na pasta Relatórios da primeira planilha,
+ * com o nome {@code AAAAMMDD_a_AAAAMMDD_indice_setores.indice}, e
+ * reaproveitado enquanto a versão do validador e o caminho, o tamanho e a
+ * data de modificação de cada planilha forem os mesmos. Na montagem cada dia
+ * é lido uma única vez, em paralelo com os demais, do snapshot quando ele
+ * está atual ou da planilha, com os mesmos filtros da validação; as linhas
+ * com horário, setor ou números inválidos e as repetidas ficam fora do
+ * índice.</p>
+ *
+ * @author luisg
+ */
+public final class IndiceMensal {
+
+    private static final Logger log = LoggerUtil.getLogger();
+
+    /**
+     * O sufixo do índice, precedido pelo período.
+     */
+    public static final String SUFIXO = "_indice_setores";
+
+    private static final DateTimeFormatter FORMATO_NOME = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final List<String> SETORES = Arrays.asList(PlanilhaSectConfig.SETORES);
+    private static final String[] COLUNAS_CONFIG = PlanilhaConfig.CABECALHO.split(";");
+    private static final String[] COLUNAS_SECT_CONFIG = PlanilhaSectConfig.CABECALHO.split(";");
+
+    private static final int HORARIO = 2;
+    private static final int CONFIG_ID = 3;
+    private static final int CONFIG_QTD_CTR = 4;
+    private static final int CONFIG_QTD_ASS = 5;
+    private static final int CONFIG_MOV = 6;
+
+    private IndiceMensal() {
+    }
+
+    /**
+     * Abre o índice das planilhas, se ele existir e estiver atual.
+     *
+     * @param arquivos as planilhas, como as de um mês
+     * @return o índice, ou null se não existir, estiver desatualizado ou não
+     * puder ser lido
+     * @throws IllegalArgumentException se nenhuma planilha config ou
+     * sect_config tiver a data no nome
+     */
+    public static IndiceSetores abrirAtual(List<ArquivoCSV> arquivos) {
+        Periodo periodo = new Periodo(arquivos);
+        Path caminho = periodo.getCaminho();
+        if (!Files.isRegularFile(caminho)) {
+            return null;
+        }
+        try {
+            IndiceSetores indice = IndiceSetores.abrir(caminho);
+            if (indice.isAtual(ValidadorArquivos.VERSAO_VALIDADOR, periodo.getOrigens())) {
+                return indice;
+            }
+            log.info(() -> "Índice desatualizado: " + caminho);
+        } catch (IOException e) {
+            log.warning(() -> "Índice ignorado: " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Monta o índice das planilhas, substituindo o anterior, e o abre.
+     *
+     * @param arquivos as planilhas, como as de um mês
+     * @param paralelismo quantidade máxima de dias lidos ao mesmo tempo
+     * @return o índice montado
+     * @throws IOException se alguma planilha não puder ser lida ou o índice
+     * não puder ser gravado
+     * @throws InterruptedException se a thread for interrompida enquanto
+     * aguarda a leitura dos dias
+     * @throws IllegalArgumentException se nenhuma planilha config ou
+     * sect_config tiver a data no nome
+     */
+    public static IndiceSetores construir(List<ArquivoCSV> arquivos, int paralelismo) throws IOException, InterruptedException {
+        Periodo periodo = new Periodo(arquivos);
+        Path caminho = periodo.getCaminho();
+        log.info(() -> "Montando o índice " + caminho.getFileName() + " com " + periodo.origens.size() + " planilhas");
+
+        List<Dia> dias = new ArrayList<>(periodo.dias.values());
+        List<DiaIndice> lidos = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(paralelismo, dias.size())),
+                new ValidadorArquivos.ThreadsDeValidacao());
+        try {
+            List<Future<DiaIndice>> tarefas = new ArrayList<>();
+            for (Dia dia : dias) {
+                tarefas.add(executor.submit(dia::indexar));
+            }
+            for (Future<DiaIndice> tarefa : tarefas) {
+                try {
+                    lidos.add(tarefa.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException) e.getCause();
+                    }
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long qtdIgnoradas = lidos.stream().mapToLong(DiaIndice::getQtdIgnoradas).sum();
+        if (qtdIgnoradas > 0) {
+            log.info(() -> qtdIgnoradas + " linhas com valores inválidos ou repetidos ficaram fora do índice");
+        }
+        Files.createDirectories(caminho.getParent());
+        IndiceSetores.gravar(caminho, ValidadorArquivos.VERSAO_VALIDADOR, SETORES, periodo.primeiroDia,
+                (int) (periodo.ultimoDia - periodo.primeiroDia + 1), lidos, periodo.getOrigens());
+        return IndiceSetores.abrir(caminho);
+    }
+
+    /**
+     * As planilhas config e sect_config de cada dia do período.
+     */
+    private static final class Periodo {
+
+        private final TreeMap<Long, Dia> dias = new TreeMap<>();
+        private final List<Path> origens = new ArrayList<>();
+        private final long primeiroDia;
+        private final long ultimoDia;
+
+        private Periodo(List<ArquivoCSV> arquivos) {
+            for (ArquivoCSV arquivoCSV : arquivos) {
+                TipoArquivo tipo = arquivoCSV.getTipo();
+                if (tipo != TipoArquivo.CONFIG && tipo != TipoArquivo.SECT_CONFIG) {
+                    continue;
+                }
+                Path arquivo = arquivoCSV.getPath().toAbsolutePath();
+                long data;
+                try {
+                    data = LocalDate.parse(ConsistenciaDiaria.getPrefixo(arquivo), FORMATO_NOME).toEpochDay();
+                } catch (DateTimeParseException e) {
+                    log.warning(() -> "Planilha sem data no nome ignorada no índice: " + arquivo);
+                    continue;
+                }
+                Dia dia = dias.computeIfAbsent(data, Dia::new);
+                if (tipo == TipoArquivo.CONFIG ? dia.config != null : dia.sectConfig != null) {
+                    log.warning(() -> "Planilha com a data de outra ignorada no índice: " + arquivo);
+                } else if (tipo == TipoArquivo.CONFIG) {
+                    dia.config = arquivo;
+                } else {
+                    dia.sectConfig = arquivo;
+                }
+            }
+            if (dias.isEmpty()) {
+                throw new IllegalArgumentException("Nenhuma planilha config ou sect_config com a data no nome");
+            }
+            for (Dia dia : dias.values()) {
+                if (dia.config != null) {
+                    origens.add(dia.config);
+                }
+                if (dia.sectConfig != null) {
+                    origens.add(dia.sectConfig);
+                }
+            }
+            this.primeiroDia = dias.firstKey();
+            this.ultimoDia = dias.lastKey();
+        }
+
+        private Path getCaminho() {
+            Path primeira = origens.get(0);
+            Path ultima = origens.get(origens.size() - 1);
+            return Planilha.getPastaRelatorios(primeira).resolve(ConsistenciaDiaria.getPrefixo(primeira) + "_a_"
+                    + ConsistenciaDiaria.getPrefixo(ultima) + SUFIXO + IndiceSetores.EXTENSAO);
+        }
+
+        /**
+         * @return as planilhas como estão agora, na ordem dos dias
+         */
+        private List<Origem> getOrigens() {
+            List<Origem> atuais = new ArrayList<>();
+            for (Path origem : origens) {
+                try {
+                    BasicFileAttributes atributos = Files.readAttributes(origem, BasicFileAttributes.class);
+                    atuais.add(new Origem(origem.toUri().toString(), atributos.size(), atributos.lastModifiedTime().toMillis()));
+                } catch (IOException e) {
+                    atuais.add(new Origem(origem.toUri().toString(), -1, -1));
+                }
+            }
+            return atuais;
+        }
+    }
+
+    /**
+     * As planilhas de um dia.
+     */
+    private static final class Dia {
+
+        private final long data;
+        private Path config;
+        private Path sectConfig;
+
+        private Dia(long data) {
+            this.data = data;
+        }
+
+        private DiaIndice indexar() throws IOException {
+            DiaIndice dia = new DiaIndice(data, SETORES.size());
+            if (config != null) {
+                Snapshot snapshot = Snapshot.abrirAtual(config, TipoArquivo.CONFIG, ValidadorArquivos.VERSAO_VALIDADOR);
+                if (snapshot != null) {
+                    indexarConfig(snapshot, dia);
+                } else {
+                    indexarConfig(config, dia);
+                }
+            }
+            if (sectConfig != null) {
+                Snapshot snapshot = Snapshot.abrirAtual(sectConfig, TipoArquivo.SECT_CONFIG, ValidadorArquivos.VERSAO_VALIDADOR);
+                if (snapshot != null) {
+                    indexarSectConfig(snapshot, dia);
+                } else {
+                    indexarSectConfig(sectConfig, dia);
+                }
+            }
+            return dia;
+        }
+
+        private static void indexarConfig(Snapshot snapshot, DiaIndice dia) {
+            Snapshot.Coluna horarios = snapshot.getColuna(COLUNAS_CONFIG[HORARIO]);
+            Snapshot.Coluna configIds = snapshot.getColuna(COLUNAS_CONFIG[CONFIG_ID]);
+            Snapshot.Coluna qtdsCtr = snapshot.getColuna(COLUNAS_CONFIG[CONFIG_QTD_CTR]);
+            Snapshot.Coluna qtdsAss = snapshot.getColuna(COLUNAS_CONFIG[CONFIG_QTD_ASS]);
+            Snapshot.Coluna movs = snapshot.getColuna(COLUNAS_CONFIG[CONFIG_MOV]);
+            int[] minutos = minutos(horarios);
+            int[] ordinais = new int[configIds.getQtdValores()];
+            for (int codigo = 0; codigo < ordinais.length; codigo++) {
+                ordinais[codigo] = dia.ordinal(Campo.CONFIG_ID, configIds.getValor(codigo));
+            }
+            for (int linha = 0; linha < snapshot.getQtdLinhas(); linha++) {
+                dia.adicionarMinuto(minutos[horarios.getCodigo(linha)], ordinais[configIds.getCodigo(linha)],
+                        qtdsCtr.getNumero(qtdsCtr.getCodigo(linha)), qtdsAss.getNumero(qtdsAss.getCodigo(linha)),
+                        movs.getNumero(movs.getCodigo(linha)));
+            }
+        }
+
+        private static void indexarConfig(Path arquivo, DiaIndice dia) throws IOException {
+            Planilha.lerLinhas(arquivo, registro -> {
+                if (registro.getQtdCampos() != PlanilhaConfig.QTD_CAMPOS || registro.temCampoVazio()
+                        || registro.conteudoIgual(PlanilhaConfig.CABECALHO)) {
+                    return;
+                }
+                dia.adicionarMinuto(LeitorDataHora.minutoDoDia(registro, registro.inicioCampo(HORARIO), registro.fimCampo(HORARIO)),
+                        dia.ordinal(Campo.CONFIG_ID, registro, CONFIG_ID), DiaSectConfig.numero(registro, CONFIG_QTD_CTR),
+                        DiaSectConfig.numero(registro, CONFIG_QTD_ASS), DiaSectConfig.numero(registro, CONFIG_MOV));
+            });
+        }
+
+        private static void indexarSectConfig(Snapshot snapshot, DiaIndice dia) {
+            Snapshot.Coluna horarios = snapshot.getColuna(COLUNAS_SECT_CONFIG[DiaSectConfig.HORARIO]);
+            Snapshot.Coluna setores = snapshot.getColuna(COLUNAS_SECT_CONFIG[DiaSectConfig.SETOR]);
+            Snapshot.Coluna ctrs = snapshot.getColuna(COLUNAS_SECT_CONFIG[DiaSectConfig.CTR]);
+            Snapshot.Coluna asss = snapshot.getColuna(COLUNAS_SECT_CONFIG[DiaSectConfig.ASS]);
+            Snapshot.Coluna movsSet = snapshot.getColuna(COLUNAS_SECT_CONFIG[DiaSectConfig.MOV_SET]);
+            Snapshot.Coluna movsAtco = snapshot.getColuna(COLUNAS_SECT_CONFIG[DiaSectConfig.MOV_ATCO]);
+            int[] minutos = minutos(horarios);
+            int[] indicesSetor = new int[setores.getQtdValores()];
+            for (int codigo = 0; codigo < indicesSetor.length; codigo++) {
+                String setor = setores.getValor(codigo);
+                indicesSetor[codigo] = setor.length() >= 2 && setor.charAt(0) == '"' && setor.charAt(setor.length() - 1) == '"'
+                        ? SETORES.indexOf(setor.substring(1, setor.length() - 1)) : -1;
+            }
+            int[] ordinaisCtr = new int[ctrs.getQtdValores()];
+            for (int codigo = 0; codigo < ordinaisCtr.length; codigo++) {
+                ordinaisCtr[codigo] = dia.ordinal(Campo.CTR, ctrs.getValor(codigo));
+            }
+            int[] ordinaisAss = new int[asss.getQtdValores()];
+            for (int codigo = 0; codigo < ordinaisAss.length; codigo++) {
+                ordinaisAss[codigo] = dia.ordinal(Campo.ASS, asss.getValor(codigo));
+            }
+            for (int linha = 0; linha < snapshot.getQtdLinhas(); linha++) {
+                dia.adicionarSetor(minutos[horarios.getCodigo(linha)], indicesSetor[setores.getCodigo(linha)],
+                        ordinaisCtr[ctrs.getCodigo(linha)], ordinaisAss[asss.getCodigo(linha)],
+                        movsSet.getNumero(movsSet.getCodigo(linha)), movsAtco.getNumero(movsAtco.getCodigo(linha)));
+            }
+        }
+
+        private static void indexarSectConfig(Path arquivo, DiaIndice dia) throws IOException {
+            Dicionario setores = new Dicionario(Short.MAX_VALUE);
+            for (String setor : SETORES) {
+                setores.ordinal('"' + setor + '"');
+            }
+            Planilha.lerLinhas(arquivo, registro -> {
+                if (registro.getQtdCampos() != PlanilhaSectConfig.CABECALHO_LENGTH || registro.temCampoVazio()
+                        || registro.conteudoIgual(PlanilhaSectConfig.CABECALHO)) {
+                    return;
+                }
+                int setor = setores.ordinal(registro, DiaSectConfig.SETOR);
+                dia.adicionarSetor(LeitorDataHora.minutoDoDia(registro, registro.inicioCampo(DiaSectConfig.HORARIO), registro.fimCampo(DiaSectConfig.HORARIO)),
+                        setor < SETORES.size() ? setor : -1, dia.ordinal(Campo.CTR, registro, DiaSectConfig.CTR),
+                        dia.ordinal(Campo.ASS, registro, DiaSectConfig.ASS),
+                        DiaSectConfig.numero(registro, DiaSectConfig.MOV_SET), DiaSectConfig.numero(registro, DiaSectConfig.MOV_ATCO));
+            });
+        }
+
+        /**
+         * @return o minuto do dia de cada código da coluna de horários
+         */
+        private static int[] minutos(Snapshot.Coluna horarios) {
+            int[] minutos = new int[horarios.getQtdValores()];
+            for (int codigo = 0; codigo < minutos.length; codigo++) {
+                String horario = horarios.getValor(codigo);
+                minutos[codigo] = LeitorDataHora.minutoDoDia(horario, 0, horario.length());
+            }
+            return minutos;
+        }
+    }
+}
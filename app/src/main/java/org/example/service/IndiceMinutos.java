@@ -0,0 +1,123 @@
+package org.example.service;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.example.csv.Csv;
+import org.example.csv.RegistroCsv;
+import org.example.model.Linha;
+
+/**
+ * Índice das linhas de um arquivo pelo minuto do dia, de 00:00 a 23:59.
+ *
+ * <p>
+ * O índice substitui um mapa ordenado de horários para listas de linhas: a
+ * quantidade de linhas de cada minuto fica em um vetor de
+ * {@value #MINUTOS_DIA} posições, e as linhas de um mesmo minuto formam uma
+ * lista encadeada, na ordem do arquivo, sobre vetores de inteiros. O conteúdo
+ * das linhas é copiado, em bytes, para um único vetor e só é convertido em
+ * {@code String} quando a linha é incluída no relatório. Verificar minutos
+ * ausentes, duplicados ou com excesso de linhas é uma varredura do vetor de
+ * quantidades.</p>
+ *
+ * @author luisg
+ */
+final class IndiceMinutos implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Quantidade de minutos em um dia.
+     */
+    static final int MINUTOS_DIA = 24 * 60;
+    private static final int SEM_LINHA = -1;
+    private static final int CAPACIDADE_INICIAL = 2048;
+
+    private final int[] quantidades = new int[MINUTOS_DIA];
+    private final int[] primeiras = new int[MINUTOS_DIA];
+    private final int[] ultimas = new int[MINUTOS_DIA];
+
+    private int qtdLinhas;
+    private int[] proximas = new int[CAPACIDADE_INICIAL];
+    private int[] enderecos = new int[CAPACIDADE_INICIAL];
+    private int[] inicios = new int[CAPACIDADE_INICIAL + 1];
+    private byte[] conteudos = new byte[CAPACIDADE_INICIAL * 64];
+
+    IndiceMinutos() {
+        Arrays.fill(primeiras, SEM_LINHA);
+        Arrays.fill(ultimas, SEM_LINHA);
+    }
+
+    /**
+     * Adiciona uma linha ao minuto informado.
+     *
+     * @param minuto minuto do dia, de 0 a {@value #MINUTOS_DIA} - 1
+     * @param registro linha lida do arquivo
+     */
+    void adicionar(int minuto, RegistroCsv registro) {
+        if (qtdLinhas == proximas.length) {
+            int capacidade = proximas.length * 2;
+            proximas = Arrays.copyOf(proximas, capacidade);
+            enderecos = Arrays.copyOf(enderecos, capacidade);
+            inicios = Arrays.copyOf(inicios, capacidade + 1);
+        }
+        int inicio = inicios[qtdLinhas];
+        int fim = inicio + registro.length();
+        if (fim > conteudos.length) {
+            conteudos = Arrays.copyOf(conteudos, Math.max(fim, conteudos.length * 2));
+        }
+        registro.copiarConteudo(conteudos, inicio);
+
+        int linha = qtdLinhas++;
+        proximas[linha] = SEM_LINHA;
+        enderecos[linha] = registro.getEndereco();
+        inicios[linha + 1] = fim;
+
+        if (primeiras[minuto] == SEM_LINHA) {
+            primeiras[minuto] = linha;
+        } else {
+            proximas[ultimas[minuto]] = linha;
+        }
+        ultimas[minuto] = linha;
+        quantidades[minuto]++;
+    }
+
+    /**
+     * @param minuto minuto do dia, de 0 a {@value #MINUTOS_DIA} - 1
+     * @return a quantidade de linhas do minuto
+     */
+    int getQuantidade(int minuto) {
+        return quantidades[minuto];
+    }
+
+    /**
+     * Obtém as linhas de um minuto, na ordem em que aparecem no arquivo.
+     *
+     * @param minuto minuto do dia, de 0 a {@value #MINUTOS_DIA} - 1
+     * @return as linhas do minuto, com seu endereço e conteúdo
+     */
+    List<Linha> getLinhas(int minuto) {
+        List<Linha> linhas = new ArrayList<>(quantidades[minuto]);
+        for (int linha = primeiras[minuto]; linha != SEM_LINHA; linha = proximas[linha]) {
+            int inicio = inicios[linha];
+            linhas.add(new Linha(enderecos[linha], new String(conteudos, inicio, inicios[linha + 1] - inicio, Csv.CHARSET)));
+        }
+        return linhas;
+    }
+
+    /**
+     * Formata um minuto do dia como horário, no formato HH:mm.
+     *
+     * @param minuto minuto do dia, de 0 a {@value #MINUTOS_DIA} - 1
+     * @return o horário correspondente ao minuto
+     */
+    static String formatarMinuto(int minuto) {
+        int hora = minuto / 60;
+        int minutoDaHora = minuto % 60;
+        return new String(new char[]{
+            (char) ('0' + hora / 10), (char) ('0' + hora % 10), ':',
+            (char) ('0' + minutoDaHora / 10), (char) ('0' + minutoDaHora % 10)});
+    }
+}
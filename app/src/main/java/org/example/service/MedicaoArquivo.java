@@ -0,0 +1,150 @@
+package org.example.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tempo, linhas e bytes de cada etapa da verificação de um único arquivo.
+ *
+ * <p>
+ * As etapas são identificadas pelo nome e mantidas na ordem em que foram
+ * registradas pela primeira vez; registros repetidos da mesma etapa são
+ * somados, como acontece com as partes de um arquivo verificado em paralelo
+ * ou com uma verificação que tem tempo na leitura e na conclusão. Ao final da
+ * verificação a medição é incorporada às {@link MetricasValidacao métricas}
+ * do tipo de arquivo e, se solicitado, escrita no rodapé do relatório.</p>
+ *
+ * @author luisg
+ */
+final class MedicaoArquivo {
+
+    /**
+     * Leitura do arquivo inteiro, incluindo as verificações aplicadas linha a
+     * linha.
+     */
+    static final String LER_ARQUIVO = "lerArquivo";
+    /**
+     * Criação, escrita e gravação do relatório de integridade, sem o tempo
+     * das verificações que escrevem nele.
+     */
+    static final String ESCREVER_RELATORIO = "escreverRelatorio";
+    /**
+     * Verificação completa do arquivo, da leitura à gravação do relatório.
+     */
+    static final String TOTAL = "total";
+
+    private final Map<String, Etapa> etapas = new LinkedHashMap<>();
+
+    /**
+     * Soma tempo, linhas e bytes a uma etapa.
+     *
+     * @param etapa nome da etapa
+     * @param linhas linhas processadas
+     * @param bytes bytes lidos do arquivo
+     * @param nanos tempo gasto, em nanossegundos
+     */
+    void registrar(String etapa, long linhas, long bytes, long nanos) {
+        Etapa medida = etapas.get(etapa);
+        if (medida == null) {
+            medida = new Etapa(etapa);
+            etapas.put(etapa, medida);
+        }
+        medida.linhas += linhas;
+        medida.bytes += bytes;
+        medida.nanos += Math.max(nanos, 0);
+    }
+
+    /**
+     * Instante de início da conclusão de uma verificação, descontado o tempo
+     * já gasto escrevendo o relatório.
+     *
+     * @param relatorio relatório em que a verificação vai escrever
+     * @return valor a ser informado a
+     * {@link #registrarConclusao(String, Relatorio, long)}
+     */
+    static long iniciarConclusao(Relatorio relatorio) {
+        return System.nanoTime() - relatorio.getNanosEscrita();
+    }
+
+    /**
+     * Soma à etapa o tempo gasto desde
+     * {@link #iniciarConclusao(Relatorio)}, sem o tempo de escrita no
+     * relatório, que é contado em {@link #ESCREVER_RELATORIO}.
+     *
+     * @param etapa nome da etapa
+     * @param relatorio relatório em que a verificação escreveu
+     * @param inicio valor retornado por {@link #iniciarConclusao(Relatorio)}
+     */
+    void registrarConclusao(String etapa, Relatorio relatorio, long inicio) {
+        registrar(etapa, 0, 0, System.nanoTime() - relatorio.getNanosEscrita() - inicio);
+    }
+
+    /**
+     * @return as etapas medidas, na ordem em que foram registradas
+     */
+    List<Etapa> getEtapas() {
+        return new ArrayList<>(etapas.values());
+    }
+
+    /**
+     * Linhas do rodapé do relatório com o tempo de cada etapa medida até o
+     * momento.
+     *
+     * @return as linhas do rodapé
+     */
+    List<String> rodape() {
+        List<String> linhas = new ArrayList<>();
+        linhas.add("\nTEMPOS DE PROCESSAMENTO");
+        for (Etapa etapa : etapas.values()) {
+            linhas.add(String.format(Locale.ROOT, "\t%-28s %10.3f ms %10d linhas %12d bytes",
+                    etapa.nome, etapa.nanos / 1e6, etapa.linhas, etapa.bytes));
+        }
+        return linhas;
+    }
+
+    /**
+     * Obtém o nome de uma etapa a partir da classe que a implementa, com a
+     * inicial minúscula, como {@code verificarCamposVazios}.
+     *
+     * @param classe classe da etapa
+     * @return o nome da etapa
+     */
+    static String nome(Class<?> classe) {
+        String nome = classe.getSimpleName();
+        return nome.isEmpty() ? classe.getName() : Character.toLowerCase(nome.charAt(0)) + nome.substring(1);
+    }
+
+    /**
+     * Tempo, linhas e bytes de uma etapa.
+     */
+    static final class Etapa {
+
+        private final String nome;
+        private long linhas;
+        private long bytes;
+        private long nanos;
+
+        private Etapa(String nome) {
+            this.nome = nome;
+        }
+
+        String getNome() {
+            return nome;
+        }
+
+        long getLinhas() {
+            return linhas;
+        }
+
+        long getBytes() {
+            return bytes;
+        }
+
+        long getNanos() {
+            return nanos;
+        }
+    }
+}
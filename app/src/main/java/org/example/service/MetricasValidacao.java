@@ -0,0 +1,133 @@
+package org.example.service;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.example.model.TipoArquivo;
+import org.example.util.LoggerUtil;
+
+/**
+ * Tempo, linhas e bytes de cada etapa de verificação, acumulados por tipo de
+ * arquivo desde o início da aplicação.
+ *
+ * <p>
+ * Cada arquivo verificado com sucesso contribui com uma
+ * {@link MedicaoArquivo}: para cada etapa são somados linhas, bytes e tempo e
+ * o tempo do arquivo entra em um histograma, de onde saem os percentis
+ * consultados em {@link EstatisticaEtapa}. As métricas ficam disponíveis por
+ * JMX com o nome {@value #NOME_JMX}, por exemplo no JConsole ou no VisualVM,
+ * e são usadas pela validação em lote para o resumo por etapa.</p>
+ *
+ * @author luisg
+ */
+public final class MetricasValidacao implements MetricasValidacaoMXBean {
+
+    /**
+     * Nome com que as métricas são registradas no servidor JMX da plataforma.
+     */
+    public static final String NOME_JMX = "org.example:type=MetricasValidacao";
+
+    private static final Logger log = LoggerUtil.getLogger();
+    private static final int QTD_FAIXAS = 64;
+    private static final MetricasValidacao INSTANCIA = new MetricasValidacao();
+
+    static {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(
+                    new StandardMBean(INSTANCIA, MetricasValidacaoMXBean.class, true), new ObjectName(NOME_JMX));
+        } catch (JMException | SecurityException e) {
+            log.log(Level.WARNING, "Falha ao registrar as métricas de validação no JMX", e);
+        }
+    }
+
+    private final Map<TipoArquivo, Map<String, Acumulado>> porTipo = new EnumMap<>(TipoArquivo.class);
+    private long arquivosVerificados;
+
+    private MetricasValidacao() {
+    }
+
+    /**
+     * @return as métricas da aplicação
+     */
+    public static MetricasValidacao getInstancia() {
+        return INSTANCIA;
+    }
+
+    /**
+     * Incorpora a medição de um arquivo verificado.
+     *
+     * @param tipo tipo do arquivo
+     * @param medicao medição das etapas do arquivo
+     */
+    synchronized void registrar(TipoArquivo tipo, MedicaoArquivo medicao) {
+        Map<String, Acumulado> etapas = porTipo.computeIfAbsent(tipo, t -> new LinkedHashMap<>());
+        for (MedicaoArquivo.Etapa etapa : medicao.getEtapas()) {
+            etapas.computeIfAbsent(etapa.getNome(), nome -> new Acumulado()).adicionar(etapa);
+        }
+        arquivosVerificados++;
+    }
+
+    @Override
+    public synchronized List<EstatisticaEtapa> getEtapas() {
+        List<EstatisticaEtapa> estatisticas = new ArrayList<>();
+        for (Map.Entry<TipoArquivo, Map<String, Acumulado>> tipo : porTipo.entrySet()) {
+            for (Map.Entry<String, Acumulado> etapa : tipo.getValue().entrySet()) {
+                estatisticas.add(etapa.getValue().estatistica(tipo.getKey().toString(), etapa.getKey()));
+            }
+        }
+        return estatisticas;
+    }
+
+    @Override
+    public synchronized long getArquivosVerificados() {
+        return arquivosVerificados;
+    }
+
+    @Override
+    public synchronized void zerar() {
+        porTipo.clear();
+        arquivosVerificados = 0;
+    }
+
+    /**
+     * Totais e histograma de tempo de uma etapa.
+     */
+    private static final class Acumulado {
+
+        private final long[] histograma = new long[QTD_FAIXAS];
+        private long execucoes;
+        private long linhas;
+        private long bytes;
+        private long nanos;
+        private long nanosMaximo;
+
+        private void adicionar(MedicaoArquivo.Etapa etapa) {
+            execucoes++;
+            linhas += etapa.getLinhas();
+            bytes += etapa.getBytes();
+            nanos += etapa.getNanos();
+            nanosMaximo = Math.max(nanosMaximo, etapa.getNanos());
+            histograma[Math.min(QTD_FAIXAS - 1, 64 - Long.numberOfLeadingZeros(etapa.getNanos() / 1000))]++;
+        }
+
+        private EstatisticaEtapa estatistica(String tipo, String etapa) {
+            int qtdFaixas = QTD_FAIXAS;
+            while (qtdFaixas > 0 && histograma[qtdFaixas - 1] == 0) {
+                qtdFaixas--;
+            }
+            long[] faixas = new long[qtdFaixas];
+            System.arraycopy(histograma, 0, faixas, 0, qtdFaixas);
+            return new EstatisticaEtapa(tipo, etapa, execucoes, linhas, bytes, nanos, nanosMaximo, faixas);
+        }
+    }
+}
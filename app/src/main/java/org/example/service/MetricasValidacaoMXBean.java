@@ -0,0 +1,29 @@
+package org.example.service;
+
+import java.util.List;
+
+/**
+ * Interface de gerenciamento JMX das métricas de validação, registrada como
+ * {@value MetricasValidacao#NOME_JMX}.
+ *
+ * @author luisg
+ */
+public interface MetricasValidacaoMXBean {
+
+    /**
+     * @return as estatísticas de cada etapa de verificação, agrupadas por tipo
+     * de arquivo
+     */
+    List<EstatisticaEtapa> getEtapas();
+
+    /**
+     * @return a quantidade de arquivos verificados desde o início ou desde a
+     * última chamada a {@link #zerar()}
+     */
+    long getArquivosVerificados();
+
+    /**
+     * Descarta as estatísticas acumuladas.
+     */
+    void zerar();
+}
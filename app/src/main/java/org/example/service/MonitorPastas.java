@@ -0,0 +1,346 @@
+package org.example.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.example.model.ArquivoCSV;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.example.util.LoggerUtil;
+
+/**
+ * Monitora as pastas onde o SAGITARIO grava as exportações e valida cada
+ * planilha config, sect_config ou flights assim que a gravação termina.
+ *
+ * <p>
+ * A detecção usa o {@link WatchService} do sistema de arquivos. Enquanto não
+ * há arquivos pendentes a thread do monitor fica bloqueada aguardando
+ * eventos, e as threads de validação são encerradas após
+ * {@value #SEGUNDOS_OCIOSOS} segundos sem trabalho, de modo que o monitor
+ * ocioso não consome processador. Cada criação ou alteração de uma planilha
+ * agenda a sua validação para o fim de um período de espera; ao fim da espera
+ * o tamanho e a data de modificação do arquivo são comparados com os do
+ * agendamento e, se mudaram ou se o arquivo ainda não pode ser aberto, a
+ * espera recomeça. Assim uma cópia lenta ou uma exportação gravada em partes
+ * é validada uma única vez, ao final da gravação.</p>
+ *
+ * <p>
+ * Ao iniciar, as planilhas já existentes nas pastas são agendadas da mesma
+ * forma; com o cache de validação, as que não mudaram desde a última
+ * validação não são lidas novamente. Uma planilha alterada enquanto é
+ * validada é validada outra vez ao final. Se o sistema de arquivos descartar
+ * eventos, a pasta é lida novamente. Os relatórios são gravados na pasta
+ * Relatórios, como na validação pela janela principal. Com a verificação
+ * incremental, uma planilha config ou flights que recebe linhas ao longo do
+ * dia tem apenas as linhas novas lidas a cada gravação.</p>
+ *
+ * @author luisg
+ */
+public final class MonitorPastas implements Closeable {
+
+    private static final Logger log = LoggerUtil.getLogger();
+
+    /**
+     * Espera padrão, em milissegundos, entre o último evento de um arquivo e
+     * a sua validação.
+     */
+    public static final long ESPERA_PADRAO_MS = 2000;
+    private static final long SEGUNDOS_OCIOSOS = 30;
+    private static final String[] SUFIXOS = {PlanilhaConfig.SUFIXO, PlanilhaSectConfig.SUFIXO, PlanilhaFlights.SUFIXO};
+
+    private final WatchService watcher;
+    private final Map<WatchKey, Path> pastas = new HashMap<>();
+    private final Map<Path, Pendente> pendentes = new HashMap<>();
+    private final Set<Path> emValidacao = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor executor;
+    private final Function<ArquivoCSV, ResultadoValidacao> validacao;
+    private final long esperaNanos;
+    private final BiConsumer<ArquivoCSV, ResultadoValidacao> aoConcluir;
+    private volatile boolean encerrado;
+
+    /**
+     * Registra as pastas no serviço de monitoramento. A validação só começa
+     * em {@link #executar()}.
+     *
+     * @param pastas pastas monitoradas, sem as subpastas
+     * @param detalhar define se os relatórios detalham todas as verificações
+     * @param usarCache define se o resultado de validações anteriores pode ser
+     * reaproveitado
+     * @param incremental define se planilhas config e flights são verificadas
+     * a partir do estado da verificação incremental anterior
+     * @param paralelismo quantidade máxima de arquivos validados ao mesmo tempo
+     * @param esperaMs tempo, em milissegundos, sem alterações no arquivo antes
+     * de validá-lo
+     * @param aoConcluir chamado, na thread que validou o arquivo, ao final da
+     * validação de cada arquivo com o seu resultado
+     * @throws IOException se alguma pasta não puder ser monitorada
+     */
+    public MonitorPastas(List<Path> pastas, boolean detalhar, boolean usarCache, boolean incremental, int paralelismo, long esperaMs, BiConsumer<ArquivoCSV, ResultadoValidacao> aoConcluir) throws IOException {
+        this(pastas, arquivo -> ValidadorArquivos.validarArquivo(arquivo, detalhar, usarCache, incremental), paralelismo, esperaMs, aoConcluir);
+    }
+
+    /**
+     * @param pastas pastas monitoradas, sem as subpastas
+     * @param validacao valida um arquivo e retorna o resultado
+     * @param paralelismo quantidade máxima de arquivos validados ao mesmo tempo
+     * @param esperaMs tempo, em milissegundos, sem alterações no arquivo antes
+     * de validá-lo
+     * @param aoConcluir chamado, na thread que validou o arquivo, ao final da
+     * validação de cada arquivo com o seu resultado
+     * @throws IOException se alguma pasta não puder ser monitorada
+     */
+    MonitorPastas(List<Path> pastas, Function<ArquivoCSV, ResultadoValidacao> validacao, int paralelismo, long esperaMs, BiConsumer<ArquivoCSV, ResultadoValidacao> aoConcluir) throws IOException {
+        if (pastas.isEmpty()) {
+            throw new IllegalArgumentException("Nenhuma pasta informada");
+        }
+        this.watcher = pastas.get(0).getFileSystem().newWatchService();
+        try {
+            for (Path pasta : pastas) {
+                Path absoluta = pasta.toAbsolutePath().normalize();
+                WatchKey chave = absoluta.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                this.pastas.put(chave, absoluta);
+            }
+        } catch (IOException | RuntimeException e) {
+            watcher.close();
+            throw e;
+        }
+        this.validacao = validacao;
+        this.esperaNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(esperaMs, 0));
+        this.aoConcluir = aoConcluir;
+        int qtdThreads = Math.max(1, paralelismo);
+        this.executor = new ThreadPoolExecutor(qtdThreads, qtdThreads, SEGUNDOS_OCIOSOS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new ValidadorArquivos.ThreadsDeValidacao());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Valida as planilhas existentes e passa a validar as novas ou alteradas,
+     * retornando somente após {@link #close()}.
+     *
+     * @throws InterruptedException se a thread for interrompida enquanto
+     * aguarda eventos
+     */
+    public void executar() throws InterruptedException {
+        for (Path pasta : pastas.values()) {
+            agendarExistentes(pasta);
+        }
+        log.info(() -> "Monitorando " + pastas.values());
+        try {
+            while (!encerrado) {
+                WatchKey chave = pendentes.isEmpty()
+                        ? watcher.take()
+                        : watcher.poll(Math.max(proximoPrazo() - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                if (chave != null) {
+                    processarEventos(chave);
+                }
+                validarProntos();
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Encerrado por close() enquanto aguardava eventos
+        }
+    }
+
+    /**
+     * Encerra o monitoramento e aguarda as validações em andamento, para que
+     * nenhum relatório fique incompleto. Os arquivos ainda em espera não são
+     * validados.
+     */
+    @Override
+    public void close() {
+        encerrado = true;
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Falha ao encerrar o monitoramento das pastas", e);
+        }
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.info("Aguardando validações em andamento");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void processarEventos(WatchKey chave) {
+        Path pasta = pastas.get(chave);
+        for (WatchEvent<?> evento : chave.pollEvents()) {
+            if (evento.kind() == StandardWatchEventKinds.OVERFLOW) {
+                log.warning(() -> "Eventos descartados pelo sistema de arquivos; lendo novamente " + pasta);
+                agendarExistentes(pasta);
+            } else {
+                Path arquivo = pasta.resolve((Path) evento.context());
+                if (isPlanilha(arquivo)) {
+                    agendar(arquivo);
+                }
+            }
+        }
+        if (!chave.reset()) {
+            log.warning(() -> "A pasta não pode mais ser monitorada: " + pasta);
+            pastas.remove(chave);
+            if (pastas.isEmpty()) {
+                encerrado = true;
+            }
+        }
+    }
+
+    private void agendarExistentes(Path pasta) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(pasta)) {
+            for (Path arquivo : stream) {
+                if (isPlanilha(arquivo)) {
+                    agendar(arquivo);
+                }
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Não foi possível listar os arquivos de " + pasta, e);
+        }
+    }
+
+    private void agendar(Path arquivo) {
+        Pendente pendente = pendentes.get(arquivo);
+        if (pendente == null) {
+            pendente = new Pendente();
+            pendentes.put(arquivo, pendente);
+        }
+        pendente.atualizar(arquivo, System.nanoTime() + esperaNanos);
+    }
+
+    private long proximoPrazo() {
+        long prazo = Long.MAX_VALUE;
+        for (Pendente pendente : pendentes.values()) {
+            prazo = Math.min(prazo, pendente.prazo);
+        }
+        return prazo;
+    }
+
+    /**
+     * Envia para validação os arquivos cuja espera terminou sem alterações.
+     */
+    private void validarProntos() {
+        long agora = System.nanoTime();
+        Iterator<Map.Entry<Path, Pendente>> iterador = pendentes.entrySet().iterator();
+        while (iterador.hasNext()) {
+            Map.Entry<Path, Pendente> entrada = iterador.next();
+            Path arquivo = entrada.getKey();
+            Pendente pendente = entrada.getValue();
+            if (pendente.prazo - agora > 0) {
+                continue;
+            }
+            if (!Files.exists(arquivo)) {
+                iterador.remove();
+            } else if (pendente.atualizar(arquivo, agora + esperaNanos) || emValidacao.contains(arquivo) || !podeSerAberto(arquivo)) {
+                // um prazo vencido faria o laço principal consultar o watcher sem espera
+                pendente.prazo = agora + esperaNanos;
+                log.fine(() -> "Aguardando o fim da gravação de " + arquivo);
+            } else {
+                iterador.remove();
+                emValidacao.add(arquivo);
+                executor.execute(() -> validar(arquivo));
+            }
+        }
+    }
+
+    private void validar(Path arquivo) {
+        ArquivoCSV arquivoCSV = new ArquivoCSV(arquivo);
+        ResultadoValidacao resultado = ResultadoValidacao.semLeitura(StatusArquivo.ERRO);
+        try {
+            resultado = validacao.apply(arquivoCSV);
+        } catch (Exception e) {
+            log.log(Level.SEVERE, "Falha ao validar " + arquivo, e);
+            arquivoCSV.setStatus(StatusArquivo.ERRO);
+        } finally {
+            emValidacao.remove(arquivo);
+            aoConcluir.accept(arquivoCSV, resultado);
+        }
+    }
+
+    private static boolean isPlanilha(Path arquivo) {
+        String nome = arquivo.getFileName().toString().toLowerCase(Locale.ROOT);
+        for (String sufixo : SUFIXOS) {
+            if (nome.endsWith(sufixo)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Em sistemas que bloqueiam arquivos abertos para escrita, como o
+     * Windows, um arquivo ainda em gravação não pode ser aberto.
+     */
+    private static boolean podeSerAberto(Path arquivo) {
+        try {
+            FileChannel.open(arquivo, StandardOpenOption.READ).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Arquivo aguardando o fim da gravação.
+     */
+    private static final class Pendente {
+
+        private long prazo;
+        private long tamanho = -1;
+        private long modificacao = -1;
+
+        /**
+         * Lê o tamanho e a data de modificação do arquivo e define um novo
+         * prazo se eles mudaram desde a última leitura.
+         *
+         * @return true se o arquivo mudou
+         */
+        private boolean atualizar(Path arquivo, long novoPrazo) {
+            long novoTamanho;
+            long novaModificacao;
+            try {
+                BasicFileAttributes atributos = Files.readAttributes(arquivo, BasicFileAttributes.class);
+                novoTamanho = atributos.size();
+                novaModificacao = atributos.lastModifiedTime().toMillis();
+            } catch (NoSuchFileException e) {
+                novoTamanho = -1;
+                novaModificacao = -1;
+            } catch (IOException e) {
+                novoTamanho = -2;
+                novaModificacao = -2;
+            }
+            boolean mudou = novoTamanho != tamanho || novaModificacao != modificacao || novoTamanho < 0;
+            tamanho = novoTamanho;
+            modificacao = novaModificacao;
+            if (mudou || prazo == 0) {
+                prazo = novoPrazo;
+            }
+            return mudou;
+        }
+    }
+}
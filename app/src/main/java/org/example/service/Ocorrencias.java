@@ -0,0 +1,179 @@
+package org.example.service;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ocorrências de uma seção do relatório de integridade, com limite de linhas
+ * listadas.
+ *
+ * <p>
+ * Todas as ocorrências são contadas, mas apenas as primeiras {@link #LIMITE}
+ * são guardadas e listadas no relatório; as demais são resumidas em uma única
+ * linha. Assim a memória usada pela seção e o tamanho do relatório não
+ * dependem da quantidade de erros do arquivo. A linha de uma ocorrência além
+ * do limite nem chega a ser formatada: quem registra a ocorrência consulta
+ * {@link #contar()} antes de montar o texto.</p>
+ *
+ * @author luisg
+ */
+final class Ocorrencias implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Quantidade máxima de ocorrências listadas por seção, definida pela
+     * propriedade de sistema {@code validador.relatorio.limite}. Um valor
+     * menor ou igual a zero desativa o limite.
+     */
+    static final int LIMITE = lerLimite();
+
+    private final int limite;
+    private final List<String> linhas = new ArrayList<>();
+    private int total;
+
+    Ocorrencias() {
+        this(LIMITE);
+    }
+
+    /**
+     * @param limite quantidade máxima de ocorrências listadas
+     */
+    Ocorrencias(int limite) {
+        this.limite = limite;
+    }
+
+    /**
+     * Conta uma ocorrência.
+     *
+     * @return true se a ocorrência deve ser listada com
+     * {@link #listar(String)}, false se o limite já foi atingido e ela apenas
+     * entra no total
+     */
+    boolean contar() {
+        return ++total <= limite;
+    }
+
+    /**
+     * Lista a linha de uma ocorrência já contada por {@link #contar()}, ou uma
+     * linha auxiliar, como um separador, que não conta como ocorrência.
+     *
+     * @param linha texto da ocorrência no relatório
+     */
+    void listar(String linha) {
+        linhas.add(linha);
+    }
+
+    /**
+     * Conta e, se o limite permitir, lista uma ocorrência.
+     *
+     * @param linha texto da ocorrência no relatório
+     */
+    void adicionar(String linha) {
+        if (contar()) {
+            listar(linha);
+        }
+    }
+
+    /**
+     * Conta e, se o limite permitir, lista uma linha do arquivo no formato
+     * {@code "\tLinha %4d - conteudo"}. O conteúdo só é copiado se a linha for
+     * listada.
+     *
+     * @param endereco número da linha no arquivo
+     * @param conteudo conteúdo da linha
+     */
+    void adicionar(int endereco, CharSequence conteudo) {
+        if (contar()) {
+            listar(linha(endereco).append(" - ").append(conteudo).toString());
+        }
+    }
+
+    /**
+     * Acrescenta as ocorrências de outra instância, registradas depois das
+     * desta, respeitando o limite.
+     *
+     * @param posterior ocorrências registradas em seguida
+     */
+    void combinar(Ocorrencias posterior) {
+        for (String linha : posterior.linhas) {
+            if (linhas.size() == limite) {
+                break;
+            }
+            linhas.add(linha);
+        }
+        total += posterior.total;
+    }
+
+    /**
+     * @return true se o limite foi atingido e as próximas ocorrências não
+     * serão listadas
+     */
+    boolean isCheia() {
+        return total >= limite;
+    }
+
+    /**
+     * @return a quantidade de ocorrências contadas, listadas ou não
+     */
+    int getTotal() {
+        return total;
+    }
+
+    /**
+     * @return true se nenhuma ocorrência foi contada
+     */
+    boolean isEmpty() {
+        return total == 0;
+    }
+
+    /**
+     * @return as linhas listadas, na ordem em que foram registradas
+     */
+    List<String> getLinhas() {
+        return linhas;
+    }
+
+    /**
+     * @return a quantidade de ocorrências que não foram listadas
+     */
+    int getOmitidas() {
+        return Math.max(0, total - limite);
+    }
+
+    /**
+     * Inicia o texto {@code "\tLinha %4d"} sem passar por
+     * {@code String.format}.
+     *
+     * @param endereco número da linha no arquivo
+     * @return um {@code StringBuilder} com o início da linha do relatório
+     */
+    static StringBuilder linha(int endereco) {
+        return alinhar(new StringBuilder(96).append("\tLinha "), endereco);
+    }
+
+    /**
+     * Acrescenta um número alinhado à direita em quatro posições, como
+     * {@code %4d}.
+     *
+     * @param sb onde o número é acrescentado
+     * @param numero número não negativo
+     * @return {@code sb}
+     */
+    static StringBuilder alinhar(StringBuilder sb, int numero) {
+        for (int i = 1000; i > 1 && numero < i; i /= 10) {
+            sb.append(' ');
+        }
+        return sb.append(numero);
+    }
+
+    /**
+     * @return o limite definido pela propriedade
+     * {@code validador.relatorio.limite}, lida a cada chamada
+     */
+    static int lerLimite() {
+        int limite = Integer.getInteger("validador.relatorio.limite", 1000);
+        return limite <= 0 ? Integer.MAX_VALUE : limite;
+    }
+}
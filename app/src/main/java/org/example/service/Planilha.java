@@ -1,16 +1,31 @@
 package org.example.service;
 
 import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.example.csv.Csv;
-import org.example.model.Linha;
+import org.example.csv.LeitorCsvCompactado;
+import org.example.csv.LeitorCsvMapeado;
+import org.example.csv.RegistroCsv;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.example.model.TipoArquivo;
+import org.example.snapshot.GravadorSnapshot;
+import org.example.snapshot.Snapshot;
 import org.example.util.LoggerUtil;
 
 /**
@@ -20,46 +35,313 @@ import org.example.util.LoggerUtil;
 class Planilha {
 
     private static final Logger log = LoggerUtil.getLogger();
+    /**
+     * Tamanho mínimo, em bytes, de cada parte de um arquivo verificado em
+     * paralelo.
+     */
+    protected static final int TAMANHO_MINIMO_PARTE = 4 * 1024 * 1024;
 
     /**
-     * Localiza e remove as linhas que correspondem ao cabeçalho esperado do
-     * arquivo CSV.
+     * Define se o relatório de integridade termina com o tempo de cada etapa
+     * da verificação, pela propriedade de sistema
+     * {@code validador.relatorio.tempos}. Desativado por padrão, para que o
+     * relatório de um mesmo arquivo não mude entre execuções.
+     */
+    static final boolean RODAPE_TEMPOS = Boolean.getBoolean("validador.relatorio.tempos");
+
+    /**
+     * Define se cada arquivo validado ganha um {@link Snapshot} binário ao
+     * seu lado, pela propriedade de sistema {@code validador.snapshot}.
+     * Desativado por padrão.
+     */
+    static final boolean SNAPSHOT = Boolean.getBoolean("validador.snapshot");
+
+    /**
+     * Lê o arquivo CSV em uma única passagem, entregando cada linha às
+     * verificações informadas, e grava o relatório de integridade.
+     *
+     * <p>
+     * Cada linha é lida uma única vez e percorre o encadeamento de
+     * verificações até ser filtrada por alguma delas, de modo que o consumo de
+     * memória não depende do tamanho do arquivo, apenas do que cada verificação
+     * precisa guardar para o relatório. Ao final da leitura cada verificação
+     * acrescenta sua seção ao relatório, na ordem do encadeamento, e as seções
+     * são gravadas em disco à medida que são escritas, com a quantidade de
+     * ocorrências listadas por seção limitada a {@link Ocorrencias#LIMITE}. O
+     * relatório é salvo em um arquivo com o mesmo nome do arquivo de entrada e
+     * extensão .txt. Em caso de erro durante a leitura ou o processamento do arquivo,
+     * um relatório de erro é gerado e salvo em um arquivo com extensão
+     * -ERRO.txt. Arquivos {@code .csv.gz} e entradas de arquivos zip são
+     * lidos sem extração, por {@link LeitorCsvCompactado}, e seus relatórios
+     * mantêm no nome a extensão .gz ou o nome do arquivo zip.</p>
      *
      * <p>
-     * Este método procura pela linha de cabeçalho definida pela constante
-     * {@code #CABECALHO}. Se encontrada, a linha de cabeçalho é adicionada à
-     * lista de cabeçalhos e removida da lista original de linhas. O relatório
-     * de integridade é atualizado com as informações sobre a presença e
-     * localização do cabeçalho.</p>
+     * O tempo, as linhas e os bytes de cada verificação, da leitura e da
+     * escrita do relatório são incorporados às {@link MetricasValidacao
+     * métricas} do tipo de arquivo e, se {@link #RODAPE_TEMPOS}, escritos ao
+     * final do relatório. Se o encadeamento tiver um {@link GravarSnapshot},
+     * o snapshot é gravado após o relatório.</p>
+     *
+     * @param tipo o tipo do arquivo, sob o qual as métricas são agrupadas
+     * @param inputFile o caminho para o arquivo CSV a ser verificado
+     * @param verificacoes verificações a serem aplicadas, na ordem em que
+     * devem receber as linhas e escrever suas seções no relatório
+     * @return o resultado da validação: {@link StatusArquivo#VALIDADO} se o
+     * relatório de integridade foi gerado, {@link StatusArquivo#ERRO} em caso
+     * de erro
+     */
+    protected static ResultadoValidacao processarArquivo(TipoArquivo tipo, Path inputFile, List<? extends Verificacao> verificacoes) {
+        Encadeamento<?> encadeamento = new Encadeamento<>(verificacoes);
+        return processarArquivo(tipo, inputFile, () -> encadeamento, new LeituraCompleta(inputFile, encadeamento::aplicar));
+    }
+
+    /**
+     * Verifica o arquivo CSV dividindo-o em partes verificadas em paralelo e
+     * grava o relatório de integridade.
+     *
+     * <p>
+     * Cada parte do arquivo, terminada em uma quebra de linha, recebe seu
+     * próprio encadeamento de verificações criado por {@code fabrica}. Ao
+     * final da leitura os encadeamentos são combinados na ordem das partes,
+     * de forma que o relatório é idêntico ao de
+     * {@link #processarArquivo(TipoArquivo, Path, List)}, inclusive nos
+     * números de linha, por isso todas as verificações criadas devem ser
+     * {@link VerificacaoCombinavel combináveis}. Arquivos menores que
+     * {@link #TAMANHO_MINIMO_PARTE} são verificados em uma única parte. O
+     * tempo de cada verificação é a soma do tempo gasto em todas as
+     * partes. Arquivos compactados, que só podem ser descompactados em
+     * sequência, são verificados como em
+     * {@link #processarArquivo(TipoArquivo, Path, List)}.</p>
+     *
+     * @param tipo o tipo do arquivo, sob o qual as métricas são agrupadas
+     * @param inputFile o caminho para o arquivo CSV a ser verificado
+     * @param fabrica cria o encadeamento de verificações de uma parte
+     * @return o resultado da validação: {@link StatusArquivo#VALIDADO} se o
+     * relatório de integridade foi gerado, {@link StatusArquivo#ERRO} em caso
+     * de erro
+     */
+    protected static ResultadoValidacao processarArquivoEmPartes(TipoArquivo tipo, Path inputFile, Supplier<List<VerificacaoCombinavel>> fabrica) {
+        if (LeitorCsvCompactado.isCompactado(inputFile)) {
+            return processarArquivo(tipo, inputFile, fabrica.get());
+        }
+        List<Encadeamento<VerificacaoCombinavel>> partes = new ArrayList<>();
+        return processarArquivo(tipo, inputFile, () -> partes.get(0), () -> {
+            int qtdLinhas = LeitorCsvMapeado.lerEmPartes(inputFile, ForkJoinPool.commonPool(), TAMANHO_MINIMO_PARTE,
+                    () -> new Encadeamento<>(fabrica.get()), Encadeamento::aplicar, partes);
+            if (partes.isEmpty()) {
+                partes.add(new Encadeamento<>(fabrica.get()));
+                return qtdLinhas;
+            }
+
+            for (int j = 1; j < partes.size(); j++) {
+                Encadeamento.combinar(partes.get(0), partes.get(j));
+            }
+            return qtdLinhas;
+        });
+    }
+
+    /**
+     * Verifica apenas as linhas acrescentadas ao arquivo CSV desde a última
+     * verificação incremental e grava o relatório de integridade do arquivo
+     * inteiro.
+     *
+     * <p>
+     * As verificações continuam com o {@link EstadoIncremental estado}
+     * gravado pela verificação anterior, e as linhas novas são numeradas a
+     * partir da última linha verificada, de modo que o relatório é idêntico
+     * ao de uma verificação completa do arquivo. Se não houver estado gravado,
+     * ou se o arquivo não for uma continuação do que foi verificado, o
+     * arquivo é lido desde o início. Ao final da leitura o estado é gravado
+     * até a última linha completa: uma última linha sem quebra de linha, que
+     * pode estar ainda sendo gravada, entra no relatório mas é lida novamente
+     * na próxima verificação. O tempo da verificação é proporcional às linhas
+     * acrescentadas e ao tamanho do estado, não ao tamanho do arquivo.
+     * Arquivos compactados não recebem linhas novas e são verificados por
+     * inteiro.</p>
+     *
+     * @param tipo o tipo do arquivo, sob o qual as métricas são agrupadas
+     * @param inputFile o caminho para o arquivo CSV a ser verificado
+     * @param detalhar opção de detalhamento, que deve ser a mesma do estado
+     * gravado para que ele seja reaproveitado
+     * @param fabrica cria o encadeamento de verificações, todas
+     * serializáveis
+     * @return o resultado da validação, com as linhas e os bytes lidos nesta
+     * verificação
+     */
+    protected static ResultadoValidacao processarArquivoIncremental(TipoArquivo tipo, Path inputFile, boolean detalhar, Supplier<List<Verificacao>> fabrica) {
+        if (LeitorCsvCompactado.isCompactado(inputFile)) {
+            return processarArquivo(tipo, inputFile, fabrica.get());
+        }
+        EstadoIncremental<Verificacao> estado = carregarEstado(inputFile, detalhar, Verificacao.class, fabrica);
+        Encadeamento<Verificacao> encadeamento = estado.getEncadeamento();
+        return processarArquivo(tipo, inputFile, () -> encadeamento, new LeituraIncremental(inputFile, estado,
+                (inicio, fim, enderecoAnterior) -> LeitorCsvMapeado.ler(inputFile, inicio, fim, enderecoAnterior, encadeamento::aplicar)));
+    }
+
+    /**
+     * Verifica as linhas acrescentadas ao arquivo CSV como em
+     * {@link #processarArquivoIncremental(TipoArquivo, Path, boolean, Supplier)},
+     * dividindo-as em partes verificadas em paralelo e combinadas ao estado
+     * anterior, como em
+     * {@link #processarArquivoEmPartes(TipoArquivo, Path, Supplier)}.
+     *
+     * @param tipo o tipo do arquivo, sob o qual as métricas são agrupadas
+     * @param inputFile o caminho para o arquivo CSV a ser verificado
+     * @param detalhar opção de detalhamento, que deve ser a mesma do estado
+     * gravado para que ele seja reaproveitado
+     * @param fabrica cria o encadeamento de verificações, todas combináveis e
+     * serializáveis
+     * @return o resultado da validação, com as linhas e os bytes lidos nesta
+     * verificação
+     */
+    protected static ResultadoValidacao processarArquivoIncrementalEmPartes(TipoArquivo tipo, Path inputFile, boolean detalhar, Supplier<List<VerificacaoCombinavel>> fabrica) {
+        if (LeitorCsvCompactado.isCompactado(inputFile)) {
+            return processarArquivoEmPartes(tipo, inputFile, fabrica);
+        }
+        EstadoIncremental<VerificacaoCombinavel> estado = carregarEstado(inputFile, detalhar, VerificacaoCombinavel.class, fabrica);
+        Encadeamento<VerificacaoCombinavel> encadeamento = estado.getEncadeamento();
+        return processarArquivo(tipo, inputFile, () -> encadeamento, new LeituraIncremental(inputFile, estado, (inicio, fim, enderecoAnterior) -> {
+            List<Encadeamento<VerificacaoCombinavel>> partes = new ArrayList<>();
+            int endereco = LeitorCsvMapeado.lerEmPartes(inputFile, inicio, fim, enderecoAnterior, ForkJoinPool.commonPool(),
+                    TAMANHO_MINIMO_PARTE, () -> new Encadeamento<>(fabrica.get()), Encadeamento::aplicar, partes);
+            for (Encadeamento<VerificacaoCombinavel> parte : partes) {
+                Encadeamento.combinar(encadeamento, parte);
+            }
+            return endereco;
+        }));
+    }
+
+    /**
+     * @return o estado gravado pela verificação incremental anterior, ou um
+     * estado novo, para ler o arquivo desde o início, com o encadeamento
+     * criado por {@code fabrica}
+     */
+    private static <V extends Verificacao> EstadoIncremental<V> carregarEstado(Path inputFile, boolean detalhar, Class<V> tipoVerificacao, Supplier<List<V>> fabrica) {
+        EstadoIncremental<V> anterior = EstadoIncremental.carregar(inputFile, detalhar, tipoVerificacao);
+        EstadoIncremental<V> estado = anterior != null ? anterior : new EstadoIncremental<>(detalhar, new Encadeamento<>(fabrica.get()));
+        estado.getEncadeamento().reiniciarMedicao();
+        if (anterior != null) {
+            log.info(() -> "Continuando a verificação na linha " + (anterior.getQtdLinhas() + 1) + ": " + inputFile);
+        }
+        return estado;
+    }
+
+    /**
+     * @param encadeamento fornece o encadeamento que recebeu as linhas, que só
+     * é conhecido ao final da leitura quando o arquivo é lido em partes
+     */
+    private static ResultadoValidacao processarArquivo(TipoArquivo tipo, Path inputFile, Supplier<? extends Encadeamento<?>> encadeamento, Leitura leitura) {
+        long inicio = System.nanoTime();
+        Path outputPath = getOutputPath(inputFile);
+        String inputFileName = inputFile.getFileName().toString();
+        MedicaoArquivo medicao = new MedicaoArquivo();
+        long qtdLinhas = 0;
+        long qtdBytes = 0;
+        BasicFileAttributes origem = null;
+
+        try {
+            if (SNAPSHOT) {
+                origem = Files.readAttributes(inputFile, BasicFileAttributes.class);
+            }
+            qtdLinhas = leitura.executar();
+            qtdBytes = leitura.getQtdBytes(inputFile);
+        } catch (IOException e) {
+            String msgErro = "Exceção ao ler arquivo " + inputFileName;
+            registrarErro(inputFile, msgErro, e);
+            return new ResultadoValidacao(StatusArquivo.ERRO, qtdLinhas, qtdBytes, System.nanoTime() - inicio);
+        } catch (Exception e) {
+            String msgErro = "Exceção ao processar arquivo " + inputFileName;
+            registrarErro(inputFile, msgErro, e);
+            return new ResultadoValidacao(StatusArquivo.ERRO, qtdLinhas, qtdBytes, System.nanoTime() - inicio);
+        }
+        medicao.registrar(MedicaoArquivo.LER_ARQUIVO, qtdLinhas, qtdBytes, System.nanoTime() - inicio);
+        encadeamento.get().registrar(medicao);
+
+        long inicioRelatorio = System.nanoTime();
+        try (Relatorio relatorioIntegridade = Relatorio.criar(outputPath, inputFileName)) {
+            long nanosCriacao = System.nanoTime() - inicioRelatorio;
+            for (Verificacao verificacao : encadeamento.get().getVerificacoes()) {
+                verificacao.concluir(relatorioIntegridade, medicao);
+            }
+            relatorioIntegridade.concluir(RODAPE_TEMPOS ? medicao.rodape() : Collections.<String>emptyList());
+            medicao.registrar(MedicaoArquivo.ESCREVER_RELATORIO, relatorioIntegridade.getQtdLinhas(),
+                    relatorioIntegridade.getTamanho(), nanosCriacao + relatorioIntegridade.getNanosEscrita());
+        } catch (IOException | UncheckedIOException e) {
+            String msgErro = "Erro ao escrever o relatório de integridade para o arquivo: " + inputFileName;
+            registrarErro(inputFile, msgErro, e);
+            return new ResultadoValidacao(StatusArquivo.ERRO, qtdLinhas, qtdBytes, System.nanoTime() - inicio);
+        } catch (Exception e) {
+            String msgErro = "Exceção ao processar arquivo " + inputFileName;
+            registrarErro(inputFile, msgErro, e);
+            return new ResultadoValidacao(StatusArquivo.ERRO, qtdLinhas, qtdBytes, System.nanoTime() - inicio);
+        }
+
+        for (Verificacao verificacao : encadeamento.get().getVerificacoes()) {
+            if (verificacao instanceof GravarSnapshot) {
+                ((GravarSnapshot) verificacao).gravar(tipo, inputFile, origem, medicao);
+            }
+        }
+
+        long duracao = System.nanoTime() - inicio;
+        medicao.registrar(MedicaoArquivo.TOTAL, qtdLinhas, qtdBytes, duracao);
+        MetricasValidacao.getInstancia().registrar(tipo, medicao);
+        return new ResultadoValidacao(StatusArquivo.VALIDADO, qtdLinhas, qtdBytes, duracao);
+    }
+
+    /**
+     * Localiza e filtra as linhas que correspondem ao cabeçalho esperado do
+     * arquivo CSV.
      *
-     * @param conteudo lista de Linhas do arquivo CSV a ser processada.
-     * @param relatorio relatório com os resultados das validações.
-     * @param cabecalho a string contendo o cabecalho esperado no arquivo.
-     * @param detalhar define se o linhasComCabecalho do método é acrescentado ao
-     * relatório quando o cabecalho não é encontrado.
-     */
-    protected static void localizarCabecalho(List<Linha> conteudo, List<String> relatorio, String cabecalho, boolean detalhar) {
-        log.info("Localizando cabeçalho.");
-        Iterator<Linha> it_conteudo = conteudo.iterator();
-        boolean encontrouCabecalho = false;
-        List<String> linhasComCabecalho = new ArrayList<>();
-
-        while (it_conteudo.hasNext()) {
-            Linha linha = it_conteudo.next();
-            if (linha.getConteudo().equals(cabecalho)) {
-                log.info("Cabeçalho localizado na linha: " + linha.getEndereco());
-                linhasComCabecalho.add("\tLinha " + String.format("%4d - %s", linha.getEndereco(), linha.getConteudo()));
-                it_conteudo.remove();
-                encontrouCabecalho = true;
+     * <p>
+     * Esta verificação procura pela linha de cabeçalho informada. Cada linha
+     * de cabeçalho encontrada é registrada e filtrada das verificações
+     * seguintes. O relatório de integridade é atualizado com as informações
+     * sobre a presença e localização do cabeçalho.</p>
+     */
+    protected static class LocalizarCabecalho implements VerificacaoCombinavel, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String cabecalho;
+        private final boolean detalhar;
+        private final Ocorrencias linhasComCabecalho = new Ocorrencias();
+
+        /**
+         * @param cabecalho a string contendo o cabecalho esperado no arquivo.
+         * @param detalhar define se o resultado da verificação é acrescentado
+         * ao relatório.
+         */
+        protected LocalizarCabecalho(String cabecalho, boolean detalhar) {
+            log.info("Localizando cabeçalho.");
+            this.cabecalho = cabecalho;
+            this.detalhar = detalhar;
+        }
+
+        @Override
+        public boolean verificar(RegistroCsv registro) {
+            if (registro.conteudoIgual(cabecalho)) {
+                int endereco = registro.getEndereco();
+                log.info(() -> "Cabeçalho localizado na linha: " + endereco);
+                linhasComCabecalho.adicionar(registro.getEndereco(), registro);
+                return false;
             }
+            return true;
+        }
+
+        @Override
+        public void combinar(VerificacaoCombinavel posterior) {
+            linhasComCabecalho.combinar(((LocalizarCabecalho) posterior).linhasComCabecalho);
         }
 
-        linhasComCabecalho.add(0, "\nCABEÇALHO"); 
-        if (detalhar){
-            if (!encontrouCabecalho) {
-                linhasComCabecalho.add("\tCabeçalho não encontrado");
+        @Override
+        public void concluir(Relatorio relatorio) {
+            if (detalhar) {
+                relatorio.adicionar("\nCABEÇALHO");
+                relatorio.adicionar(linhasComCabecalho);
+                if (linhasComCabecalho.isEmpty()) {
+                    relatorio.adicionar("\tCabeçalho não encontrado");
+                }
             }
-            relatorio.addAll(linhasComCabecalho);
         }
     }
 
@@ -68,123 +350,185 @@ class Planilha {
      * de campos do cabeçalho.
      *
      * <p>
-     * Este método percorre cada linha da lista de linhas e verifica se a
-     * quantidade de campos, delimitados por ponto e vírgula (;), corresponde ao
-     * esperado conforme definido no cabeçalho. Para cada linha discrepante uma
-     * mensagem é adicionada ao linhasComCabecalho e a linha é removida da lista de
-     * conteúdo. O linhasComCabecalho do método é adicionado ao relatório se houver
-     * discrepancias e/ou caso a variável detalhar é true.</p>
-     *
-     * @param conteudo lista de linhas do arquivo CSV a ser processada
-     * @param relatorio relatório com os resultados das validações.
-     * @param qtdEsperadaDeCampos integer com a quantidade esperada de campos
-     * por linha
-     * @param detalhar define se o linhasComCabecalho do método é acrescentado ao
-     * relatório quando não existem linhas com quantidade de campos
-     * incompatíveis.
-     */
-    protected static void verificarQuantidadeDeCampos(List<Linha> conteudo, List<String> relatorio, Integer qtdEsperadaDeCampos, boolean detalhar) {
-        log.info("Verificando quantidade de campos.");
-        List<String> linhasComCabecalho = new ArrayList<>();
-        Iterator<Linha> it_conteudo = conteudo.iterator();
-        boolean encontrouErro = false;
-
-        while (it_conteudo.hasNext()) {
-            Linha linha = it_conteudo.next();
-            int qtdCampos = linha.getConteudo().split(";").length;
-            if (qtdCampos != qtdEsperadaDeCampos) {
-                linhasComCabecalho.add("\tLinha " + String.format("%4d - %s", linha.getEndereco(), linha.getConteudo()));
-                it_conteudo.remove();
-                encontrouErro = true;
+     * Esta verificação confere se a quantidade de campos de cada linha,
+     * delimitados por ponto e vírgula (;), corresponde ao esperado conforme
+     * definido no cabeçalho. Para cada linha discrepante uma mensagem é
+     * registrada e a linha é filtrada das verificações seguintes. O resultado
+     * é adicionado ao relatório se houver discrepâncias e/ou caso a variável
+     * detalhar seja true.</p>
+     */
+    protected static class VerificarQuantidadeDeCampos implements VerificacaoCombinavel, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int qtdEsperadaDeCampos;
+        private final boolean detalhar;
+        private final Ocorrencias linhasFiltradas = new Ocorrencias();
+
+        /**
+         * @param qtdEsperadaDeCampos quantidade esperada de campos por linha
+         * @param detalhar define se o resultado é acrescentado ao relatório
+         * quando não existem linhas com quantidade de campos incompatíveis.
+         */
+        protected VerificarQuantidadeDeCampos(int qtdEsperadaDeCampos, boolean detalhar) {
+            log.info("Verificando quantidade de campos.");
+            this.qtdEsperadaDeCampos = qtdEsperadaDeCampos;
+            this.detalhar = detalhar;
+        }
+
+        @Override
+        public boolean verificar(RegistroCsv registro) {
+            if (registro.getQtdCampos() != qtdEsperadaDeCampos) {
+                linhasFiltradas.adicionar(registro.getEndereco(), registro);
+                return false;
             }
+            return true;
         }
 
-        if (!detalhar && !encontrouErro) {
-            return;
+        @Override
+        public void combinar(VerificacaoCombinavel posterior) {
+            linhasFiltradas.combinar(((VerificarQuantidadeDeCampos) posterior).linhasFiltradas);
         }
 
-        if (linhasComCabecalho.isEmpty()) {
-            linhasComCabecalho.add("\tNenhuma linha filtrada");
-        } else {
-            linhasComCabecalho.add("\tQtd linhas filtradas: " + linhasComCabecalho.size());
+        @Override
+        public void concluir(Relatorio relatorio) {
+            if (!detalhar && linhasFiltradas.isEmpty()) {
+                return;
+            }
+
+            relatorio.adicionar("\nQUANTIDADE DE CAMPOS INCOMPATÍVEL COM O CABEÇALHO");
+            if (linhasFiltradas.isEmpty()) {
+                relatorio.adicionar("\tNenhuma linha filtrada");
+            } else {
+                relatorio.adicionar(linhasFiltradas);
+                relatorio.adicionar("\tQtd linhas filtradas: " + linhasFiltradas.getTotal());
+            }
         }
-        
-        linhasComCabecalho.add(0, "\nQUANTIDADE DE CAMPOS INCOMPATÍVEL COM O CABEÇALHO");
-        relatorio.addAll(linhasComCabecalho);
     }
 
     /**
-     * Localiza e exclui do processamento linhas que possuem quantidade de
-     * campos diferente da quantidade esperada de campos.
+     * Localiza e exclui do processamento linhas que possuem campos vazios.
      *
      * <p>
-     * Este método percorre cada linha do conteúdo e verifica se há algum campos
-     * vazios nas linhas. Linhas contendo campos vazios removidas da lista
-     * original. O linhasComCabecalho é adicionado ao relatório caso haja linhas
-     * excluídas ou caso o parâmetro detalhar seja true.</p>
-     *
-     * @param conteudo conteúdo do arquivo CSV a ser processado
-     * @param relatorio lista onde os resultados da verificação de integridade
-     * serão adicionados
-     * @param detalhar caso true o método detalhará no relatório
-     * todas as validações realizadas mesmo que não encontre erros
-     */
-    protected static void verificarCamposVazios(List<Linha> conteudo, List<String> relatorio, boolean detalhar) {
-        log.info("Verificando campos vazios.");
-        List<String> linhasComCabecalho = new ArrayList<>();
-        Iterator<Linha> it_conteudo = conteudo.iterator();
-        boolean encontrouCampoVazio = false;
-
-        while (it_conteudo.hasNext()) {
-            Linha linha = it_conteudo.next();
-            if (linhaTemCampoVazio(linha.getConteudo())) {
-                linhasComCabecalho.add("\tLinha " + String.format("%4d", linha.getEndereco()) + " - " + linha.getConteudo());
-                it_conteudo.remove();
-                encontrouCampoVazio = true;
+     * Esta verificação confere se há algum campo vazio em cada linha. Linhas
+     * contendo campos vazios são filtradas das verificações seguintes. O
+     * resultado é adicionado ao relatório caso haja linhas excluídas ou caso o
+     * parâmetro detalhar seja true.</p>
+     */
+    protected static class VerificarCamposVazios implements VerificacaoCombinavel, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final boolean detalhar;
+        private final Ocorrencias linhasFiltradas = new Ocorrencias();
+
+        /**
+         * @param detalhar caso true a verificação detalhará no relatório seu
+         * resultado mesmo que não encontre erros
+         */
+        protected VerificarCamposVazios(boolean detalhar) {
+            log.info("Verificando campos vazios.");
+            this.detalhar = detalhar;
+        }
+
+        @Override
+        public boolean verificar(RegistroCsv registro) {
+            if (registro.temCampoVazio()) {
+                linhasFiltradas.adicionar(registro.getEndereco(), registro);
+                return false;
             }
+            return true;
         }
 
-        if (!detalhar && !encontrouCampoVazio) {
-            return;
+        @Override
+        public void combinar(VerificacaoCombinavel posterior) {
+            linhasFiltradas.combinar(((VerificarCamposVazios) posterior).linhasFiltradas);
         }
 
-        if (linhasComCabecalho.isEmpty()) {
-            linhasComCabecalho.add("\tNenhuma linha filtrada");
-        } else {
-            linhasComCabecalho.add("\tFiltradas: " + linhasComCabecalho.size());
+        @Override
+        public void concluir(Relatorio relatorio) {
+            if (!detalhar && linhasFiltradas.isEmpty()) {
+                return;
+            }
+
+            relatorio.adicionar("\nLINHA COM CAMPO VAZIO");
+            if (linhasFiltradas.isEmpty()) {
+                relatorio.adicionar("\tNenhuma linha filtrada");
+            } else {
+                relatorio.adicionar(linhasFiltradas);
+                relatorio.adicionar("\tFiltradas: " + linhasFiltradas.getTotal());
+            }
         }
-        
-        linhasComCabecalho.add(0, "\nLINHA COM CAMPO VAZIO");
-        relatorio.addAll(linhasComCabecalho);
     }
 
     /**
-     * Verifica se uma linha possui algum campo vazio
+     * Guarda as linhas que chegam ao fim do encadeamento em um
+     * {@link GravadorSnapshot}, gravado ao lado do arquivo após o relatório de
+     * integridade.
      *
      * <p>
-     * Este método recebe uma string de conteúdo de linha e verifica se algum
-     * dos campos da linha está vazio. Um campo é considerado vazio se consistir
-     * apenas de espaços em branco ou se for uma string vazia. Retorna
-     * verdadeiro se um campo vazio for encontrado e falso caso contrário.</p>
-     *
-     * @param linha a string contendo o conteúdo da linha a ser verificado
-     * @return true se a linha contiver um campo vazio, false caso contrário
-     */
-    protected static boolean linhaTemCampoVazio(String linha) {
-        String[] campos = linha.split(";");
-        for (String campo : campos) {
-            if (campo == null || campo.isEmpty()) {
-                return true;
+     * Deve ser a última verificação do encadeamento, para receber apenas as
+     * linhas que passaram pelos filtros das anteriores. Não acrescenta nenhuma
+     * seção ao relatório, e uma falha na gravação do snapshot é apenas
+     * registrada no log, sem alterar o resultado da validação: o cache de
+     * validação só reaproveita o resultado de um arquivo cujo snapshot
+     * {@link Snapshot#isAtual(Path) corresponde a ele}, de modo que a próxima
+     * validação tenta gravá-lo novamente.</p>
+     */
+    protected static class GravarSnapshot implements VerificacaoCombinavel, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final GravadorSnapshot gravador;
+
+        /**
+         * @param cabecalho o cabeçalho do arquivo, com os nomes das colunas
+         */
+        protected GravarSnapshot(String cabecalho) {
+            this.gravador = new GravadorSnapshot(cabecalho.split(";"));
+        }
+
+        @Override
+        public boolean verificar(RegistroCsv registro) {
+            gravador.adicionar(registro);
+            return true;
+        }
+
+        @Override
+        public void combinar(VerificacaoCombinavel posterior) {
+            gravador.combinar(((GravarSnapshot) posterior).gravador);
+        }
+
+        @Override
+        public void concluir(Relatorio relatorio) {
+            // O snapshot é gravado por gravar(), após o relatório
+        }
+
+        /**
+         * @param origem atributos do arquivo lidos antes da leitura, de modo
+         * que um arquivo alterado durante a validação tenha um snapshot
+         * desatualizado, e não um snapshot atual sem as últimas linhas
+         */
+        private void gravar(TipoArquivo tipo, Path inputFile, BasicFileAttributes origem, MedicaoArquivo medicao) {
+            long inicio = System.nanoTime();
+            Path destino = Snapshot.getCaminho(inputFile);
+            try {
+                long tamanho = gravador.gravar(destino, tipo, ValidadorArquivos.VERSAO_VALIDADOR,
+                        origem.size(), origem.lastModifiedTime().toMillis());
+                medicao.registrar(getNome(), 0, tamanho, System.nanoTime() - inicio);
+                log.info(() -> "Snapshot gravado: " + destino);
+            } catch (IOException e) {
+                log.log(Level.WARNING, "Não foi possível gravar o snapshot de " + inputFile, e);
             }
         }
-        return false;
     }
 
     protected static void registrarErro(Path inputFile, String msgErro, Exception e){
         log.log(Level.SEVERE, msgErro, e);
         log.info("Escrevendo arquivo de erro.");
         List<String> relatorioErro = new ArrayList<>();
-        Path outputFile = Paths.get(inputFile.getParent().toString().concat("\\Relatórios"), inputFile.getFileName().toString().replace(".csv", "-ERRO.txt"));
+        Path outputFile = Paths.get(LeitorCsvCompactado.getArquivoEmDisco(inputFile).getParent().toString().concat("\\Relatórios"),
+                getNomeRelatorio(inputFile, "-ERRO.txt"));
 
         relatorioErro.add("RELATÓRIO DE ERRO");
         relatorioErro.add(msgErro);
@@ -198,11 +542,175 @@ class Planilha {
     }
 
     protected static Path getOutputPath(Path path) {
-        Path parent = path.getParent().resolve("Relatórios");
-        String fileName = path.getFileName().toString().replace(".csv", ".txt");
+        Path parent = getPastaRelatorios(path);
+        String fileName = getNomeRelatorio(path, ".txt");
         Path outputPath = Paths.get(parent.toString(),fileName);
 
-        log.log(Level.INFO, "\nInputPath: " + path + "\nOutputPath: " + outputPath);
+        log.info(() -> "\nInputPath: " + path + "\nOutputPath: " + outputPath);
         return outputPath;
     }
+
+    /**
+     * Obtém o nome de um relatório do arquivo: o
+     * {@link LeitorCsvCompactado#getNomeSaida(Path) nome do arquivo}, sem a
+     * extensão .csv final, seguido do sufixo informado.
+     */
+    private static String getNomeRelatorio(Path path, String sufixo) {
+        String nome = LeitorCsvCompactado.getNomeSaida(path);
+        if (nome.endsWith(".csv")) {
+            nome = nome.substring(0, nome.length() - ".csv".length());
+        }
+        return nome + sufixo;
+    }
+
+    /**
+     * Obtém a pasta Relatórios do arquivo, ao lado do arquivo ou, para uma
+     * entrada de arquivo zip, ao lado do arquivo zip.
+     *
+     * @param path caminho do arquivo verificado
+     * @return a pasta onde são gravados os relatórios do arquivo
+     */
+    static Path getPastaRelatorios(Path path) {
+        return LeitorCsvCompactado.getArquivoEmDisco(path).getParent().resolve("Relatórios");
+    }
+
+    /**
+     * Lê um arquivo CSV linha a linha com o leitor adequado: mapeado em
+     * memória ou, para arquivos compactados, descompactado em uma thread
+     * própria.
+     *
+     * @param path caminho do arquivo
+     * @param consumidor recebe cada linha lida
+     * @return a quantidade de linhas lidas
+     * @throws IOException se o arquivo não puder ser lido
+     */
+    static int lerLinhas(Path path, Consumer<RegistroCsv> consumidor) throws IOException {
+        if (LeitorCsvCompactado.isCompactado(path)) {
+            return LeitorCsvCompactado.ler(path, consumidor);
+        }
+        return LeitorCsvMapeado.ler(path, consumidor);
+    }
+
+    /**
+     * Lê um arquivo CSV linha a linha, como
+     * {@link #lerLinhas(Path, Consumer)}, informando ao final a quantidade de
+     * bytes lidos: o tamanho do arquivo ou, para arquivos compactados, a
+     * quantidade de bytes descompactados, de modo que a vazão de arquivos
+     * compactados e não compactados seja comparável.
+     *
+     * @param path caminho do arquivo
+     * @param consumidor recebe cada linha lida
+     * @param qtdBytes recebe a quantidade de bytes lidos
+     * @return a quantidade de linhas lidas
+     * @throws IOException se o arquivo não puder ser lido
+     */
+    static int lerLinhas(Path path, Consumer<RegistroCsv> consumidor, LongConsumer qtdBytes) throws IOException {
+        if (LeitorCsvCompactado.isCompactado(path)) {
+            return LeitorCsvCompactado.ler(path, consumidor, qtdBytes);
+        }
+        int qtdLinhas = LeitorCsvMapeado.ler(path, consumidor);
+        qtdBytes.accept(Files.size(path));
+        return qtdLinhas;
+    }
+
+    /**
+     * Leitura do arquivo que entrega todas as linhas às verificações.
+     */
+    private interface Leitura {
+
+        /**
+         * @return a quantidade de linhas lidas
+         */
+        int executar() throws IOException;
+
+        /**
+         * @return a quantidade de bytes lidos, por padrão o tamanho do arquivo
+         */
+        default long getQtdBytes(Path inputFile) throws IOException {
+            return Files.size(inputFile);
+        }
+    }
+
+    /**
+     * Leitura do arquivo inteiro em uma única parte, que também conta os bytes
+     * descompactados de arquivos compactados.
+     */
+    private static final class LeituraCompleta implements Leitura {
+
+        private final Path inputFile;
+        private final Consumer<RegistroCsv> consumidor;
+        private long qtdBytes;
+
+        private LeituraCompleta(Path inputFile, Consumer<RegistroCsv> consumidor) {
+            this.inputFile = inputFile;
+            this.consumidor = consumidor;
+        }
+
+        @Override
+        public int executar() throws IOException {
+            return lerLinhas(inputFile, consumidor, qtd -> qtdBytes = qtd);
+        }
+
+        @Override
+        public long getQtdBytes(Path inputFile) {
+            return qtdBytes;
+        }
+    }
+
+    /**
+     * Leitura do trecho do arquivo posterior ao estado incremental, que
+     * grava o novo estado antes de ler a última linha incompleta.
+     */
+    private static final class LeituraIncremental implements Leitura {
+
+        private final Path inputFile;
+        private final EstadoIncremental<?> estado;
+        private final LeituraTrecho leituraTrecho;
+        private long qtdBytes;
+
+        /**
+         * @param leituraTrecho entrega as linhas de um trecho do arquivo ao
+         * encadeamento do estado
+         */
+        private LeituraIncremental(Path inputFile, EstadoIncremental<?> estado, LeituraTrecho leituraTrecho) {
+            this.inputFile = inputFile;
+            this.estado = estado;
+            this.leituraTrecho = leituraTrecho;
+        }
+
+        @Override
+        public int executar() throws IOException {
+            long inicio = estado.getPosicao();
+            int linhasAnteriores = estado.getQtdLinhas();
+            long tamanho = Files.size(inputFile);
+            long fimLinhas = LeitorCsvMapeado.fimDaUltimaLinha(inputFile, inicio, tamanho);
+
+            int endereco = leituraTrecho.ler(inicio, fimLinhas, linhasAnteriores);
+            estado.avancar(inputFile, fimLinhas, endereco);
+            estado.salvar(inputFile);
+            endereco = leituraTrecho.ler(fimLinhas, tamanho, endereco);
+
+            qtdBytes = tamanho - inicio;
+            return endereco - linhasAnteriores;
+        }
+
+        @Override
+        public long getQtdBytes(Path inputFile) {
+            return qtdBytes;
+        }
+    }
+
+    /**
+     * Leitura das linhas de um trecho do arquivo.
+     */
+    private interface LeituraTrecho {
+
+        /**
+         * @param inicio posição do início do trecho
+         * @param fim posição do fim do trecho
+         * @param enderecoAnterior número da linha anterior ao trecho
+         * @return o número da última linha lida
+         */
+        int ler(long inicio, long fim, int enderecoAnterior) throws IOException;
+    }
 }
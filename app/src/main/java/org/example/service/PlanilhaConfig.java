@@ -1,19 +1,17 @@
 package org.example.service;
 
-import java.io.IOException;
+import java.io.Serializable;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
-import org.example.csv.Csv;
+import org.example.csv.LeitorDataHora;
+import org.example.csv.RegistroCsv;
 import org.example.model.Linha;
+import org.example.model.ResultadoValidacao;
+import org.example.model.TipoArquivo;
 import org.example.util.LoggerUtil;
 
 /**
@@ -59,194 +57,213 @@ public class PlanilhaConfig extends Planilha {
     /**
      * Verifica a integridade de um arquivo CSV e gera um relatório detalhado.
      * <p>
-     * Este método lê um arquivo CSV, realiza várias verificações de integridade
-     * nos dados, e gera um relatório contendo os resultados dessas
-     * verificações. O relatório é salvo em um arquivo de saída com o mesmo nome
-     * do arquivo de entrada, mas com extensão .txt. Em caso de erro durante a
-     * leitura do arquivo, um relatório de erro é gerado e salvo em um arquivo
-     * com extensão -ERRO.txt.
+     * Este método lê um arquivo CSV em uma única passagem, realiza várias
+     * verificações de integridade nos dados, e gera um relatório contendo os
+     * resultados dessas verificações. O relatório é salvo em um arquivo de
+     * saída com o mesmo nome do arquivo de entrada, mas com extensão .txt. Em
+     * caso de erro durante a leitura do arquivo, um relatório de erro é gerado
+     * e salvo em um arquivo com extensão -ERRO.txt.
      * </p>
      *
      * @param inputFile o caminho para o arquivo CSV a ser verificado
      * @param detalharVerificacao caso true o método detalhará no
      * relatorioIntegridade todas as validações realizadas mesmo que não
      * encontre erros
-     * @return uma lista de strings contendo o relatório de integridade
+     * @return o resultado da validação, com status
+     * {@link org.example.model.StatusArquivo#VALIDADO} se o relatório de
+     * integridade foi gerado ou {@link org.example.model.StatusArquivo#ERRO}
+     * em caso de erro
      */
-    public static boolean verificarIntegridade(Path inputFile, boolean detalharVerificacao) {
-        log.info("Verificando planilha config: " + inputFile);
-
-        List<String> relatorioIntegridade = new ArrayList<>();
-        List<Linha> linhasDoArquivo;
-        Path outputPath = getOutputPath(inputFile);
-        String inputFileName = inputFile.getFileName().toString();
-        
-        try {
-            linhasDoArquivo = Csv.getLines(inputFile);
-        } catch (IOException e) {
-            String msgErro = "Exceção ao ler arquivo " + inputFileName;
-            registrarErro(inputFile, msgErro, e);
-            return false;
-        }
+    public static ResultadoValidacao verificarIntegridade(Path inputFile, boolean detalharVerificacao) {
+        return verificarIntegridade(inputFile, detalharVerificacao, false);
+    }
 
-        try {
-            localizarCabecalho(linhasDoArquivo, relatorioIntegridade, CABECALHO, detalharVerificacao);
-            verificarQuantidadeDeCampos(linhasDoArquivo, relatorioIntegridade, QTD_CAMPOS, detalharVerificacao);
-            verificarCamposVazios(linhasDoArquivo, relatorioIntegridade, detalharVerificacao);
-            contarQtdLinhas(linhasDoArquivo, relatorioIntegridade, detalharVerificacao);
-            verificarHorarios(linhasDoArquivo, relatorioIntegridade, detalharVerificacao);
-            
-        } catch (Exception e) {
-            String msgErro = "Exceção ao processar arquivo " + inputFileName;
-            registrarErro(inputFile, msgErro, e);
-            return false;
-        }
+    /**
+     * Verifica a integridade de um arquivo CSV e gera um relatório detalhado,
+     * como em {@link #verificarIntegridade(Path, boolean)}.
+     *
+     * <p>
+     * Com {@code incremental}, apenas as linhas acrescentadas desde a última
+     * verificação incremental do arquivo são lidas; as contagens, o índice de
+     * minutos e as linhas filtradas da verificação anterior são
+     * reaproveitados e o relatório é o mesmo de uma verificação completa.</p>
+     *
+     * @param inputFile o caminho para o arquivo CSV a ser verificado
+     * @param detalharVerificacao caso true o método detalhará no
+     * relatorioIntegridade todas as validações realizadas mesmo que não
+     * encontre erros
+     * @param incremental define se a verificação continua a partir do estado
+     * gravado pela verificação incremental anterior
+     * @return o resultado da validação; na verificação incremental, com as
+     * linhas e os bytes lidos nela
+     * @see Planilha#processarArquivoIncremental(TipoArquivo, Path, boolean, Supplier)
+     */
+    public static ResultadoValidacao verificarIntegridade(Path inputFile, boolean detalharVerificacao, boolean incremental) {
+        log.info(() -> "Verificando planilha config: " + inputFile);
 
-        if (relatorioIntegridade.isEmpty()) {
-            relatorioIntegridade.add("OK");
-        }
-        relatorioIntegridade.add(0,"RELATÓRIO DE INTEGRIDADE");
-        relatorioIntegridade.add(1, inputFileName);
+        Supplier<List<Verificacao>> fabrica = () -> {
+            List<Verificacao> verificacoes = new ArrayList<>();
+            verificacoes.add(new LocalizarCabecalho(CABECALHO, detalharVerificacao));
+            verificacoes.add(new VerificarQuantidadeDeCampos(QTD_CAMPOS, detalharVerificacao));
+            verificacoes.add(new VerificarCamposVazios(detalharVerificacao));
+            verificacoes.add(new ContarQtdLinhas(detalharVerificacao));
+            verificacoes.add(new VerificarHorarios(detalharVerificacao));
+            if (SNAPSHOT) {
+                verificacoes.add(new GravarSnapshot(CABECALHO));
+            }
+            return verificacoes;
+        };
 
-        try {
-            Csv.writeCSVFile(relatorioIntegridade, outputPath);
-        } catch (Exception e) {
-            String msgErro = "Erro ao escrever o relatório de integridade para o arquivo: " + inputFileName;
-            registrarErro(inputFile, msgErro, e);
-            return false;
+        if (incremental) {
+            return processarArquivoIncremental(TipoArquivo.CONFIG, inputFile, detalharVerificacao, fabrica);
         }
-        
-        return true;
+        return processarArquivo(TipoArquivo.CONFIG, inputFile, fabrica.get());
     }
 
     /**
-     * Conta a quantidade de linhas na lista de linhas fornecida e atualiza o
+     * Conta a quantidade de linhas que chegam a esta verificação e atualiza o
      * relatório de integridade com os resultados da contagem.
      *
      * <p>
-     * Este método compara a quantidade de linhas encontradas na lista com a
+     * Esta verificação compara a quantidade de linhas encontradas com a
      * quantidade esperada (definida pela constante {@code QTD_LINHAS}). Se as
      * quantidades coincidirem, o relatório indicará que o resultado está OK.
      * Caso contrário, indicará falha e a diferença será adicionada ao
      * relatório.</p>
-     *
-     * @param linhas a lista de linhas a ser verificada
-     * @param relatorioIntegridade a lista onde o relatório de integridade será
-     * adicionado
-     * @param detalharVerificacao caso true o método detalhará no
-     * relatorioIntegridade todas as validações realizadas mesmo que não
-     * encontre erros
      */
-    private static void contarQtdLinhas(List<Linha> linhas, List<String> relatorioIntegridade, boolean detalharVerificacao) {
-        int qtdLinhas = linhas.size();
+    private static class ContarQtdLinhas implements Verificacao, Serializable {
 
-        if (QTD_LINHAS == qtdLinhas) {
-            if (detalharVerificacao) {
-                relatorioIntegridade.add("\nQUANTIDADE DE LINHAS");
-                relatorioIntegridade.add("\tResultado: OK");
-            }
-        } else {
-            relatorioIntegridade.add("\nQUANTIDADE DE LINHAS");
-            relatorioIntegridade.add("\tQtd esperada: " + QTD_LINHAS + " linhas");
-            relatorioIntegridade.add("\tQtd encontrada: " + qtdLinhas + " linhas");
-            int diferenca = qtdLinhas - QTD_LINHAS;
-            if (diferenca > 0) {
-                relatorioIntegridade.add(String.format("\tDiferença: %d linhas a mais", diferenca));
+        private static final long serialVersionUID = 1L;
+
+        private final boolean detalharVerificacao;
+        private int qtdLinhas;
+
+        /**
+         * @param detalharVerificacao caso true a verificação detalhará no
+         * relatorioIntegridade seu resultado mesmo que não encontre erros
+         */
+        private ContarQtdLinhas(boolean detalharVerificacao) {
+            this.detalharVerificacao = detalharVerificacao;
+        }
+
+        @Override
+        public boolean verificar(RegistroCsv registro) {
+            qtdLinhas++;
+            return true;
+        }
+
+        @Override
+        public void concluir(Relatorio relatorioIntegridade) {
+            if (QTD_LINHAS == qtdLinhas) {
+                if (detalharVerificacao) {
+                    relatorioIntegridade.adicionar("\nQUANTIDADE DE LINHAS");
+                    relatorioIntegridade.adicionar("\tResultado: OK");
+                }
             } else {
-                relatorioIntegridade.add(String.format("\tDiferença: %d linhas a menos", Math.abs(diferenca)));
+                relatorioIntegridade.adicionar("\nQUANTIDADE DE LINHAS");
+                relatorioIntegridade.adicionar("\tQtd esperada: " + QTD_LINHAS + " linhas");
+                relatorioIntegridade.adicionar("\tQtd encontrada: " + qtdLinhas + " linhas");
+                int diferenca = qtdLinhas - QTD_LINHAS;
+                if (diferenca > 0) {
+                    relatorioIntegridade.adicionar("\tDiferença: " + diferenca + " linhas a mais");
+                } else {
+                    relatorioIntegridade.adicionar("\tDiferença: " + Math.abs(diferenca) + " linhas a menos");
+                }
             }
         }
     }
 
     /**
-     * Verifica a integridade dos horários na lista de linhas fornecida.
+     * Verifica a integridade dos horários das linhas do arquivo.
      * <p>
-     * Este método mapeia as linhas para seus respectivos minutos, verifica
-     * horários ausentes e duplicados, e adiciona os resultados ao relatório de
-     * integridade.
+     * Esta verificação indexa cada linha recebida pelo seu respectivo minuto
+     * do dia à medida que o arquivo é lido e, ao final da leitura, registra
+     * as linhas com data ou horário malformado e verifica horários ausentes e
+     * duplicados, adicionando os resultados ao relatório de integridade.
      * </p>
-     *
-     * @param linhas a lista de objetos Linha a serem verificadas
-     * @param relatorioIntegridade a lista onde será adicionado o relatório de
-     * integridade
-     * @param detalharVerificacao caso true o método detalhará no
-     * relatorioIntegridade todas as validações realizadas mesmo que não
-     * encontre erros
      */
-    private static void verificarHorarios(List<Linha> linhas, List<String> relatorioIntegridade, boolean detalharVerificacao) {
-        Map<LocalTime, List<Linha>> mapaMinutos = mapearMinutos(linhas);
-        verificarAusentes(mapaMinutos, relatorioIntegridade, detalharVerificacao);
-        verificarDuplicados(mapaMinutos, relatorioIntegridade, detalharVerificacao);
-    }
+    private static class VerificarHorarios implements Verificacao, Serializable {
 
-    /**
-     * Mapeia uma lista de objetos do tipo Linha em um mapa que associa cada
-     * minuto do dia a uma lista de Linhas.
-     * <p>
-     * Para cada objeto Linha na lista fornecida, este método extrai o tempo (no
-     * formato HH:mm:ss) do conteúdo da Linha, agrupa as linhas pelo minuto
-     * exato e garante que cada minuto do dia esteja representado no mapa, mesmo
-     * que não haja linhas correspondentes a alguns minutos.
-     * </p>
-     *
-     * @param linhas a lista de objetos Linha a serem mapeados
-     * @return um mapa onde a chave é um LocalTime representando um minuto do
-     * dia e o valor é uma lista de objetos Linha correspondentes a esse minuto
-     */
-    private static Map<LocalTime, List<Linha>> mapearMinutos(List<Linha> linhas) {
-        Map<LocalTime, List<Linha>> mapaMinutos = new TreeMap<>();
+        private static final long serialVersionUID = 1L;
 
-        for (Linha linha : linhas) {
-            LocalTime minuto = LocalTime.parse(linha.getConteudo().split(";")[2], DateTimeFormatter.ISO_LOCAL_TIME);
-            List<Linha> novaLista = mapaMinutos.compute(minuto, (key, listaExistente) -> {
-                if (listaExistente == null) {
-                    listaExistente = new ArrayList<>();
-                }
-                listaExistente.add(linha);
-                return listaExistente;
-            });
-            mapaMinutos.put(minuto, novaLista);
+        private final boolean detalharVerificacao;
+        private final IndiceMinutos indiceMinutos = new IndiceMinutos();
+        private final Ocorrencias linhasInvalidas = new Ocorrencias();
+
+        /**
+         * @param detalharVerificacao caso true a verificação detalhará no
+         * relatorioIntegridade seu resultado mesmo que não encontre erros
+         */
+        private VerificarHorarios(boolean detalharVerificacao) {
+            this.detalharVerificacao = detalharVerificacao;
         }
 
-        popularMinutosFaltantes(mapaMinutos);
+        /**
+         * Lê a data (dd/MM/yyyy) e o tempo (HH:mm:ss) da linha e a indexa pelo
+         * minuto do dia. Linhas com data ou horário malformado não são
+         * indexadas e são registradas no relatório.
+         */
+        @Override
+        public boolean verificar(RegistroCsv registro) {
+            long dia = LeitorDataHora.diaEpochDiaMesAno(registro, registro.inicioCampo(1), registro.fimCampo(1));
+            int minuto = LeitorDataHora.minutoDoDia(registro, registro.inicioCampo(2), registro.fimCampo(2));
+            if (dia == LeitorDataHora.DIA_INVALIDO || minuto == LeitorDataHora.INVALIDO) {
+                linhasInvalidas.adicionar(registro.getEndereco(), registro);
+                return true;
+            }
+            indiceMinutos.adicionar(minuto, registro);
+            return true;
+        }
 
-        return mapaMinutos;
+        @Override
+        public void concluir(Relatorio relatorioIntegridade) {
+            if (!linhasInvalidas.isEmpty()) {
+                relatorioIntegridade.adicionar("\nDATA OU HORÁRIO INVÁLIDO");
+                relatorioIntegridade.adicionar(linhasInvalidas);
+            } else if (detalharVerificacao) {
+                relatorioIntegridade.adicionar("\nDATA OU HORÁRIO INVÁLIDO");
+                relatorioIntegridade.adicionar("\tNenhuma linha com erro");
+            }
+            verificarAusentes(indiceMinutos, relatorioIntegridade, detalharVerificacao);
+            verificarDuplicados(indiceMinutos, relatorioIntegridade, detalharVerificacao);
+        }
     }
 
     /**
      * Verifica e registra horários ausentes no relatório de integridade.
      * <p>
-     * Este método percorre o mapa de minutos e verifica se há minutos sem
+     * Este método percorre os minutos do dia e verifica se há minutos sem
      * linhas associadas. Se encontrar minutos ausentes, adiciona-os ao
      * relatório de integridade.
      * </p>
      *
-     * @param mapaMinutos o mapa contendo os minutos e suas respectivas listas
-     * de linhas
-     * @param relatorioIntegridade a lista onde será adicionado o relatório de
+     * @param indiceMinutos o índice das linhas pelo minuto do dia
+     * @param relatorioIntegridade o relatório onde é escrita a seção de
      * integridade
      * @param detalharVerificacao caso true o método detalhará no
      * relatorioIntegridade todas as validações realizadas mesmo que não
      * encontre erros
      */
-    private static void verificarAusentes(Map<LocalTime, List<Linha>> mapaMinutos, List<String> relatorioIntegridade, boolean detalharVerificacao) {
-        List<String> listaAusentes = new ArrayList<>();
-        Set<Map.Entry<LocalTime, List<Linha>>> entrySet = mapaMinutos.entrySet();
-
-        for (Map.Entry<LocalTime, List<Linha>> entry : entrySet) {
-            if (entry.getValue() == null || entry.getValue().isEmpty()) {
-                listaAusentes.add(String.format("\t%s", entry.getKey().toString()));
+    private static void verificarAusentes(IndiceMinutos indiceMinutos, Relatorio relatorioIntegridade, boolean detalharVerificacao) {
+        int qtdAusentes = 0;
+        for (int minuto = 0; minuto < IndiceMinutos.MINUTOS_DIA; minuto++) {
+            if (indiceMinutos.getQuantidade(minuto) == 0) {
+                qtdAusentes++;
             }
         }
 
-        if (!listaAusentes.isEmpty()) {
-            relatorioIntegridade.add("\nHORÁRIO AUSENTE");
-            relatorioIntegridade.addAll(listaAusentes);
-            relatorioIntegridade.add(String.format("\tQuantidade: %d", listaAusentes.size()));
+        if (qtdAusentes > 0) {
+            relatorioIntegridade.adicionar("\nHORÁRIO AUSENTE");
+            for (int minuto = 0; minuto < IndiceMinutos.MINUTOS_DIA; minuto++) {
+                if (indiceMinutos.getQuantidade(minuto) == 0) {
+                    relatorioIntegridade.adicionar("\t" + IndiceMinutos.formatarMinuto(minuto));
+                }
+            }
+            relatorioIntegridade.adicionar("\tQuantidade: " + qtdAusentes);
         } else {
             if (detalharVerificacao) {
-                relatorioIntegridade.add("\nHORÁRIO AUSENTE");
-                relatorioIntegridade.add("\tNenhum horário ausente");
+                relatorioIntegridade.adicionar("\nHORÁRIO AUSENTE");
+                relatorioIntegridade.adicionar("\tNenhum horário ausente");
             }
         }
     }
@@ -254,60 +271,56 @@ public class PlanilhaConfig extends Planilha {
     /**
      * Verifica e registra horários duplicados no relatório de integridade.
      * <p>
-     * Este método percorre o mapa de minutos e verifica se há minutos com
+     * Este método percorre os minutos do dia e verifica se há minutos com
      * múltiplas linhas associadas. Se encontrar horários duplicados,
      * adiciona-os ao relatório de integridade.
      * </p>
      *
-     * @param mapaMinutos o mapa contendo os minutos e suas respectivas listas
-     * de linhas
-     * @param relatorioIntegridade a lista onde será adicionado o relatório de
+     * @param indiceMinutos o índice das linhas pelo minuto do dia
+     * @param relatorioIntegridade o relatório onde é escrita a seção de
      * integridade
      * @param detalharVerificacao caso true o método detalhará no
      * relatorioIntegridade todas as validações realizadas mesmo que não
      * encontre erros
      */
-    private static void verificarDuplicados(Map<LocalTime, List<Linha>> mapaMinutos, List<String> relatorioIntegridade, boolean detalharVerificacao) {
-        List<String> listaDuplicados = getListaDuplicados(mapaMinutos);
+    private static void verificarDuplicados(IndiceMinutos indiceMinutos, Relatorio relatorioIntegridade, boolean detalharVerificacao) {
+        Ocorrencias listaDuplicados = getListaDuplicados(indiceMinutos);
 
         if (!listaDuplicados.isEmpty()) {
-            relatorioIntegridade.add("\nHORÁRIO DUPLICADO");
-            relatorioIntegridade.addAll(listaDuplicados);
+            relatorioIntegridade.adicionar("\nHORÁRIO DUPLICADO");
+            relatorioIntegridade.adicionar(listaDuplicados);
         } else {
             if (detalharVerificacao) {
-                relatorioIntegridade.add("\nHORÁRIO DUPLICADO");
-                relatorioIntegridade.add("\tNenhum horário duplicado");
+                relatorioIntegridade.adicionar("\nHORÁRIO DUPLICADO");
+                relatorioIntegridade.adicionar("\tNenhum horário duplicado");
             }
         }
     }
 
-    private static List<String> getListaDuplicados(Map<LocalTime, List<Linha>> mapaMinutos) {
-        List<String> listaDuplicados = new ArrayList<>();
-        Set<Map.Entry<LocalTime, List<Linha>>> entrySet = mapaMinutos.entrySet();
+    /**
+     * Lista as linhas de cada minuto duplicado, separando os minutos por uma
+     * linha em branco. A linha em branco não conta como ocorrência.
+     */
+    private static Ocorrencias getListaDuplicados(IndiceMinutos indiceMinutos) {
+        Ocorrencias listaDuplicados = new Ocorrencias();
 
-        for (Map.Entry<LocalTime, List<Linha>> entry : entrySet) {
-            if (entry.getValue().size() > 1) {
-                for (Linha linha : entry.getValue()) {
-                    listaDuplicados.add(String.format("\t%s - Linha %4d - %s", entry.getKey().toString(), linha.getEndereco(), linha.getConteudo()));
+        for (int minuto = 0; minuto < IndiceMinutos.MINUTOS_DIA; minuto++) {
+            if (indiceMinutos.getQuantidade(minuto) > 1) {
+                String horario = IndiceMinutos.formatarMinuto(minuto);
+                boolean listado = false;
+                for (Linha linha : indiceMinutos.getLinhas(minuto)) {
+                    if (listaDuplicados.contar()) {
+                        StringBuilder sb = new StringBuilder(96).append('\t').append(horario).append(" - Linha ");
+                        listaDuplicados.listar(Ocorrencias.alinhar(sb, linha.getEndereco()).append(" - ").append(linha.getConteudo()).toString());
+                        listado = true;
+                    }
+                }
+                if (listado) {
+                    listaDuplicados.listar("");
                 }
-                listaDuplicados.add("");
             }
         }
         return listaDuplicados;
     }
 
-    /**
-     * Garante que todos os minutos do dia estejam presentes no mapa, mesmo que
-     * não haja linhas correspondentes.
-     *
-     * @param mapaMinutos o mapa a ser preenchido com todos os minutos do dia
-     */
-    private static void popularMinutosFaltantes(Map<LocalTime, List<Linha>> mapaMinutos) {
-        LocalTime min = LocalTime.MIN;
-        do {
-            mapaMinutos.computeIfAbsent(min, k -> new ArrayList<>());
-            min = min.plusMinutes(1);
-        } while (min.isAfter(LocalTime.MIDNIGHT));
-    }
-
 }
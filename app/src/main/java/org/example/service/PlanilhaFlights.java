@@ -1,18 +1,15 @@
 package org.example.service;
 
-import java.io.IOException;
+import java.io.Serializable;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.AbstractMap;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 
-import org.example.csv.Csv;
-import org.example.model.Linha;
+import org.example.csv.RegistroCsv;
+import org.example.model.ResultadoValidacao;
+import org.example.model.TipoArquivo;
 import org.example.util.LoggerUtil;
 
 /**
@@ -49,114 +46,130 @@ public class PlanilhaFlights extends Planilha {
      */
     public static final String SUFIXO = "_flights.csv";
 
+    /**
+     * Regras de validação dos campos, na ordem em que aparecem na linha.
+     */
+    private static final CampoFlights[] CAMPOS = CampoFlights.values();
+
     /**
      * Verifica a integridade de um arquivo CSV e gera um relatório detalhado.
      * <p>
-     * Este método lê um arquivo CSV, realiza várias verificações de integridade
-     * nos dados, e gera um relatório contendo os resultados dessas
-     * verificações. O relatório é salvo em um arquivo de saída com o mesmo nome
-     * do arquivo de entrada, mas com extensão .txt. Em caso de erro durante a
-     * leitura do arquivo, um relatório de erro é gerado e salvo em um arquivo
-     * com extensão -ERRO.txt.
+     * Este método lê um arquivo CSV em uma única passagem, realiza várias
+     * verificações de integridade nos dados, e gera um relatório contendo os
+     * resultados dessas verificações. O relatório é salvo em um arquivo de
+     * saída com o mesmo nome do arquivo de entrada, mas com extensão .txt. Em
+     * caso de erro durante a leitura do arquivo, um relatório de erro é gerado
+     * e salvo em um arquivo com extensão -ERRO.txt. Arquivos grandes são
+     * divididos em partes verificadas em paralelo.
      * </p>
      *
      * @param inputFile o caminho para o arquivo CSV a ser verificado
      * @param detalharVerificacao caso true o método detalhará no
      * relatorioIntegridade todas as validações realizadas mesmo que não
      * encontre erros
-     * @return uma lista de strings contendo o relatório de integridade
+     * @return o resultado da validação, com status
+     * {@link org.example.model.StatusArquivo#VALIDADO} se o relatório de
+     * integridade foi gerado ou {@link org.example.model.StatusArquivo#ERRO}
+     * em caso de erro
      */
-    public static boolean verificarIntegridade(Path inputFile, boolean detalharVerificacao) {
-        log.info("Verificando planilha config: " + inputFile);
-
-        List<String> relatorioIntegridade = new ArrayList<>();
-        List<Linha> linhasDoArquivo;
-        Path outputPath = getOutputPath(inputFile);
-        String inputFileName = inputFile.getFileName().toString();
-
-        try {
-            linhasDoArquivo = Csv.getLines(inputFile);
-        } catch (IOException e) {
-            String msgErro = "Exceção ao ler arquivo " + inputFileName;
-            registrarErro(inputFile, msgErro, e);
-            return false;
-        }
-
-        try {
-            localizarCabecalho(linhasDoArquivo, relatorioIntegridade, CABECALHO, detalharVerificacao);
-            verificarQuantidadeDeCampos(linhasDoArquivo, relatorioIntegridade, QTD_CAMPOS, detalharVerificacao);
-            validarLinhas(linhasDoArquivo, relatorioIntegridade, detalharVerificacao);
-        } catch (Exception e) {
-            String msgErro = "Exceção ao processar arquivo " + inputFileName;
-            registrarErro(inputFile, msgErro, e);
-            return false;
-        }
-
-        if (relatorioIntegridade.isEmpty()) {
-            relatorioIntegridade.add("OK");
-        }
-        relatorioIntegridade.add(0,"RELATÓRIO DE INTEGRIDADE");
-        relatorioIntegridade.add(1, inputFileName);
-
-        try {
-            Csv.writeCSVFile(relatorioIntegridade, outputPath);
-        } catch (Exception e) {
-            String msgErro = "Erro ao escrever o relatório de integridade para o arquivo: " + inputFileName;
-            registrarErro(inputFile, msgErro, e);
-            return false;
-        }
-        
-        return true;
+    public static ResultadoValidacao verificarIntegridade(Path inputFile, boolean detalharVerificacao) {
+        return verificarIntegridade(inputFile, detalharVerificacao, false);
     }
 
     /**
-     * Valida as linhas fornecidas e registra quaisquer erros de integridade no
-     * relatório especificado.
+     * Verifica a integridade de um arquivo CSV e gera um relatório detalhado,
+     * como em {@link #verificarIntegridade(Path, boolean)}.
      *
      * <p>
-     * O método percorre a lista de linhas do arquivo, valida cada linha
-     * individualmente e, se encontrar algum erro, adiciona esse erro e a linha
-     * correspondente às listas de erros e linhas inválidas, respectivamente. No
-     * final, o método adiciona ao relatório de integridade uma mensagem
-     * indicando se houve erros ou não, e lista os detalhes das linhas
-     * inválidas.</p>
+     * Com {@code incremental}, apenas as linhas acrescentadas desde a última
+     * verificação incremental do arquivo são lidas, divididas em partes
+     * verificadas em paralelo e combinadas às ocorrências da verificação
+     * anterior; o relatório é o mesmo de uma verificação completa.</p>
      *
-     * @param linhasDoArquivo Lista de objetos {@code Linha} que representam as
-     * linhas do arquivo a serem validadas.
-     * @param relatorioIntegridade Lista de {@code String} onde será registrado
-     * o relatório de integridade das linhas.
+     * @param inputFile o caminho para o arquivo CSV a ser verificado
      * @param detalharVerificacao caso true o método detalhará no
      * relatorioIntegridade todas as validações realizadas mesmo que não
      * encontre erros
+     * @param incremental define se a verificação continua a partir do estado
+     * gravado pela verificação incremental anterior
+     * @return o resultado da validação; na verificação incremental, com as
+     * linhas e os bytes lidos nela
+     * @see Planilha#processarArquivoIncrementalEmPartes(TipoArquivo, Path, boolean, Supplier)
      */
-    private static void validarLinhas(List<Linha> linhasDoArquivo, List<String> relatorioIntegridade, boolean detalharVerificacao) {
-
-        Iterator<Linha> iterador = linhasDoArquivo.iterator();
-        List<Map.Entry<String, Linha>> listaDeErros = new ArrayList<>();
+    public static ResultadoValidacao verificarIntegridade(Path inputFile, boolean detalharVerificacao, boolean incremental) {
+        log.info(() -> "Verificando planilha config: " + inputFile);
 
-        //Percorre e valida linhas do arquivo, adicionando inconsistências à lista de erros.
-        while (iterador.hasNext()) {
-            Linha linha = iterador.next();
-            String erro = validarLinha(linha);
-            if (!(erro == null || erro.isEmpty())) {
-                listaDeErros.add(new AbstractMap.SimpleEntry<>(erro, linha));
+        Supplier<List<VerificacaoCombinavel>> fabrica = () -> {
+            List<VerificacaoCombinavel> verificacoes = new ArrayList<>();
+            verificacoes.add(new LocalizarCabecalho(CABECALHO, detalharVerificacao));
+            verificacoes.add(new VerificarQuantidadeDeCampos(QTD_CAMPOS, detalharVerificacao));
+            verificacoes.add(new ValidarLinhas(detalharVerificacao));
+            if (SNAPSHOT) {
+                verificacoes.add(new GravarSnapshot(CABECALHO));
             }
+            return verificacoes;
+        };
+
+        if (incremental) {
+            return processarArquivoIncrementalEmPartes(TipoArquivo.FLIGHTS, inputFile, detalharVerificacao, fabrica);
         }
+        return processarArquivoEmPartes(TipoArquivo.FLIGHTS, inputFile, fabrica);
+    }
+
+    /**
+     * Valida as linhas recebidas e registra quaisquer erros de integridade no
+     * relatório.
+     *
+     * <p>
+     * Cada linha é validada individualmente à medida que o arquivo é lido e,
+     * se algum erro for encontrado, o erro e a linha correspondente são
+     * registrados. No final, a verificação adiciona ao relatório de
+     * integridade uma mensagem indicando se houve erros ou não, e lista os
+     * detalhes das linhas inválidas.</p>
+     */
+    private static class ValidarLinhas implements VerificacaoCombinavel, Serializable {
+
+        private static final long serialVersionUID = 1L;
 
-        if (!detalharVerificacao && listaDeErros.isEmpty()) {
-            return;
+        private final boolean detalharVerificacao;
+        private final Ocorrencias listaDeErros = new Ocorrencias();
+
+        /**
+         * @param detalharVerificacao caso true a verificação detalhará no
+         * relatorioIntegridade seu resultado mesmo que não encontre erros
+         */
+        private ValidarLinhas(boolean detalharVerificacao) {
+            this.detalharVerificacao = detalharVerificacao;
         }
 
-        relatorioIntegridade.add("\nCAMPO INVÁLIDO:");
-        if (listaDeErros.isEmpty()) {
-            relatorioIntegridade.add("\tNenhuma linha com erro");
-        } else {
-            for (Map.Entry<String, Linha> entry : listaDeErros) {
-                relatorioIntegridade.add(String.format("\tLinha %4d - %s - %s", entry.getValue().getEndereco(), entry.getKey(), entry.getValue().getConteudo()));
+        @Override
+        public boolean verificar(RegistroCsv registro) {
+            String erro = validarLinha(registro);
+            if (!(erro == null || erro.isEmpty()) && listaDeErros.contar()) {
+                listaDeErros.listar(Ocorrencias.linha(registro.getEndereco()).append(" - ").append(erro).append(" - ").append(registro).toString());
             }
-            relatorioIntegridade.add("\tInválidas: " + listaDeErros.size());
+            return true;
+        }
+
+        @Override
+        public void combinar(VerificacaoCombinavel posterior) {
+            listaDeErros.combinar(((ValidarLinhas) posterior).listaDeErros);
         }
 
+        @Override
+        public void concluir(Relatorio relatorioIntegridade) {
+            if (!detalharVerificacao && listaDeErros.isEmpty()) {
+                return;
+            }
+
+            relatorioIntegridade.adicionar("\nCAMPO INVÁLIDO:");
+            if (listaDeErros.isEmpty()) {
+                relatorioIntegridade.adicionar("\tNenhuma linha com erro");
+            } else {
+                relatorioIntegridade.adicionar(listaDeErros);
+                relatorioIntegridade.adicionar("\tInválidas: " + listaDeErros.getTotal());
+            }
+        }
     }
 
     /**
@@ -166,159 +179,79 @@ public class PlanilhaFlights extends Planilha {
      * <p>
      * Este método verifica inicialmente se a quantidade de campos na linha está
      * correta. Se a quantidade estiver incorreta, uma mensagem de erro é
-     * retornada. Em seguida, valida cada campo individualmente utilizando o
-     * método {@code validarCampo}. Se algum campo for inválido, uma mensagem de
-     * erro é construída e retornada; caso contrário, retorna {@code null}.</p>
+     * retornada. Em seguida, percorre os campos diretamente sobre os bytes da
+     * linha, sem convertê-los em {@code String}, e valida cada campo com a respectiva regra de
+     * {@link CampoFlights}. O timestamp é validado como dois campos: os 10
+     * primeiros caracteres como data e o restante como hora. Uma linha válida
+     * é verificada sem criar nenhum objeto; a mensagem de erro só é construída
+     * quando algum campo é inválido.</p>
      *
-     * @param linha O objeto {@code Linha} que representa a linha a ser
-     * validada.
+     * @param registro A linha a ser validada.
      * @return Uma mensagem de erro formatada se houver campos inválidos,
      * {@code null} se todos os campos forem válidos.
      */
-    private static String validarLinha(Linha linha) {
-        String[] campos = linha.getConteudo().split(";");
-        if (campos.length != QTD_CAMPOS) {
-            return String.format("Qtd campos incorreta. Esperados %d, encontrados %d", QTD_CAMPOS, campos.length);
-        } else {
-            List<String> errosNaLinha = new ArrayList<>();
-            for (int i = 0; i < campos.length; i++) {
+    static String validarLinha(RegistroCsv registro) {
+        int qtdCampos = registro.getQtdCampos();
+        if (qtdCampos != QTD_CAMPOS) {
+            return String.format("Qtd campos incorreta. Esperados %d, encontrados %d", QTD_CAMPOS, qtdCampos);
+        }
 
-                if (i == 0) {
-                    errosNaLinha.add(validarCampo(campos[i].substring(0, 10), 0));
-                    errosNaLinha.add(validarCampo(campos[i].substring(10), 1));
-                } else {
-                    errosNaLinha.add(validarCampo(campos[i], i + 1));
-                }
-            }
+        StringBuilder erros = null;
+        for (int i = 0; i < qtdCampos; i++) {
+            int inicio = registro.inicioCampo(i);
+            int fim = registro.fimCampo(i);
 
-            if (errosNaLinha.isEmpty()) {
-                return null;
+            if (i == 0) {
+                int fimData = Math.min(inicio + 10, fim);
+                erros = validarCampo(registro, inicio, fimData, CampoFlights.DATA, erros);
+                erros = validarCampo(registro, fimData, fim, CampoFlights.HORA, erros);
             } else {
-                String msgDeErro = "";
-                for (String erro : errosNaLinha) {
-                    msgDeErro = msgDeErro.concat(erro);
-                }
-                return String.format("%s", msgDeErro);
+                erros = validarCampo(registro, inicio, fim, CAMPOS[i + 1], erros);
             }
         }
+
+        return erros == null ? null : erros.toString();
     }
 
     /**
-     * Valida um campo específico de acordo com o índice fornecido, retornando
-     * uma mensagem de erro formatada se o campo for inválido.
+     * Valida o trecho {@code [inicio, fim)} do conteúdo de uma linha de acordo
+     * com a regra do campo fornecido, acrescentando uma mensagem de erro
+     * formatada se o campo for inválido.
      *
      * <p>
-     * Este método usa expressões regulares para verificar se o campo fornecido
-     * corresponde ao padrão esperado com base no índice. Se o campo não for
-     * válido, uma mensagem de erro é retornada; caso contrário, uma string
-     * vazia é retornada.</p>
+     * Um campo vazio é inválido, exceto para os campos em que a ausência de
+     * informação é permitida (EOBT). As mensagens de erro são encapsuladas por
+     * "|" e o acumulador de erros só é criado quando o primeiro erro da linha
+     * é encontrado.</p>
      *
-     * @param campo O valor do campo a ser validado.
-     * @param indice O índice que indica qual campo está sendo validado, onde
-     * cada valor corresponde a um campo específico.
-     * @return Uma mensagem de erro formatada se o campo for inválido, ou uma
-     * string vazia se o campo for válido.
+     * @param registro A linha que está sendo validada.
+     * @param inicio O índice do primeiro caractere do campo.
+     * @param fim O índice seguinte ao último caractere do campo.
+     * @param campo O campo que está sendo validado.
+     * @param erros Os erros já encontrados na linha, ou {@code null} se não
+     * houver nenhum.
+     * @return O acumulador de erros da linha, ou {@code null} se não houver
+     * nenhum erro até este campo.
      */
-    private static String validarCampo(String campo, int indice) {
-        Pattern pattern;
-        String regex;
-        String msgErro = "";
-
-        switch (indice) {
-            case 0: //valida data_timestamp
-                regex = "^\\d{4}-(0[1-9]|1[0-2])-(0[1-9]|[1-2][0-9]|3[0-1])$";
-                msgErro = "Data: ";
-                break;
-            case 1: //valida hora_timestamp
-                regex = "^(0[0-9]|1[0-9]|2[0-3]):([0-5][0-9]):([0-5][0-9])$";
-                msgErro = "Hora: ";
-                break;
-            case 2: //valida config_id
-                regex = "^\"([2-9]|1[0-8]).[0-9]{1,5}.([0-9]|1[0-8])\"$";
-                msgErro = "config_id: ";
-                break;
-//            NÃO IMPLEMENTADA
-            case 3: //valida sect_config
-                regex = ".*";
-                break;
-            case 4: //valida ctr
-                regex = "^\"CTR([0-1][0-9]|2[0-1])\"$";
-                msgErro = "CTR: ";
-                break;
-            case 5: //valida ass
-                regex = "^\"(ASS([0-1][0-9]|2[0-1])|)\"$";
-                msgErro = "ASS: ";
-                break;
-            case 6: //valida sector
-                regex = "^\"(S0[1-9]|S1[0-8]|S6F|18F)\"$";
-                msgErro = "sector: ";
-                break;
-            case 7: //valida qtd_sectors
-                regex = "^([1-9]|1[0-8])$";
-                msgErro = "qtd_sector: ";
-                break;
-            case 8: //valida qtd_ass
-                regex = "^([0-9]|1[0-8])$";
-                msgErro = "qtd_ass: ";
-                break;
-            case 9: //valida callsign
-                regex = "^([a-zA-Z0-9]{4,7})$";
-                msgErro = "callsign: ";
-                break;
-            case 10: //valida ADEP
-                regex = "^([A-Z]{2}[A-Z0-9]{2})$";
-                msgErro = "ADEP: ";
-                break;
-            case 11: //valida ADES
-                regex = "^([A-Z]{2}[A-Z0-9]{2})$";
-                msgErro = "ADES: ";
-                break;
-            case 12: //valida DOF
-                regex = "^([0-9]{6})$";
-                msgErro = "DOF: ";
-                break;
-            case 13: //valida EOBT
-                regex = "^([0-1][0-9]|2[0-3])[0-5][0-9]$";
-                msgErro = "EOBT: ";
-                break;
-            case 14: //valida SSR
-                regex = "^A[0-7]{4}$";
-                msgErro = "SSR: ";
-                break;
-            case 15: //valida flrul
-                regex = "^([IVYZ])$";
-                msgErro = "flrul: ";
-                break;
-            default:
-                return "";
-        }
-        pattern = Pattern.compile(regex);
-
-        /*
-        Verifica se o campo está vazio ou nulo e retorna uma mensagem de erro, exceto 
-        no caso do campo 13 (EOBT), onde a ausência de informação é permitida.
-    
-        Lógica:
-        - Se o campo for nulo ou estiver vazio:
-        - Para o campo 13 (EOBT), a ausência de informação é permitida, portanto 
-        retorna uma string vazia.
-        - Para os demais campos, concatena uma mensagem de erro indicando que o 
-        campo está vazio e a retorna, encapsulada por "|".
-         */
-        if (campo == null || campo.isEmpty()) {
-            if (indice == 13) {
-                return "";
-            } else {
-                msgErro = msgErro.concat("campo vazio");
-                return "|" + msgErro + "|";
+    private static StringBuilder validarCampo(RegistroCsv registro, int inicio, int fim, CampoFlights campo, StringBuilder erros) {
+        if (inicio >= fim) {
+            if (campo.permiteVazio()) {
+                return erros;
             }
+            return acrescentarErro(erros, campo).append("campo vazio").append('|');
         }
 
-        if (!pattern.matcher(campo).matches()) {
-            msgErro = msgErro.concat(campo);
-            return "|" + msgErro + "|";
+        if (!campo.aceita(registro, inicio, fim)) {
+            return acrescentarErro(erros, campo).append(registro.subSequence(inicio, fim)).append('|');
         }
 
-        return "";
+        return erros;
+    }
+
+    private static StringBuilder acrescentarErro(StringBuilder erros, CampoFlights campo) {
+        if (erros == null) {
+            erros = new StringBuilder();
+        }
+        return erros.append('|').append(campo.getRotulo());
     }
 }
@@ -1,22 +1,18 @@
 package org.example.service;
 
-import java.io.IOException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 
-import org.example.csv.Csv;
-import org.example.model.Linha;
+import org.example.csv.RegistroCsv;
+import org.example.model.DiaSectConfig;
+import org.example.model.Dicionario;
+import org.example.model.ResultadoValidacao;
+import org.example.model.TipoArquivo;
 import org.example.util.LoggerUtil;
 
-import java.util.Set;
-import java.util.TreeMap;
 import java.util.logging.Logger;
 
 /**
@@ -61,65 +57,240 @@ public class PlanilhaSectConfig extends Planilha {
      * Gera um relatório de integridade para um arquivo CSV especificado.
      *
      * <p>
-     * Este método lê as linhas do arquivo CSV especificado e realiza uma série
-     * de verificações de integridade nos dados. As verificações incluem a busca
-     * pelo cabeçalho correto, a verificação da quantidade correta de campos em
-     * cada linha e a detecção de campos vazios ou inválidos. O relatório é
-     * gerado indicando possíveis problemas encontrados e é retornado como uma
-     * lista de strings. Além disso, o relatório é escrito em um arquivo de
-     * texto com o mesmo nome do arquivo CSV, mas com a extensão ".txt".</p>
+     * Este método lê, em uma única passagem, as linhas do arquivo CSV
+     * especificado e realiza uma série de verificações de integridade nos
+     * dados. As verificações incluem a busca pelo cabeçalho correto, a
+     * verificação da quantidade correta de campos em cada linha e a detecção
+     * de campos vazios ou inválidos. As linhas que passam por essas
+     * verificações são carregadas em um {@link DiaSectConfig}, sobre o qual
+     * são feitas as verificações de horários e de quantidade de controladores
+     * e assistentes. O relatório é gerado indicando possíveis
+     * problemas encontrados e é escrito em um arquivo de texto com o mesmo
+     * nome do arquivo CSV, mas com a extensão ".txt".</p>
      *
      * @param inputFile O caminho do arquivo CSV para o qual o relatório de
      * integridade será gerado.
      * @param detalharVerificacao caso true o método detalhará no
      * relatorioIntegridade todas as validações realizadas mesmo que não
      * encontre erros
-     * @return Uma lista de strings contendo o relatório de integridade gerado.
+     * @return o resultado da validação, com status
+     * {@link org.example.model.StatusArquivo#VALIDADO} se o relatório de
+     * integridade foi gerado ou {@link org.example.model.StatusArquivo#ERRO}
+     * em caso de erro
      */
-    public static boolean verificarIntegridade(Path inputFile, boolean detalharVerificacao) {
-        log.info("Verificando planilha sect_config: " + inputFile);
-
-        List<String> relatorioIntegridade = new ArrayList<>();
-        List<Linha> linhasDoArquivo;
-        Path outputPath = getOutputPath(inputFile);
-        String inputFileName = inputFile.getFileName().toString();
-
-        try {
-            linhasDoArquivo = Csv.getLines(inputFile);
-        } catch (IOException e) {
-            String msgErro = "Exceção ao ler arquivo " + inputFileName;
-            registrarErro(inputFile, msgErro, e);
-            return false;
+    public static ResultadoValidacao verificarIntegridade(Path inputFile, boolean detalharVerificacao) {
+        log.info(() -> "Verificando planilha sect_config: " + inputFile);
+
+        List<Verificacao> verificacoes = new ArrayList<>();
+        verificacoes.add(new LocalizarCabecalho(CABECALHO, detalharVerificacao));
+        verificacoes.add(new VerificarQuantidadeDeCampos(CABECALHO_LENGTH, detalharVerificacao));
+        verificacoes.add(new VerificarCamposVazios(detalharVerificacao));
+        verificacoes.add(new VerificarDia(
+                new VerificarHorarios(detalharVerificacao),
+                new VerificarConfigId(detalharVerificacao),
+                new VerificarQtdDeControladores(false, detalharVerificacao),
+                new VerificarQtdDeAssistentes(false, detalharVerificacao)));
+        if (SNAPSHOT) {
+            verificacoes.add(new GravarSnapshot(CABECALHO));
         }
-        
-        try {
-            localizarCabecalho(linhasDoArquivo, relatorioIntegridade, CABECALHO, detalharVerificacao);
-            verificarQuantidadeDeCampos(linhasDoArquivo, relatorioIntegridade, CABECALHO_LENGTH, detalharVerificacao);
-            verificarCamposVazios(linhasDoArquivo, relatorioIntegridade, detalharVerificacao);
-            verificarHorarios(linhasDoArquivo, relatorioIntegridade, detalharVerificacao);
-            verificarQtdDeControladores(linhasDoArquivo, relatorioIntegridade, false, detalharVerificacao);
-            verificarQtdDeAssistentes(linhasDoArquivo, relatorioIntegridade, false, detalharVerificacao);
-        } catch (Exception e) {
-            String msgErro = "Exceção ao processar arquivo " + inputFileName;
-            registrarErro(inputFile, msgErro, e);
-            return false;
+
+        return processarArquivo(TipoArquivo.SECT_CONFIG, inputFile, verificacoes);
+    }
+
+    /**
+     * Carrega as linhas recebidas em um {@link DiaSectConfig} e, ao final da
+     * leitura, aplica sobre o dia completo as verificações informadas.
+     *
+     * <p>
+     * As verificações do dia são aplicadas em uma única passagem sobre as
+     * linhas carregadas: cada linha é entregue às verificações na ordem em
+     * que foram informadas, até que alguma delas a filtre, e só depois todas
+     * escrevem suas seções no relatório, na mesma ordem. Assim as colunas de
+     * cada linha são lidas uma única vez, enquanto ainda estão no cache do
+     * processador.</p>
+     *
+     * <p>
+     * Como em {@link Encadeamento}, o tempo de cada verificação do dia na
+     * passagem é estimado cronometrando uma linha a cada
+     * {@link Encadeamento#AMOSTRAGEM}.</p>
+     */
+    private static class VerificarDia implements Verificacao {
+
+        private final DiaSectConfig dia = new DiaSectConfig(SETORES);
+        private final VerificacaoDia[] verificacoesDia;
+        private final long[] linhasRecebidas;
+        private final long[] linhasAmostradas;
+        private final long[] nanosAmostrados;
+
+        private VerificarDia(VerificacaoDia... verificacoesDia) {
+            this.verificacoesDia = verificacoesDia;
+            this.linhasRecebidas = new long[verificacoesDia.length];
+            this.linhasAmostradas = new long[verificacoesDia.length];
+            this.nanosAmostrados = new long[verificacoesDia.length];
+        }
+
+        @Override
+        public boolean verificar(RegistroCsv registro) {
+            dia.adicionar(registro);
+            return true;
         }
 
-        if (relatorioIntegridade.isEmpty()) {
-            relatorioIntegridade.add("OK");
+        @Override
+        public void concluir(Relatorio relatorioIntegridade) {
+            verificarLinhas();
+            for (VerificacaoDia verificacaoDia : verificacoesDia) {
+                verificacaoDia.concluir(dia, relatorioIntegridade);
+            }
+        }
+
+        /**
+         * Atribui a cada verificação do dia o tempo estimado da sua parte na
+         * passagem sobre as linhas, somado ao da sua conclusão; esta
+         * verificação fica com o restante da passagem.
+         */
+        @Override
+        public void concluir(Relatorio relatorioIntegridade, MedicaoArquivo medicao) {
+            long inicio = System.nanoTime();
+            verificarLinhas();
+            long nanosPassagem = System.nanoTime() - inicio;
+            long[] nanos = new long[verificacoesDia.length];
+            for (int i = 0; i < verificacoesDia.length; i++) {
+                nanos[i] = linhasAmostradas[i] == 0 ? 0 : nanosAmostrados[i] * linhasRecebidas[i] / linhasAmostradas[i];
+                nanosPassagem -= nanos[i];
+            }
+            medicao.registrar(getNome(), 0, 0, nanosPassagem);
+            for (int i = 0; i < verificacoesDia.length; i++) {
+                String etapa = MedicaoArquivo.nome(verificacoesDia[i].getClass());
+                medicao.registrar(etapa, linhasRecebidas[i], 0, nanos[i]);
+                inicio = MedicaoArquivo.iniciarConclusao(relatorioIntegridade);
+                verificacoesDia[i].concluir(dia, relatorioIntegridade);
+                medicao.registrarConclusao(etapa, relatorioIntegridade, inicio);
+            }
+        }
+
+        private void verificarLinhas() {
+            for (int linha = 0; linha < dia.getQtdLinhas(); linha++) {
+                if ((linha & (Encadeamento.AMOSTRAGEM - 1)) != 0) {
+                    for (int i = 0; i < verificacoesDia.length; i++) {
+                        linhasRecebidas[i]++;
+                        if (!verificacoesDia[i].verificar(dia, linha)) {
+                            break;
+                        }
+                    }
+                    continue;
+                }
+
+                long anterior = System.nanoTime();
+                for (int i = 0; i < verificacoesDia.length; i++) {
+                    linhasRecebidas[i]++;
+                    linhasAmostradas[i]++;
+                    boolean segue = verificacoesDia[i].verificar(dia, linha);
+                    long agora = System.nanoTime();
+                    nanosAmostrados[i] += agora - anterior;
+                    anterior = agora;
+                    if (!segue) {
+                        break;
+                    }
+                }
+            }
         }
-        relatorioIntegridade.add(0,"RELATÓRIO DE INTEGRIDADE");
-        relatorioIntegridade.add(1, inputFileName);
-
-        try {
-            Csv.writeCSVFile(relatorioIntegridade, outputPath);
-        } catch (Exception e) {
-            String msgErro = "Erro ao escrever o relatório de integridade para o arquivo: " + inputFileName;
-            registrarErro(inputFile, msgErro, e);
+    }
+
+    /**
+     * Verificação aplicada sobre as linhas de um dia após a leitura do
+     * arquivo, da mesma forma que uma {@link Verificacao} é aplicada sobre as
+     * linhas durante a leitura.
+     */
+    private interface VerificacaoDia {
+
+        /**
+         * Processa uma linha do dia. As linhas são recebidas na ordem do
+         * arquivo.
+         *
+         * @param dia as linhas do arquivo, em colunas
+         * @param linha índice da linha no dia
+         * @return true se a linha deve seguir para as próximas verificações,
+         * false se a linha foi filtrada por esta verificação
+         */
+        boolean verificar(DiaSectConfig dia, int linha);
+
+        /**
+         * Acrescenta ao relatório a seção correspondente, após a última linha
+         * do dia.
+         *
+         * @param dia as linhas do arquivo, em colunas
+         * @param relatorioIntegridade relatório com os resultados das
+         * validações
+         */
+        void concluir(DiaSectConfig dia, Relatorio relatorioIntegridade);
+    }
+
+    /**
+     * Verifica se o config_id de cada linha está no formato QTD_CTR.X.QTD_ASS,
+     * com três partes separadas por ponto. As linhas fora do formato são
+     * listadas no relatório e filtradas das verificações seguintes, que
+     * comparam as partes do config_id com as colunas QTD_CTR e QTD_ASS.
+     */
+    private static class VerificarConfigId implements VerificacaoDia {
+
+        private static final byte NAO_VERIFICADO = 0;
+        private static final byte VALIDO = 1;
+        private static final byte INVALIDO = 2;
+
+        private final boolean detalharVerificacao;
+        private final Ocorrencias linhasInvalidas = new Ocorrencias();
+        private byte[] situacoes;
+
+        /**
+         * @param detalharVerificacao caso true a verificação detalhará no
+         * relatorioIntegridade seu resultado mesmo que não encontre erros
+         */
+        private VerificarConfigId(boolean detalharVerificacao) {
+            this.detalharVerificacao = detalharVerificacao;
+        }
+
+        @Override
+        public boolean verificar(DiaSectConfig dia, int linha) {
+            if (situacoes == null) {
+                situacoes = new byte[dia.getConfigIds().getTamanho()];
+            }
+            int configId = dia.getConfigId(linha);
+            boolean valido;
+            if (configId == Dicionario.AUSENTE) {
+                valido = isValido(dia.getCampo(linha, DiaSectConfig.CONFIG_ID));
+            } else {
+                if (situacoes[configId] == NAO_VERIFICADO) {
+                    situacoes[configId] = isValido(dia.getConfigIds().getTexto(configId)) ? VALIDO : INVALIDO;
+                }
+                valido = situacoes[configId] == VALIDO;
+            }
+            if (valido) {
+                return true;
+            }
+            if (linhasInvalidas.contar()) {
+                linhasInvalidas.listar(Ocorrencias.linha(dia.getEndereco(linha)).append(" - ").append(dia.getConteudo(linha)).toString());
+            }
             return false;
         }
-        
-        return true;
+
+        @Override
+        public void concluir(DiaSectConfig dia, Relatorio relatorioIntegridade) {
+            if (!linhasInvalidas.isEmpty()) {
+                relatorioIntegridade.adicionar("\nCONFIG_ID INVÁLIDO");
+                relatorioIntegridade.adicionar(linhasInvalidas);
+            } else if (detalharVerificacao) {
+                relatorioIntegridade.adicionar("\nCONFIG_ID INVÁLIDO");
+                relatorioIntegridade.adicionar("\tNenhuma linha com erro");
+            }
+        }
+
+        /**
+         * @return true se o config_id tem as três partes lidas por
+         * {@link PartesConfigId}
+         */
+        private static boolean isValido(String config_id) {
+            return config_id.split("\\.").length == 3;
+        }
     }
 
     /**
@@ -127,45 +298,49 @@ public class PlanilhaSectConfig extends Planilha {
      * identificador de configuração (config_id) para cada linha do arquivo.
      * Adiciona um relatório de integridade contendo as linhas inconsistentes ou
      * uma mensagem informando que nenhuma inconsistência foi encontrada.
-     * Opcionalmente, remove as linhas inconsistentes.
-     *
-     * @param linhasDoArquivo uma lista de objetos {@link Linha} representando
-     * as linhas do arquivo a serem verificadas
-     * @param relatorioIntegridade uma lista de {@link String} onde o relatório
-     * de integridade será adicionado
-     * @param removerInconsistencias se verdadeiro, remove as linhas
-     * inconsistentes da lista de linhas do arquivo
-     * @param detalharVerificacao caso true o método detalhará no
-     * relatorioIntegridade todas as validações realizadas mesmo que não
-     * encontre erros
+     * Opcionalmente, filtra as linhas inconsistentes das verificações
+     * seguintes.
      */
-    private static void verificarQtdDeControladores(List<Linha> linhasDoArquivo, List<String> relatorioIntegridade, Boolean removerInconsistencias, boolean detalharVerificacao) {
-        Iterator<Linha> iteradorLinhas = linhasDoArquivo.iterator();
-        List<Linha> linhasComErro = new ArrayList<>();
-        boolean existeErro = false;
-
-        while (iteradorLinhas.hasNext()) {
-            Linha linha = iteradorLinhas.next();
-            String[] campos = linha.getConteudo().split(";");
-            String qtd_CTR = campos[7];
-            String config_id = campos[3];
-            String config_id_CTR = config_id.split("\\.")[0].replace("\"", "");
-            if (!config_id_CTR.equals(qtd_CTR)) {
-                if (!existeErro) {
-                    existeErro = true;
-                    relatorioIntegridade.add("\nQTD_CTR INCOMPATÍVEL COM CONFIG_ID");
-                }
-                linhasComErro.add(linha);
-                relatorioIntegridade.add("\tLinha " + String.format("%4d", linha.getEndereco()) + " - " + linha.getConteudo());
+    private static class VerificarQtdDeControladores implements VerificacaoDia {
+
+        private final boolean removerInconsistencias;
+        private final boolean detalharVerificacao;
+        private final Ocorrencias linhasComErro = new Ocorrencias();
+        private PartesConfigId config_id_CTR;
 
-                if (removerInconsistencias) iteradorLinhas.remove();
+        /**
+         * @param removerInconsistencias se verdadeiro, filtra as linhas
+         * inconsistentes das verificações seguintes
+         * @param detalharVerificacao caso true a verificação detalhará no
+         * relatorioIntegridade seu resultado mesmo que não encontre erros
+         */
+        private VerificarQtdDeControladores(boolean removerInconsistencias, boolean detalharVerificacao) {
+            this.removerInconsistencias = removerInconsistencias;
+            this.detalharVerificacao = detalharVerificacao;
+        }
+
+        @Override
+        public boolean verificar(DiaSectConfig dia, int linha) {
+            if (config_id_CTR == null) {
+                config_id_CTR = new PartesConfigId(dia, 0);
+            }
+            if (config_id_CTR.corresponde(linha, DiaSectConfig.QTD_CTR)) {
+                return true;
             }
+            if (linhasComErro.contar()) {
+                linhasComErro.listar(Ocorrencias.linha(dia.getEndereco(linha)).append(" - ").append(dia.getConteudo(linha)).toString());
+            }
+            return !removerInconsistencias;
         }
 
-        if (linhasComErro.isEmpty()) {
-            if (detalharVerificacao) {
-                relatorioIntegridade.add("\nQTD_CTR INCOMPATÍVEL COM CONFIG_ID");
-                relatorioIntegridade.add("\tNenhuma linha com erro");
+        @Override
+        public void concluir(DiaSectConfig dia, Relatorio relatorioIntegridade) {
+            if (!linhasComErro.isEmpty()) {
+                relatorioIntegridade.adicionar("\nQTD_CTR INCOMPATÍVEL COM CONFIG_ID");
+                relatorioIntegridade.adicionar(linhasComErro);
+            } else if (detalharVerificacao) {
+                relatorioIntegridade.adicionar("\nQTD_CTR INCOMPATÍVEL COM CONFIG_ID");
+                relatorioIntegridade.adicionar("\tNenhuma linha com erro");
             }
         }
     }
@@ -175,207 +350,281 @@ public class PlanilhaSectConfig extends Planilha {
      * identificador de configuração (config_id) para cada linha do arquivo.
      * Adiciona um relatório de integridade contendo as linhas inconsistentes ou
      * uma mensagem informando que nenhuma inconsistência foi encontrada.
-     * Opcionalmente, remove as linhas inconsistentes.
-     *
-     * @param linhasDoArquivo uma lista de objetos {@link Linha} representando
-     * as linhas do arquivo a serem verificadas
-     * @param relatorioIntegridade uma lista de {@link String} onde o relatório
-     * de integridade será adicionado
-     * @param removerInconsistencias se verdadeiro, remove as linhas
-     * inconsistentes da lista de linhas do arquivo
-     * @param detalharVerificacao caso true o método detalhará no
-     * relatorioIntegridade todas as validações realizadas mesmo que não
-     * encontre erros
+     * Opcionalmente, filtra as linhas inconsistentes das verificações
+     * seguintes.
      */
-    private static void verificarQtdDeAssistentes(List<Linha> linhasDoArquivo, List<String> relatorioIntegridade, Boolean removerInconsistencias, boolean detalharVerificacao) {
-        Iterator<Linha> iteradorLinhas = linhasDoArquivo.iterator();
-        List<Linha> linhasComErro = new ArrayList<>();
-        boolean existeErro = false;
-
-        while (iteradorLinhas.hasNext()) {
-            Linha linha = iteradorLinhas.next();
-            String[] campos = linha.getConteudo().split(";");
-            String qtd_ASS = campos[8];
-            String config_id = campos[3];
-            String config_id_CTR = config_id.split("\\.")[2].replace("\"", "");
-            if (!config_id_CTR.equals(qtd_ASS)) {
-                if (!existeErro) {
-                    existeErro = true;
-                    relatorioIntegridade.add("\nQTD_CTR INCOMPATÍVEL COM CONFIG_ID");
-                }
-                linhasComErro.add(linha);
-                relatorioIntegridade.add("\tLinha " + String.format("%4d", linha.getEndereco()) + " - " + linha.getConteudo());
+    private static class VerificarQtdDeAssistentes implements VerificacaoDia {
+
+        private final boolean removerInconsistencias;
+        private final boolean detalharVerificacao;
+        private final Ocorrencias linhasComErro = new Ocorrencias();
+        private PartesConfigId config_id_ASS;
 
-                if (removerInconsistencias) iteradorLinhas.remove();
+        /**
+         * @param removerInconsistencias se verdadeiro, filtra as linhas
+         * inconsistentes das verificações seguintes
+         * @param detalharVerificacao caso true a verificação detalhará no
+         * relatorioIntegridade seu resultado mesmo que não encontre erros
+         */
+        private VerificarQtdDeAssistentes(boolean removerInconsistencias, boolean detalharVerificacao) {
+            this.removerInconsistencias = removerInconsistencias;
+            this.detalharVerificacao = detalharVerificacao;
+        }
+
+        @Override
+        public boolean verificar(DiaSectConfig dia, int linha) {
+            if (config_id_ASS == null) {
+                config_id_ASS = new PartesConfigId(dia, 2);
+            }
+            if (config_id_ASS.corresponde(linha, DiaSectConfig.QTD_ASS)) {
+                return true;
+            }
+            if (linhasComErro.contar()) {
+                linhasComErro.listar(Ocorrencias.linha(dia.getEndereco(linha)).append(" - ").append(dia.getConteudo(linha)).toString());
             }
+            return !removerInconsistencias;
         }
 
-        if (linhasComErro.isEmpty()) {
-            if (detalharVerificacao) {
-                relatorioIntegridade.add("\nQTD_ASS INCOMPATÍVEL COM CONFIG_ID");
-                relatorioIntegridade.add("\tNenhuma linha com erro");
+        @Override
+        public void concluir(DiaSectConfig dia, Relatorio relatorioIntegridade) {
+            if (!linhasComErro.isEmpty()) {
+                relatorioIntegridade.adicionar("\nQTD_CTR INCOMPATÍVEL COM CONFIG_ID");
+                relatorioIntegridade.adicionar(linhasComErro);
+            } else if (detalharVerificacao) {
+                relatorioIntegridade.adicionar("\nQTD_ASS INCOMPATÍVEL COM CONFIG_ID");
+                relatorioIntegridade.adicionar("\tNenhuma linha com erro");
             }
         }
     }
 
     /**
-     * Verifica os horários das linhas fornecidas para garantir a integridade
-     * dos dados.
-     * Este método executa três principais verificações: 1. Mapeia as linhas
-     * para horários específicos utilizando o método `mapearMinutos`. 2.
-     * Verifica se há horários ausentes utilizando o método `verificarAusentes`.
-     * 3. Verifica se há horários com excesso de linhas utilizando o método
-     * `verificarHorarioComExcesso`.
-     *
-     * @param linhas Uma lista de objetos `Linha` que precisam ser verificados.
-     * @param relatorioIntegridade Uma lista de strings que será utilizada para
-     * armazenar o relatório de integridade.
-     * @param detalharVerificacao caso true o método detalhará no
-     * relatorioIntegridade todas as validações realizadas mesmo que não
-     * encontre erros
-     * O método começa mapeando as linhas para horários específicos, armazenando
-     * os resultados em um mapa. Em seguida, verifica se há horários ausentes e
-     * horários com excesso de linhas, adicionando quaisquer problemas
-     * encontrados ao `relatorioIntegridade`.
+     * Uma das partes do config_id (QTD_CTR.X.QTD_ASS, entre aspas), calculada
+     * uma única vez para cada config_id distinto do dia. As linhas com
+     * config_id fora desse formato são filtradas antes por
+     * {@link VerificarConfigId}.
      */
-    private static void verificarHorarios(List<Linha> linhas, List<String> relatorioIntegridade, boolean detalharVerificacao) {
-        Map<LocalTime, List<Linha>> mapaMinutos = mapearMinutos(linhas);
-        verificarAusentes(mapaMinutos, relatorioIntegridade, detalharVerificacao);
-        verificarHorarioComExcesso(mapaMinutos, relatorioIntegridade, detalharVerificacao);
+    private static class PartesConfigId {
+
+        private static final int NAO_CANONICO = -2;
+
+        private final DiaSectConfig dia;
+        private final int parte;
+        private final String[] textos;
+        private final int[] valores;
+
+        /**
+         * @param dia o dia cujas linhas serão verificadas, já carregado
+         * @param parte índice da parte do config_id, separada por ponto
+         */
+        private PartesConfigId(DiaSectConfig dia, int parte) {
+            this.dia = dia;
+            this.parte = parte;
+            this.textos = new String[dia.getConfigIds().getTamanho()];
+            this.valores = new int[textos.length];
+        }
+
+        /**
+         * @return true se a parte do config_id da linha é igual ao texto da
+         * coluna informada
+         */
+        private boolean corresponde(int linha, int coluna) {
+            int configId = dia.getConfigId(linha);
+            if (configId == Dicionario.AUSENTE) {
+                return extrair(dia.getCampo(linha, DiaSectConfig.CONFIG_ID)).equals(dia.getCampo(linha, coluna));
+            }
+            if (textos[configId] == null) {
+                textos[configId] = extrair(dia.getConfigIds().getTexto(configId));
+                valores[configId] = valorCanonico(textos[configId]);
+            }
+            if (dia.isOriginal(linha)) {
+                return textos[configId].equals(dia.getCampo(linha, coluna));
+            }
+            // As colunas numéricas de uma linha reconstruível são inteiros sem zeros à esquerda
+            int valor = coluna == DiaSectConfig.QTD_CTR ? dia.getQtdCtr(linha) : dia.getQtdAss(linha);
+            return valores[configId] == valor;
+        }
+
+        private String extrair(String config_id) {
+            return config_id.split("\\.")[parte].replace("\"", "");
+        }
+
+        private static int valorCanonico(String texto) {
+            if (texto.isEmpty() || texto.length() > 9 || (texto.length() > 1 && texto.charAt(0) == '0')) {
+                return NAO_CANONICO;
+            }
+            int valor = 0;
+            for (int i = 0; i < texto.length(); i++) {
+                int digito = texto.charAt(i) - '0';
+                if (digito < 0 || digito > 9) {
+                    return NAO_CANONICO;
+                }
+                valor = valor * 10 + digito;
+            }
+            return valor;
+        }
     }
 
     /**
-     * Mapeia uma lista de objetos do tipo Linha em um mapa que associa cada
-     * minuto do dia a uma lista de Linhas.
+     * Verifica os horários das linhas do arquivo para garantir a integridade
+     * dos dados.
      * <p>
-     * Para cada objeto Linha na lista fornecida, este método extrai o tempo (no
-     * formato HH:mm:ss) do conteúdo da Linha, agrupa as linhas pelo minuto
-     * exato e garante que cada minuto do dia esteja representado no mapa, mesmo
-     * que não haja linhas correspondentes a alguns minutos.
+     * São registradas as linhas com data ou horário malformado e, a partir da
+     * quantidade de linhas de cada minuto do dia, verificados os horários
+     * ausentes, utilizando o método `verificarAusentes`, e os horários com
+     * excesso de linhas, utilizando o método `verificarHorarioComExcesso`,
+     * adicionando quaisquer problemas encontrados ao `relatorioIntegridade`.
      * </p>
-     *
-     * @param linhas a lista de objetos Linha a serem mapeados
-     * @return um mapa onde a chave é um LocalTime representando um minuto do
-     * dia e o valor é uma lista de objetos Linha correspondentes a esse minuto
      */
-    private static Map<LocalTime, List<Linha>> mapearMinutos(List<Linha> linhas) {
-        Map<LocalTime, List<Linha>> mapaMinutos = new TreeMap<>();
+    private static class VerificarHorarios implements VerificacaoDia {
 
-        for (Linha linha : linhas) {
-            LocalTime minuto = LocalTime.parse(linha.getConteudo().split(";")[2], DateTimeFormatter.ISO_LOCAL_TIME);
-            mapaMinutos.computeIfAbsent(minuto, listaExistente -> new ArrayList<>()).add(linha);
-        }
+        private final boolean detalharVerificacao;
+        private final Ocorrencias linhasInvalidas = new Ocorrencias();
+        private final int[] quantidades = new int[IndiceMinutos.MINUTOS_DIA];
+        private final BitSet linhasValidas = new BitSet();
 
-        popularMinutosFaltantes(mapaMinutos);
+        /**
+         * @param detalharVerificacao caso true a verificação detalhará no
+         * relatorioIntegridade seu resultado mesmo que não encontre erros
+         */
+        private VerificarHorarios(boolean detalharVerificacao) {
+            this.detalharVerificacao = detalharVerificacao;
+        }
 
-        return mapaMinutos;
-    }
+        @Override
+        public boolean verificar(DiaSectConfig dia, int linha) {
+            if (dia.getDia(linha) == DiaSectConfig.DIA_INVALIDO || dia.getMinuto(linha) == DiaSectConfig.MINUTO_INVALIDO) {
+                if (linhasInvalidas.contar()) {
+                    linhasInvalidas.listar(Ocorrencias.linha(dia.getEndereco(linha)).append(" - ").append(dia.getConteudo(linha)).toString());
+                }
+            } else {
+                quantidades[dia.getMinuto(linha)]++;
+                linhasValidas.set(linha);
+            }
+            return true;
+        }
 
-    /**
-     * Garante que todos os minutos do dia estejam presentes no mapa, mesmo que
-     * não haja linhas correspondentes.
-     *
-     * @param mapaMinutos o mapa a ser preenchido com todos os minutos do dia
-     */
-    private static void popularMinutosFaltantes(Map<LocalTime, List<Linha>> mapaMinutos) {
-        LocalTime min = LocalTime.MIN;
-        do {
-            mapaMinutos.computeIfAbsent(min, k -> new ArrayList<>());
-            min = min.plusMinutes(1);
-        } while (min.isAfter(LocalTime.MIDNIGHT));
+        @Override
+        public void concluir(DiaSectConfig dia, Relatorio relatorioIntegridade) {
+            if (!linhasInvalidas.isEmpty()) {
+                relatorioIntegridade.adicionar("\nDATA OU HORÁRIO INVÁLIDO");
+                relatorioIntegridade.adicionar(linhasInvalidas);
+            } else if (detalharVerificacao) {
+                relatorioIntegridade.adicionar("\nDATA OU HORÁRIO INVÁLIDO");
+                relatorioIntegridade.adicionar("\tNenhuma linha com erro");
+            }
+            verificarAusentes(quantidades, relatorioIntegridade, detalharVerificacao);
+            verificarHorarioComExcesso(dia, linhasValidas, quantidades, relatorioIntegridade, detalharVerificacao);
+        }
     }
 
     /**
      * Verifica e registra horários ausentes no relatório de integridade.
      * <p>
-     * Este método percorre o mapa de minutos e verifica se há minutos sem
+     * Este método percorre os minutos do dia e verifica se há minutos sem
      * linhas associadas. Se encontrar minutos ausentes, adiciona-os ao
      * relatório de integridade.
      * </p>
      *
-     * @param mapaMinutos o mapa contendo os minutos e suas respectivas listas
-     * de linhas
-     * @param relatorioIntegridade a lista onde será adicionado o relatório de
+     * @param quantidades a quantidade de linhas de cada minuto do dia
+     * @param relatorioIntegridade o relatório onde é escrita a seção de
      * integridade
      * @param detalharVerificacao caso true o método detalhará no
      * relatorioIntegridade todas as validações realizadas mesmo que não
      * encontre erros
      */
-    private static void verificarAusentes(Map<LocalTime, List<Linha>> mapaMinutos, List<String> relatorioIntegridade, boolean detalharVerificacao) {
-        List<String> listaAusentes = new ArrayList<>();
-        Set<Entry<LocalTime, List<Linha>>> entrySet = mapaMinutos.entrySet();
-
-        for (Entry<LocalTime, List<Linha>> entry : entrySet) {
-            if (entry.getValue().isEmpty()) {
-                listaAusentes.add(String.format("\t%s", entry.getKey().toString()));
+    private static void verificarAusentes(int[] quantidades, Relatorio relatorioIntegridade, boolean detalharVerificacao) {
+        int qtdAusentes = 0;
+        for (int minuto = 0; minuto < IndiceMinutos.MINUTOS_DIA; minuto++) {
+            if (quantidades[minuto] == 0) {
+                qtdAusentes++;
             }
         }
 
-        if (!listaAusentes.isEmpty()) {
-            relatorioIntegridade.add("\nHORÁRIO AUSENTE");
-            relatorioIntegridade.addAll(listaAusentes);
-            relatorioIntegridade.add(String.format("\tQuantidade: %d", listaAusentes.size()));
+        if (qtdAusentes > 0) {
+            relatorioIntegridade.adicionar("\nHORÁRIO AUSENTE");
+            for (int minuto = 0; minuto < IndiceMinutos.MINUTOS_DIA; minuto++) {
+                if (quantidades[minuto] == 0) {
+                    relatorioIntegridade.adicionar("\t" + IndiceMinutos.formatarMinuto(minuto));
+                }
+            }
+            relatorioIntegridade.adicionar("\tQuantidade: " + qtdAusentes);
         } else {
             if (detalharVerificacao) {
-                relatorioIntegridade.add("\nHORÁRIO AUSENTE");
-                relatorioIntegridade.add("\tNenhum horário ausente");
+                relatorioIntegridade.adicionar("\nHORÁRIO AUSENTE");
+                relatorioIntegridade.adicionar("\tNenhum horário ausente");
             }
         }
     }
 
     /**
-     * Analisa o mapa `mapaMinutos` para identificar entradas (chaves
-     * `LocalTime`) com uma correspondente `List<Linha>` que excede o tamanho da
-     * constante `SETORES`. Isso indica uma condição de erro onde há mais linhas
-     * registradas do que setores disponíveis para um horário específico.
+     * Identifica os minutos do dia com mais linhas do que setores disponíveis
+     * (constante `SETORES`), o que indica uma condição de erro.
      *
-     * @param mapaMinutos Um `Map` contendo entradas onde a chave é um
-     * `LocalTime` representando um horário e o valor é uma `List<Linha>`
-     * contendo objetos `Linha`.
-     * @param relatorioIntegridade Uma `List<String>` usada para armazenar o
-     * relatório de integridade.
+     * @param dia as linhas do arquivo, em colunas
+     * @param linhasValidas índices das linhas com data e horário válidos
+     * recebidas pela verificação
+     * @param quantidades a quantidade de linhas de cada minuto do dia
+     * @param relatorioIntegridade o relatório onde é escrita a seção de
+     * integridade
      * @param detalharVerificacao caso true o método detalhará no
      * relatorioIntegridade todas as validações realizadas mesmo que não
      * encontre erros
-     * Este método itera por cada entrada no mapa `mapaMinutos`. Para cada
-     * entrada, verifica se a `List<Linha>` associada não é nula e não está
-     * vazia. Se o tamanho da lista exceder o comprimento da constante
-     * `SETORES`, isso indica uma condição de erro.
-     * O método cria uma `listaExcessos` temporária (`List<String>`) para
-     * armazenar detalhes sobre os erros identificados. Se um erro for
-     * encontrado para um horário específico, o próprio horário e detalhes para
-     * cada objeto `Linha` excedente são adicionados à `listaExcessos`.
-     * Finalmente, o método verifica se `listaExcessos` está vazia. Se estiver
-     * vazia, adiciona uma mensagem indicando "Nenhum horário com erro" ao
-     * `relatorioIntegridade`. Caso contrário, adiciona todos os elementos de
-     * `listaExcessos` ao `relatorioIntegridade`, populando efetivamente o
-     * relatório com detalhes sobre os horários e excessos de linhas
-     * identificados.
+     * Para cada minuto com excesso, o próprio horário e cada uma das suas
+     * linhas, na ordem do arquivo, são adicionados ao `relatorioIntegridade`.
+     * Se nenhum minuto tiver excesso e a verificação for detalhada, é
+     * adicionada a mensagem "Nenhum horário com erro".
      */
-    private static void verificarHorarioComExcesso(Map<LocalTime, List<Linha>> mapaMinutos, List<String> relatorioIntegridade, boolean detalharVerificacao) {
-        List<String> listaExcessos = new ArrayList<>();
-        Set<Entry<LocalTime, List<Linha>>> entrySet = mapaMinutos.entrySet();
-
-        for (Entry<LocalTime, List<Linha>> entry : entrySet) {
-            if (entry.getValue() != null && !entry.getValue().isEmpty()) {
-                if (entry.getValue().size() > SETORES.length) {
-                    listaExcessos.add(String.format("\t%s", entry.getKey().toString()));
-                    List<Linha> listaLinhas = entry.getValue();
-                    for (Linha linha : listaLinhas) {
-                        listaExcessos.add(String.format("\tLinha %4d - %s", linha.getEndereco(), linha.getConteudo()));
+    private static void verificarHorarioComExcesso(DiaSectConfig dia, BitSet linhasValidas, int[] quantidades, Relatorio relatorioIntegridade, boolean detalharVerificacao) {
+        Ocorrencias listaExcessos = new Ocorrencias();
+        int[] linhasPorMinuto = null;
+        int[] inicioDoMinuto = null;
+
+        for (int minuto = 0; minuto < IndiceMinutos.MINUTOS_DIA; minuto++) {
+            if (quantidades[minuto] > SETORES.length) {
+                if (linhasPorMinuto == null) {
+                    inicioDoMinuto = new int[IndiceMinutos.MINUTOS_DIA + 1];
+                    linhasPorMinuto = ordenarPorMinuto(dia, linhasValidas, quantidades, inicioDoMinuto);
+                }
+                if (!listaExcessos.isCheia()) {
+                    listaExcessos.listar("\t" + IndiceMinutos.formatarMinuto(minuto));
+                }
+                for (int i = inicioDoMinuto[minuto]; i < inicioDoMinuto[minuto + 1]; i++) {
+                    int linha = linhasPorMinuto[i];
+                    if (listaExcessos.contar()) {
+                        listaExcessos.listar(Ocorrencias.linha(dia.getEndereco(linha)).append(" - ").append(dia.getConteudo(linha)).toString());
                     }
                 }
             }
         }
 
         if (!listaExcessos.isEmpty()) {
-            relatorioIntegridade.add("\nHORÁRIO COM EXCESSO DE REGISTROS");
-            relatorioIntegridade.addAll(listaExcessos);
+            relatorioIntegridade.adicionar("\nHORÁRIO COM EXCESSO DE REGISTROS");
+            relatorioIntegridade.adicionar(listaExcessos);
         } else {
             if (detalharVerificacao) {
-                relatorioIntegridade.add("\nHORÁRIO COM EXCESSO DE REGISTROS");
-                relatorioIntegridade.add("\tNenhum horário com erro");
+                relatorioIntegridade.adicionar("\nHORÁRIO COM EXCESSO DE REGISTROS");
+                relatorioIntegridade.adicionar("\tNenhum horário com erro");
             }
         }
     }
+
+    /**
+     * Ordena os índices das linhas válidas pelo minuto do dia,
+     * mantendo a ordem do arquivo entre as linhas de um mesmo minuto.
+     *
+     * @param inicioDoMinuto recebe, para cada minuto, a posição da sua
+     * primeira linha no vetor retornado; a última posição recebe o total
+     * @return os índices das linhas ordenados pelo minuto
+     */
+    private static int[] ordenarPorMinuto(DiaSectConfig dia, BitSet linhasValidas, int[] quantidades, int[] inicioDoMinuto) {
+        for (int minuto = 0; minuto < IndiceMinutos.MINUTOS_DIA; minuto++) {
+            inicioDoMinuto[minuto + 1] = inicioDoMinuto[minuto] + quantidades[minuto];
+        }
+        int[] proximaPosicao = Arrays.copyOf(inicioDoMinuto, IndiceMinutos.MINUTOS_DIA);
+        int[] linhasPorMinuto = new int[inicioDoMinuto[IndiceMinutos.MINUTOS_DIA]];
+        for (int linha = linhasValidas.nextSetBit(0); linha >= 0; linha = linhasValidas.nextSetBit(linha + 1)) {
+            linhasPorMinuto[proximaPosicao[dia.getMinuto(linha)]++] = linha;
+        }
+        return linhasPorMinuto;
+    }
 }
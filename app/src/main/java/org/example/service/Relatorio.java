@@ -0,0 +1,227 @@
+package org.example.service;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.example.csv.Csv;
+import org.example.util.LoggerUtil;
+
+/**
+ * Relatório de integridade gravado em disco à medida que as seções são
+ * escritas.
+ *
+ * <p>
+ * As linhas passam por um buffer de tamanho fixo e são gravadas em um arquivo
+ * temporário ao lado do relatório, que só substitui o relatório anterior
+ * quando {@link #concluir()} é chamado. Se a verificação falhar no meio do
+ * caminho, {@link #close()} descarta o arquivo temporário e o relatório
+ * anterior permanece intacto. O conteúdo gravado é o mesmo que seria obtido
+ * com {@link Csv#writeCSVFile(java.util.List, Path)}: cabeçalho, nome do
+ * arquivo verificado, seções das verificações ou "OK" se nenhuma seção for
+ * escrita.</p>
+ *
+ * <p>
+ * Os erros de gravação são lançados como {@link UncheckedIOException}, para
+ * que as verificações possam escrever no relatório sem declarar
+ * {@code IOException}.</p>
+ *
+ * @author luisg
+ */
+final class Relatorio implements Closeable {
+
+    private static final Logger log = LoggerUtil.getLogger();
+    private static final int TAMANHO_BUFFER = 64 * 1024;
+    private static final String SEPARADOR = System.lineSeparator();
+
+    private final Path destino;
+    private final Path temporario;
+    private final FileChannel canal;
+    private final BufferedWriter escritor;
+    private boolean vazio = true;
+    private boolean concluido;
+    private long nanosEscrita;
+    private long qtdLinhas;
+    private long tamanho;
+
+    private Relatorio(Path destino, Path temporario, FileChannel canal, BufferedWriter escritor) {
+        this.destino = destino;
+        this.temporario = temporario;
+        this.canal = canal;
+        this.escritor = escritor;
+    }
+
+    /**
+     * Cria o relatório de integridade e escreve seu cabeçalho.
+     *
+     * @param destino caminho do relatório
+     * @param nomeArquivo nome do arquivo verificado
+     * @return o relatório aberto para escrita
+     * @throws IOException se não for possível criar o arquivo
+     */
+    static Relatorio criar(Path destino, String nomeArquivo) throws IOException {
+        return criar(destino, "RELATÓRIO DE INTEGRIDADE", nomeArquivo);
+    }
+
+    /**
+     * Cria um relatório com o título informado e escreve seu cabeçalho.
+     *
+     * @param destino caminho do relatório
+     * @param titulo primeira linha do relatório
+     * @param nomeArquivo nome dos arquivos verificados
+     * @return o relatório aberto para escrita
+     * @throws IOException se não for possível criar o arquivo
+     */
+    static Relatorio criar(Path destino, String titulo, String nomeArquivo) throws IOException {
+        try {
+            Files.createDirectories(destino.getParent());
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Falha ao criar o diretório " + destino.getParent(), e);
+            throw new IOException("Falha ao escrever arquivo CSV: " + destino.getFileName(), e);
+        }
+
+        Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+        FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        BufferedWriter escritor = new BufferedWriter(Channels.newWriter(canal, Csv.CHARSET.newEncoder(), TAMANHO_BUFFER), TAMANHO_BUFFER);
+        Relatorio relatorio = new Relatorio(destino, temporario, canal, escritor);
+        try {
+            relatorio.escrever(titulo);
+            relatorio.escrever(nomeArquivo);
+        } catch (UncheckedIOException e) {
+            relatorio.close();
+            throw e;
+        }
+        return relatorio;
+    }
+
+    /**
+     * Escreve uma linha no relatório.
+     *
+     * @param linha texto da linha, que pode conter quebras de linha
+     */
+    void adicionar(String linha) {
+        vazio = false;
+        escrever(linha);
+    }
+
+    /**
+     * Escreve as ocorrências listadas de uma seção e, se alguma ficou de fora
+     * por causa do limite, uma linha com a quantidade omitida.
+     *
+     * @param ocorrencias ocorrências da seção
+     */
+    void adicionar(Ocorrencias ocorrencias) {
+        for (String linha : ocorrencias.getLinhas()) {
+            adicionar(linha);
+        }
+        if (ocorrencias.getOmitidas() > 0) {
+            adicionar("\t... mais " + ocorrencias.getOmitidas() + " ocorrências não listadas");
+        }
+    }
+
+    /**
+     * Escreve "OK" se nenhuma seção foi escrita e move o relatório para o
+     * destino, substituindo o relatório anterior.
+     *
+     * @throws IOException se não for possível gravar o relatório
+     */
+    void concluir() throws IOException {
+        concluir(Collections.emptyList());
+    }
+
+    /**
+     * Escreve "OK" se nenhuma seção foi escrita, acrescenta o rodapé e move o
+     * relatório para o destino, substituindo o relatório anterior. O rodapé
+     * não conta como seção.
+     *
+     * @param rodape linhas escritas ao final do relatório
+     * @throws IOException se não for possível gravar o relatório
+     */
+    void concluir(List<String> rodape) throws IOException {
+        if (vazio) {
+            escrever("OK");
+        }
+        for (String linha : rodape) {
+            escrever(linha);
+        }
+        long inicio = System.nanoTime();
+        try {
+            escritor.flush();
+            tamanho = canal.size();
+            escritor.close();
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Falha ao gravar o relatório " + destino, e);
+            throw new IOException("Falha ao escrever o arquivo CSV: " + destino.getFileName(), e);
+        }
+        nanosEscrita += System.nanoTime() - inicio;
+        concluido = true;
+    }
+
+    /**
+     * @return o tempo gasto até o momento escrevendo e gravando o relatório,
+     * em nanossegundos
+     */
+    long getNanosEscrita() {
+        return nanosEscrita;
+    }
+
+    /**
+     * @return a quantidade de linhas escritas, contando cabeçalho e rodapé
+     */
+    long getQtdLinhas() {
+        return qtdLinhas;
+    }
+
+    /**
+     * @return o tamanho em bytes do relatório gravado por
+     * {@link #concluir(List)}
+     */
+    long getTamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Descarta o arquivo temporário caso o relatório não tenha sido concluído.
+     */
+    @Override
+    public void close() {
+        if (concluido) {
+            return;
+        }
+        try {
+            escritor.close();
+        } catch (IOException e) {
+            log.log(Level.FINE, "Falha ao fechar o relatório " + temporario, e);
+        }
+        try {
+            Files.deleteIfExists(temporario);
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Falha ao excluir o arquivo temporário " + temporario, e);
+        }
+    }
+
+    private void escrever(String linha) {
+        long inicio = System.nanoTime();
+        try {
+            escritor.write(linha);
+            escritor.write(SEPARADOR);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao escrever o arquivo CSV: " + destino.getFileName(), e);
+        }
+        qtdLinhas++;
+        nanosEscrita += System.nanoTime() - inicio;
+    }
+}
@@ -0,0 +1,434 @@
+package org.example.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.example.csv.LeitorCsvCompactado;
+import org.example.model.ArquivoCSV;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.example.model.TipoArquivo;
+import org.example.util.LoggerUtil;
+
+/**
+ * Valida arquivos CSV de acordo com o seu tipo, individualmente ou em lote.
+ *
+ * <p>
+ * Não depende de classes de interface gráfica, de modo que é usado tanto pela
+ * janela principal quanto pela validação em lote pela linha de comando.</p>
+ *
+ * @author luisg
+ */
+public final class ValidadorArquivos {
+
+    private static final Logger log = LoggerUtil.getLogger();
+    /**
+     * Grau de paralelismo padrão da validação: uma thread por processador
+     * disponível.
+     */
+    public static final int PARALELISMO_PADRAO = Runtime.getRuntime().availableProcessors();
+    /**
+     * Versão das regras de validação e do formato dos relatórios. Deve ser
+     * alterada sempre que uma verificação ou o conteúdo do relatório mudar,
+     * para que os resultados guardados no cache de validação sejam
+     * descartados.
+     */
+    public static final String VERSAO_VALIDADOR = "3";
+
+    private ValidadorArquivos() {
+    }
+
+    /**
+     * Valida um arquivo de acordo com o seu tipo e atualiza o seu status,
+     * reaproveitando o resultado da última validação se o conteúdo do arquivo
+     * não mudou.
+     *
+     * @param arquivoCSV arquivo a ser validado
+     * @param detalhar define se o relatório detalha todas as verificações
+     * @return o resultado da validação; arquivos de tipo desconhecido não são
+     * lidos e resultam em {@link StatusArquivo#TIPO_DESCONHECIDO}
+     * @see #validarArquivo(ArquivoCSV, boolean, boolean)
+     */
+    public static ResultadoValidacao validarArquivo(ArquivoCSV arquivoCSV, boolean detalhar) {
+        return validarArquivo(arquivoCSV, detalhar, true);
+    }
+
+    /**
+     * Valida um arquivo de acordo com o seu tipo e atualiza o seu status.
+     *
+     * <p>
+     * Com {@code usarCache}, um arquivo cujo conteúdo, versão do validador e
+     * opção {@code detalhar} são os mesmos de uma validação anterior bem
+     * sucedida não é lido novamente: o status registrado é devolvido e o
+     * relatório existente é mantido. Sem {@code usarCache} o arquivo é sempre
+     * validado, mas o resultado continua sendo registrado no cache.</p>
+     *
+     * @param arquivoCSV arquivo a ser validado
+     * @param detalhar define se o relatório detalha todas as verificações
+     * @param usarCache define se o resultado de uma validação anterior pode
+     * ser reaproveitado
+     * @return o resultado da validação; arquivos de tipo desconhecido não são
+     * lidos e resultam em {@link StatusArquivo#TIPO_DESCONHECIDO}
+     */
+    public static ResultadoValidacao validarArquivo(ArquivoCSV arquivoCSV, boolean detalhar, boolean usarCache) {
+        return validarArquivo(arquivoCSV, detalhar, usarCache, false);
+    }
+
+    /**
+     * Valida um arquivo como {@link #validarArquivo(ArquivoCSV, boolean, boolean)},
+     * definindo se planilhas config e flights são verificadas de forma
+     * incremental.
+     *
+     * <p>
+     * Na verificação incremental apenas as linhas acrescentadas ao arquivo
+     * desde a verificação incremental anterior são lidas, continuando com o
+     * estado gravado por ela, e o relatório do arquivo inteiro é gravado
+     * novamente. O cache de validação não é consultado, pois calcular o hash
+     * do conteúdo exigiria ler o arquivo inteiro, e a entrada do arquivo é
+     * removida, já que não descreve mais o relatório gravado. Planilhas
+     * sect_config, cujas verificações dependem do dia completo, são sempre
+     * validadas por inteiro, assim como arquivos compactados.</p>
+     *
+     * @param arquivoCSV arquivo a ser validado
+     * @param detalhar define se o relatório detalha todas as verificações
+     * @param usarCache define se o resultado de uma validação anterior pode
+     * ser reaproveitado
+     * @param incremental define se planilhas config e flights são verificadas
+     * a partir do estado da verificação incremental anterior
+     * @return o resultado da validação; arquivos de tipo desconhecido não são
+     * lidos e resultam em {@link StatusArquivo#TIPO_DESCONHECIDO}
+     */
+    public static ResultadoValidacao validarArquivo(ArquivoCSV arquivoCSV, boolean detalhar, boolean usarCache, boolean incremental) {
+        Path path = arquivoCSV.getPath();
+        TipoArquivo tipoArquivo = arquivoCSV.getTipo();
+        if (tipoArquivo == TipoArquivo.DESCONHECIDO) {
+            log.warning("Tipo de arquivo inválido para validação: " + TipoArquivo.DESCONHECIDO);
+            arquivoCSV.setStatus(StatusArquivo.TIPO_DESCONHECIDO);
+            return ResultadoValidacao.semLeitura(StatusArquivo.TIPO_DESCONHECIDO);
+        }
+
+        boolean verificarIncremental = incremental && tipoArquivo != TipoArquivo.SECT_CONFIG && !LeitorCsvCompactado.isCompactado(path);
+        long inicio = System.nanoTime();
+        CacheValidacao.Consulta consulta = null;
+        try {
+            if (verificarIncremental) {
+                CacheValidacao.invalidar(path);
+            } else {
+                consulta = CacheValidacao.consultar(path, detalhar);
+            }
+        } catch (IOException e) {
+            log.log(Level.WARNING, "Não foi possível consultar o cache de validação de " + path, e);
+        }
+        if (usarCache && consulta != null && consulta.isValida()) {
+            log.info(() -> "Arquivo sem alterações desde a última validação: " + path);
+            ResultadoValidacao resultado = consulta.getResultado(System.nanoTime() - inicio);
+            arquivoCSV.setStatus(resultado.getStatus());
+            return resultado;
+        }
+
+        ResultadoValidacao resultadoValidacao;
+        log.info(() -> "Iniciando validação de: " + path);
+
+        switch (tipoArquivo) {
+            case CONFIG:
+                resultadoValidacao = PlanilhaConfig.verificarIntegridade(path, detalhar, verificarIncremental);
+                break;
+            case SECT_CONFIG:
+                resultadoValidacao = PlanilhaSectConfig.verificarIntegridade(path, detalhar);
+                break;
+            case FLIGHTS:
+                resultadoValidacao = PlanilhaFlights.verificarIntegridade(path, detalhar, verificarIncremental);
+                break;
+            default:
+                throw new IllegalArgumentException("Tipo de arquivo não tratado: " + tipoArquivo);
+        }
+
+        if (consulta != null) {
+            CacheValidacao.registrar(consulta, resultadoValidacao);
+        }
+        arquivoCSV.setStatus(resultadoValidacao.getStatus());
+        return resultadoValidacao;
+    }
+
+    /**
+     * Valida uma lista de arquivos em paralelo, utilizando um conjunto limitado
+     * de threads.
+     *
+     * <p>
+     * Os arquivos são enviados ao conjunto de threads do maior para o menor,
+     * de modo que os arquivos mais demorados comecem primeiro e um arquivo
+     * grande não fique sozinho no final da execução. O status de cada arquivo
+     * é atualizado pela thread que o validou e o consumidor {@code aoConcluir}
+     * é chamado, também nessa thread, assim que cada validação termina. O
+     * método retorna somente após a validação de todos os arquivos.</p>
+     *
+     * @param arquivos arquivos a serem validados
+     * @param detalhar define se os relatórios detalham todas as verificações
+     * @param paralelismo quantidade máxima de arquivos validados ao mesmo tempo
+     * @param aoConcluir chamado ao final da validação de cada arquivo com o
+     * seu resultado
+     * @throws InterruptedException se a thread for interrompida enquanto
+     * aguarda as validações
+     */
+    public static void validarArquivos(List<ArquivoCSV> arquivos, boolean detalhar, int paralelismo, BiConsumer<ArquivoCSV, ResultadoValidacao> aoConcluir) throws InterruptedException {
+        validarArquivos(arquivos, detalhar, true, paralelismo, aoConcluir);
+    }
+
+    /**
+     * Valida uma lista de arquivos em paralelo, como
+     * {@link #validarArquivos(List, boolean, int, BiConsumer)}, definindo se o
+     * cache de validação pode ser usado.
+     *
+     * @param arquivos arquivos a serem validados
+     * @param detalhar define se os relatórios detalham todas as verificações
+     * @param usarCache define se o resultado de validações anteriores pode ser
+     * reaproveitado
+     * @param paralelismo quantidade máxima de arquivos validados ao mesmo tempo
+     * @param aoConcluir chamado ao final da validação de cada arquivo com o
+     * seu resultado
+     * @throws InterruptedException se a thread for interrompida enquanto
+     * aguarda as validações
+     */
+    public static void validarArquivos(List<ArquivoCSV> arquivos, boolean detalhar, boolean usarCache, int paralelismo, BiConsumer<ArquivoCSV, ResultadoValidacao> aoConcluir) throws InterruptedException {
+        validarArquivos(arquivos, detalhar, usarCache, false, paralelismo, aoConcluir);
+    }
+
+    /**
+     * Valida uma lista de arquivos em paralelo, como
+     * {@link #validarArquivos(List, boolean, boolean, int, BiConsumer)},
+     * definindo se planilhas config e flights são verificadas de forma
+     * incremental.
+     *
+     * @param arquivos arquivos a serem validados
+     * @param detalhar define se os relatórios detalham todas as verificações
+     * @param usarCache define se o resultado de validações anteriores pode ser
+     * reaproveitado
+     * @param incremental define se planilhas config e flights são verificadas
+     * a partir do estado da verificação incremental anterior
+     * @param paralelismo quantidade máxima de arquivos validados ao mesmo tempo
+     * @param aoConcluir chamado ao final da validação de cada arquivo com o
+     * seu resultado
+     * @throws InterruptedException se a thread for interrompida enquanto
+     * aguarda as validações
+     * @see #validarArquivo(ArquivoCSV, boolean, boolean, boolean)
+     */
+    public static void validarArquivos(List<ArquivoCSV> arquivos, boolean detalhar, boolean usarCache, boolean incremental, int paralelismo, BiConsumer<ArquivoCSV, ResultadoValidacao> aoConcluir) throws InterruptedException {
+        List<ArquivoCSV> fila = ordenarPorTamanho(arquivos);
+        List<Runnable> tarefas = new ArrayList<>();
+        for (ArquivoCSV arquivoCSV : fila) {
+            tarefas.add(() -> {
+                ResultadoValidacao resultado = ResultadoValidacao.semLeitura(StatusArquivo.ERRO);
+                try {
+                    resultado = validarArquivo(arquivoCSV, detalhar, usarCache, incremental);
+                } catch (Exception e) {
+                    log.log(Level.SEVERE, "Falha ao validar " + arquivoCSV.getPath(), e);
+                    arquivoCSV.setStatus(StatusArquivo.ERRO);
+                } finally {
+                    aoConcluir.accept(arquivoCSV, resultado);
+                }
+            });
+        }
+        log.info(() -> "Validando " + fila.size() + " arquivos com " + Math.max(1, Math.min(paralelismo, fila.size())) + " threads");
+        executar(tarefas, paralelismo);
+    }
+
+    /**
+     * Verifica a consistência entre as planilhas config e sect_config de cada
+     * dia presente na lista, em paralelo.
+     *
+     * <p>
+     * As planilhas são agrupadas pelo diretório e pela data no nome do
+     * arquivo; os dias que não têm as duas planilhas na lista são ignorados.
+     * Para cada dia é gravado um relatório de consistência, como descrito em
+     * {@link ConsistenciaDiaria}, e o consumidor {@code aoConcluir} é chamado
+     * com o caminho da planilha config do dia e o resultado.</p>
+     *
+     * @param arquivos arquivos validados
+     * @param detalhar define se os relatórios detalham todas as verificações
+     * @param paralelismo quantidade máxima de dias verificados ao mesmo tempo
+     * @param aoConcluir chamado ao final da verificação de cada dia
+     * @return a quantidade de dias verificados
+     * @throws InterruptedException se a thread for interrompida enquanto
+     * aguarda as verificações
+     */
+    public static int verificarConsistencia(List<ArquivoCSV> arquivos, boolean detalhar, int paralelismo, BiConsumer<Path, ResultadoValidacao> aoConcluir) throws InterruptedException {
+        Map<Path, Path> configs = new LinkedHashMap<>();
+        Map<Path, Path> sectConfigs = new HashMap<>();
+        for (ArquivoCSV arquivoCSV : arquivos) {
+            Path path = arquivoCSV.getPath().toAbsolutePath();
+            Path dia = path.resolveSibling(ConsistenciaDiaria.getPrefixo(path));
+            if (arquivoCSV.getTipo() == TipoArquivo.CONFIG) {
+                configs.put(dia, path);
+            } else if (arquivoCSV.getTipo() == TipoArquivo.SECT_CONFIG) {
+                sectConfigs.put(dia, path);
+            }
+        }
+
+        List<Runnable> tarefas = new ArrayList<>();
+        for (Map.Entry<Path, Path> config : configs.entrySet()) {
+            Path sectConfig = sectConfigs.get(config.getKey());
+            if (sectConfig == null) {
+                continue;
+            }
+            tarefas.add(() -> {
+                ResultadoValidacao resultado = ResultadoValidacao.semLeitura(StatusArquivo.ERRO);
+                try {
+                    resultado = ConsistenciaDiaria.verificar(config.getValue(), sectConfig, detalhar);
+                } catch (Exception e) {
+                    log.log(Level.SEVERE, "Falha ao verificar a consistência de " + config.getValue(), e);
+                } finally {
+                    aoConcluir.accept(config.getValue(), resultado);
+                }
+            });
+        }
+        log.info(() -> "Verificando a consistência de " + tarefas.size() + " dias");
+        executar(tarefas, paralelismo);
+        return tarefas.size();
+    }
+
+    /**
+     * Verifica a continuidade das planilhas config e das planilhas
+     * sect_config da lista, cada tipo como uma única sequência ordenada pela
+     * data, conforme descrito em {@link ContinuidadeMensal}. Os dois tipos são
+     * verificados em paralelo.
+     *
+     * @param arquivos arquivos validados, como os de um mês
+     * @param detalhar define se os relatórios detalham todas as verificações
+     * @param paralelismo quantidade máxima de tipos verificados ao mesmo tempo
+     * @param aoConcluir chamado ao final da verificação de cada tipo
+     * @throws InterruptedException se a thread for interrompida enquanto
+     * aguarda as verificações
+     */
+    public static void verificarContinuidade(List<ArquivoCSV> arquivos, boolean detalhar, int paralelismo, BiConsumer<TipoArquivo, ResultadoValidacao> aoConcluir) throws InterruptedException {
+        Map<TipoArquivo, List<Path>> porTipo = new EnumMap<>(TipoArquivo.class);
+        for (ArquivoCSV arquivoCSV : arquivos) {
+            if (arquivoCSV.getTipo() == TipoArquivo.CONFIG || arquivoCSV.getTipo() == TipoArquivo.SECT_CONFIG) {
+                porTipo.computeIfAbsent(arquivoCSV.getTipo(), tipo -> new ArrayList<>()).add(arquivoCSV.getPath().toAbsolutePath());
+            }
+        }
+
+        List<Runnable> tarefas = new ArrayList<>();
+        for (Map.Entry<TipoArquivo, List<Path>> tipo : porTipo.entrySet()) {
+            tarefas.add(() -> {
+                ResultadoValidacao resultado = ResultadoValidacao.semLeitura(StatusArquivo.ERRO);
+                try {
+                    resultado = ContinuidadeMensal.verificar(tipo.getKey(), tipo.getValue(), detalhar);
+                } catch (Exception e) {
+                    log.log(Level.SEVERE, "Falha ao verificar a continuidade das planilhas " + tipo.getKey(), e);
+                } finally {
+                    aoConcluir.accept(tipo.getKey(), resultado);
+                }
+            });
+        }
+        executar(tarefas, paralelismo);
+    }
+
+    /**
+     * Agrega a carga de trabalho dos setores das planilhas sect_config da
+     * lista, como uma única sequência ordenada pela data, conforme descrito
+     * em {@link CargaSetores}. Os dias são lidos em paralelo.
+     *
+     * @param arquivos arquivos validados, como os de um mês
+     * @param paralelismo quantidade máxima de dias lidos ao mesmo tempo
+     * @return o resultado da agregação, ou null se a lista não tiver
+     * planilhas sect_config
+     */
+    public static ResultadoValidacao agregarCargaSetores(List<ArquivoCSV> arquivos, int paralelismo) {
+        List<Path> sectConfigs = new ArrayList<>();
+        for (ArquivoCSV arquivoCSV : arquivos) {
+            if (arquivoCSV.getTipo() == TipoArquivo.SECT_CONFIG) {
+                sectConfigs.add(arquivoCSV.getPath().toAbsolutePath());
+            }
+        }
+        if (sectConfigs.isEmpty()) {
+            return null;
+        }
+        try {
+            return CargaSetores.agregar(sectConfigs, paralelismo);
+        } catch (Exception e) {
+            log.log(Level.SEVERE, "Falha ao agregar a carga dos setores", e);
+            return ResultadoValidacao.semLeitura(StatusArquivo.ERRO);
+        }
+    }
+
+    /**
+     * Executa as tarefas em um conjunto limitado de threads, na ordem da
+     * lista, e retorna somente após a conclusão de todas.
+     */
+    private static void executar(List<Runnable> tarefas, int paralelismo) throws InterruptedException {
+        if (tarefas.isEmpty()) {
+            return;
+        }
+        int qtdThreads = Math.max(1, Math.min(paralelismo, tarefas.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(qtdThreads, new ThreadsDeValidacao());
+        try {
+            for (Runnable tarefa : tarefas) {
+                executor.execute(tarefa);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.info("Aguardando validações em andamento");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            throw e;
+        }
+    }
+
+    /**
+     * Retorna uma cópia da lista de arquivos ordenada do maior para o menor
+     * tamanho em disco. Arquivos cujo tamanho não pode ser lido vão para o
+     * final da fila.
+     */
+    private static List<ArquivoCSV> ordenarPorTamanho(List<ArquivoCSV> arquivos) {
+        Map<ArquivoCSV, Long> tamanhos = new HashMap<>();
+        for (ArquivoCSV arquivoCSV : arquivos) {
+            long tamanho;
+            try {
+                tamanho = Files.size(arquivoCSV.getPath());
+            } catch (IOException e) {
+                tamanho = -1L;
+            }
+            tamanhos.put(arquivoCSV, tamanho);
+        }
+
+        List<ArquivoCSV> fila = new ArrayList<>(arquivos);
+        fila.sort(Comparator.comparing(tamanhos::get, Comparator.reverseOrder()));
+        return fila;
+    }
+
+    /**
+     * Cria as threads do conjunto de validação como daemon e com nome
+     * identificável nos logs.
+     */
+    static class ThreadsDeValidacao implements ThreadFactory {
+        private final AtomicInteger contador = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "validacao-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
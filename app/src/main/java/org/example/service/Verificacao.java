@@ -0,0 +1,62 @@
+package org.example.service;
+
+import org.example.csv.RegistroCsv;
+
+/**
+ * Etapa de verificação aplicada linha a linha durante a leitura de um arquivo
+ * CSV.
+ *
+ * <p>
+ * As verificações de uma planilha são encadeadas e cada linha lida do arquivo
+ * é entregue a todas elas em uma única passagem, na ordem do encadeamento.
+ * Quando uma etapa rejeita a linha, as etapas seguintes não a recebem, da
+ * mesma forma que uma linha filtrada deixa de ser considerada pelas
+ * verificações posteriores. Ao final da leitura cada etapa acrescenta sua
+ * seção ao relatório de integridade.</p>
+ *
+ * @author luisg
+ */
+interface Verificacao {
+
+    /**
+     * Processa uma linha do arquivo. O registro é reutilizado pelo leitor e só
+     * é válido durante esta chamada; para guardar a linha no relatório use
+     * {@link RegistroCsv#toLinha()} ou {@link RegistroCsv#getConteudo()}.
+     *
+     * @param registro a linha lida do arquivo
+     * @return true se a linha deve seguir para as próximas verificações, false
+     * se a linha foi filtrada por esta verificação
+     */
+    boolean verificar(RegistroCsv registro);
+
+    /**
+     * Encerra a verificação após a última linha do arquivo, acrescentando ao
+     * relatório a seção correspondente.
+     *
+     * @param relatorio relatório com os resultados das validações.
+     */
+    void concluir(Relatorio relatorio);
+
+    /**
+     * Encerra a verificação como em {@link #concluir(Relatorio)}, somando à
+     * etapa {@link #getNome()} da medição o tempo gasto, sem o tempo de
+     * escrita no relatório. Verificações compostas de outras etapas podem
+     * sobrescrever este método para medir cada uma delas.
+     *
+     * @param relatorio relatório com os resultados das validações.
+     * @param medicao medição do arquivo verificado
+     */
+    default void concluir(Relatorio relatorio, MedicaoArquivo medicao) {
+        long inicio = MedicaoArquivo.iniciarConclusao(relatorio);
+        concluir(relatorio);
+        medicao.registrarConclusao(getNome(), relatorio, inicio);
+    }
+
+    /**
+     * @return o nome da etapa nas métricas de validação, por padrão o nome da
+     * classe com a inicial minúscula
+     */
+    default String getNome() {
+        return MedicaoArquivo.nome(getClass());
+    }
+}
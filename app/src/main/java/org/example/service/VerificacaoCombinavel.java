@@ -0,0 +1,28 @@
+package org.example.service;
+
+/**
+ * Verificação que pode ser aplicada a partes de um arquivo verificadas em
+ * paralelo.
+ *
+ * <p>
+ * Cada parte tem seu próprio encadeamento de verificações e, ao final, os
+ * encadeamentos são combinados na ordem das partes antes de
+ * {@link #concluir(Relatorio)}. Apenas verificações cujo resultado de uma
+ * linha não depende das demais linhas podem ser combinadas; as que dependem
+ * da ordem ou do conjunto das linhas implementam apenas {@link Verificacao}
+ * e não podem ser usadas na verificação em partes.</p>
+ *
+ * @author luisg
+ * @see Planilha#processarArquivoEmPartes(org.example.model.TipoArquivo, java.nio.file.Path, java.util.function.Supplier)
+ */
+interface VerificacaoCombinavel extends Verificacao {
+
+    /**
+     * Incorpora o resultado de outra instância da mesma verificação que
+     * processou o trecho do arquivo imediatamente posterior ao desta.
+     *
+     * @param posterior verificação do mesmo tipo que processou o trecho
+     * seguinte do arquivo
+     */
+    void combinar(VerificacaoCombinavel posterior);
+}
@@ -0,0 +1,146 @@
+package org.example.snapshot;
+
+import java.util.Arrays;
+
+import org.example.snapshot.ResumoCargaSetores.MetricaAcc;
+import org.example.snapshot.ResumoCargaSetores.MetricaSetor;
+
+/**
+ * Acumula a carga de trabalho dos setores de um dia, linha a linha, em
+ * vetores primitivos com uma posição por hora, setor e métrica e uma posição
+ * adicional para o dia inteiro.
+ *
+ * <p>
+ * As métricas de cada setor são somadas diretamente a partir de cada linha.
+ * As do ACC, que dependem de todas as linhas de um minuto, são acumuladas
+ * por minuto durante a leitura e distribuídas pelas horas em
+ * {@link #concluir()}. Cada dia tem o seu acumulador, de modo que os dias
+ * podem ser lidos em paralelo sem sincronização.</p>
+ *
+ * @author luisg
+ */
+public final class AcumuladorCarga {
+
+    private static final int MINUTOS_DIA = 24 * 60;
+    private static final int SEM_REGISTRO = -1;
+    private static final int QTD_METRICAS_SETOR = MetricaSetor.values().length;
+    private static final int QTD_METRICAS_ACC = MetricaAcc.values().length;
+
+    private final long diaEpoch;
+    private final int qtdSetores;
+    final int[] setores;
+    final int[] acc;
+    private final int[] movPorMinuto = new int[MINUTOS_DIA];
+    private final int[] ctrPorMinuto = new int[MINUTOS_DIA];
+    private final int[] assPorMinuto = new int[MINUTOS_DIA];
+    private long qtdLinhas;
+
+    /**
+     * @param diaEpoch dia desde a época
+     * @param qtdSetores quantidade de setores acompanhados
+     */
+    public AcumuladorCarga(long diaEpoch, int qtdSetores) {
+        this.diaEpoch = diaEpoch;
+        this.qtdSetores = qtdSetores;
+        this.setores = new int[ResumoCargaSetores.QTD_HORAS * qtdSetores * QTD_METRICAS_SETOR];
+        this.acc = new int[ResumoCargaSetores.QTD_HORAS * QTD_METRICAS_ACC];
+        for (int hora = 0; hora < ResumoCargaSetores.QTD_HORAS; hora++) {
+            for (int setor = 0; setor < qtdSetores; setor++) {
+                setores[indiceSetor(hora, setor, MetricaSetor.MINUTO_PICO)] = SEM_REGISTRO;
+            }
+            acc[indiceAcc(hora, MetricaAcc.MINUTO_PICO)] = SEM_REGISTRO;
+        }
+        Arrays.fill(ctrPorMinuto, SEM_REGISTRO);
+    }
+
+    /**
+     * Acumula uma linha da sect_config. Valores numéricos inválidos devem ser
+     * informados como 0.
+     *
+     * @param minuto minuto do dia, de 0 a 1439
+     * @param setor índice do setor, ou um valor negativo para um setor não
+     * acompanhado, que conta apenas para o ACC
+     * @param movSet MOV_SET da linha
+     * @param movAtco MOV_ATCO da linha
+     * @param comAssistente se a linha tem uma posição ASS
+     * @param qtdCtr QTD_CTR da linha
+     * @param qtdAss QTD_ASS da linha
+     */
+    public void adicionar(int minuto, int setor, int movSet, int movAtco, boolean comAssistente, int qtdCtr, int qtdAss) {
+        qtdLinhas++;
+        if (setor >= 0 && setor < qtdSetores) {
+            acumularSetor(minuto / 60, setor, minuto, movSet, movAtco, comAssistente);
+            acumularSetor(ResumoCargaSetores.DIA_INTEIRO, setor, minuto, movSet, movAtco, comAssistente);
+        }
+        movPorMinuto[minuto] += movSet;
+        if (ctrPorMinuto[minuto] == SEM_REGISTRO) {
+            ctrPorMinuto[minuto] = qtdCtr;
+            assPorMinuto[minuto] = qtdAss;
+        }
+    }
+
+    /**
+     * Distribui pelas horas as métricas do ACC acumuladas por minuto. Deve
+     * ser chamado uma única vez, após a última linha.
+     */
+    public void concluir() {
+        for (int minuto = 0; minuto < MINUTOS_DIA; minuto++) {
+            if (ctrPorMinuto[minuto] != SEM_REGISTRO) {
+                acumularAcc(minuto / 60, minuto);
+                acumularAcc(ResumoCargaSetores.DIA_INTEIRO, minuto);
+            }
+        }
+    }
+
+    /**
+     * @return o dia desde a época
+     */
+    public long getDiaEpoch() {
+        return diaEpoch;
+    }
+
+    /**
+     * @return a quantidade de linhas acumuladas
+     */
+    public long getQtdLinhas() {
+        return qtdLinhas;
+    }
+
+    private void acumularSetor(int hora, int setor, int minuto, int movSet, int movAtco, boolean comAssistente) {
+        int base = indiceSetor(hora, setor, MetricaSetor.MINUTOS);
+        setores[base + MetricaSetor.MINUTOS.ordinal()]++;
+        setores[base + MetricaSetor.MOV_SET.ordinal()] += movSet;
+        if (setores[base + MetricaSetor.MINUTO_PICO.ordinal()] == SEM_REGISTRO
+                || movSet > setores[base + MetricaSetor.PICO_MOV_SET.ordinal()]) {
+            setores[base + MetricaSetor.PICO_MOV_SET.ordinal()] = movSet;
+            setores[base + MetricaSetor.MINUTO_PICO.ordinal()] = minuto;
+        }
+        setores[base + MetricaSetor.MOV_ATCO.ordinal()] += movAtco;
+        setores[base + MetricaSetor.PICO_MOV_ATCO.ordinal()] = Math.max(setores[base + MetricaSetor.PICO_MOV_ATCO.ordinal()], movAtco);
+        if (comAssistente) {
+            setores[base + MetricaSetor.MINUTOS_COM_ASS.ordinal()]++;
+        }
+    }
+
+    private void acumularAcc(int hora, int minuto) {
+        int base = indiceAcc(hora, MetricaAcc.MINUTOS);
+        int mov = movPorMinuto[minuto];
+        acc[base + MetricaAcc.MINUTOS.ordinal()]++;
+        acc[base + MetricaAcc.MOV_SET.ordinal()] += mov;
+        if (acc[base + MetricaAcc.MINUTO_PICO.ordinal()] == SEM_REGISTRO || mov > acc[base + MetricaAcc.PICO_MOV_SET.ordinal()]) {
+            acc[base + MetricaAcc.PICO_MOV_SET.ordinal()] = mov;
+            acc[base + MetricaAcc.MINUTO_PICO.ordinal()] = minuto;
+        }
+        acc[base + MetricaAcc.CTR_MINUTOS.ordinal()] += ctrPorMinuto[minuto];
+        acc[base + MetricaAcc.ASS_MINUTOS.ordinal()] += assPorMinuto[minuto];
+        acc[base + MetricaAcc.PICO_QTD_CTR.ordinal()] = Math.max(acc[base + MetricaAcc.PICO_QTD_CTR.ordinal()], ctrPorMinuto[minuto]);
+    }
+
+    private int indiceSetor(int hora, int setor, MetricaSetor metrica) {
+        return (hora * qtdSetores + setor) * QTD_METRICAS_SETOR + metrica.ordinal();
+    }
+
+    private static int indiceAcc(int hora, MetricaAcc metrica) {
+        return hora * QTD_METRICAS_ACC + metrica.ordinal();
+    }
+}
@@ -0,0 +1,247 @@
+package org.example.snapshot;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.example.snapshot.IndiceSetores.Campo;
+
+/**
+ * Consulta ao {@link IndiceSetores}: um período, um intervalo de horário de
+ * cada dia, os setores e os filtros dos campos, todos combinados com "e".
+ *
+ * <p>
+ * Uma consulta sem setores e sem filtros de campos da planilha sect_config
+ * retorna os minutos com linha na planilha config. Com setores ou com algum
+ * filtro de CTR, ASS, MOV_SET ou MOV_ATCO, retorna uma linha para cada setor
+ * de cada minuto, de todos os setores se nenhum for informado.</p>
+ *
+ * @author luisg
+ */
+public final class ConsultaIndice {
+
+    /**
+     * Comparação de um campo com o valor de um filtro.
+     */
+    public enum Operador {
+        IGUAL("="),
+        DIFERENTE("!="),
+        MENOR("<"),
+        MENOR_IGUAL("<="),
+        MAIOR(">"),
+        MAIOR_IGUAL(">=");
+
+        private final String simbolo;
+
+        Operador(String simbolo) {
+            this.simbolo = simbolo;
+        }
+
+        /**
+         * @return o símbolo do operador, como em {@code >=}
+         */
+        public String getSimbolo() {
+            return simbolo;
+        }
+
+        /**
+         * @param comparacao resultado da comparação do campo com o valor do
+         * filtro: negativo, zero ou positivo
+         * @return true se o campo satisfaz o operador
+         */
+        boolean aceita(int comparacao) {
+            switch (this) {
+                case IGUAL:
+                    return comparacao == 0;
+                case DIFERENTE:
+                    return comparacao != 0;
+                case MENOR:
+                    return comparacao < 0;
+                case MENOR_IGUAL:
+                    return comparacao <= 0;
+                case MAIOR:
+                    return comparacao > 0;
+                default:
+                    return comparacao >= 0;
+            }
+        }
+    }
+
+    /**
+     * Filtro de um campo.
+     */
+    static final class Filtro {
+
+        final Campo campo;
+        final Operador operador;
+        final String texto;
+        final int numero;
+
+        private Filtro(Campo campo, Operador operador, String texto, int numero) {
+            this.campo = campo;
+            this.operador = operador;
+            this.texto = texto;
+            this.numero = numero;
+        }
+
+        /**
+         * @param valor um texto do campo, sem aspas
+         * @return true se o texto satisfaz o filtro
+         */
+        boolean aceita(String valor) {
+            return operador.aceita(valor.compareTo(texto));
+        }
+
+        /**
+         * @param valor um valor do campo numérico
+         * @return true se o valor satisfaz o filtro
+         */
+        boolean aceita(int valor) {
+            return operador.aceita(Integer.compare(valor, numero));
+        }
+    }
+
+    private LocalDate de;
+    private LocalDate ate;
+    private int inicioHorario;
+    private int fimHorario = DiaIndice.MINUTOS_DIA;
+    private final List<String> setores = new ArrayList<>();
+    private final List<Filtro> filtros = new ArrayList<>();
+
+    /**
+     * Restringe a consulta aos dias de um período.
+     *
+     * @param de primeiro dia, ou null para o início do índice
+     * @param ate último dia, inclusive, ou null para o fim do índice
+     */
+    public void setPeriodo(LocalDate de, LocalDate ate) {
+        if (de != null && ate != null && ate.isBefore(de)) {
+            throw new IllegalArgumentException("Período com fim anterior ao início: " + de + " a " + ate);
+        }
+        this.de = de;
+        this.ate = ate;
+    }
+
+    /**
+     * Restringe a consulta a um intervalo de horário, o mesmo em cada dia.
+     *
+     * @param inicio primeiro minuto do dia, de 0 a 1439
+     * @param fim minuto do dia seguinte ao último, de 1 a 1440
+     */
+    public void setHorario(int inicio, int fim) {
+        if (inicio < 0 || fim > DiaIndice.MINUTOS_DIA || inicio >= fim) {
+            throw new IllegalArgumentException("Intervalo de horário inválido: " + horario(inicio) + " a " + horario(fim));
+        }
+        this.inicioHorario = inicio;
+        this.fimHorario = fim;
+    }
+
+    /**
+     * Restringe a consulta a um setor; pode ser chamado para vários setores.
+     *
+     * @param setor nome do setor, sem aspas
+     */
+    public void adicionarSetor(String setor) {
+        if (!setores.contains(setor)) {
+            setores.add(setor);
+        }
+    }
+
+    /**
+     * Acrescenta um filtro.
+     *
+     * @param campo o campo filtrado
+     * @param operador a comparação; os campos de texto aceitam apenas
+     * {@link Operador#IGUAL} e {@link Operador#DIFERENTE}
+     * @param valor o valor comparado, sem aspas; um inteiro não negativo nos
+     * campos numéricos
+     * @throws IllegalArgumentException se o operador ou o valor não forem
+     * válidos para o campo
+     */
+    public void adicionarFiltro(Campo campo, Operador operador, String valor) {
+        if (campo.isTexto()) {
+            if (operador != Operador.IGUAL && operador != Operador.DIFERENTE) {
+                throw new IllegalArgumentException("O campo " + campo + " aceita apenas = e !=");
+            }
+            filtros.add(new Filtro(campo, operador, valor, 0));
+            return;
+        }
+        int numero;
+        try {
+            numero = Integer.parseInt(valor.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor não numérico para " + campo + ": " + valor, e);
+        }
+        filtros.add(new Filtro(campo, operador, valor, numero));
+    }
+
+    /**
+     * Acrescenta um filtro escrito como o operador seguido do valor, como
+     * {@code >30} ou {@code 4}, que equivale a {@code =4}.
+     *
+     * @param campo o campo filtrado
+     * @param expressao o operador, opcional, e o valor
+     * @throws IllegalArgumentException se o operador ou o valor não forem
+     * válidos para o campo
+     */
+    public void adicionarFiltro(Campo campo, String expressao) {
+        Operador operador = Operador.IGUAL;
+        int tamanhoSimbolo = 0;
+        for (Operador candidato : Operador.values()) {
+            // o símbolo mais longo prevalece, como >= sobre >
+            if (expressao.startsWith(candidato.simbolo) && candidato.simbolo.length() > tamanhoSimbolo) {
+                operador = candidato;
+                tamanhoSimbolo = candidato.simbolo.length();
+            }
+        }
+        adicionarFiltro(campo, operador, expressao.substring(tamanhoSimbolo));
+    }
+
+    /**
+     * @return o minuto do dia como HH:MM, com 24:00 para o fim do dia
+     */
+    private static String horario(int minuto) {
+        return String.format(Locale.ROOT, "%02d:%02d", minuto / 60, minuto % 60);
+    }
+
+    LocalDate getDe() {
+        return de;
+    }
+
+    LocalDate getAte() {
+        return ate;
+    }
+
+    int getInicioHorario() {
+        return inicioHorario;
+    }
+
+    int getFimHorario() {
+        return fimHorario;
+    }
+
+    List<String> getSetores() {
+        return Collections.unmodifiableList(setores);
+    }
+
+    List<Filtro> getFiltros() {
+        return Collections.unmodifiableList(filtros);
+    }
+
+    /**
+     * @return true se a consulta retorna uma linha por setor de cada minuto
+     */
+    public boolean isPorSetor() {
+        if (!setores.isEmpty()) {
+            return true;
+        }
+        for (Filtro filtro : filtros) {
+            if (filtro.campo.isPorSetor()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.snapshot;
+
+import java.util.Arrays;
+
+import org.example.csv.RegistroCsv;
+import org.example.model.Dicionario;
+import org.example.snapshot.IndiceSetores.Campo;
+
+/**
+ * Valores de um dia para o {@link IndiceSetores}, com uma posição por minuto
+ * para os campos da planilha config e uma por minuto e setor para os campos
+ * da planilha sect_config.
+ *
+ * <p>
+ * Os campos de texto são guardados como ordinais de dicionários próprios do
+ * dia e os numéricos como o próprio valor, de modo que cada dia pode ser
+ * lido em paralelo com os demais sem sincronização. Os dicionários dos dias
+ * são unificados na gravação do índice.</p>
+ *
+ * @author luisg
+ */
+public final class DiaIndice {
+
+    static final int MINUTOS_DIA = 24 * 60;
+    /**
+     * Valor de uma posição sem linha.
+     */
+    static final int AUSENTE = -1;
+    private static final int CAPACIDADE_DICIONARIOS = Short.MAX_VALUE;
+
+    private final long diaEpoch;
+    private final int qtdSetores;
+    final Dicionario[] dicionarios = new Dicionario[Campo.values().length];
+    final int[][] valores = new int[Campo.values().length][];
+    private long qtdLinhas;
+    private long qtdIgnoradas;
+
+    /**
+     * @param diaEpoch dia desde a época
+     * @param qtdSetores quantidade de setores do índice
+     */
+    public DiaIndice(long diaEpoch, int qtdSetores) {
+        this.diaEpoch = diaEpoch;
+        this.qtdSetores = qtdSetores;
+        for (Campo campo : Campo.values()) {
+            if (campo.isTexto()) {
+                dicionarios[campo.ordinal()] = new Dicionario(CAPACIDADE_DICIONARIOS);
+            }
+            valores[campo.ordinal()] = new int[campo.isPorSetor() ? MINUTOS_DIA * qtdSetores : MINUTOS_DIA];
+            Arrays.fill(valores[campo.ordinal()], AUSENTE);
+        }
+    }
+
+    /**
+     * @param campo campo de texto
+     * @param registro a linha lida do arquivo
+     * @param coluna índice do campo na linha
+     * @return o ordinal do texto no dicionário do campo, ou
+     * {@link Dicionario#AUSENTE} se o dicionário estiver cheio
+     */
+    public int ordinal(Campo campo, RegistroCsv registro, int coluna) {
+        return dicionarios[campo.ordinal()].ordinal(registro, coluna);
+    }
+
+    /**
+     * @param campo campo de texto
+     * @param texto o texto, como no arquivo CSV
+     * @return o ordinal do texto no dicionário do campo, ou
+     * {@link Dicionario#AUSENTE} se o dicionário estiver cheio
+     */
+    public int ordinal(Campo campo, String texto) {
+        return dicionarios[campo.ordinal()].ordinal(texto);
+    }
+
+    /**
+     * Guarda uma linha da planilha config. A linha é ignorada se algum valor
+     * for negativo, ou seja, inválido, ou se o minuto já tiver uma linha.
+     *
+     * @param minuto minuto do dia, de 0 a 1439
+     * @param configId ordinal do config_id
+     * @param qtdCtr QTD_CTR da linha
+     * @param qtdAss QTD_ASS da linha
+     * @param mov MOV da linha
+     * @return true se a linha foi guardada
+     */
+    public boolean adicionarMinuto(int minuto, int configId, int qtdCtr, int qtdAss, int mov) {
+        if (minuto < 0 || minuto >= MINUTOS_DIA || configId < 0 || qtdCtr < 0 || qtdAss < 0 || mov < 0
+                || valores[Campo.CONFIG_ID.ordinal()][minuto] != AUSENTE) {
+            qtdIgnoradas++;
+            return false;
+        }
+        valores[Campo.CONFIG_ID.ordinal()][minuto] = configId;
+        valores[Campo.QTD_CTR.ordinal()][minuto] = qtdCtr;
+        valores[Campo.QTD_ASS.ordinal()][minuto] = qtdAss;
+        valores[Campo.MOV.ordinal()][minuto] = mov;
+        qtdLinhas++;
+        return true;
+    }
+
+    /**
+     * Guarda uma linha da planilha sect_config. A linha é ignorada se algum
+     * valor for negativo, ou seja, inválido ou de um setor não acompanhado,
+     * ou se o setor já tiver uma linha no minuto.
+     *
+     * @param minuto minuto do dia, de 0 a 1439
+     * @param setor índice do setor
+     * @param ctr ordinal do CTR
+     * @param ass ordinal do ASS
+     * @param movSet MOV_SET da linha
+     * @param movAtco MOV_ATCO da linha
+     * @return true se a linha foi guardada
+     */
+    public boolean adicionarSetor(int minuto, int setor, int ctr, int ass, int movSet, int movAtco) {
+        int posicao = setor * MINUTOS_DIA + minuto;
+        if (minuto < 0 || minuto >= MINUTOS_DIA || setor < 0 || setor >= qtdSetores || ctr < 0 || ass < 0 || movSet < 0 || movAtco < 0
+                || valores[Campo.CTR.ordinal()][posicao] != AUSENTE) {
+            qtdIgnoradas++;
+            return false;
+        }
+        valores[Campo.CTR.ordinal()][posicao] = ctr;
+        valores[Campo.ASS.ordinal()][posicao] = ass;
+        valores[Campo.MOV_SET.ordinal()][posicao] = movSet;
+        valores[Campo.MOV_ATCO.ordinal()][posicao] = movAtco;
+        qtdLinhas++;
+        return true;
+    }
+
+    /**
+     * @return o dia desde a época
+     */
+    public long getDiaEpoch() {
+        return diaEpoch;
+    }
+
+    /**
+     * @return a quantidade de linhas guardadas
+     */
+    public long getQtdLinhas() {
+        return qtdLinhas;
+    }
+
+    /**
+     * @return a quantidade de linhas ignoradas por valor inválido ou repetido
+     */
+    public long getQtdIgnoradas() {
+        return qtdIgnoradas;
+    }
+}
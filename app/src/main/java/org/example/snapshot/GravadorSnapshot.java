@@ -0,0 +1,275 @@
+package org.example.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import org.example.csv.Csv;
+import org.example.csv.RegistroCsv;
+import org.example.model.Dicionario;
+import org.example.model.TipoArquivo;
+
+/**
+ * Monta o snapshot de um arquivo CSV a partir das linhas recebidas durante a
+ * validação e o grava no formato lido por {@link Snapshot}.
+ *
+ * <p>
+ * Cada coluna é guardada como um {@link Dicionario} dos textos distintos do
+ * campo e um vetor com o ordinal de cada linha, de modo que uma linha
+ * recebida custa apenas a busca de cada campo no dicionário da coluna. Na
+ * gravação os textos de cada dicionário são ordenados e os ordinais
+ * renumerados, para que o leitor localize um valor por busca binária.</p>
+ *
+ * <p>
+ * O gravador é serializável, para que acompanhe o estado da verificação
+ * incremental, e dois gravadores de trechos consecutivos do arquivo podem ser
+ * combinados, para a verificação em partes.</p>
+ *
+ * @author luisg
+ */
+public final class GravadorSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int CAPACIDADE_INICIAL = 1024;
+    private static final int TAMANHO_BUFFER = 1 << 16;
+
+    private final List<Coluna> colunas = new ArrayList<>();
+    private int[] enderecos = new int[CAPACIDADE_INICIAL];
+    private int qtdLinhas;
+
+    /**
+     * @param nomesColunas nomes das colunas, na ordem dos campos das linhas
+     */
+    public GravadorSnapshot(String... nomesColunas) {
+        for (String nome : nomesColunas) {
+            colunas.add(new Coluna(nome));
+        }
+    }
+
+    /**
+     * Acrescenta uma linha ao snapshot. Os campos além da quantidade de
+     * colunas são ignorados, e os que faltam são gravados vazios.
+     *
+     * @param registro a linha lida do arquivo
+     */
+    public void adicionar(RegistroCsv registro) {
+        if (qtdLinhas == enderecos.length) {
+            enderecos = Arrays.copyOf(enderecos, qtdLinhas * 2);
+            for (Coluna coluna : colunas) {
+                coluna.ordinais = Arrays.copyOf(coluna.ordinais, qtdLinhas * 2);
+            }
+        }
+        enderecos[qtdLinhas] = registro.getEndereco();
+        int qtdCampos = registro.getQtdCampos();
+        for (int i = 0; i < colunas.size(); i++) {
+            Coluna coluna = colunas.get(i);
+            coluna.ordinais[qtdLinhas] = i < qtdCampos ? coluna.dicionario.ordinal(registro, i) : coluna.dicionario.ordinal("");
+        }
+        qtdLinhas++;
+    }
+
+    /**
+     * Acrescenta as linhas de outro gravador, que recebeu o trecho do arquivo
+     * imediatamente posterior ao deste.
+     *
+     * @param posterior gravador com as mesmas colunas
+     */
+    public void combinar(GravadorSnapshot posterior) {
+        int total = qtdLinhas + posterior.qtdLinhas;
+        if (total > enderecos.length) {
+            enderecos = Arrays.copyOf(enderecos, total);
+            for (Coluna coluna : colunas) {
+                coluna.ordinais = Arrays.copyOf(coluna.ordinais, total);
+            }
+        }
+        System.arraycopy(posterior.enderecos, 0, enderecos, qtdLinhas, posterior.qtdLinhas);
+        for (int i = 0; i < colunas.size(); i++) {
+            Coluna coluna = colunas.get(i);
+            Coluna outra = posterior.colunas.get(i);
+            int[] conversao = new int[outra.dicionario.getTamanho()];
+            for (int ordinal = 0; ordinal < conversao.length; ordinal++) {
+                conversao[ordinal] = coluna.dicionario.ordinal(outra.dicionario.getTexto(ordinal));
+            }
+            for (int linha = 0; linha < posterior.qtdLinhas; linha++) {
+                coluna.ordinais[qtdLinhas + linha] = conversao[outra.ordinais[linha]];
+            }
+        }
+        qtdLinhas = total;
+    }
+
+    /**
+     * @return a quantidade de linhas recebidas
+     */
+    public int getQtdLinhas() {
+        return qtdLinhas;
+    }
+
+    /**
+     * Grava o snapshot em um arquivo temporário, movido sobre o anterior ao
+     * final, de modo que um leitor nunca encontra um snapshot incompleto.
+     *
+     * @param destino caminho do snapshot
+     * @param tipo tipo do arquivo CSV de origem
+     * @param versaoValidador versão do validador que verificou as linhas
+     * @param tamanhoOrigem tamanho, em bytes, do arquivo de origem antes da
+     * leitura
+     * @param modificadoOrigem data de modificação do arquivo de origem antes
+     * da leitura, em milissegundos desde a época
+     * @return o tamanho do snapshot gravado, em bytes
+     * @throws IOException se o snapshot não puder ser gravado
+     */
+    public long gravar(Path destino, TipoArquivo tipo, String versaoValidador, long tamanhoOrigem, long modificadoOrigem) throws IOException {
+        return gravarArquivo(destino, saida -> {
+            saida.writeInt(Snapshot.MAGICA);
+            saida.writeInt(Snapshot.VERSAO_FORMATO);
+            escreverTexto(saida, versaoValidador);
+            escreverTexto(saida, tipo.name());
+            saida.writeLong(tamanhoOrigem);
+            saida.writeLong(modificadoOrigem);
+            saida.writeInt(qtdLinhas);
+            saida.writeInt(colunas.size());
+            ByteBuffer buffer = ByteBuffer.allocate(qtdLinhas * Integer.BYTES);
+            buffer.asIntBuffer().put(enderecos, 0, qtdLinhas);
+            saida.write(buffer.array());
+            for (Coluna coluna : colunas) {
+                coluna.gravar(saida, qtdLinhas);
+            }
+        });
+    }
+
+    /**
+     * Grava um arquivo binário seguido do CRC-32 do seu conteúdo, em um
+     * arquivo temporário movido sobre o anterior ao final.
+     *
+     * @param destino caminho do arquivo
+     * @param escrita escreve o conteúdo do arquivo
+     * @return o tamanho do arquivo gravado, em bytes
+     * @throws IOException se o arquivo não puder ser gravado
+     * @see Snapshot#mapear(Path)
+     */
+    static long gravarArquivo(Path destino, Escrita escrita) throws IOException {
+        Path temporario = Files.createTempFile(destino.toAbsolutePath().getParent(), destino.getFileName().toString(), ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            long tamanho;
+            try (DataOutputStream saida = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporario), TAMANHO_BUFFER), crc))) {
+                escrita.escrever(saida);
+                saida.writeLong(crc.getValue());
+                tamanho = saida.size();
+            }
+            try {
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return tamanho;
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    static void escreverTexto(DataOutputStream saida, String texto) throws IOException {
+        byte[] bytes = texto.getBytes(Csv.CHARSET);
+        saida.writeShort(bytes.length);
+        saida.write(bytes);
+    }
+
+    /**
+     * Escreve os códigos com a largura de {@link Snapshot#largura(int)}, lidos
+     * por {@link Snapshot#lerCodigo(ByteBuffer, int, int)}.
+     */
+    static void escreverCodigos(DataOutputStream saida, int[] codigos, int largura) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(codigos.length * largura);
+        for (int codigo : codigos) {
+            if (largura == Byte.BYTES) {
+                buffer.put((byte) codigo);
+            } else if (largura == Short.BYTES) {
+                buffer.putShort((short) codigo);
+            } else {
+                buffer.putInt(codigo);
+            }
+        }
+        saida.write(buffer.array());
+    }
+
+    /**
+     * Escrita do conteúdo de um arquivo binário.
+     */
+    interface Escrita {
+
+        void escrever(DataOutputStream saida) throws IOException;
+    }
+
+    /**
+     * Textos distintos de uma coluna e o ordinal do texto de cada linha.
+     */
+    private static final class Coluna implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String nome;
+        private final Dicionario dicionario = new Dicionario(Integer.MAX_VALUE);
+        private int[] ordinais = new int[CAPACIDADE_INICIAL];
+
+        private Coluna(String nome) {
+            this.nome = nome;
+        }
+
+        /**
+         * Grava o nome, os textos em ordem crescente, precedidos das
+         * posições em que cada um começa, e os ordinais renumerados das
+         * linhas com a menor largura que comporta o tamanho do dicionário.
+         */
+        private void gravar(DataOutputStream saida, int qtdLinhas) throws IOException {
+            int qtdValores = dicionario.getTamanho();
+            Integer[] ordem = new Integer[qtdValores];
+            for (int i = 0; i < qtdValores; i++) {
+                ordem[i] = i;
+            }
+            Arrays.sort(ordem, (a, b) -> dicionario.getTexto(a).compareTo(dicionario.getTexto(b)));
+
+            int[] renumeracao = new int[qtdValores];
+            byte[][] textos = new byte[qtdValores][];
+            int tamanhoTextos = 0;
+            for (int i = 0; i < qtdValores; i++) {
+                renumeracao[ordem[i]] = i;
+                textos[i] = dicionario.getTexto(ordem[i]).getBytes(Csv.CHARSET);
+                tamanhoTextos += textos[i].length;
+            }
+
+            escreverTexto(saida, nome);
+            saida.writeInt(qtdValores);
+            saida.writeInt(tamanhoTextos);
+            int inicio = 0;
+            for (byte[] texto : textos) {
+                saida.writeInt(inicio);
+                inicio += texto.length;
+            }
+            saida.writeInt(inicio);
+            for (byte[] texto : textos) {
+                saida.write(texto);
+            }
+
+            int[] codigos = new int[qtdLinhas];
+            for (int linha = 0; linha < qtdLinhas; linha++) {
+                codigos[linha] = renumeracao[ordinais[linha]];
+            }
+            int largura = Snapshot.largura(qtdValores);
+            saida.writeByte(largura);
+            escreverCodigos(saida, codigos, largura);
+        }
+    }
+}
@@ -0,0 +1,729 @@
+package org.example.snapshot;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import org.example.snapshot.ConsultaIndice.Filtro;
+
+/**
+ * Índice dos minutos e setores de um período, montado a partir das planilhas
+ * config e sect_config de cada dia, para consultas por período, horário,
+ * setor e valor dos campos sem ler as planilhas novamente.
+ *
+ * <p>
+ * Cada campo é guardado como uma coluna de códigos com uma posição por
+ * minuto do período, para os campos da config, ou por setor e minuto, para
+ * os da sect_config, com o dicionário dos valores distintos em ordem
+ * crescente. Os minutos de cada setor ocupam um trecho próprio, alinhado a
+ * 64 posições, de modo que o mapa de bits de um setor se combina palavra a
+ * palavra com o dos minutos. Além da coluna, cada campo com até
+ * {@value #LIMITE_BITMAPS} valores distintos guarda um mapa de bits por
+ * valor; os mapas dos valores aceitos por um filtro são unidos e
+ * intersectados com os minutos candidatos, e os campos com mais valores são
+ * filtrados consultando o código apenas dos minutos ainda candidatos.</p>
+ *
+ * <p>
+ * Como nos snapshots, o arquivo começa com a versão do formato e a versão do
+ * validador, guarda o caminho, o tamanho e a data de modificação de cada
+ * planilha de origem, para que o índice seja reaproveitado enquanto elas não
+ * mudarem, e termina com o CRC-32 do conteúdo, conferido na abertura.</p>
+ *
+ * @author luisg
+ */
+public final class IndiceSetores {
+
+    /**
+     * Extensão do arquivo de índice.
+     */
+    public static final String EXTENSAO = ".indice";
+    /**
+     * Valor de {@link Resultado#getNumero(Campo, int)} para um campo sem
+     * valor na linha.
+     */
+    public static final int AUSENTE = -1;
+    /**
+     * Quantidade máxima de valores distintos de um campo para que sejam
+     * gravados os mapas de bits de cada valor.
+     */
+    static final int LIMITE_BITMAPS = 64;
+    /**
+     * Primeiros bytes de um índice: "SGIX".
+     */
+    private static final int MAGICA = 0x53474958;
+    private static final int VERSAO_FORMATO = 1;
+    private static final int MINUTOS_DIA = DiaIndice.MINUTOS_DIA;
+
+    /**
+     * Campos do índice.
+     */
+    public enum Campo {
+        CONFIG_ID(false, true),
+        QTD_CTR(false, false),
+        QTD_ASS(false, false),
+        MOV(false, false),
+        CTR(true, true),
+        ASS(true, true),
+        MOV_SET(true, false),
+        MOV_ATCO(true, false);
+
+        private final boolean porSetor;
+        private final boolean texto;
+
+        Campo(boolean porSetor, boolean texto) {
+            this.porSetor = porSetor;
+            this.texto = texto;
+        }
+
+        /**
+         * @return true para os campos da planilha sect_config, com um valor
+         * por setor em cada minuto
+         */
+        public boolean isPorSetor() {
+            return porSetor;
+        }
+
+        /**
+         * @return true para os campos de texto, false para os numéricos
+         */
+        public boolean isTexto() {
+            return texto;
+        }
+    }
+
+    /**
+     * Planilha de origem do índice, identificada pelo caminho, tamanho e
+     * data de modificação.
+     */
+    public static final class Origem {
+
+        private final String caminho;
+        private final long tamanho;
+        private final long modificado;
+
+        /**
+         * @param caminho URI da planilha
+         * @param tamanho tamanho, em bytes
+         * @param modificado data de modificação, em milissegundos desde a
+         * época
+         */
+        public Origem(String caminho, long tamanho, long modificado) {
+            this.caminho = caminho;
+            this.tamanho = tamanho;
+            this.modificado = modificado;
+        }
+
+        public String getCaminho() {
+            return caminho;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Origem)) {
+                return false;
+            }
+            Origem outra = (Origem) obj;
+            return caminho.equals(outra.caminho) && tamanho == outra.tamanho && modificado == outra.modificado;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(caminho, tamanho, modificado);
+        }
+    }
+
+    private final ByteBuffer dados;
+    private final String versaoValidador;
+    private final long primeiroDia;
+    private final int qtdDias;
+    private final List<String> setores;
+    private final List<Origem> origens;
+    private final int palavras;
+    private final int inicioPresencaMinutos;
+    private final int inicioPresencaSetores;
+    private final Coluna[] colunas = new Coluna[Campo.values().length];
+
+    private IndiceSetores(ByteBuffer dados) {
+        this.dados = dados;
+        ByteBuffer leitura = dados.duplicate();
+        Snapshot.verificarFormato(leitura, MAGICA, VERSAO_FORMATO);
+        this.versaoValidador = Snapshot.lerTexto(leitura);
+        this.primeiroDia = leitura.getInt();
+        this.qtdDias = leitura.getInt();
+        int qtdSetores = leitura.getInt();
+        if (qtdDias < 0 || qtdSetores < 0) {
+            throw new IllegalArgumentException("Quantidade de dias ou setores negativa");
+        }
+        List<String> nomes = new ArrayList<>(qtdSetores);
+        for (int i = 0; i < qtdSetores; i++) {
+            nomes.add(Snapshot.lerTexto(leitura));
+        }
+        this.setores = Collections.unmodifiableList(nomes);
+        int qtdOrigens = leitura.getInt();
+        if (qtdOrigens < 0) {
+            throw new IllegalArgumentException("Quantidade de planilhas de origem negativa");
+        }
+        List<Origem> lidas = new ArrayList<>(qtdOrigens);
+        for (int i = 0; i < qtdOrigens; i++) {
+            lidas.add(new Origem(Snapshot.lerTexto(leitura), leitura.getLong(), leitura.getLong()));
+        }
+        this.origens = Collections.unmodifiableList(lidas);
+
+        this.palavras = palavras(qtdDias);
+        this.inicioPresencaMinutos = leitura.position();
+        this.inicioPresencaSetores = inicioPresencaMinutos + palavras * Long.BYTES;
+        leitura.position(inicioPresencaSetores + qtdSetores * palavras * Long.BYTES);
+        if (leitura.getInt() != colunas.length) {
+            throw new IllegalArgumentException("Quantidade de campos incompatível");
+        }
+        for (Campo campo : Campo.values()) {
+            colunas[campo.ordinal()] = new Coluna(campo, leitura);
+        }
+        if (leitura.remaining() != Long.BYTES) {
+            throw new IllegalArgumentException("Tamanho incompatível com os campos");
+        }
+    }
+
+    /**
+     * Grava o índice dos dias informados.
+     *
+     * @param destino caminho do índice
+     * @param versaoValidador versão do validador que verificou as planilhas
+     * @param setores nomes dos setores, na ordem dos índices usados nos dias
+     * @param primeiroDia primeiro dia do período, desde a época
+     * @param qtdDias quantidade de dias do período, inclusive os sem
+     * planilhas
+     * @param dias os dias com planilhas, em qualquer ordem
+     * @param origens as planilhas de origem
+     * @return o tamanho do índice gravado, em bytes
+     * @throws IOException se o índice não puder ser gravado
+     * @throws IllegalArgumentException se algum dia estiver fora do período
+     * ou repetido, ou tiver outra quantidade de setores
+     */
+    public static long gravar(Path destino, String versaoValidador, List<String> setores, long primeiroDia, int qtdDias,
+            List<DiaIndice> dias, List<Origem> origens) throws IOException {
+        boolean[] ocupados = new boolean[qtdDias];
+        for (DiaIndice dia : dias) {
+            long indice = dia.getDiaEpoch() - primeiroDia;
+            if (indice < 0 || indice >= qtdDias || ocupados[(int) indice]) {
+                throw new IllegalArgumentException("Dia fora do período ou repetido no índice: " + LocalDate.ofEpochDay(dia.getDiaEpoch()));
+            }
+            if (dia.valores[Campo.CTR.ordinal()].length != MINUTOS_DIA * setores.size()) {
+                throw new IllegalArgumentException("Dia com quantidade de setores diferente do índice");
+            }
+            ocupados[(int) indice] = true;
+        }
+
+        int palavras = palavras(qtdDias);
+        ColunaGravada[] gravadas = new ColunaGravada[Campo.values().length];
+        for (Campo campo : Campo.values()) {
+            gravadas[campo.ordinal()] = new ColunaGravada(campo, setores.size(), palavras, primeiroDia, dias);
+        }
+        long[] presencaMinutos = gravadas[Campo.CONFIG_ID.ordinal()].presenca();
+        long[] presencaSetores = gravadas[Campo.CTR.ordinal()].presenca();
+
+        return GravadorSnapshot.gravarArquivo(destino, saida -> {
+            saida.writeInt(MAGICA);
+            saida.writeInt(VERSAO_FORMATO);
+            GravadorSnapshot.escreverTexto(saida, versaoValidador);
+            saida.writeInt(Math.toIntExact(primeiroDia));
+            saida.writeInt(qtdDias);
+            saida.writeInt(setores.size());
+            for (String setor : setores) {
+                GravadorSnapshot.escreverTexto(saida, setor);
+            }
+            saida.writeInt(origens.size());
+            for (Origem origem : origens) {
+                GravadorSnapshot.escreverTexto(saida, origem.caminho);
+                saida.writeLong(origem.tamanho);
+                saida.writeLong(origem.modificado);
+            }
+            escreverPalavras(saida, presencaMinutos);
+            escreverPalavras(saida, presencaSetores);
+            saida.writeInt(gravadas.length);
+            for (ColunaGravada coluna : gravadas) {
+                coluna.gravar(saida);
+            }
+        });
+    }
+
+    /**
+     * Abre um índice, mapeando-o em memória, e confere a versão do formato e
+     * o checksum.
+     *
+     * @param caminho caminho do índice
+     * @return o índice aberto
+     * @throws IOException se o arquivo não puder ser lido, não for um índice,
+     * for de outra versão do formato ou estiver corrompido
+     */
+    public static IndiceSetores abrir(Path caminho) throws IOException {
+        ByteBuffer dados = Snapshot.mapear(caminho);
+        try {
+            return new IndiceSetores(dados);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Índice inválido: " + caminho + ". " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param versaoValidador a versão atual do validador
+     * @param origensAtuais as planilhas de origem como estão agora
+     * @return true se o índice foi montado pela mesma versão do validador a
+     * partir exatamente dessas planilhas, sem alterações
+     */
+    public boolean isAtual(String versaoValidador, List<Origem> origensAtuais) {
+        return this.versaoValidador.equals(versaoValidador) && origens.equals(origensAtuais);
+    }
+
+    /**
+     * @return a versão do validador que verificou as planilhas indexadas
+     */
+    public String getVersaoValidador() {
+        return versaoValidador;
+    }
+
+    /**
+     * @return o primeiro dia do período
+     */
+    public LocalDate getPrimeiroDia() {
+        return LocalDate.ofEpochDay(primeiroDia);
+    }
+
+    /**
+     * @return a quantidade de dias do período, inclusive os sem planilhas
+     */
+    public int getQtdDias() {
+        return qtdDias;
+    }
+
+    /**
+     * @return os nomes dos setores
+     */
+    public List<String> getSetores() {
+        return setores;
+    }
+
+    /**
+     * @return as planilhas de origem
+     */
+    public List<Origem> getOrigens() {
+        return origens;
+    }
+
+    /**
+     * Executa uma consulta. Os dias e setores da consulta fora do índice não
+     * têm linhas.
+     *
+     * @param consulta a consulta
+     * @return as linhas encontradas, ordenadas pelo setor e pelo minuto
+     * @throws IllegalArgumentException se a consulta tiver um setor que não
+     * faz parte do índice
+     */
+    public Resultado consultar(ConsultaIndice consulta) {
+        int[] indicesSetores = new int[consulta.getSetores().size()];
+        for (int i = 0; i < indicesSetores.length; i++) {
+            indicesSetores[i] = setores.indexOf(consulta.getSetores().get(i));
+            if (indicesSetores[i] < 0) {
+                throw new IllegalArgumentException("Setor inexistente no índice: " + consulta.getSetores().get(i));
+            }
+        }
+        if (indicesSetores.length == 0 && consulta.isPorSetor()) {
+            indicesSetores = new int[setores.size()];
+            for (int i = 0; i < indicesSetores.length; i++) {
+                indicesSetores[i] = i;
+            }
+        }
+
+        long[] minutos = new long[palavras];
+        long primeiro = consulta.getDe() == null ? 0 : Math.max(0, consulta.getDe().toEpochDay() - primeiroDia);
+        long ultimo = consulta.getAte() == null ? qtdDias - 1 : Math.min(qtdDias - 1, consulta.getAte().toEpochDay() - primeiroDia);
+        for (int dia = (int) primeiro; dia <= ultimo; dia++) {
+            marcar(minutos, dia * MINUTOS_DIA + consulta.getInicioHorario(), dia * MINUTOS_DIA + consulta.getFimHorario());
+        }
+        for (Campo campo : Campo.values()) {
+            if (!campo.isPorSetor()) {
+                colunas[campo.ordinal()].filtrar(minutos, 0, consulta.getFiltros());
+            }
+        }
+
+        Resultado resultado = new Resultado();
+        if (!consulta.isPorSetor()) {
+            intersectar(minutos, inicioPresencaMinutos);
+            resultado.adicionar(minutos, -1);
+            return resultado;
+        }
+        for (int setor : indicesSetores) {
+            long[] linhas = minutos.clone();
+            intersectar(linhas, inicioPresencaSetores + setor * palavras * Long.BYTES);
+            for (Campo campo : Campo.values()) {
+                if (campo.isPorSetor()) {
+                    colunas[campo.ordinal()].filtrar(linhas, setor * palavras, consulta.getFiltros());
+                }
+            }
+            resultado.adicionar(linhas, setor);
+        }
+        return resultado;
+    }
+
+    private void intersectar(long[] bits, int inicio) {
+        for (int palavra = 0; palavra < bits.length; palavra++) {
+            bits[palavra] &= dados.getLong(inicio + palavra * Long.BYTES);
+        }
+    }
+
+    /**
+     * Marca as posições de {@code inicio}, inclusive, a {@code fim},
+     * exclusive.
+     */
+    private static void marcar(long[] bits, int inicio, int fim) {
+        for (int posicao = inicio; posicao < fim; posicao++) {
+            bits[posicao >>> 6] |= 1L << posicao;
+        }
+    }
+
+    /**
+     * @return a quantidade de palavras de 64 bits de cada trecho de minutos
+     */
+    private static int palavras(int qtdDias) {
+        return (qtdDias * MINUTOS_DIA + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    private static void escreverPalavras(DataOutputStream saida, long[] palavras) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(palavras.length * Long.BYTES);
+        buffer.asLongBuffer().put(palavras);
+        saida.write(buffer.array());
+    }
+
+    private static String semAspas(String texto) {
+        if (texto.length() >= 2 && texto.charAt(0) == '"' && texto.charAt(texto.length() - 1) == '"') {
+            return texto.substring(1, texto.length() - 1);
+        }
+        return texto;
+    }
+
+    /**
+     * Coluna de um campo no arquivo mapeado.
+     */
+    private final class Coluna {
+
+        private final Campo campo;
+        private final String[] textos;
+        private final int[] numeros;
+        private final int qtdValores;
+        private final int largura;
+        private final int inicioCodigos;
+        private final int inicioBitmaps;
+        private final int palavrasBitmap;
+
+        private Coluna(Campo campo, ByteBuffer leitura) {
+            this.campo = campo;
+            this.qtdValores = leitura.getInt();
+            if (qtdValores < 0) {
+                throw new IllegalArgumentException("Dicionário inválido no campo " + campo);
+            }
+            this.textos = campo.isTexto() ? new String[qtdValores] : null;
+            this.numeros = campo.isTexto() ? null : new int[qtdValores];
+            for (int i = 0; i < qtdValores; i++) {
+                if (campo.isTexto()) {
+                    textos[i] = Snapshot.lerTexto(leitura);
+                } else {
+                    numeros[i] = leitura.getInt();
+                }
+            }
+            this.largura = leitura.get();
+            if (largura != Snapshot.largura(qtdValores + 1)) {
+                throw new IllegalArgumentException("Largura dos códigos inválida no campo " + campo);
+            }
+            this.palavrasBitmap = (campo.isPorSetor() ? setores.size() : 1) * palavras;
+            this.inicioCodigos = leitura.position();
+            leitura.position(inicioCodigos + palavrasBitmap * Long.SIZE * largura);
+            boolean comBitmaps = leitura.get() != 0;
+            this.inicioBitmaps = comBitmaps ? leitura.position() : -1;
+            if (comBitmaps) {
+                leitura.position(inicioBitmaps + qtdValores * palavrasBitmap * Long.BYTES);
+            }
+        }
+
+        /**
+         * @return o código da posição: 0 se não houver linha, ou o índice do
+         * valor no dicionário mais 1
+         */
+        private int getCodigo(int posicao) {
+            return Snapshot.lerCodigo(dados, inicioCodigos + posicao * largura, largura);
+        }
+
+        private String getTexto(int codigo) {
+            return campo.isTexto() ? textos[codigo - 1] : Integer.toString(numeros[codigo - 1]);
+        }
+
+        /**
+         * Mantém em {@code bits} apenas as posições cujo valor satisfaz todos
+         * os filtros do campo.
+         *
+         * @param bits as posições candidatas de um trecho de minutos
+         * @param deslocamento a primeira palavra do trecho na coluna
+         */
+        private void filtrar(long[] bits, int deslocamento, List<Filtro> filtros) {
+            boolean[] aceitos = null;
+            for (Filtro filtro : filtros) {
+                if (filtro.campo != campo) {
+                    continue;
+                }
+                if (aceitos == null) {
+                    aceitos = new boolean[qtdValores + 1];
+                    Arrays.fill(aceitos, 1, aceitos.length, true);
+                }
+                for (int i = 0; i < qtdValores; i++) {
+                    aceitos[i + 1] &= campo.isTexto() ? filtro.aceita(textos[i]) : filtro.aceita(numeros[i]);
+                }
+            }
+            if (aceitos == null) {
+                return;
+            }
+
+            if (inicioBitmaps >= 0) {
+                for (int palavra = 0; palavra < bits.length; palavra++) {
+                    if (bits[palavra] == 0) {
+                        continue;
+                    }
+                    long filtro = 0;
+                    for (int valor = 0; valor < qtdValores; valor++) {
+                        if (aceitos[valor + 1]) {
+                            filtro |= dados.getLong(inicioBitmaps + (valor * palavrasBitmap + deslocamento + palavra) * Long.BYTES);
+                        }
+                    }
+                    bits[palavra] &= filtro;
+                }
+                return;
+            }
+            for (int palavra = 0; palavra < bits.length; palavra++) {
+                for (long restantes = bits[palavra]; restantes != 0; restantes &= restantes - 1) {
+                    int bit = Long.numberOfTrailingZeros(restantes);
+                    if (!aceitos[getCodigo((deslocamento + palavra) * Long.SIZE + bit)]) {
+                        bits[palavra] &= ~(1L << bit);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Coluna de um campo montada a partir dos dias, com os valores de todos
+     * os dias unificados em um único dicionário.
+     */
+    private static final class ColunaGravada {
+
+        private final Campo campo;
+        private final String[] textos;
+        private final int[] numeros;
+        private final int[] codigos;
+        private final int palavrasBitmap;
+
+        private ColunaGravada(Campo campo, int qtdSetores, int palavras, long primeiroDia, List<DiaIndice> dias) {
+            this.campo = campo;
+            this.palavrasBitmap = (campo.isPorSetor() ? qtdSetores : 1) * palavras;
+            this.codigos = new int[palavrasBitmap * Long.SIZE];
+            int[][] conversoes = new int[dias.size()][];
+            if (campo.isTexto()) {
+                TreeSet<String> distintos = new TreeSet<>();
+                for (DiaIndice dia : dias) {
+                    for (int ordinal = 0; ordinal < dia.dicionarios[campo.ordinal()].getTamanho(); ordinal++) {
+                        distintos.add(semAspas(dia.dicionarios[campo.ordinal()].getTexto(ordinal)));
+                    }
+                }
+                this.textos = distintos.toArray(new String[0]);
+                this.numeros = null;
+                for (int i = 0; i < dias.size(); i++) {
+                    conversoes[i] = new int[dias.get(i).dicionarios[campo.ordinal()].getTamanho()];
+                    for (int ordinal = 0; ordinal < conversoes[i].length; ordinal++) {
+                        conversoes[i][ordinal] = Arrays.binarySearch(textos, semAspas(dias.get(i).dicionarios[campo.ordinal()].getTexto(ordinal))) + 1;
+                    }
+                }
+            } else {
+                TreeSet<Integer> distintos = new TreeSet<>();
+                for (DiaIndice dia : dias) {
+                    int[] ordenados = dia.valores[campo.ordinal()].clone();
+                    Arrays.sort(ordenados);
+                    for (int i = 0; i < ordenados.length; i++) {
+                        if (ordenados[i] != DiaIndice.AUSENTE && (i == 0 || ordenados[i] != ordenados[i - 1])) {
+                            distintos.add(ordenados[i]);
+                        }
+                    }
+                }
+                this.textos = null;
+                this.numeros = distintos.stream().mapToInt(Integer::intValue).toArray();
+            }
+
+            int trecho = palavras * Long.SIZE;
+            for (int i = 0; i < dias.size(); i++) {
+                DiaIndice dia = dias.get(i);
+                int inicioDia = (int) (dia.getDiaEpoch() - primeiroDia) * MINUTOS_DIA;
+                int[] valores = dia.valores[campo.ordinal()];
+                for (int posicao = 0; posicao < valores.length; posicao++) {
+                    int valor = valores[posicao];
+                    if (valor == DiaIndice.AUSENTE) {
+                        continue;
+                    }
+                    int destino = posicao / MINUTOS_DIA * trecho + inicioDia + posicao % MINUTOS_DIA;
+                    codigos[destino] = campo.isTexto() ? conversoes[i][valor] : Arrays.binarySearch(numeros, valor) + 1;
+                }
+            }
+        }
+
+        private int getQtdValores() {
+            return campo.isTexto() ? textos.length : numeros.length;
+        }
+
+        /**
+         * @return o mapa de bits das posições com valor
+         */
+        private long[] presenca() {
+            long[] bits = new long[palavrasBitmap];
+            for (int posicao = 0; posicao < codigos.length; posicao++) {
+                if (codigos[posicao] != 0) {
+                    bits[posicao >>> 6] |= 1L << posicao;
+                }
+            }
+            return bits;
+        }
+
+        /**
+         * Grava o dicionário, os códigos de cada posição, com a menor largura
+         * que comporta o dicionário e o código 0 das posições sem linha, e,
+         * se o campo tiver poucos valores distintos, o mapa de bits de cada
+         * valor.
+         */
+        private void gravar(DataOutputStream saida) throws IOException {
+            int qtdValores = getQtdValores();
+            saida.writeInt(qtdValores);
+            for (int i = 0; i < qtdValores; i++) {
+                if (campo.isTexto()) {
+                    GravadorSnapshot.escreverTexto(saida, textos[i]);
+                } else {
+                    saida.writeInt(numeros[i]);
+                }
+            }
+            int largura = Snapshot.largura(qtdValores + 1);
+            saida.writeByte(largura);
+            GravadorSnapshot.escreverCodigos(saida, codigos, largura);
+
+            boolean comBitmaps = qtdValores <= LIMITE_BITMAPS;
+            saida.writeByte(comBitmaps ? 1 : 0);
+            if (comBitmaps) {
+                long[][] bitmaps = new long[qtdValores][palavrasBitmap];
+                for (int posicao = 0; posicao < codigos.length; posicao++) {
+                    if (codigos[posicao] != 0) {
+                        bitmaps[codigos[posicao] - 1][posicao >>> 6] |= 1L << posicao;
+                    }
+                }
+                for (long[] bitmap : bitmaps) {
+                    escreverPalavras(saida, bitmap);
+                }
+            }
+        }
+    }
+
+    /**
+     * Linhas encontradas por uma consulta: minutos ou, nas consultas por
+     * setor, setores em cada minuto.
+     */
+    public final class Resultado {
+
+        private int[] minutos = new int[1024];
+        private int[] indicesSetores = new int[1024];
+        private int qtdLinhas;
+
+        private Resultado() {
+        }
+
+        private void adicionar(long[] bits, int setor) {
+            for (int palavra = 0; palavra < bits.length; palavra++) {
+                for (long restantes = bits[palavra]; restantes != 0; restantes &= restantes - 1) {
+                    if (qtdLinhas == minutos.length) {
+                        minutos = Arrays.copyOf(minutos, qtdLinhas * 2);
+                        indicesSetores = Arrays.copyOf(indicesSetores, qtdLinhas * 2);
+                    }
+                    minutos[qtdLinhas] = palavra * Long.SIZE + Long.numberOfTrailingZeros(restantes);
+                    indicesSetores[qtdLinhas] = setor;
+                    qtdLinhas++;
+                }
+            }
+        }
+
+        /**
+         * @return a quantidade de linhas encontradas
+         */
+        public int getQtdLinhas() {
+            return qtdLinhas;
+        }
+
+        /**
+         * @param linha índice da linha, a partir de 0
+         * @return a data da linha
+         */
+        public LocalDate getData(int linha) {
+            return LocalDate.ofEpochDay(primeiroDia + minutos[Snapshot.indice(linha, qtdLinhas)] / MINUTOS_DIA);
+        }
+
+        /**
+         * @param linha índice da linha, a partir de 0
+         * @return o minuto do dia da linha, de 0 a 1439
+         */
+        public int getMinuto(int linha) {
+            return minutos[Snapshot.indice(linha, qtdLinhas)] % MINUTOS_DIA;
+        }
+
+        /**
+         * @param linha índice da linha, a partir de 0
+         * @return o setor da linha, ou null se a consulta não for por setor
+         */
+        public String getSetor(int linha) {
+            int setor = indicesSetores[Snapshot.indice(linha, qtdLinhas)];
+            return setor < 0 ? null : setores.get(setor);
+        }
+
+        /**
+         * @param campo um campo
+         * @param linha índice da linha, a partir de 0
+         * @return o valor do campo na linha, sem aspas, ou null se o campo
+         * não tiver valor na linha, como um campo da sect_config em uma
+         * consulta que não é por setor ou um minuto sem linha na config
+         */
+        public String getTexto(Campo campo, int linha) {
+            int codigo = getCodigo(campo, linha);
+            return codigo == 0 ? null : colunas[campo.ordinal()].getTexto(codigo);
+        }
+
+        /**
+         * @param campo um campo numérico
+         * @param linha índice da linha, a partir de 0
+         * @return o valor do campo na linha, ou {@link #AUSENTE} se o campo
+         * não tiver valor na linha
+         */
+        public int getNumero(Campo campo, int linha) {
+            if (campo.isTexto()) {
+                throw new IllegalArgumentException("Campo de texto: " + campo);
+            }
+            int codigo = getCodigo(campo, linha);
+            return codigo == 0 ? AUSENTE : colunas[campo.ordinal()].numeros[codigo - 1];
+        }
+
+        private int getCodigo(Campo campo, int linha) {
+            int minuto = minutos[Snapshot.indice(linha, qtdLinhas)];
+            if (!campo.isPorSetor()) {
+                return colunas[campo.ordinal()].getCodigo(minuto);
+            }
+            int setor = indicesSetores[linha];
+            return setor < 0 ? 0 : colunas[campo.ordinal()].getCodigo(setor * palavras * Long.SIZE + minuto);
+        }
+    }
+}
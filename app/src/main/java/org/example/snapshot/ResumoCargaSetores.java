@@ -0,0 +1,306 @@
+package org.example.snapshot;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resumo da carga de trabalho dos setores em um período, com as métricas de
+ * cada setor e do ACC por dia e hora, lido por mapeamento em memória.
+ *
+ * <p>
+ * O resumo é gravado por {@link #gravar(Path, String, List, List)} a partir
+ * dos {@link AcumuladorCarga acumuladores} de cada dia e guarda, para cada
+ * dia, 24 horas mais o dia inteiro ({@link #DIA_INTEIRO}), com uma posição
+ * fixa para cada setor e métrica. Consultar uma métrica é apenas calcular a
+ * posição e ler um inteiro do arquivo mapeado, sem ler as planilhas
+ * novamente. Como nos snapshots, o arquivo começa com a versão do formato e
+ * a versão do validador e termina com o CRC-32 do conteúdo, conferido na
+ * abertura.</p>
+ *
+ * @author luisg
+ */
+public final class ResumoCargaSetores {
+
+    /**
+     * Extensão do arquivo de resumo.
+     */
+    public static final String EXTENSAO = ".resumo";
+    /**
+     * Índice da hora que acumula o dia inteiro.
+     */
+    public static final int DIA_INTEIRO = 24;
+    /**
+     * Quantidade de posições de hora de cada dia: as 24 horas e o dia
+     * inteiro.
+     */
+    static final int QTD_HORAS = DIA_INTEIRO + 1;
+    /**
+     * Primeiros bytes de um resumo: "SGRC".
+     */
+    private static final int MAGICA = 0x53475243;
+    private static final int VERSAO_FORMATO = 1;
+    private static final int QTD_METRICAS_SETOR = MetricaSetor.values().length;
+    private static final int QTD_METRICAS_ACC = MetricaAcc.values().length;
+
+    /**
+     * Métricas de um setor em uma hora ou em um dia.
+     */
+    public enum MetricaSetor {
+        /**
+         * Minutos com linha do setor na sect_config, ou seja, com movimento.
+         */
+        MINUTOS,
+        /**
+         * Soma de MOV_SET.
+         */
+        MOV_SET,
+        /**
+         * Maior MOV_SET em um minuto.
+         */
+        PICO_MOV_SET,
+        /**
+         * Minuto do dia em que ocorreu o primeiro {@link #PICO_MOV_SET}, ou
+         * -1 se não houve linha do setor.
+         */
+        MINUTO_PICO,
+        /**
+         * Soma de MOV_ATCO, a carga do controlador que atendia o setor; a
+         * ocupação média do controlador é esta soma dividida por
+         * {@link #MINUTOS}.
+         */
+        MOV_ATCO,
+        /**
+         * Maior MOV_ATCO em um minuto.
+         */
+        PICO_MOV_ATCO,
+        /**
+         * Minutos em que o setor tinha uma posição ASS.
+         */
+        MINUTOS_COM_ASS
+    }
+
+    /**
+     * Métricas do ACC em uma hora ou em um dia, considerando cada minuto uma
+     * única vez.
+     */
+    public enum MetricaAcc {
+        /**
+         * Minutos com alguma linha na sect_config.
+         */
+        MINUTOS,
+        /**
+         * Soma de MOV_SET de todos os setores, inclusive os não acompanhados.
+         */
+        MOV_SET,
+        /**
+         * Maior soma de MOV_SET em um minuto.
+         */
+        PICO_MOV_SET,
+        /**
+         * Minuto do dia em que ocorreu o primeiro {@link #PICO_MOV_SET}, ou
+         * -1 se não houve linhas.
+         */
+        MINUTO_PICO,
+        /**
+         * Soma de QTD_CTR de cada minuto; dividida por {@link #MINUTOS}, é a
+         * quantidade média de posições CTR abertas.
+         */
+        CTR_MINUTOS,
+        /**
+         * Soma de QTD_ASS de cada minuto.
+         */
+        ASS_MINUTOS,
+        /**
+         * Maior QTD_CTR em um minuto.
+         */
+        PICO_QTD_CTR
+    }
+
+    private final ByteBuffer dados;
+    private final String versaoValidador;
+    private final List<String> setores;
+    private final long[] dias;
+    private final int inicioSetores;
+    private final int inicioAcc;
+
+    private ResumoCargaSetores(ByteBuffer dados) {
+        this.dados = dados;
+        ByteBuffer leitura = dados.duplicate();
+        Snapshot.verificarFormato(leitura, MAGICA, VERSAO_FORMATO);
+        this.versaoValidador = Snapshot.lerTexto(leitura);
+        int qtdSetores = leitura.getInt();
+        if (qtdSetores < 0) {
+            throw new IllegalArgumentException("Quantidade de setores negativa");
+        }
+        List<String> nomes = new ArrayList<>(qtdSetores);
+        for (int i = 0; i < qtdSetores; i++) {
+            nomes.add(Snapshot.lerTexto(leitura));
+        }
+        this.setores = Collections.unmodifiableList(nomes);
+        int qtdDias = leitura.getInt();
+        if (qtdDias < 0) {
+            throw new IllegalArgumentException("Quantidade de dias negativa");
+        }
+        this.dias = new long[qtdDias];
+        for (int i = 0; i < qtdDias; i++) {
+            dias[i] = leitura.getInt();
+        }
+        this.inicioSetores = leitura.position();
+        this.inicioAcc = inicioSetores + qtdDias * QTD_HORAS * qtdSetores * QTD_METRICAS_SETOR * Integer.BYTES;
+        if (dados.capacity() - inicioAcc != qtdDias * QTD_HORAS * QTD_METRICAS_ACC * Integer.BYTES + Long.BYTES) {
+            throw new IllegalArgumentException("Tamanho incompatível com os dias e setores");
+        }
+    }
+
+    /**
+     * Grava o resumo dos dias acumulados.
+     *
+     * @param destino caminho do resumo
+     * @param versaoValidador versão do validador que verificou as planilhas
+     * @param setores nomes dos setores, na ordem dos índices usados nos
+     * acumuladores
+     * @param dias acumuladores já concluídos, um por dia, em ordem crescente de
+     * dia
+     * @return o tamanho do resumo gravado, em bytes
+     * @throws IOException se o resumo não puder ser gravado
+     * @throws IllegalArgumentException se os dias não estiverem em ordem
+     * crescente ou algum acumulador tiver outra quantidade de setores
+     */
+    public static long gravar(Path destino, String versaoValidador, List<String> setores, List<AcumuladorCarga> dias) throws IOException {
+        for (int i = 0; i < dias.size(); i++) {
+            if (i > 0 && dias.get(i).getDiaEpoch() <= dias.get(i - 1).getDiaEpoch()) {
+                throw new IllegalArgumentException("Dias fora de ordem ou repetidos no resumo");
+            }
+            if (dias.get(i).setores.length != QTD_HORAS * setores.size() * QTD_METRICAS_SETOR) {
+                throw new IllegalArgumentException("Acumulador com quantidade de setores diferente do resumo");
+            }
+        }
+        return GravadorSnapshot.gravarArquivo(destino, saida -> {
+            saida.writeInt(MAGICA);
+            saida.writeInt(VERSAO_FORMATO);
+            GravadorSnapshot.escreverTexto(saida, versaoValidador);
+            saida.writeInt(setores.size());
+            for (String setor : setores) {
+                GravadorSnapshot.escreverTexto(saida, setor);
+            }
+            saida.writeInt(dias.size());
+            for (AcumuladorCarga dia : dias) {
+                saida.writeInt(Math.toIntExact(dia.getDiaEpoch()));
+            }
+            for (AcumuladorCarga dia : dias) {
+                escreverInteiros(saida, dia.setores);
+            }
+            for (AcumuladorCarga dia : dias) {
+                escreverInteiros(saida, dia.acc);
+            }
+        });
+    }
+
+    /**
+     * Abre um resumo, mapeando-o em memória, e confere a versão do formato e
+     * o checksum.
+     *
+     * @param caminho caminho do resumo
+     * @return o resumo aberto
+     * @throws IOException se o arquivo não puder ser lido, não for um resumo,
+     * for de outra versão do formato ou estiver corrompido
+     */
+    public static ResumoCargaSetores abrir(Path caminho) throws IOException {
+        ByteBuffer dados = Snapshot.mapear(caminho);
+        try {
+            return new ResumoCargaSetores(dados);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Resumo inválido: " + caminho + ". " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return a versão do validador que verificou as planilhas resumidas
+     */
+    public String getVersaoValidador() {
+        return versaoValidador;
+    }
+
+    /**
+     * @return os nomes dos setores, na ordem dos índices das consultas
+     */
+    public List<String> getSetores() {
+        return setores;
+    }
+
+    /**
+     * @return a quantidade de dias do resumo
+     */
+    public int getQtdDias() {
+        return dias.length;
+    }
+
+    /**
+     * @param dia índice do dia, a partir de 0
+     * @return a data do dia
+     */
+    public LocalDate getData(int dia) {
+        return LocalDate.ofEpochDay(dias[Snapshot.indice(dia, dias.length)]);
+    }
+
+    /**
+     * @param data uma data
+     * @return o índice do dia no resumo, ou -1 se o período não tiver
+     * planilha dessa data
+     */
+    public int indiceDia(LocalDate data) {
+        int indice = Arrays.binarySearch(dias, data.toEpochDay());
+        return indice < 0 ? -1 : indice;
+    }
+
+    /**
+     * @param setor nome do setor, sem aspas
+     * @return o índice do setor, ou -1 se ele não é acompanhado
+     */
+    public int indiceSetor(String setor) {
+        return setores.indexOf(setor);
+    }
+
+    /**
+     * Consulta uma métrica de um setor.
+     *
+     * @param dia índice do dia
+     * @param hora hora do dia, de 0 a 23, ou {@link #DIA_INTEIRO}
+     * @param setor índice do setor
+     * @param metrica a métrica
+     * @return o valor da métrica
+     */
+    public int getSetor(int dia, int hora, int setor, MetricaSetor metrica) {
+        int posicao = ((Snapshot.indice(dia, dias.length) * QTD_HORAS + Snapshot.indice(hora, QTD_HORAS)) * setores.size()
+                + Snapshot.indice(setor, setores.size())) * QTD_METRICAS_SETOR + metrica.ordinal();
+        return dados.getInt(inicioSetores + posicao * Integer.BYTES);
+    }
+
+    /**
+     * Consulta uma métrica do ACC.
+     *
+     * @param dia índice do dia
+     * @param hora hora do dia, de 0 a 23, ou {@link #DIA_INTEIRO}
+     * @param metrica a métrica
+     * @return o valor da métrica
+     */
+    public int getAcc(int dia, int hora, MetricaAcc metrica) {
+        int posicao = (Snapshot.indice(dia, dias.length) * QTD_HORAS + Snapshot.indice(hora, QTD_HORAS)) * QTD_METRICAS_ACC
+                + metrica.ordinal();
+        return dados.getInt(inicioAcc + posicao * Integer.BYTES);
+    }
+
+    private static void escreverInteiros(DataOutputStream saida, int[] valores) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(valores.length * Integer.BYTES);
+        buffer.asIntBuffer().put(valores);
+        saida.write(buffer.array());
+    }
+}
@@ -0,0 +1,483 @@
+package org.example.snapshot;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.example.csv.Csv;
+import org.example.csv.LeitorCsvCompactado;
+import org.example.model.TipoArquivo;
+
+/**
+ * Snapshot binário de um arquivo CSV validado, lido por mapeamento em
+ * memória.
+ *
+ * <p>
+ * O snapshot é gravado ao lado do arquivo CSV, com o mesmo nome seguido de
+ * {@value #EXTENSAO}, e guarda as linhas que passaram pelos filtros da
+ * validação: as que não são cabeçalho e têm a quantidade de campos esperada
+ * e, nas planilhas config e sect_config, nenhum campo vazio. Cada campo é
+ * guardado com o texto que tem no arquivo. As colunas são gravadas uma após a
+ * outra, cada uma com o dicionário dos seus textos distintos, em ordem
+ * crescente, e o código de cada linha no dicionário, em um, dois ou quatro
+ * bytes conforme o tamanho do dicionário. O número da linha no arquivo CSV de
+ * cada linha também é guardado, para que as ocorrências encontradas a partir
+ * do snapshot apontem para o arquivo original.</p>
+ *
+ * <p>
+ * O arquivo começa com a versão do formato, a
+ * {@link org.example.service.ValidadorArquivos#VERSAO_VALIDADOR versão do
+ * validador}, o tipo e o tamanho e a data de modificação do arquivo de
+ * origem, e termina com o CRC-32 de todo o conteúdo anterior, conferido na
+ * abertura. Abrir um snapshot lê apenas o cabeçalho de cada coluna; os códigos
+ * e os textos são lidos do arquivo mapeado à medida que são consultados, e
+ * cada texto do dicionário é convertido em {@code String} uma única vez. A
+ * consulta não altera o estado compartilhado do mapeamento, de modo que um
+ * mesmo snapshot pode ser lido por várias threads.</p>
+ *
+ * @author luisg
+ */
+public final class Snapshot {
+
+    /**
+     * Extensão acrescentada ao nome do arquivo CSV.
+     */
+    public static final String EXTENSAO = ".snap";
+    /**
+     * Primeiros bytes de um snapshot: "SGSN".
+     */
+    static final int MAGICA = 0x5347534E;
+    /**
+     * Versão do formato do arquivo, alterada a cada mudança incompatível na
+     * sua estrutura.
+     */
+    static final int VERSAO_FORMATO = 1;
+    private static final int TAMANHO_CHECKSUM = Long.BYTES;
+    /**
+     * Tamanho do início do arquivo lido por {@link #isAtual(Path)}, suficiente
+     * para a versão do validador, o tipo e os dados do arquivo de origem.
+     */
+    private static final int TAMANHO_CABECALHO = 1024;
+
+    private final ByteBuffer dados;
+    private final String versaoValidador;
+    private final TipoArquivo tipo;
+    private final long tamanhoOrigem;
+    private final long modificadoOrigem;
+    private final int qtdLinhas;
+    private final int inicioEnderecos;
+    private final Map<String, Coluna> colunas = new LinkedHashMap<>();
+
+    private Snapshot(ByteBuffer dados) {
+        this.dados = dados;
+        ByteBuffer leitura = dados.duplicate();
+        verificarFormato(leitura, MAGICA, VERSAO_FORMATO);
+        this.versaoValidador = lerTexto(leitura);
+        this.tipo = TipoArquivo.valueOf(lerTexto(leitura));
+        this.tamanhoOrigem = leitura.getLong();
+        this.modificadoOrigem = leitura.getLong();
+        this.qtdLinhas = leitura.getInt();
+        int qtdColunas = leitura.getInt();
+        if (qtdLinhas < 0 || qtdColunas < 0) {
+            throw new IllegalArgumentException("Quantidade de linhas ou colunas negativa");
+        }
+        this.inicioEnderecos = leitura.position();
+        leitura.position(inicioEnderecos + qtdLinhas * Integer.BYTES);
+        for (int i = 0; i < qtdColunas; i++) {
+            Coluna coluna = new Coluna(leitura);
+            colunas.put(coluna.nome, coluna);
+        }
+        if (leitura.remaining() != TAMANHO_CHECKSUM) {
+            throw new IllegalArgumentException("Tamanho incompatível com as colunas");
+        }
+    }
+
+    /**
+     * Obtém o caminho do snapshot de um arquivo CSV: ao lado do arquivo ou,
+     * para uma entrada de arquivo zip, ao lado do arquivo zip, com o
+     * {@link LeitorCsvCompactado#getNomeSaida(Path) nome do arquivo}.
+     *
+     * @param csv caminho do arquivo CSV
+     * @return o caminho do snapshot
+     */
+    public static Path getCaminho(Path csv) {
+        return LeitorCsvCompactado.getArquivoEmDisco(csv).resolveSibling(LeitorCsvCompactado.getNomeSaida(csv) + EXTENSAO);
+    }
+
+    /**
+     * Abre um snapshot, mapeando-o em memória, e confere a versão do formato
+     * e o checksum.
+     *
+     * @param caminho caminho do snapshot
+     * @return o snapshot aberto
+     * @throws IOException se o arquivo não puder ser lido, não for um
+     * snapshot, for de outra versão do formato ou estiver corrompido
+     */
+    public static Snapshot abrir(Path caminho) throws IOException {
+        ByteBuffer dados = mapear(caminho);
+        try {
+            return new Snapshot(dados);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Snapshot inválido: " + caminho + ". " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Mapeia em memória um arquivo gravado por
+     * {@link GravadorSnapshot#gravarArquivo(Path, GravadorSnapshot.Escrita)} e
+     * confere o CRC-32 do final do arquivo.
+     *
+     * @return o conteúdo do arquivo, inclusive o CRC-32
+     * @throws IOException se o arquivo não puder ser lido ou o checksum não
+     * conferir
+     */
+    static ByteBuffer mapear(Path caminho) throws IOException {
+        ByteBuffer dados;
+        try (FileChannel canal = FileChannel.open(caminho, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho > Integer.MAX_VALUE) {
+                throw new IOException("Arquivo maior que o suportado: " + caminho);
+            }
+            dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+        }
+        if (dados.capacity() < TAMANHO_CHECKSUM) {
+            throw new IOException("Arquivo incompleto: " + caminho);
+        }
+
+        ByteBuffer conteudo = dados.duplicate();
+        conteudo.limit(dados.capacity() - TAMANHO_CHECKSUM);
+        CRC32 crc = new CRC32();
+        crc.update(conteudo);
+        if (crc.getValue() != dados.getLong(dados.capacity() - TAMANHO_CHECKSUM)) {
+            throw new IOException("Checksum não confere: " + caminho);
+        }
+        return dados;
+    }
+
+    /**
+     * Verifica se o snapshot de um arquivo CSV existe e foi gerado a partir
+     * do arquivo como ele está, comparando o tamanho e a data de modificação
+     * registrados com os atuais. Apenas o início do snapshot é lido; o
+     * checksum é conferido em {@link #abrir(Path)}.
+     *
+     * @param csv caminho do arquivo CSV
+     * @return true se o snapshot existe, é desta versão do formato e
+     * corresponde ao arquivo
+     */
+    public static boolean isAtual(Path csv) {
+        Path caminho = getCaminho(csv);
+        if (!Files.isRegularFile(caminho)) {
+            return false;
+        }
+        try (FileChannel canal = FileChannel.open(caminho, StandardOpenOption.READ)) {
+            ByteBuffer cabecalho = ByteBuffer.allocate((int) Math.min(canal.size(), TAMANHO_CABECALHO));
+            while (cabecalho.hasRemaining() && canal.read(cabecalho) >= 0) {
+                // lê até preencher o cabeçalho
+            }
+            cabecalho.flip();
+            verificarFormato(cabecalho, MAGICA, VERSAO_FORMATO);
+            lerTexto(cabecalho);
+            lerTexto(cabecalho);
+            long tamanho = cabecalho.getLong();
+            long modificado = cabecalho.getLong();
+            BasicFileAttributes atributos = Files.readAttributes(csv, BasicFileAttributes.class);
+            return tamanho == atributos.size() && modificado == atributos.lastModifiedTime().toMillis();
+        } catch (IOException | BufferUnderflowException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Abre o snapshot de um arquivo CSV, desde que esteja atual e tenha sido
+     * gravado para o tipo e pela versão do validador informados.
+     *
+     * @param csv caminho do arquivo CSV
+     * @param tipo tipo esperado do arquivo
+     * @param versaoValidador versão esperada do validador
+     * @return o snapshot aberto, ou null se não existir, estiver
+     * desatualizado, for de outro tipo ou versão ou não puder ser lido
+     */
+    public static Snapshot abrirAtual(Path csv, TipoArquivo tipo, String versaoValidador) {
+        if (!isAtual(csv)) {
+            return null;
+        }
+        try {
+            Snapshot snapshot = abrir(getCaminho(csv));
+            return snapshot.tipo == tipo && snapshot.versaoValidador.equals(versaoValidador) ? snapshot : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return a versão do validador que verificou as linhas do snapshot
+     */
+    public String getVersaoValidador() {
+        return versaoValidador;
+    }
+
+    /**
+     * @return o tipo do arquivo CSV de origem
+     */
+    public TipoArquivo getTipo() {
+        return tipo;
+    }
+
+    /**
+     * @return o tamanho, em bytes, do arquivo de origem quando foi lido
+     */
+    public long getTamanhoOrigem() {
+        return tamanhoOrigem;
+    }
+
+    /**
+     * @return a data de modificação do arquivo de origem quando foi lido, em
+     * milissegundos desde a época
+     */
+    public long getModificadoOrigem() {
+        return modificadoOrigem;
+    }
+
+    /**
+     * @return a quantidade de linhas do snapshot
+     */
+    public int getQtdLinhas() {
+        return qtdLinhas;
+    }
+
+    /**
+     * @param linha índice da linha no snapshot, a partir de 0
+     * @return o número da linha no arquivo CSV, a partir de 1
+     */
+    public int getEndereco(int linha) {
+        return dados.getInt(inicioEnderecos + indice(linha, qtdLinhas) * Integer.BYTES);
+    }
+
+    /**
+     * @return as colunas, na ordem dos campos do arquivo CSV
+     */
+    public List<Coluna> getColunas() {
+        return Collections.unmodifiableList(new ArrayList<>(colunas.values()));
+    }
+
+    /**
+     * @param nome nome da coluna no cabeçalho do arquivo CSV
+     * @return a coluna
+     * @throws IllegalArgumentException se o snapshot não tiver a coluna
+     */
+    public Coluna getColuna(String nome) {
+        Coluna coluna = colunas.get(nome);
+        if (coluna == null) {
+            throw new IllegalArgumentException("Coluna inexistente no snapshot: " + nome);
+        }
+        return coluna;
+    }
+
+    static int largura(int qtdValores) {
+        if (qtdValores <= 1 << Byte.SIZE) {
+            return Byte.BYTES;
+        }
+        return qtdValores <= 1 << Short.SIZE ? Short.BYTES : Integer.BYTES;
+    }
+
+    /**
+     * Lê um código gravado com a largura de {@link #largura(int)}.
+     */
+    static int lerCodigo(ByteBuffer dados, int posicao, int largura) {
+        if (largura == Byte.BYTES) {
+            return dados.get(posicao) & 0xFF;
+        }
+        if (largura == Short.BYTES) {
+            return dados.getShort(posicao) & 0xFFFF;
+        }
+        return dados.getInt(posicao);
+    }
+
+    /**
+     * Confere os primeiros bytes e a versão do formato no início de um
+     * arquivo.
+     *
+     * @throws IllegalArgumentException se não forem os esperados
+     */
+    static void verificarFormato(ByteBuffer leitura, int magica, int versaoFormato) {
+        if (leitura.getInt() != magica) {
+            throw new IllegalArgumentException("Formato de arquivo desconhecido");
+        }
+        int versao = leitura.getInt();
+        if (versao != versaoFormato) {
+            throw new IllegalArgumentException("Versão do formato não suportada: " + versao);
+        }
+    }
+
+    static String lerTexto(ByteBuffer leitura) {
+        byte[] bytes = new byte[leitura.getShort() & 0xFFFF];
+        leitura.get(bytes);
+        return new String(bytes, Csv.CHARSET);
+    }
+
+    static int indice(int indice, int tamanho) {
+        if (indice < 0 || indice >= tamanho) {
+            throw new IndexOutOfBoundsException("Índice " + indice + " fora do intervalo [0, " + tamanho + ")");
+        }
+        return indice;
+    }
+
+    /**
+     * Coluna de um snapshot, com o dicionário dos textos distintos e o
+     * código de cada linha.
+     */
+    public final class Coluna {
+
+        /**
+         * Código retornado por {@link #buscar(String)} quando o texto não
+         * aparece na coluna.
+         */
+        public static final int AUSENTE = -1;
+        /**
+         * Valor de {@link #getNumero(int)} para um texto que não é um inteiro
+         * não negativo.
+         */
+        public static final int NUMERO_INVALIDO = -1;
+        private static final int MAXIMO_DIGITOS = 9;
+        private static final int NUMERO_NAO_LIDO = -2;
+
+        private final String nome;
+        private final int qtdValores;
+        private final int inicioPosicoes;
+        private final int inicioTextos;
+        private final int largura;
+        private final int inicioCodigos;
+        private final String[] textos;
+        private final int[] numeros;
+
+        private Coluna(ByteBuffer leitura) {
+            this.nome = lerTexto(leitura);
+            this.qtdValores = leitura.getInt();
+            int tamanhoTextos = leitura.getInt();
+            if (qtdValores < 0 || tamanhoTextos < 0) {
+                throw new IllegalArgumentException("Dicionário inválido na coluna " + nome);
+            }
+            this.inicioPosicoes = leitura.position();
+            this.inicioTextos = inicioPosicoes + (qtdValores + 1) * Integer.BYTES;
+            leitura.position(inicioTextos + tamanhoTextos);
+            this.largura = leitura.get();
+            if (largura != largura(qtdValores)) {
+                throw new IllegalArgumentException("Largura dos códigos inválida na coluna " + nome);
+            }
+            this.inicioCodigos = leitura.position();
+            leitura.position(inicioCodigos + qtdLinhas * largura);
+            this.textos = new String[qtdValores];
+            this.numeros = new int[qtdValores];
+            Arrays.fill(numeros, NUMERO_NAO_LIDO);
+        }
+
+        /**
+         * @return o nome da coluna no cabeçalho do arquivo CSV
+         */
+        public String getNome() {
+            return nome;
+        }
+
+        /**
+         * @return a quantidade de textos distintos da coluna
+         */
+        public int getQtdValores() {
+            return qtdValores;
+        }
+
+        /**
+         * @param linha índice da linha no snapshot, a partir de 0
+         * @return o código do texto da linha no dicionário da coluna; códigos
+         * menores correspondem a textos menores
+         */
+        public int getCodigo(int linha) {
+            return lerCodigo(dados, inicioCodigos + indice(linha, qtdLinhas) * largura, largura);
+        }
+
+        /**
+         * @param codigo código de um texto do dicionário
+         * @return o texto correspondente ao código
+         */
+        public String getValor(int codigo) {
+            String texto = textos[codigo];
+            if (texto == null) {
+                int inicio = dados.getInt(inicioPosicoes + codigo * Integer.BYTES);
+                int fim = dados.getInt(inicioPosicoes + (codigo + 1) * Integer.BYTES);
+                byte[] bytes = new byte[fim - inicio];
+                ByteBuffer leitura = dados.duplicate();
+                leitura.position(inicioTextos + inicio);
+                leitura.get(bytes);
+                texto = new String(bytes, Csv.CHARSET);
+                textos[codigo] = texto;
+            }
+            return texto;
+        }
+
+        /**
+         * @param linha índice da linha no snapshot, a partir de 0
+         * @return o texto do campo da linha, como no arquivo CSV
+         */
+        public String getTexto(int linha) {
+            return getValor(getCodigo(linha));
+        }
+
+        /**
+         * Converte o texto de um código em inteiro, uma única vez por código.
+         *
+         * @param codigo código de um texto do dicionário
+         * @return o inteiro, ou {@link #NUMERO_INVALIDO} se o texto não for
+         * um inteiro não negativo de até {@value #MAXIMO_DIGITOS} dígitos,
+         * sem zeros à esquerda
+         */
+        public int getNumero(int codigo) {
+            int numero = numeros[codigo];
+            if (numero == NUMERO_NAO_LIDO) {
+                String texto = getValor(codigo);
+                numero = texto.isEmpty() || texto.length() > MAXIMO_DIGITOS
+                        || (texto.length() > 1 && texto.charAt(0) == '0') ? NUMERO_INVALIDO : 0;
+                for (int i = 0; i < texto.length() && numero != NUMERO_INVALIDO; i++) {
+                    char c = texto.charAt(i);
+                    numero = c >= '0' && c <= '9' ? numero * 10 + (c - '0') : NUMERO_INVALIDO;
+                }
+                numeros[codigo] = numero;
+            }
+            return numero;
+        }
+
+        /**
+         * Localiza um texto no dicionário por busca binária.
+         *
+         * @param texto o texto procurado, como no arquivo CSV
+         * @return o código do texto, ou {@link #AUSENTE} se nenhuma linha
+         * tiver esse texto na coluna
+         */
+        public int buscar(String texto) {
+            int inicio = 0;
+            int fim = qtdValores - 1;
+            while (inicio <= fim) {
+                int meio = (inicio + fim) >>> 1;
+                int comparacao = getValor(meio).compareTo(texto);
+                if (comparacao < 0) {
+                    inicio = meio + 1;
+                } else if (comparacao > 0) {
+                    fim = meio - 1;
+                } else {
+                    return meio;
+                }
+            }
+            return AUSENTE;
+        }
+    }
+}
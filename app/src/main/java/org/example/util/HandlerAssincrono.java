@@ -0,0 +1,213 @@
+package org.example.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Handler que entrega os registros de log a outro handler em uma thread
+ * própria.
+ *
+ * <p>
+ * A thread que registra a mensagem apenas a coloca em um buffer circular de
+ * capacidade fixa; a formatação e a escrita em disco ficam com uma thread em
+ * segundo plano, de modo que validações em paralelo não disputam o lock do
+ * handler de destino. A classe e o método de origem de cada registro são
+ * identificados ainda na thread que registrou a mensagem, pois depois disso a
+ * pilha de chamadas já não é a mesma.</p>
+ *
+ * <p>
+ * Quando o buffer está cheio a {@link PoliticaBufferCheio política}
+ * configurada decide se a thread espera por espaço ou se o registro é
+ * descartado. Registros de nível {@link Level#WARNING} ou superior nunca são
+ * descartados. A quantidade de registros descartados é informada no próprio
+ * log assim que houver espaço.</p>
+ *
+ * @author luisg
+ */
+final class HandlerAssincrono extends Handler {
+
+    /**
+     * O que fazer com um registro quando o buffer está cheio.
+     */
+    enum PoliticaBufferCheio {
+        /**
+         * A thread que registrou a mensagem espera até haver espaço.
+         */
+        BLOQUEAR,
+        /**
+         * O registro é descartado, exceto se for de nível
+         * {@link Level#WARNING} ou superior.
+         */
+        DESCARTAR
+    }
+
+    private final Handler destino;
+    private final BlockingQueue<LogRecord> buffer;
+    private final PoliticaBufferCheio politica;
+    private final Thread escritor;
+    private final AtomicLong enfileirados = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private final Object monitor = new Object();
+    private volatile long publicados;
+    private volatile boolean fechado;
+    private long informados;
+
+    /**
+     * @param destino handler que escreve os registros
+     * @param capacidade quantidade de registros que cabem no buffer
+     * @param politica o que fazer quando o buffer estiver cheio
+     */
+    HandlerAssincrono(Handler destino, int capacidade, PoliticaBufferCheio politica) {
+        this.destino = destino;
+        this.buffer = new ArrayBlockingQueue<>(capacidade);
+        this.politica = politica;
+        this.escritor = new Thread(this::escrever, "log-assincrono");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (fechado || !isLoggable(record)) {
+            return;
+        }
+        record.getSourceClassName();
+
+        if (!buffer.offer(record)) {
+            if (politica == PoliticaBufferCheio.DESCARTAR && record.getLevel().intValue() < Level.WARNING.intValue()) {
+                descartados.incrementAndGet();
+                return;
+            }
+            try {
+                buffer.put(record);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                descartados.incrementAndGet();
+                return;
+            }
+        }
+        enfileirados.incrementAndGet();
+    }
+
+    /**
+     * Aguarda a escrita dos registros já enfileirados e esvazia o buffer do
+     * handler de destino.
+     */
+    @Override
+    public void flush() {
+        long alvo = enfileirados.get();
+        synchronized (monitor) {
+            while (publicados < alvo && escritor.isAlive()) {
+                try {
+                    monitor.wait(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        destino.flush();
+    }
+
+    /**
+     * Escreve os registros ainda no buffer, inclusive os enfileirados durante
+     * o fechamento, e fecha o handler de destino.
+     */
+    @Override
+    public void close() {
+        if (fechado) {
+            return;
+        }
+        flush();
+        fechado = true;
+        escritor.interrupt();
+        try {
+            escritor.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!escritor.isAlive()) {
+            // registros enfileirados por publish() que passaram pela
+            // verificação de fechado depois que o escritor esvaziou o buffer
+            esvaziar();
+        }
+        destino.close();
+    }
+
+    /**
+     * @return a quantidade de registros descartados por falta de espaço no
+     * buffer
+     */
+    long getDescartados() {
+        return descartados.get();
+    }
+
+    private void escrever() {
+        while (!fechado) {
+            LogRecord record;
+            try {
+                record = buffer.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                continue;
+            }
+
+            informarDescartados(record == null ? null : record.getLoggerName());
+            if (record != null) {
+                publicarEnfileirado(record);
+            }
+        }
+        esvaziar();
+    }
+
+    /**
+     * Escreve os registros que restam no buffer após o fechamento.
+     */
+    private void esvaziar() {
+        List<LogRecord> restantes = new ArrayList<>();
+        buffer.drainTo(restantes);
+        informarDescartados(restantes.isEmpty() ? null : restantes.get(0).getLoggerName());
+        for (LogRecord record : restantes) {
+            publicarEnfileirado(record);
+        }
+    }
+
+    /**
+     * Escreve um aviso com a quantidade de registros descartados desde o
+     * último aviso, se houver.
+     */
+    private void informarDescartados(String loggerName) {
+        long total = descartados.get();
+        if (total > informados) {
+            LogRecord aviso = new LogRecord(Level.WARNING, (total - informados) + " mensagens de log descartadas: buffer cheio");
+            aviso.setLoggerName(loggerName);
+            aviso.setSourceClassName(getClass().getName());
+            aviso.setSourceMethodName("escrever");
+            publicar(aviso);
+            informados = total;
+        }
+    }
+
+    private void publicarEnfileirado(LogRecord record) {
+        publicar(record);
+        synchronized (monitor) {
+            publicados++;
+            monitor.notifyAll();
+        }
+    }
+
+    private void publicar(LogRecord record) {
+        try {
+            destino.publish(record);
+        } catch (RuntimeException e) {
+            reportError("Falha ao escrever registro de log", e, ErrorManager.WRITE_FAILURE);
+        }
+    }
+}
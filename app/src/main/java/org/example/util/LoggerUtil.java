@@ -1,28 +1,77 @@
 package org.example.util;
 
 import java.io.IOException;
+import java.util.Locale;
 import java.util.logging.FileHandler;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.logging.SimpleFormatter;
 
+/**
+ * Logger da aplicação, gravado no arquivo cc.log.
+ *
+ * <p>
+ * O comportamento pode ser ajustado por propriedades de sistema:</p>
+ * <ul>
+ * <li>{@code validador.log.nivel}: nível mínimo registrado, como
+ * {@code INFO} (padrão), {@code WARNING} ou {@code OFF};</li>
+ * <li>{@code validador.log.assincrono}: se {@code true} (padrão), as mensagens
+ * são escritas por uma thread em segundo plano, ver
+ * {@link HandlerAssincrono};</li>
+ * <li>{@code validador.log.buffer}: capacidade do buffer de mensagens do modo
+ * assíncrono (padrão: 8192);</li>
+ * <li>{@code validador.log.buffercheio}: {@code descartar} (padrão) ou
+ * {@code bloquear}, o que fazer quando o buffer estiver cheio.</li>
+ * </ul>
+ *
+ * <p>
+ * Mensagens montadas a partir de outros valores devem ser passadas como
+ * {@code Supplier}, por exemplo {@code log.info(() -> "Arquivo: " + path)},
+ * para que o texto só seja construído se o nível estiver habilitado.</p>
+ */
 public class LoggerUtil {
     private static final Logger LOGGER = Logger.getLogger("CCLogger");
 
     static {
         try {
+            Level nivel = lerNivel();
             Handler fileHandler = new FileHandler("cc.log", false);
             fileHandler.setFormatter(new SimpleFormatter());
-            LOGGER.addHandler(fileHandler);
-            LOGGER.setLevel(Level.ALL);
+            fileHandler.setLevel(nivel);
+            if (Boolean.parseBoolean(System.getProperty("validador.log.assincrono", "true"))) {
+                HandlerAssincrono handler = new HandlerAssincrono(fileHandler,
+                        Math.max(1, Integer.getInteger("validador.log.buffer", 8192)), lerPolitica());
+                handler.setLevel(nivel);
+                LOGGER.addHandler(handler);
+            } else {
+                LOGGER.addHandler(fileHandler);
+            }
+            LOGGER.setLevel(nivel);
             LOGGER.setUseParentHandlers(false);
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Erro ao configurar logger", e);
         }
     }
-    
+
     public static Logger getLogger(){
         return LOGGER;
     }
-}
\ No newline at end of file
+
+    private static Level lerNivel() {
+        try {
+            return Level.parse(System.getProperty("validador.log.nivel", "INFO").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+
+    private static HandlerAssincrono.PoliticaBufferCheio lerPolitica() {
+        try {
+            return HandlerAssincrono.PoliticaBufferCheio.valueOf(
+                    System.getProperty("validador.log.buffercheio", "descartar").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return HandlerAssincrono.PoliticaBufferCheio.DESCARTAR;
+        }
+    }
+}
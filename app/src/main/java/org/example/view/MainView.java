@@ -2,7 +2,6 @@ package org.example.view;
 
 import org.example.controller.MainController;
 import org.example.model.ArquivoCSV;
-import org.example.model.StatusArquivo;
 import org.example.util.LoggerUtil;
 
 import java.awt.BorderLayout;
@@ -14,6 +13,7 @@ import java.util.logging.Logger;
 
 import javax.swing.JButton;
 import javax.swing.JFrame;
+import javax.swing.JLabel;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
@@ -21,8 +21,10 @@ import javax.swing.JPopupMenu;
 import javax.swing.JProgressBar;
 import javax.swing.JRadioButton;
 import javax.swing.JScrollPane;
+import javax.swing.JSpinner;
 import javax.swing.JTable;
 import javax.swing.ListSelectionModel;
+import javax.swing.SpinnerNumberModel;
 import javax.swing.SwingConstants;
 import javax.swing.WindowConstants;
 import javax.swing.border.EmptyBorder;
@@ -30,12 +32,16 @@ import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 
 public class MainView extends JFrame {
+
+    private static final long serialVersionUID = 1L;
+
     private static final Logger log = LoggerUtil.getLogger();
     private static final int PADDING = 5;
     private JTable tabela;
     private DefaultTableModel tabelaModel;
     private JButton btnValidar;
     private JRadioButton rbDetalhar;
+    private JSpinner spParalelismo;
     private JProgressBar progressBar;
     private List<ArquivoCSV> arquivosSelecionados = new ArrayList<>();
     private final List<ArquivoCSV> arquivosTabela = new ArrayList<>();
@@ -68,32 +74,26 @@ public class MainView extends JFrame {
     private final ActionListener validarAction = e -> {
         btnValidar.setEnabled(false);
         boolean detalhar = rbDetalhar.isSelected();
-        log.info("Iniciando validação com " + tabela.getRowCount() + " arquivos. detalhar=" + detalhar);
+        int paralelismo = (Integer) spParalelismo.getValue();
+        List<ArquivoCSV> arquivosParaValidar = new ArrayList<>(arquivosTabela);
+        log.info("Iniciando validação com " + tabela.getRowCount() + " arquivos. detalhar=" + detalhar + " paralelismo=" + paralelismo);
+        progressBar.setMaximum(arquivosParaValidar.size());
+        progressBar.setValue(0);
         progressBar.setVisible(true);
 
-        new javax.swing.SwingWorker<Void,Integer>() {
+        new javax.swing.SwingWorker<Void,ArquivoCSV>() {
             @Override
-            protected Void doInBackground() {
-                int qtdArquivos = arquivosTabela.size();
-                progressBar.setMaximum(qtdArquivos);
-                progressBar.setValue(0);
-
-                for (int i = 0; i < qtdArquivos; i++){
-                    ArquivoCSV arquivoCSV = arquivosTabela.get(i);
-
-                    try {
-                        controller.validarArquivo(arquivoCSV, detalhar);
-                    } catch (Exception e) {
-                        arquivoCSV.setStatus(StatusArquivo.ERRO);
-                    }
-
-                    //atualiza a progressBar
-                    final int progresso = i + 1;
-                    javax.swing.SwingUtilities.invokeLater(() -> progressBar.setValue(progresso));
-                }
+            protected Void doInBackground() throws InterruptedException {
+                controller.validarArquivos(arquivosParaValidar, detalhar, paralelismo, (arquivo, resultado) -> publish(arquivo));
                 return null;
             }
             @Override
+            protected void process(List<ArquivoCSV> concluidos) {
+                //atualiza a progressBar e o status dos arquivos já validados
+                progressBar.setValue(progressBar.getValue() + concluidos.size());
+                atualizarTabela();
+            }
+            @Override
             protected void done() {
                 atualizarTabela();
                 progressBar.setVisible(false);
@@ -150,6 +150,11 @@ public class MainView extends JFrame {
 //      PAINEL À DIREITA
 //        Botão Detalhar
         rbDetalhar = new JRadioButton("Detalhar");
+//        Seletor de paralelismo
+        int maxParalelismo = Math.max(MainController.PARALELISMO_PADRAO, 16);
+        spParalelismo = new JSpinner(new SpinnerNumberModel(MainController.PARALELISMO_PADRAO, 1, maxParalelismo, 1));
+        spParalelismo.setToolTipText("Quantidade de arquivos validados ao mesmo tempo");
+        JLabel lblParalelismo = new JLabel("Threads");
 //        Botão Validar
         btnValidar = new JButton("Validar");
         btnValidar.setEnabled(false);
@@ -159,6 +164,8 @@ public class MainView extends JFrame {
         btnSair.addActionListener(sairAction);
 
         JPanel painelDireita = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        painelDireita.add(lblParalelismo);
+        painelDireita.add(spParalelismo);
         painelDireita.add(rbDetalhar);
         painelDireita.add(btnValidar);
         painelDireita.add(btnSair);
@@ -1,14 +1,63 @@
-/*
- * This source file was generated by the Gradle 'init' task
- */
 package org.example;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.example.csv.Csv;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.example.service.PlanilhaSectConfig;
 import org.junit.jupiter.api.Test;
-import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.io.TempDir;
 
+/**
+ * Validação de ponta a ponta de uma planilha pequena, do arquivo CSV ao
+ * relatório gravado na pasta Relatórios.
+ *
+ * @author luisg
+ */
 class AppTest {
-    @Test void appHasAGreeting() {
-        App classUnderTest = new App();
-        assertNotNull(classUnderTest.getGreeting(), "app should have a greeting");
+
+    private static final String LINHA = "7;01/06/2024;00:00:00;\"4.6.3\";\"CTR07\";\"ASS07\";\"S10\";4;3;3;2;S09,S10,S11";
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void validaPlanilhaSemErrosEGravaRelatorio() throws IOException {
+        Path arquivo = escrever("20240601_sect_config.csv", LINHA);
+
+        ResultadoValidacao resultado = PlanilhaSectConfig.verificarIntegridade(arquivo, false);
+
+        assertEquals(StatusArquivo.VALIDADO, resultado.getStatus());
+        assertEquals(2, resultado.getQtdLinhas());
+        assertTrue(Files.exists(pasta.resolve("Relatórios").resolve("20240601_sect_config.txt")));
+    }
+
+    @Test
+    void relataConfigIdMalformadoSemInterromperValidacao() throws IOException {
+        Path arquivo = escrever("20240602_sect_config.csv", LINHA, LINHA.replace("\"4.6.3\"", "\"5x\""));
+
+        ResultadoValidacao resultado = PlanilhaSectConfig.verificarIntegridade(arquivo, false);
+
+        assertEquals(StatusArquivo.VALIDADO, resultado.getStatus());
+        String relatorio = new String(Files.readAllBytes(pasta.resolve("Relatórios").resolve("20240602_sect_config.txt")),
+                Csv.CHARSET);
+        assertTrue(relatorio.contains("CONFIG_ID INVÁLIDO"), relatorio);
+        assertTrue(relatorio.contains("\"5x\""), relatorio);
+    }
+
+    private Path escrever(String nome, String... linhas) throws IOException {
+        StringBuilder conteudo = new StringBuilder(PlanilhaSectConfig.CABECALHO).append('\n');
+        for (String linha : linhas) {
+            conteudo.append(linha).append('\n');
+        }
+        Path arquivo = pasta.resolve(nome);
+        Files.write(arquivo, conteudo.toString().getBytes(Csv.CHARSET));
+        return arquivo;
     }
 }
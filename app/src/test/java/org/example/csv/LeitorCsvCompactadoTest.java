@@ -0,0 +1,197 @@
+package org.example.csv;
+
+import static org.example.csv.LeitorCsvMapeadoTest.CONTEUDOS;
+import static org.example.csv.LeitorCsvMapeadoTest.assertLinhas;
+import static org.example.csv.LeitorCsvMapeadoTest.campos;
+import static org.example.csv.LeitorCsvMapeadoTest.descrever;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Compara as linhas e os campos entregues pelo {@link LeitorCsvCompactado}
+ * com os de {@link BufferedReader#readLine()} seguido de
+ * {@code String.split(";")}, com os mesmos conteúdos de
+ * {@link LeitorCsvMapeadoTest} compactados com gzip.
+ *
+ * @author luisg
+ */
+class LeitorCsvCompactadoTest {
+
+    /**
+     * Indica que a leitura não informou a quantidade de bytes.
+     */
+    private static final long SEM_QTD_BYTES = -1;
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void lerEquivaleAReadLineESplit() throws IOException {
+        for (String conteudo : CONTEUDOS) {
+            Path arquivo = compactar(conteudo);
+            List<String[]> lidas = new ArrayList<>();
+            AtomicLong qtdBytes = new AtomicLong(SEM_QTD_BYTES);
+            int qtdLinhas = LeitorCsvCompactado.ler(arquivo, registro -> lidas.add(campos(registro, lidas.size() + 1)), qtdBytes::set);
+
+            assertLinhas(conteudo, conteudo, lidas);
+            assertEquals(lidas.size(), qtdLinhas, descrever(conteudo));
+            assertEquals(conteudo.getBytes(Csv.CHARSET).length, qtdBytes.get(), descrever(conteudo));
+        }
+    }
+
+    /**
+     * Lê cada conteúdo com blocos de todos os tamanhos, de um byte até o
+     * arquivo inteiro, de modo que cada linha e cada terminador, inclusive um
+     * {@code \r\n}, seja dividido entre dois blocos em algum momento.
+     */
+    @Test
+    void blocosPequenosNaoSeparamTerminadores() throws IOException {
+        for (String conteudo : CONTEUDOS) {
+            Path arquivo = compactar(conteudo);
+            for (int tamanhoBloco = 1; tamanhoBloco <= conteudo.length() + 1; tamanhoBloco++) {
+                List<String[]> lidas = new ArrayList<>();
+                AtomicLong qtdBytes = new AtomicLong(SEM_QTD_BYTES);
+                int qtdLinhas = LeitorCsvCompactado.ler(arquivo, tamanhoBloco,
+                        registro -> lidas.add(campos(registro, lidas.size() + 1)), qtdBytes::set);
+
+                String descricao = conteudo + " (blocos de " + tamanhoBloco + " bytes)";
+                assertLinhas(descricao, conteudo, lidas);
+                assertEquals(lidas.size(), qtdLinhas, descrever(descricao));
+                assertEquals(conteudo.length(), qtdBytes.get(), descrever(descricao));
+            }
+        }
+    }
+
+    @Test
+    void crlfDivididoEntreBlocosDeTamanhoPadrao() throws IOException {
+        // o \r é o último byte do primeiro bloco e o \n o primeiro do segundo
+        String conteudo = linha(LeitorCsvCompactado.TAMANHO_BLOCO - 1) + "\r\n" + "c;d\r\n";
+        List<String[]> lidas = new ArrayList<>();
+        LeitorCsvCompactado.ler(compactar(conteudo), registro -> lidas.add(campos(registro, lidas.size() + 1)));
+
+        assertEquals(2, lidas.size());
+        assertLinhas("\\r\\n entre blocos", conteudo, lidas);
+    }
+
+    @Test
+    void linhaMaiorQueDoisBlocos() throws IOException {
+        String longa = linha(2 * LeitorCsvCompactado.TAMANHO_BLOCO + LeitorCsvCompactado.TAMANHO_BLOCO / 2);
+        String conteudo = "a;b\n" + longa + "\r\n" + "c;d\n" + longa;
+        List<String[]> lidas = new ArrayList<>();
+        AtomicLong qtdBytes = new AtomicLong(SEM_QTD_BYTES);
+        int qtdLinhas = LeitorCsvCompactado.ler(compactar(conteudo), registro -> lidas.add(campos(registro, lidas.size() + 1)), qtdBytes::set);
+
+        assertEquals(4, qtdLinhas);
+        assertLinhas("linha maior que dois blocos", conteudo, lidas);
+        assertEquals(conteudo.length(), qtdBytes.get());
+    }
+
+    /**
+     * Um arquivo truncado no meio da descompactação é rejeitado, após entregar
+     * apenas linhas completas, todas iguais às do início do arquivo.
+     */
+    @Test
+    void erroNaDescompactacaoInterrompeALeitura() throws IOException {
+        StringBuilder conteudo = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            conteudo.append("linha;").append(i).append(";").append(i * 7919 % 10007).append('\n');
+        }
+        Path completo = compactar(conteudo.toString());
+        byte[] compactado = Files.readAllBytes(completo);
+        Path truncado = pasta.resolve("truncado.csv.gz");
+        Files.write(truncado, Arrays.copyOf(compactado, compactado.length / 2));
+
+        for (int tamanhoBloco : new int[]{7, 4096, LeitorCsvCompactado.TAMANHO_BLOCO}) {
+            List<String[]> lidas = new ArrayList<>();
+            AtomicLong qtdBytes = new AtomicLong(SEM_QTD_BYTES);
+            assertThrows(IOException.class, () -> LeitorCsvCompactado.ler(truncado, tamanhoBloco,
+                    registro -> lidas.add(campos(registro, lidas.size() + 1)), qtdBytes::set));
+
+            assertEquals(SEM_QTD_BYTES, qtdBytes.get());
+            assertTrue(lidas.size() < 20_000);
+            List<String> esperadas = linhas(conteudo.toString());
+            for (int i = 0; i < lidas.size(); i++) {
+                assertArrayEquals(esperado(esperadas.get(i)), lidas.get(i), "linha " + (i + 1));
+            }
+        }
+    }
+
+    @Test
+    void gzVazio() throws IOException {
+        List<String[]> lidas = new ArrayList<>();
+        AtomicLong qtdBytes = new AtomicLong(SEM_QTD_BYTES);
+
+        assertEquals(0, LeitorCsvCompactado.ler(compactar(""), registro -> lidas.add(campos(registro, lidas.size() + 1)), qtdBytes::set));
+        assertEquals(0, lidas.size());
+        assertEquals(0, qtdBytes.get());
+
+        // um arquivo sem nenhum byte não é um arquivo gzip
+        Path semConteudo = Files.createFile(pasta.resolve("vazio.csv.gz"));
+        assertThrows(IOException.class, () -> LeitorCsvCompactado.ler(semConteudo, registro -> lidas.add(campos(registro, lidas.size() + 1))));
+        assertEquals(0, lidas.size());
+    }
+
+    @Test
+    void fimDaUltimaLinhaGuardaOUltimoCr() {
+        assertEquals(2, LeitorCsvCompactado.fimDaUltimaLinha("a\nb".getBytes(Csv.CHARSET), 3));
+        assertEquals(2, LeitorCsvCompactado.fimDaUltimaLinha("a\nb\r".getBytes(Csv.CHARSET), 4));
+        assertEquals(5, LeitorCsvCompactado.fimDaUltimaLinha("a\nb\r\n".getBytes(Csv.CHARSET), 5));
+        assertEquals(4, LeitorCsvCompactado.fimDaUltimaLinha("a\nb\rc".getBytes(Csv.CHARSET), 5));
+        assertEquals(0, LeitorCsvCompactado.fimDaUltimaLinha("\r".getBytes(Csv.CHARSET), 1));
+        assertEquals(0, LeitorCsvCompactado.fimDaUltimaLinha("ab".getBytes(Csv.CHARSET), 2));
+    }
+
+    private Path compactar(String conteudo) throws IOException {
+        Path arquivo = Files.createTempFile(pasta, "leitor", ".csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(arquivo))) {
+            out.write(conteudo.getBytes(Csv.CHARSET));
+        }
+        return arquivo;
+    }
+
+    /**
+     * @return uma linha de {@code tamanho} caracteres com dois campos
+     */
+    private static String linha(int tamanho) {
+        char[] linha = new char[tamanho];
+        Arrays.fill(linha, 'x');
+        linha[tamanho / 2] = ';';
+        return new String(linha);
+    }
+
+    private static List<String> linhas(String conteudo) throws IOException {
+        List<String> linhas = new ArrayList<>();
+        try (BufferedReader leitor = new BufferedReader(new StringReader(conteudo))) {
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                linhas.add(linha);
+            }
+        }
+        return linhas;
+    }
+
+    private static String[] esperado(String linha) {
+        String[] campos = linha.split(";");
+        String[] esperado = new String[campos.length + 1];
+        esperado[0] = linha;
+        System.arraycopy(campos, 0, esperado, 1, campos.length);
+        return esperado;
+    }
+}
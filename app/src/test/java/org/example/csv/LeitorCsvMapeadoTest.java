@@ -0,0 +1,235 @@
+package org.example.csv;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Compara as linhas e os campos entregues pelo {@link LeitorCsvMapeado} com
+ * os de {@link BufferedReader#readLine()} seguido de {@code String.split(";")},
+ * a leitura que ele substituiu.
+ *
+ * @author luisg
+ */
+class LeitorCsvMapeadoTest {
+
+    static final String[] CONTEUDOS = {
+        "a;b;c\nd;e;f\n",
+        "a;b;c\rd;e;f\r",
+        "a;b;c\r\nd;e;f\r\n",
+        "a;b\r\nc;d\ne;f\rg;h\r\n",
+        "a;b;;\n;;c\n;;;\nd\n",
+        "a;b\n\nc;d\r\n\r\n\re;f\n",
+        "a;b\nc;d",
+        "a;b\r\nc;d;",
+        "a;b\rc\r",
+        ";",
+        "",};
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void lerEquivaleAReadLineESplit() throws IOException {
+        for (String conteudo : CONTEUDOS) {
+            Path arquivo = escrever(conteudo);
+            List<String[]> lidas = new ArrayList<>();
+            int qtdLinhas = LeitorCsvMapeado.ler(arquivo, registro -> lidas.add(campos(registro, lidas.size() + 1)));
+
+            assertLinhas(conteudo, lidas);
+            assertEquals(lidas.size(), qtdLinhas, descrever(conteudo));
+        }
+    }
+
+    @Test
+    void janelasPequenasNaoSeparamTerminadores() throws IOException {
+        for (String conteudo : CONTEUDOS) {
+            Path arquivo = escrever(conteudo);
+            // a menor janela que comporta a maior linha com o seu terminador e mais um byte
+            for (int janela = maiorLinha(conteudo) + 3; janela <= conteudo.length() + 1; janela++) {
+                List<String[]> lidas = new ArrayList<>();
+                LeitorCsvMapeado.ler(arquivo, janela, registro -> lidas.add(campos(registro, lidas.size() + 1)));
+
+                assertLinhas(conteudo + " (janela de " + janela + " bytes)", conteudo, lidas);
+            }
+        }
+    }
+
+    @Test
+    void lerEmPartesEquivaleALeituraSequencial() throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (String conteudo : CONTEUDOS) {
+                Path arquivo = escrever(conteudo);
+                for (int tamanhoMinimo = 1; tamanhoMinimo <= conteudo.length() + 1; tamanhoMinimo++) {
+                    List<List<String[]>> partes = new ArrayList<>();
+                    int qtdLinhas = LeitorCsvMapeado.lerEmPartes(arquivo, pool, tamanhoMinimo, ArrayList::new,
+                            (parte, registro) -> parte.add(campos(registro, registro.getEndereco())), partes);
+                    List<String[]> lidas = new ArrayList<>();
+                    for (List<String[]> parte : partes) {
+                        lidas.addAll(parte);
+                    }
+
+                    assertLinhas(conteudo + " (partes de " + tamanhoMinimo + " bytes)", conteudo, lidas);
+                    assertEquals(lidas.size(), qtdLinhas, descrever(conteudo));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void contarLinhasEquivaleALerIntervalo() {
+        for (String conteudo : CONTEUDOS) {
+            ByteBuffer buffer = ByteBuffer.wrap(conteudo.getBytes(Csv.CHARSET));
+            int qtdLinhas = LeitorCsvMapeado.lerIntervalo(buffer, 0, buffer.limit(), 0, new RegistroCsv(), registro -> {
+            });
+
+            assertEquals(qtdLinhas, LeitorCsvMapeado.contarLinhas(buffer, 0, buffer.limit()), descrever(conteudo));
+        }
+    }
+
+    @Test
+    void fimDaUltimaLinhaConsideraApenasQuebrasDeLinha() throws IOException {
+        assertEquals(2, LeitorCsvMapeado.fimDaUltimaLinha(escrever("a\nb"), 0, Long.MAX_VALUE));
+        assertEquals(4, LeitorCsvMapeado.fimDaUltimaLinha(escrever("a\nb\n"), 0, Long.MAX_VALUE));
+        assertEquals(6, LeitorCsvMapeado.fimDaUltimaLinha(escrever("a\r\nb\r\n"), 0, 6));
+        // um \r no fim do trecho ainda pode ser seguido por \n
+        assertEquals(3, LeitorCsvMapeado.fimDaUltimaLinha(escrever("a\r\nb\r\n"), 0, 5));
+        assertEquals(3, LeitorCsvMapeado.fimDaUltimaLinha(escrever("a\r\nb\r"), 0, Long.MAX_VALUE));
+        assertEquals(0, LeitorCsvMapeado.fimDaUltimaLinha(escrever("ab"), 0, Long.MAX_VALUE));
+        assertEquals(3, LeitorCsvMapeado.fimDaUltimaLinha(escrever("a\nbc"), 3, Long.MAX_VALUE));
+        assertEquals(0, LeitorCsvMapeado.fimDaUltimaLinha(escrever(""), 0, Long.MAX_VALUE));
+
+        // a última quebra de linha está alguns blocos antes do fim
+        char[] longa = new char[200_000];
+        Arrays.fill(longa, 'x');
+        assertEquals(4, LeitorCsvMapeado.fimDaUltimaLinha(escrever("a;b\n" + new String(longa)), 0, Long.MAX_VALUE));
+    }
+
+    /**
+     * Lê um arquivo que recebe linhas novas como a verificação incremental:
+     * até o fim da última linha completa, retomando na leitura seguinte a
+     * partir dessa posição e do último número de linha.
+     */
+    @Test
+    void leituraRetomadaEquivaleALeituraCompleta() throws IOException {
+        String[][] gravacoes = {
+            {"a;b\nc;d\ne;", "f\ng;h\n", "i;j"},
+            {"a;b\r\nc;d\r", "\ne;f\r\n"},
+            {"a;b", "\n", "c;d\n"},
+            {"", "a;b\n"},};
+        for (String[] gravacao : gravacoes) {
+            Path arquivo = escrever("");
+            List<String[]> lidas = new ArrayList<>();
+            List<String[]> lidasEmPartes = new ArrayList<>();
+            long posicao = 0;
+            int endereco = 0;
+            long posicaoEmPartes = 0;
+            int enderecoEmPartes = 0;
+            StringBuilder conteudo = new StringBuilder();
+            for (String trecho : gravacao) {
+                Files.write(arquivo, trecho.getBytes(Csv.CHARSET), StandardOpenOption.APPEND);
+                conteudo.append(trecho);
+
+                long fimLinhas = LeitorCsvMapeado.fimDaUltimaLinha(arquivo, posicao, Long.MAX_VALUE);
+                endereco = LeitorCsvMapeado.ler(arquivo, posicao, fimLinhas, endereco, registro -> lidas.add(campos(registro, lidas.size() + 1)));
+                posicao = fimLinhas;
+
+                fimLinhas = LeitorCsvMapeado.fimDaUltimaLinha(arquivo, posicaoEmPartes, Long.MAX_VALUE);
+                List<List<String[]>> partes = new ArrayList<>();
+                enderecoEmPartes = LeitorCsvMapeado.lerEmPartes(arquivo, posicaoEmPartes, fimLinhas, enderecoEmPartes, ForkJoinPool.commonPool(), 1,
+                        ArrayList::new, (parte, registro) -> parte.add(campos(registro, registro.getEndereco())), partes);
+                for (List<String[]> parte : partes) {
+                    lidasEmPartes.addAll(parte);
+                }
+                posicaoEmPartes = fimLinhas;
+            }
+            // a última linha, ainda sem terminador, é lida até o fim do arquivo
+            endereco = LeitorCsvMapeado.ler(arquivo, posicao, Long.MAX_VALUE, endereco, registro -> lidas.add(campos(registro, lidas.size() + 1)));
+            enderecoEmPartes = LeitorCsvMapeado.ler(arquivo, posicaoEmPartes, Long.MAX_VALUE, enderecoEmPartes,
+                    registro -> lidasEmPartes.add(campos(registro, registro.getEndereco())));
+
+            assertLinhas(conteudo.toString(), lidas);
+            assertLinhas(conteudo + " (em partes)", conteudo.toString(), lidasEmPartes);
+            assertEquals(lidas.size(), endereco, descrever(conteudo.toString()));
+            assertEquals(lidas.size(), enderecoEmPartes, descrever(conteudo.toString()));
+        }
+    }
+
+    private Path escrever(String conteudo) throws IOException {
+        Path arquivo = Files.createTempFile(pasta, "leitor", ".csv");
+        Files.write(arquivo, conteudo.getBytes(Csv.CHARSET));
+        return arquivo;
+    }
+
+    /**
+     * Extrai do registro o conteúdo e os campos da linha, conferindo o número
+     * da linha e a coerência entre a quantidade de campos e
+     * {@link RegistroCsv#getCampo(int)}.
+     *
+     * @return o conteúdo da linha seguido dos seus campos
+     */
+    static String[] campos(RegistroCsv registro, int endereco) {
+        assertEquals(endereco, registro.getEndereco(), registro.getConteudo());
+        String[] campos = new String[registro.getQtdCampos() + 1];
+        campos[0] = registro.getConteudo();
+        for (int i = 0; i < registro.getQtdCampos(); i++) {
+            campos[i + 1] = registro.getCampo(i);
+            assertEquals(campos[i + 1].isEmpty(), registro.campoVazio(i), registro.getConteudo());
+        }
+        return campos;
+    }
+
+    private static void assertLinhas(String conteudo, List<String[]> lidas) throws IOException {
+        assertLinhas(conteudo, conteudo, lidas);
+    }
+
+    static void assertLinhas(String descricao, String conteudo, List<String[]> lidas) throws IOException {
+        List<String> esperadas = new ArrayList<>();
+        try (BufferedReader leitor = new BufferedReader(new StringReader(conteudo))) {
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                esperadas.add(linha);
+            }
+        }
+
+        assertEquals(esperadas.size(), lidas.size(), descrever(descricao));
+        for (int i = 0; i < esperadas.size(); i++) {
+            String linha = esperadas.get(i);
+            String[] campos = linha.split(";");
+            String[] esperado = new String[campos.length + 1];
+            esperado[0] = linha;
+            System.arraycopy(campos, 0, esperado, 1, campos.length);
+
+            assertArrayEquals(esperado, lidas.get(i), descrever(descricao) + ", linha " + (i + 1));
+        }
+    }
+
+    private static int maiorLinha(String conteudo) {
+        int maior = 0;
+        for (String linha : conteudo.split("\r\n|\r|\n")) {
+            maior = Math.max(maior, linha.length());
+        }
+        return maior;
+    }
+
+    static String descrever(String conteudo) {
+        return "\"" + conteudo.replace("\r", "\\r").replace("\n", "\\n") + "\"";
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.csv;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.time.temporal.TemporalQuery;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compara as datas e os horários lidos por {@link LeitorDataHora} com os de
+ * {@link LocalTime} e {@link LocalDate} em modo estrito, a leitura que ele
+ * substituiu.
+ *
+ * @author luisg
+ */
+class LeitorDataHoraTest {
+
+    private static final DateTimeFormatter HORA = formato("HH:mm:ss");
+    private static final DateTimeFormatter DIA_MES_ANO = formato("dd/MM/uuuu");
+    private static final DateTimeFormatter ANO_MES_DIA = formato("uuuu-MM-dd");
+    private static final DateTimeFormatter TIMESTAMP = formato("uuuu-MM-ddHH:mm:ss");
+
+    /**
+     * Caracteres usados nas alterações: dígitos, separadores e os vizinhos de
+     * '0' e '9' na tabela ASCII.
+     */
+    private static final String ALFABETO = "0123456789:/-/:; x";
+
+    private static final int QTD_ALTERACOES = 50_000;
+
+    @Test
+    void horariosForaDoDiaSaoInvalidos() {
+        String[] horarios = {"00:00:00", "23:59:59", "24:00:00", "23:59:60", "23:60:00", "99:00:00", "12:34:56"};
+        for (String horario : horarios) {
+            assertHora(horario);
+        }
+        assertEquals(LeitorDataHora.INVALIDO, LeitorDataHora.segundoDoDia("24:00:00", 0, 8));
+        assertEquals(LeitorDataHora.INVALIDO, LeitorDataHora.segundoDoDia("23:59:60", 0, 8));
+        assertEquals(86399, LeitorDataHora.segundoDoDia("23:59:59", 0, 8));
+        assertEquals(1439, LeitorDataHora.minutoDoDia("23:59:59", 0, 8));
+        assertEquals(LeitorDataHora.INVALIDO, LeitorDataHora.minutoDoDia("24:00:00", 0, 8));
+    }
+
+    @Test
+    void datasDevemExistirNoCalendario() {
+        String[] datas = {"29/02/2023", "29/02/2024", "29/02/1900", "29/02/2000", "31/04/2024", "31/12/2024",
+            "00/01/2024", "01/00/2024", "01/13/2024", "32/01/2024", "01/01/0000", "31/12/9999"};
+        for (String data : datas) {
+            assertDiaMesAno(data);
+            String iso = data.substring(6) + "-" + data.substring(3, 5) + "-" + data.substring(0, 2);
+            assertAnoMesDia(iso);
+            assertTimestamp(iso + "12:00:00");
+        }
+        assertEquals(LeitorDataHora.DIA_INVALIDO, LeitorDataHora.diaEpochDiaMesAno("29/02/2023", 0, 10));
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), LeitorDataHora.diaEpochDiaMesAno("29/02/2024", 0, 10));
+    }
+
+    @Test
+    void diaEpochEquivaleALocalDate() {
+        for (LocalDate dia = LocalDate.of(1600, 1, 1); dia.getYear() < 2400; dia = dia.plusDays(1)) {
+            assertEquals(dia.toEpochDay(), LeitorDataHora.diaEpoch(dia.getYear(), dia.getMonthValue(), dia.getDayOfMonth()), dia.toString());
+        }
+    }
+
+    @Test
+    void caracteresQueNaoSaoDigitosSaoInvalidos() {
+        String[] horarios = {"1a:00:00", "12:/0:00", "12:00:0:", "12-00-00", "12:00:00 ", " 12:00:00", "１２:00:00"};
+        for (String horario : horarios) {
+            assertHora(horario);
+        }
+        String[] datas = {"0a/06/2024", "01/0:/2024", "01/06/20/4", "01-06-2024", "01/06/2024 ", "2024/06/01"};
+        for (String data : datas) {
+            assertDiaMesAno(data);
+        }
+        String[] datasIso = {"2024-0:-01", "2/24-06-01", "2024/06/01", "2024-06-01 "};
+        for (String data : datasIso) {
+            assertAnoMesDia(data);
+        }
+    }
+
+    @Test
+    void tamanhoIncorretoEhInvalido() {
+        String[] horarios = {"", "1", "12:00", "12:00:0", "12:00:000", "2:00:00"};
+        for (String horario : horarios) {
+            assertHora(horario);
+        }
+        String[] datas = {"", "1/06/2024", "01/6/2024", "01/06/24", "01/06/20245"};
+        for (String data : datas) {
+            assertDiaMesAno(data);
+        }
+        String[] timestamps = {"", "2024-06-01", "2024-06-0112:00", "2024-06-0112:00:000", "2024-06-01 12:00:00"};
+        for (String timestamp : timestamps) {
+            assertTimestamp(timestamp);
+        }
+    }
+
+    @Test
+    void valoresAlteradosEquivalemAoJavaTime() {
+        Random aleatorio = new Random(7);
+        for (int i = 0; i < QTD_ALTERACOES; i++) {
+            assertHora(alterar("12:34:56", aleatorio));
+            assertHora(alterar("23:59:59", aleatorio));
+            assertDiaMesAno(alterar("29/02/2024", aleatorio));
+            assertDiaMesAno(alterar("31/12/1999", aleatorio));
+            assertAnoMesDia(alterar("2024-02-29", aleatorio));
+            assertTimestamp(alterar("2024-06-0123:59:59", aleatorio));
+        }
+    }
+
+    /**
+     * Confere a leitura do valor isolado e no meio de uma linha.
+     */
+    private static void assertHora(String horario) {
+        LocalTime esperado = ler(horario, HORA, LocalTime::from);
+        int segundo = esperado == null ? LeitorDataHora.INVALIDO : esperado.toSecondOfDay();
+        assertEquals(segundo, LeitorDataHora.segundoDoDia(horario, 0, horario.length()), horario);
+        assertEquals(segundo, LeitorDataHora.segundoDoDia(";" + horario + ";", 1, horario.length() + 1), horario);
+    }
+
+    private static void assertDiaMesAno(String data) {
+        assertEquals(diaEpoch(data, DIA_MES_ANO), LeitorDataHora.diaEpochDiaMesAno(data, 0, data.length()), data);
+        assertEquals(diaEpoch(data, DIA_MES_ANO), LeitorDataHora.diaEpochDiaMesAno(";" + data + ";", 1, data.length() + 1), data);
+    }
+
+    private static void assertAnoMesDia(String data) {
+        assertEquals(diaEpoch(data, ANO_MES_DIA), LeitorDataHora.diaEpochAnoMesDia(data, 0, data.length()), data);
+        assertEquals(diaEpoch(data, ANO_MES_DIA), LeitorDataHora.diaEpochAnoMesDia(";" + data + ";", 1, data.length() + 1), data);
+    }
+
+    private static void assertTimestamp(String timestamp) {
+        LocalDateTime esperado = ler(timestamp, TIMESTAMP, LocalDateTime::from);
+        long segundo = esperado == null ? LeitorDataHora.DIA_INVALIDO : esperado.toEpochSecond(ZoneOffset.UTC);
+        assertEquals(segundo, LeitorDataHora.segundoEpoch(timestamp, 0, timestamp.length()), timestamp);
+        assertEquals(segundo, LeitorDataHora.segundoEpoch(";" + timestamp + ";", 1, timestamp.length() + 1), timestamp);
+    }
+
+    private static long diaEpoch(String data, DateTimeFormatter formato) {
+        LocalDate dia = ler(data, formato, LocalDate::from);
+        return dia == null ? LeitorDataHora.DIA_INVALIDO : dia.toEpochDay();
+    }
+
+    /**
+     * @return o valor lido, ou null se o texto não estiver no formato ou o
+     * valor não existir
+     */
+    private static <T> T ler(String texto, DateTimeFormatter formato, TemporalQuery<T> consulta) {
+        try {
+            return formato.parse(texto, consulta);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String alterar(String valor, Random aleatorio) {
+        char[] alterado = valor.toCharArray();
+        int qtdAlteracoes = 1 + aleatorio.nextInt(2);
+        for (int i = 0; i < qtdAlteracoes; i++) {
+            alterado[aleatorio.nextInt(alterado.length)] = ALFABETO.charAt(aleatorio.nextInt(ALFABETO.length()));
+        }
+        return new String(alterado);
+    }
+
+    private static DateTimeFormatter formato(String padrao) {
+        return DateTimeFormatter.ofPattern(padrao).withResolverStyle(ResolverStyle.STRICT);
+    }
+}
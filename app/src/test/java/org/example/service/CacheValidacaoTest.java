@@ -0,0 +1,219 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Properties;
+import java.util.function.UnaryOperator;
+
+import org.example.csv.Csv;
+import org.example.model.ArquivoCSV;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Regras de invalidação do {@link CacheValidacao}.
+ *
+ * <p>
+ * O cache de cada pasta é carregado do disco uma única vez. Os testes que
+ * alteram uma entrada gravada copiam o arquivo, o relatório e o cache
+ * alterado para uma pasta nova, cujo cache ainda não foi carregado.</p>
+ *
+ * @author luisg
+ */
+class CacheValidacaoTest {
+
+    private static final String NOME = "20240601_sect_config.csv";
+    private static final String LINHA = "7;01/06/2024;00:00:00;\"4.6.3\";\"CTR07\";\"ASS07\";\"S10\";4;3;3;2;S09,S10,S11";
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void resultadoValidadoEhReaproveitado() throws IOException {
+        Path arquivo = validar("a", true);
+
+        assertTrue(CacheValidacao.consultar(arquivo, true).isValida());
+        ResultadoValidacao resultado = ValidadorArquivos.validarArquivo(new ArquivoCSV(arquivo), true);
+        assertTrue(resultado.isDoCache());
+        assertEquals(StatusArquivo.VALIDADO, resultado.getStatus());
+        assertEquals(3, resultado.getQtdLinhas());
+    }
+
+    @Test
+    void outraOpcaoDetalharInvalidaAEntrada() throws IOException {
+        Path arquivo = validar("a", true);
+
+        assertFalse(CacheValidacao.consultar(arquivo, false).isValida());
+        assertTrue(CacheValidacao.consultar(arquivo, true).isValida());
+    }
+
+    /**
+     * A versão registrada reúne a versão do validador, o limite de
+     * ocorrências por seção, o rodapé de tempos e a gravação de snapshots;
+     * qualquer diferença descarta a entrada.
+     */
+    @Test
+    void outraVersaoLimiteOuRodapeInvalidaAEntrada() throws IOException {
+        Path arquivo = validar("a", true);
+        String[] versoes = {
+            CacheValidacao.VERSAO.replaceFirst("^" + ValidadorArquivos.VERSAO_VALIDADOR + "\\.", "0."),
+            CacheValidacao.VERSAO.replaceFirst("\\." + Ocorrencias.LIMITE, "." + (Ocorrencias.LIMITE + 1)),
+            Planilha.RODAPE_TEMPOS ? CacheValidacao.VERSAO.replace(".tempos", "") : CacheValidacao.VERSAO + ".tempos",};
+
+        for (int i = 0; i < versoes.length; i++) {
+            assertNotEquals(CacheValidacao.VERSAO, versoes[i]);
+            Path copia = copiar(arquivo, "versao" + i);
+            String versao = versoes[i];
+            alterarEntrada(copia, entrada -> versao + entrada.substring(entrada.indexOf(';')));
+
+            assertFalse(CacheValidacao.consultar(copia, true).isValida(), versao);
+        }
+
+        // a mesma cópia, com a versão atual, é reaproveitada
+        Path copia = copiar(arquivo, "atual");
+        assertTrue(CacheValidacao.consultar(copia, true).isValida());
+    }
+
+    @Test
+    void relatorioRemovidoInvalidaAEntrada() throws IOException {
+        Path arquivo = validar("a", true);
+        Files.delete(Planilha.getOutputPath(arquivo));
+
+        assertFalse(CacheValidacao.consultar(arquivo, true).isValida());
+    }
+
+    /**
+     * Com o mesmo tamanho e a mesma data de modificação o hash registrado é
+     * reaproveitado sem ler o arquivo, de modo que um conteúdo alterado sem
+     * alterar esses atributos não é percebido.
+     */
+    @Test
+    void mesmoTamanhoEDataNaoLeemOArquivo() throws IOException {
+        Path arquivo = validar("a", true);
+        FileTime modificado = Files.getLastModifiedTime(arquivo);
+        long tamanho = Files.size(arquivo);
+        escrever(arquivo, LINHA.replace("CTR07", "CTR08"), LINHA.replace("00:00:00", "00:01:00"));
+        Files.setLastModifiedTime(arquivo, modificado);
+        assertEquals(tamanho, Files.size(arquivo));
+
+        assertTrue(CacheValidacao.consultar(arquivo, true).isValida());
+    }
+
+    @Test
+    void outraDataComOMesmoConteudoEhReaproveitadaPeloHash() throws IOException {
+        Path arquivo = validar("a", true);
+        FileTime modificado = FileTime.fromMillis(Files.getLastModifiedTime(arquivo).toMillis() + 60_000);
+        Files.setLastModifiedTime(arquivo, modificado);
+
+        assertTrue(CacheValidacao.consultar(arquivo, true).isValida());
+        // a entrada passa a registrar a nova data
+        assertTrue(lerEntrada(arquivo).contains(";" + modificado.toMillis() + ";"), lerEntrada(arquivo));
+    }
+
+    @Test
+    void outroConteudoInvalidaAEntrada() throws IOException {
+        Path arquivo = validar("a", true);
+        FileTime modificado = FileTime.fromMillis(Files.getLastModifiedTime(arquivo).toMillis() + 60_000);
+        escrever(arquivo, LINHA.replace("CTR07", "CTR08"), LINHA.replace("00:00:00", "00:01:00"));
+        Files.setLastModifiedTime(arquivo, modificado);
+
+        assertFalse(CacheValidacao.consultar(arquivo, true).isValida());
+
+        escrever(arquivo, LINHA);
+        assertFalse(CacheValidacao.consultar(arquivo, true).isValida());
+    }
+
+    @Test
+    void resultadoNaoValidadoRemoveAEntrada() throws IOException {
+        Path arquivo = validar("a", true);
+        CacheValidacao.Consulta consulta = CacheValidacao.consultar(arquivo, true);
+        assertTrue(consulta.isValida());
+
+        CacheValidacao.registrar(consulta, ResultadoValidacao.semLeitura(StatusArquivo.ERRO));
+
+        assertNull(lerEntrada(arquivo));
+        assertFalse(CacheValidacao.consultar(arquivo, true).isValida());
+    }
+
+    @Test
+    void invalidarRemoveAEntrada() throws IOException {
+        Path arquivo = validar("a", true);
+        CacheValidacao.invalidar(arquivo);
+
+        assertNull(lerEntrada(arquivo));
+        assertFalse(CacheValidacao.consultar(arquivo, true).isValida());
+    }
+
+    /**
+     * Cria a planilha na subpasta informada e a valida, registrando o
+     * resultado no cache.
+     */
+    private Path validar(String subpasta, boolean detalhar) throws IOException {
+        Path arquivo = pasta.resolve(subpasta).resolve(NOME);
+        Files.createDirectories(arquivo.getParent());
+        escrever(arquivo, LINHA, LINHA.replace("00:00:00", "00:01:00"));
+
+        ResultadoValidacao resultado = ValidadorArquivos.validarArquivo(new ArquivoCSV(arquivo), detalhar);
+        assertEquals(StatusArquivo.VALIDADO, resultado.getStatus());
+        assertFalse(resultado.isDoCache());
+        return arquivo;
+    }
+
+    private static void escrever(Path arquivo, String... linhas) throws IOException {
+        StringBuilder conteudo = new StringBuilder(PlanilhaSectConfig.CABECALHO).append('\n');
+        for (String linha : linhas) {
+            conteudo.append(linha).append('\n');
+        }
+        Files.write(arquivo, conteudo.toString().getBytes(Csv.CHARSET));
+    }
+
+    /**
+     * Copia o arquivo, o relatório e o cache para uma pasta nova, preservando
+     * a data de modificação do arquivo.
+     */
+    private Path copiar(Path arquivo, String subpasta) throws IOException {
+        Path copia = pasta.resolve(subpasta).resolve(NOME);
+        Files.createDirectories(Planilha.getPastaRelatorios(copia));
+        Files.copy(arquivo, copia, StandardCopyOption.COPY_ATTRIBUTES);
+        Files.copy(Planilha.getOutputPath(arquivo), Planilha.getOutputPath(copia));
+        Files.copy(arquivoCache(arquivo), arquivoCache(copia));
+        return copia;
+    }
+
+    private static void alterarEntrada(Path arquivo, UnaryOperator<String> alteracao) throws IOException {
+        Properties cache = lerCache(arquivo);
+        cache.setProperty(NOME, alteracao.apply(cache.getProperty(NOME)));
+        try (OutputStream out = Files.newOutputStream(arquivoCache(arquivo))) {
+            cache.store(out, null);
+        }
+    }
+
+    private static String lerEntrada(Path arquivo) throws IOException {
+        return lerCache(arquivo).getProperty(NOME);
+    }
+
+    private static Properties lerCache(Path arquivo) throws IOException {
+        Properties cache = new Properties();
+        try (InputStream in = Files.newInputStream(arquivoCache(arquivo))) {
+            cache.load(in);
+        }
+        return cache;
+    }
+
+    private static Path arquivoCache(Path arquivo) {
+        return Planilha.getPastaRelatorios(arquivo).resolve(CacheValidacao.NOME_ARQUIVO);
+    }
+}
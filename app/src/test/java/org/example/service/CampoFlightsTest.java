@@ -0,0 +1,199 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.example.csv.Csv;
+import org.example.csv.LeitorCsvMapeado;
+import org.example.csv.RegistroCsv;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compara cada regra de {@link CampoFlights} com a expressão regular que ela
+ * substituiu e que está documentada na respectiva constante.
+ *
+ * @author luisg
+ */
+class CampoFlightsTest {
+
+    private static final Map<CampoFlights, Pattern> EXPRESSOES = new EnumMap<>(CampoFlights.class);
+
+    static {
+        EXPRESSOES.put(CampoFlights.DATA, Pattern.compile("^\\d{4}-(0[1-9]|1[0-2])-(0[1-9]|[1-2][0-9]|3[0-1])$"));
+        EXPRESSOES.put(CampoFlights.HORA, Pattern.compile("^(0[0-9]|1[0-9]|2[0-3]):([0-5][0-9]):([0-5][0-9])$"));
+        EXPRESSOES.put(CampoFlights.CONFIG_ID, Pattern.compile("^\"([2-9]|1[0-8]).[0-9]{1,5}.([0-9]|1[0-8])\"$"));
+        EXPRESSOES.put(CampoFlights.SECT_CONFIG, Pattern.compile(".*"));
+        EXPRESSOES.put(CampoFlights.CTR, Pattern.compile("^\"CTR([0-1][0-9]|2[0-1])\"$"));
+        EXPRESSOES.put(CampoFlights.ASS, Pattern.compile("^\"(ASS([0-1][0-9]|2[0-1])|)\"$"));
+        EXPRESSOES.put(CampoFlights.SECTOR, Pattern.compile("^\"(S0[1-9]|S1[0-8]|S6F|18F)\"$"));
+        EXPRESSOES.put(CampoFlights.QTD_SECTORS, Pattern.compile("^([1-9]|1[0-8])$"));
+        EXPRESSOES.put(CampoFlights.QTD_ASS, Pattern.compile("^([0-9]|1[0-8])$"));
+        EXPRESSOES.put(CampoFlights.CALLSIGN, Pattern.compile("^([a-zA-Z0-9]{4,7})$"));
+        EXPRESSOES.put(CampoFlights.ADEP, Pattern.compile("^([A-Z]{2}[A-Z0-9]{2})$"));
+        EXPRESSOES.put(CampoFlights.ADES, Pattern.compile("^([A-Z]{2}[A-Z0-9]{2})$"));
+        EXPRESSOES.put(CampoFlights.DOF, Pattern.compile("^([0-9]{6})$"));
+        EXPRESSOES.put(CampoFlights.EOBT, Pattern.compile("^([0-1][0-9]|2[0-3])[0-5][0-9]$"));
+        EXPRESSOES.put(CampoFlights.SSR, Pattern.compile("^A[0-7]{4}$"));
+        EXPRESSOES.put(CampoFlights.FLRUL, Pattern.compile("^([IVYZ])$"));
+    }
+
+    /**
+     * Valores válidos de cada campo, usados como ponto de partida das
+     * mutações.
+     */
+    private static final Map<CampoFlights, String[]> VALIDOS = new EnumMap<>(CampoFlights.class);
+
+    static {
+        VALIDOS.put(CampoFlights.DATA, new String[]{"2024-06-01", "2024-02-29", "1999-12-31"});
+        VALIDOS.put(CampoFlights.HORA, new String[]{"00:00:00", "23:59:59", "12:34:56"});
+        VALIDOS.put(CampoFlights.CONFIG_ID, new String[]{"\"4.6.3\"", "\"12.345.18\"", "\"2x1.15\"", "\"9.12345.0\""});
+        VALIDOS.put(CampoFlights.SECT_CONFIG, new String[]{"S09,S10|S11", "x"});
+        VALIDOS.put(CampoFlights.CTR, new String[]{"\"CTR07\"", "\"CTR21\""});
+        VALIDOS.put(CampoFlights.ASS, new String[]{"\"ASS07\"", "\"\""});
+        VALIDOS.put(CampoFlights.SECTOR, new String[]{"\"S6F\"", "\"18F\"", "\"S01\"", "\"S18\""});
+        VALIDOS.put(CampoFlights.QTD_SECTORS, new String[]{"1", "18"});
+        VALIDOS.put(CampoFlights.QTD_ASS, new String[]{"0", "18"});
+        VALIDOS.put(CampoFlights.CALLSIGN, new String[]{"TAM3054", "GLO1"});
+        VALIDOS.put(CampoFlights.ADEP, new String[]{"SBGR", "SB01"});
+        VALIDOS.put(CampoFlights.ADES, new String[]{"SBCT", "SBZ9"});
+        VALIDOS.put(CampoFlights.DOF, new String[]{"240601"});
+        VALIDOS.put(CampoFlights.EOBT, new String[]{"2359", "0000"});
+        VALIDOS.put(CampoFlights.SSR, new String[]{"A1234", "A7777"});
+        VALIDOS.put(CampoFlights.FLRUL, new String[]{"I", "Z"});
+    }
+
+    /**
+     * Caracteres usados nas mutações: os que aparecem nos campos, os limites
+     * de cada intervalo das expressões e os terminadores de linha que
+     * {@code .} não aceita.
+     */
+    private static final String ALFABETO = "0123456789:-.\"xAZaz@[`{SCTRFIVYZ/\n\r\u0085\u2028\u2029 ";
+
+    private static final DateTimeFormatter DATA_ESTRITA = DateTimeFormatter.ofPattern("uuuu-MM-dd")
+            .withResolverStyle(ResolverStyle.STRICT);
+
+    private static final int QTD_MUTACOES = 20_000;
+
+    @Test
+    void configIdEquivaleAExpressaoComRetrocesso() {
+        String[] valores = {
+            "\"12.3.4\"", "\"2x1.15\"", "\"2.1231\"", "\"2.11\"", "\"2.1.1\"", "\"2.1.10\"", "\"2.1.18\"", "\"2.1.19\"",
+            "\"2.1.1x\"", "\"2.12345.18\"", "\"2.123456.1\"", "\"2.12345.1\"", "\"19.1.1\"", "\"1.1.1\"", "\"10.1.1\"",
+            "\"2.1\n1\"", "\"2\r1.1\"", "\"2..1\"", "\"2.1..1\"", "\"2.11.\"", "\"\"", "\"2\"", "2.1.1", "\"2.1.1",};
+        for (String valor : valores) {
+            assertEquivalente(CampoFlights.CONFIG_ID, valor);
+        }
+    }
+
+    @Test
+    void regrasEquivalemAsExpressoesEmValoresAlterados() {
+        Random aleatorio = new Random(42);
+        for (CampoFlights campo : CampoFlights.values()) {
+            for (String valido : VALIDOS.get(campo)) {
+                assertEquivalente(campo, valido);
+                for (int i = 0; i < QTD_MUTACOES; i++) {
+                    assertEquivalente(campo, alterar(valido, aleatorio));
+                }
+            }
+        }
+    }
+
+    @Test
+    void dataTambemDeveExistirNoCalendario() {
+        String[] datas = {"2024-02-29", "2023-02-29", "2024-04-31", "2024-06-31", "2100-02-29", "2000-02-29", "0000-01-01"};
+        for (String data : datas) {
+            assertEquivalente(CampoFlights.DATA, data);
+        }
+    }
+
+    @Test
+    void eobtVazioEhPermitido() {
+        assertTrue(CampoFlights.EOBT.permiteVazio());
+        for (CampoFlights campo : CampoFlights.values()) {
+            assertEquals(campo == CampoFlights.EOBT, campo.permiteVazio(), campo.name());
+        }
+
+        assertNull(validarLinha("2024-06-0112:00:00;\"4.6.3\";S09;\"CTR07\";\"ASS07\";\"S09\";3;1;TAM3054;SBGR;SBCT;240601;;A1234;I;"));
+    }
+
+    @Test
+    void timestampCurtoNaoInterrompeAValidacao() {
+        assertEquals("|Data: 2024-06-0||Hora: campo vazio|",
+                validarLinha("2024-06-0;\"4.6.3\";S09;\"CTR07\";\"ASS07\";\"S09\";3;1;TAM3054;SBGR;SBCT;240601;2359;A1234;I;"));
+        assertEquals("|Hora: 12:00|",
+                validarLinha("2024-06-0112:00;\"4.6.3\";S09;\"CTR07\";\"ASS07\";\"S09\";3;1;TAM3054;SBGR;SBCT;240601;2359;A1234;I;"));
+    }
+
+    /**
+     * Confere a regra com a expressão regular. A data também é conferida
+     * com {@link LocalDate} em modo estrito, pois a regra rejeita datas que
+     * não existem no calendário.
+     */
+    private static void assertEquivalente(CampoFlights campo, String valor) {
+        if (valor.isEmpty()) {
+            return;
+        }
+        boolean esperado = EXPRESSOES.get(campo).matcher(valor).matches();
+        if (esperado && campo == CampoFlights.DATA) {
+            try {
+                LocalDate.parse(valor, DATA_ESTRITA);
+            } catch (DateTimeParseException e) {
+                esperado = false;
+            }
+        }
+        assertEquals(esperado, campo.aceita(valor, 0, valor.length()), () -> campo + " " + descrever(valor));
+        // o mesmo trecho no meio de uma linha
+        String linha = ";" + valor + ";";
+        assertEquals(esperado, campo.aceita(linha, 1, linha.length() - 1), () -> campo + " " + descrever(linha));
+    }
+
+    private static String alterar(String valor, Random aleatorio) {
+        StringBuilder alterado = new StringBuilder(valor);
+        int qtdAlteracoes = 1 + aleatorio.nextInt(3);
+        for (int i = 0; i < qtdAlteracoes; i++) {
+            char c = ALFABETO.charAt(aleatorio.nextInt(ALFABETO.length()));
+            int posicao = aleatorio.nextInt(alterado.length() + 1);
+            switch (aleatorio.nextInt(3)) {
+                case 0:
+                    alterado.insert(posicao, c);
+                    break;
+                case 1:
+                    if (posicao < alterado.length()) {
+                        alterado.deleteCharAt(posicao);
+                    }
+                    break;
+                default:
+                    if (posicao < alterado.length()) {
+                        alterado.setCharAt(posicao, c);
+                    }
+                    break;
+            }
+        }
+        return alterado.toString();
+    }
+
+    private static String validarLinha(String linha) {
+        ByteBuffer buffer = ByteBuffer.wrap((linha + "\n").getBytes(Csv.CHARSET));
+        List<String> erros = new ArrayList<>();
+        LeitorCsvMapeado.lerIntervalo(buffer, 0, buffer.limit(), 0, new RegistroCsv(), registro -> erros.add(PlanilhaFlights.validarLinha(registro)));
+        assertEquals(1, erros.size());
+        return erros.get(0);
+    }
+
+    private static String descrever(String valor) {
+        return "\"" + valor.replace("\r", "\\r").replace("\n", "\\n") + "\"";
+    }
+}
@@ -0,0 +1,339 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.example.csv.Csv;
+import org.example.csv.LeitorCsvMapeado;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.example.model.TipoArquivo;
+import org.example.snapshot.GravadorSnapshot;
+import org.example.snapshot.ResumoCargaSetores;
+import org.example.snapshot.ResumoCargaSetores.MetricaAcc;
+import org.example.snapshot.ResumoCargaSetores.MetricaSetor;
+import org.example.snapshot.Snapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Agregação da carga dos setores de dois dias de planilhas sect_config,
+ * lidas das planilhas e dos snapshots, conferida contra os valores calculados
+ * diretamente das linhas.
+ *
+ * @author luisg
+ */
+class CargaSetoresTest {
+
+    private static final String[] DATAS = {"20240601", "20240602"};
+    private static final String SETOR = "S10";
+    private static final String PERIODO = DATAS[0] + "_a_" + DATAS[1] + CargaSetores.SUFIXO;
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void cargaLidaDasPlanilhas() throws IOException {
+        List<Linha> linhas = linhas();
+        Path resumo = agregar("planilhas", linhas, false);
+
+        conferir(resumo, linhas, 0);
+    }
+
+    @Test
+    void cargaLidaDosSnapshots() throws IOException {
+        List<Linha> linhas = linhas();
+        Path resumo = agregar("snapshots", linhas, true);
+
+        conferir(resumo, linhas, DATAS.length);
+    }
+
+    @Test
+    void snapshotsEPlanilhasGeramOMesmoResumo() throws IOException {
+        List<Linha> linhas = linhas();
+        Path planilhas = agregar("planilhas", linhas, false);
+        Path snapshots = agregar("snapshots", linhas, true);
+
+        assertArrayEquals(Files.readAllBytes(planilhas), Files.readAllBytes(snapshots));
+    }
+
+    /**
+     * Confere o resumo relido do disco e o relatório escrito a partir dele.
+     */
+    private static void conferir(Path caminho, List<Linha> linhas, int qtdDeSnapshots) throws IOException {
+        ResumoCargaSetores resumo = ResumoCargaSetores.abrir(caminho);
+        assertEquals(ValidadorArquivos.VERSAO_VALIDADOR, resumo.getVersaoValidador());
+        assertEquals(Arrays.asList(PlanilhaSectConfig.SETORES), resumo.getSetores());
+        assertEquals(DATAS.length, resumo.getQtdDias());
+        assertEquals(-1, resumo.indiceDia(LocalDate.of(2024, 6, 3)));
+        int setor = resumo.indiceSetor(SETOR);
+
+        for (int dia = 0; dia < DATAS.length; dia++) {
+            assertEquals(LocalDate.of(2024, 6, 1 + dia), resumo.getData(dia));
+            assertEquals(dia, resumo.indiceDia(resumo.getData(dia)));
+            for (int hora = 0; hora <= ResumoCargaSetores.DIA_INTEIRO; hora++) {
+                Carga esperada = Carga.doSetor(linhas, dia, hora, SETOR);
+                String contexto = "dia " + dia + ", hora " + hora;
+                assertEquals(esperada.minutos, resumo.getSetor(dia, hora, setor, MetricaSetor.MINUTOS), contexto);
+                assertEquals(esperada.movSet, resumo.getSetor(dia, hora, setor, MetricaSetor.MOV_SET), contexto);
+                assertEquals(esperada.pico, resumo.getSetor(dia, hora, setor, MetricaSetor.PICO_MOV_SET), contexto);
+                assertEquals(esperada.minutoPico, resumo.getSetor(dia, hora, setor, MetricaSetor.MINUTO_PICO), contexto);
+                assertEquals(esperada.movAtco, resumo.getSetor(dia, hora, setor, MetricaSetor.MOV_ATCO), contexto);
+                assertEquals(esperada.minutosComAss, resumo.getSetor(dia, hora, setor, MetricaSetor.MINUTOS_COM_ASS), contexto);
+
+                Carga acc = Carga.doAcc(linhas, dia, hora);
+                assertEquals(acc.minutos, resumo.getAcc(dia, hora, MetricaAcc.MINUTOS), contexto);
+                assertEquals(acc.movSet, resumo.getAcc(dia, hora, MetricaAcc.MOV_SET), contexto);
+                assertEquals(acc.pico, resumo.getAcc(dia, hora, MetricaAcc.PICO_MOV_SET), contexto);
+                assertEquals(acc.minutoPico, resumo.getAcc(dia, hora, MetricaAcc.MINUTO_PICO), contexto);
+                assertEquals(acc.ctrMinutos, resumo.getAcc(dia, hora, MetricaAcc.CTR_MINUTOS), contexto);
+                assertEquals(acc.assMinutos, resumo.getAcc(dia, hora, MetricaAcc.ASS_MINUTOS), contexto);
+                assertEquals(acc.picoCtr, resumo.getAcc(dia, hora, MetricaAcc.PICO_QTD_CTR), contexto);
+            }
+        }
+
+        List<String> relatorio = Files.readAllLines(caminho.resolveSibling(PERIODO + ".txt"), Csv.CHARSET);
+        assertEquals("RELATÓRIO DE CARGA DOS SETORES", relatorio.get(0));
+        assertEquals("01/06/2024 a 02/06/2024 (2 arquivos), " + qtdDeSnapshots + " lidos de snapshots", relatorio.get(1));
+        assertTrue(relatorio.contains(linhaDoSetor(linhas)), () -> linhaDoSetor(linhas) + " em " + relatorio);
+        for (int dia = 0; dia < DATAS.length; dia++) {
+            String esperada = linhaDoAcc(linhas, dia);
+            assertTrue(relatorio.contains(esperada), () -> esperada + " em " + relatorio);
+        }
+    }
+
+    /**
+     * @return a linha do setor na seção de carga por setor do relatório,
+     * calculada das linhas das planilhas
+     */
+    private static String linhaDoSetor(List<Linha> linhas) {
+        long movSet = 0;
+        int minutos = 0;
+        long movAtco = 0;
+        int picoAtco = 0;
+        int comAss = 0;
+        Linha pico = null;
+        for (Linha linha : linhas) {
+            if (linha.valida() && linha.setor.equals(SETOR)) {
+                movSet += linha.movSet;
+                minutos++;
+                movAtco += linha.movAtco;
+                picoAtco = Math.max(picoAtco, linha.movAtco);
+                comAss += linha.comAss ? 1 : 0;
+                if (pico == null || linha.movSet > pico.movSet) {
+                    pico = linha;
+                }
+            }
+        }
+        return String.format(Locale.ROOT, "\t%-6s %10d %8d %8.2f %6s  %-16s %12.2f %8d %8d",
+                SETOR, movSet, minutos, (double) movSet / minutos, Integer.toString(pico.movSet),
+                String.format("%02d/06/2024 %02d:%02d", pico.dia + 1, pico.minuto / 60, pico.minuto % 60),
+                (double) movAtco / minutos, picoAtco, comAss);
+    }
+
+    /**
+     * @return a linha do dia na seção de carga do ACC por dia do relatório,
+     * calculada das linhas das planilhas
+     */
+    private static String linhaDoAcc(List<Linha> linhas, int dia) {
+        Carga acc = Carga.doAcc(linhas, dia, ResumoCargaSetores.DIA_INTEIRO);
+        return String.format(Locale.ROOT, "\t%-10s %8d %10d %6d %8s %9.2f %8d %9.2f",
+                String.format("%02d/06/2024", dia + 1), acc.minutos, acc.movSet, acc.pico,
+                String.format("%02d:%02d", acc.minutoPico / 60, acc.minutoPico % 60),
+                (double) acc.ctrMinutos / acc.minutos, acc.picoCtr, (double) acc.assMinutos / acc.minutos);
+    }
+
+    /**
+     * Grava as planilhas, e opcionalmente os seus snapshots, em uma subpasta
+     * e agrega a carga.
+     *
+     * @return o caminho do resumo gravado
+     */
+    private Path agregar(String subpasta, List<Linha> linhas, boolean comSnapshots) throws IOException {
+        Files.createDirectories(pasta.resolve(subpasta));
+        List<Path> arquivos = new ArrayList<>();
+        long qtdBytes = 0;
+        for (int dia = 0; dia < DATAS.length; dia++) {
+            StringBuilder conteudo = new StringBuilder(PlanilhaSectConfig.CABECALHO).append('\n');
+            for (Linha linha : linhas) {
+                if (linha.dia == dia) {
+                    conteudo.append(linha).append('\n');
+                }
+            }
+            Path arquivo = pasta.resolve(subpasta).resolve(DATAS[dia] + PlanilhaSectConfig.SUFIXO);
+            Files.write(arquivo, conteudo.toString().getBytes(Csv.CHARSET));
+            qtdBytes += comSnapshots ? gravarSnapshot(arquivo) : Files.size(arquivo);
+            // a ordem dos arquivos não importa
+            arquivos.add(0, arquivo);
+        }
+
+        ResultadoValidacao resultado = CargaSetores.agregar(arquivos, 2);
+        assertEquals(StatusArquivo.VALIDADO, resultado.getStatus());
+        assertEquals(linhas.stream().filter(Linha::valida).count(), resultado.getQtdLinhas());
+        assertEquals(qtdBytes, resultado.getQtdBytes());
+        return Planilha.getPastaRelatorios(arquivos.get(0)).resolve(PERIODO + ResumoCargaSetores.EXTENSAO);
+    }
+
+    /**
+     * Grava o snapshot atual da planilha, como a validação com snapshots.
+     *
+     * @return o tamanho do snapshot
+     */
+    private static long gravarSnapshot(Path csv) throws IOException {
+        GravadorSnapshot gravador = new GravadorSnapshot(PlanilhaSectConfig.CABECALHO.split(";"));
+        LeitorCsvMapeado.ler(csv, registro -> {
+            if (!registro.conteudoIgual(PlanilhaSectConfig.CABECALHO)) {
+                gravador.adicionar(registro);
+            }
+        });
+        BasicFileAttributes atributos = Files.readAttributes(csv, BasicFileAttributes.class);
+        return gravador.gravar(Snapshot.getCaminho(csv), TipoArquivo.SECT_CONFIG, ValidadorArquivos.VERSAO_VALIDADOR,
+                atributos.size(), atributos.lastModifiedTime().toMillis());
+    }
+
+    /**
+     * Linhas dos dois dias, em ordem de horário: S09 e S10 a cada 7 minutos,
+     * um setor não acompanhado em alguns minutos e uma linha com horário
+     * inválido em cada dia, que não é agregada.
+     */
+    private static List<Linha> linhas() {
+        List<Linha> linhas = new ArrayList<>();
+        for (int dia = 0; dia < DATAS.length; dia++) {
+            for (int minuto = dia; minuto < 24 * 60; minuto += 7) {
+                for (String setor : new String[]{"S09", SETOR, "S99"}) {
+                    if (setor.equals("S99") && minuto % 5 != 0) {
+                        continue;
+                    }
+                    int movSet = (minuto * 31 + setor.hashCode() * 17 + dia * 5) % 13;
+                    linhas.add(new Linha(dia, minuto, setor, movSet, movSet + minuto % 3, minuto % 3 == 0, 3 + minuto % 4, minuto % 3 == 0 ? 1 : 0));
+                }
+                if (minuto / 60 == 12 && minuto % 60 < 7) {
+                    linhas.add(new Linha(dia, Linha.HORARIO_INVALIDO, SETOR, 12, 12, false, 3, 0));
+                }
+            }
+        }
+        return linhas;
+    }
+
+    /**
+     * Uma linha da sect_config.
+     */
+    private static final class Linha {
+
+        private static final int HORARIO_INVALIDO = -1;
+
+        private final int dia;
+        private final int minuto;
+        private final String setor;
+        private final int movSet;
+        private final int movAtco;
+        private final boolean comAss;
+        private final int qtdCtr;
+        private final int qtdAss;
+
+        private Linha(int dia, int minuto, String setor, int movSet, int movAtco, boolean comAss, int qtdCtr, int qtdAss) {
+            this.dia = dia;
+            this.minuto = minuto;
+            this.setor = setor;
+            this.movSet = movSet;
+            this.movAtco = movAtco;
+            this.comAss = comAss;
+            this.qtdCtr = qtdCtr;
+            this.qtdAss = qtdAss;
+        }
+
+        private boolean valida() {
+            return minuto != HORARIO_INVALIDO;
+        }
+
+        private boolean naHora(int dia, int hora) {
+            return valida() && this.dia == dia && (hora == ResumoCargaSetores.DIA_INTEIRO || minuto / 60 == hora);
+        }
+
+        @Override
+        public String toString() {
+            String horario = valida() ? String.format("%02d:%02d:00", minuto / 60, minuto % 60) : "25:00:00";
+            return (dia == 0 ? 7 : 1) + ";0" + (dia + 1) + "/06/2024;" + horario + ";\"4.6.3\";\"CTR07\";\""
+                    + (comAss ? "ASS07" : "") + "\";\"" + setor + "\";" + qtdCtr + ";" + qtdAss + ";" + movAtco + ";" + movSet
+                    + ";S09,S10,S11";
+        }
+    }
+
+    /**
+     * Carga de um setor ou do ACC em uma hora, calculada das linhas.
+     */
+    private static final class Carga {
+
+        private int minutos;
+        private int movSet;
+        private int pico;
+        private int minutoPico = -1;
+        private int movAtco;
+        private int minutosComAss;
+        private int ctrMinutos;
+        private int assMinutos;
+        private int picoCtr;
+
+        private static Carga doSetor(List<Linha> linhas, int dia, int hora, String setor) {
+            Carga carga = new Carga();
+            for (Linha linha : linhas) {
+                if (linha.naHora(dia, hora) && linha.setor.equals(setor)) {
+                    carga.minutos++;
+                    carga.movSet += linha.movSet;
+                    if (carga.minutoPico < 0 || linha.movSet > carga.pico) {
+                        carga.pico = linha.movSet;
+                        carga.minutoPico = linha.minuto;
+                    }
+                    carga.movAtco += linha.movAtco;
+                    carga.minutosComAss += linha.comAss ? 1 : 0;
+                }
+            }
+            return carga;
+        }
+
+        /**
+         * Soma as linhas de cada minuto, de todos os setores, e toma QTD_CTR
+         * e QTD_ASS uma vez por minuto.
+         */
+        private static Carga doAcc(List<Linha> linhas, int dia, int hora) {
+            int[] movPorMinuto = new int[24 * 60];
+            Linha[] primeiras = new Linha[24 * 60];
+            for (Linha linha : linhas) {
+                if (linha.naHora(dia, hora)) {
+                    movPorMinuto[linha.minuto] += linha.movSet;
+                    if (primeiras[linha.minuto] == null) {
+                        primeiras[linha.minuto] = linha;
+                    }
+                }
+            }
+            Carga carga = new Carga();
+            for (int minuto = 0; minuto < 24 * 60; minuto++) {
+                Linha primeira = primeiras[minuto];
+                if (primeira == null) {
+                    continue;
+                }
+                carga.minutos++;
+                carga.movSet += movPorMinuto[minuto];
+                if (carga.minutoPico < 0 || movPorMinuto[minuto] > carga.pico) {
+                    carga.pico = movPorMinuto[minuto];
+                    carga.minutoPico = minuto;
+                }
+                carga.ctrMinutos += primeira.qtdCtr;
+                carga.assMinutos += primeira.qtdAss;
+                carga.picoCtr = Math.max(carga.picoCtr, primeira.qtdCtr);
+            }
+            return carga;
+        }
+    }
+}
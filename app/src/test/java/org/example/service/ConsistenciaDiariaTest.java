@@ -0,0 +1,110 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.example.csv.Csv;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Cruzamento das planilhas config e sect_config de um dia, com um par sem
+ * divergências e um par para cada tipo de divergência, conferindo a seção e
+ * a linha apontadas no relatório de consistência.
+ *
+ * @author luisg
+ */
+class ConsistenciaDiariaTest {
+
+    private static final String[] CONFIG = {
+        "7;01/06/2024;00:00:00;\"4.6.3\";4;3;5;S09,S10,S11",
+        "7;01/06/2024;00:01:00;\"4.6.3\";4;3;7;S09,S10,S11",};
+    private static final String[] SECT_CONFIG = {
+        "7;01/06/2024;00:00:00;\"4.6.3\";\"CTR07\";\"ASS07\";\"S09\";4;3;3;2;S09,S10,S11",
+        "7;01/06/2024;00:00:00;\"4.6.3\";\"CTR08\";\"ASS08\";\"S10\";4;3;4;3;S09,S10,S11",
+        "7;01/06/2024;00:01:00;\"4.6.3\";\"CTR07\";\"ASS07\";\"S09\";4;3;5;7;S09,S10,S11",};
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void parSemDivergenciasEhOk() throws IOException {
+        assertEquals(Arrays.asList("OK"), verificar("ok", CONFIG, SECT_CONFIG));
+    }
+
+    @Test
+    void movDiferenteDaSomaDeMovSet() throws IOException {
+        String[] config = CONFIG.clone();
+        config[1] = config[1].replace(";4;3;7;", ";4;3;8;");
+
+        assertEquals(Arrays.asList(
+                "",
+                "MOV DA CONFIG DIFERENTE DA SOMA DE MOV_SET",
+                "\tLinha    3 - " + config[1] + " (soma de MOV_SET: 7)",
+                "\tQtd divergências: 1"), verificar("mov", config, SECT_CONFIG));
+    }
+
+    @Test
+    void configIdDivergente() throws IOException {
+        String[] sectConfig = SECT_CONFIG.clone();
+        sectConfig[1] = sectConfig[1].replace("\"4.6.3\"", "\"9.9.9\"");
+
+        assertEquals(Arrays.asList(
+                "",
+                "CONFIG_ID DIVERGENTE DA CONFIG",
+                "\tLinha    3 - " + sectConfig[1] + " (config: linha 2, config_id \"4.6.3\")",
+                "\tQtd divergências: 1"), verificar("configId", CONFIG, sectConfig));
+    }
+
+    @Test
+    void setorForaDoSectConfig() throws IOException {
+        String[] sectConfig = SECT_CONFIG.clone();
+        sectConfig[2] = sectConfig[2].replace("\"S09\"", "\"S99\"");
+
+        assertEquals(Arrays.asList(
+                "",
+                "SETOR FORA DO SECT_CONFIG",
+                "\tLinha    4 - " + sectConfig[2] + " (config: linha 3)",
+                "\tQtd divergências: 1"), verificar("setor", CONFIG, sectConfig));
+    }
+
+    /**
+     * Grava o par de planilhas em uma subpasta e cruza os dois arquivos.
+     *
+     * @return as linhas do relatório de consistência após o título e os nomes
+     * dos arquivos
+     */
+    private List<String> verificar(String subpasta, String[] linhasConfig, String[] linhasSectConfig) throws IOException {
+        Path config = escrever(subpasta, "20240601" + PlanilhaConfig.SUFIXO, PlanilhaConfig.CABECALHO, linhasConfig);
+        Path sectConfig = escrever(subpasta, "20240601" + PlanilhaSectConfig.SUFIXO, PlanilhaSectConfig.CABECALHO, linhasSectConfig);
+
+        ResultadoValidacao resultado = ConsistenciaDiaria.verificar(config, sectConfig, false);
+        assertEquals(StatusArquivo.VALIDADO, resultado.getStatus());
+        assertEquals(1 + linhasConfig.length + 1 + linhasSectConfig.length, resultado.getQtdLinhas());
+
+        Path relatorio = Planilha.getPastaRelatorios(config).resolve("20240601" + ConsistenciaDiaria.SUFIXO);
+        List<String> linhas = Files.readAllLines(relatorio, Csv.CHARSET);
+        assertEquals("RELATÓRIO DE CONSISTÊNCIA", linhas.get(0));
+        assertEquals(config.getFileName() + " x " + sectConfig.getFileName(), linhas.get(1));
+        return new ArrayList<>(linhas.subList(2, linhas.size()));
+    }
+
+    private Path escrever(String subpasta, String nome, String cabecalho, String[] linhas) throws IOException {
+        StringBuilder conteudo = new StringBuilder(cabecalho).append('\n');
+        for (String linha : linhas) {
+            conteudo.append(linha).append('\n');
+        }
+        Path arquivo = pasta.resolve(subpasta).resolve(nome);
+        Files.createDirectories(arquivo.getParent());
+        Files.write(arquivo, conteudo.toString().getBytes(Csv.CHARSET));
+        return arquivo;
+    }
+}
@@ -0,0 +1,191 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.example.csv.Csv;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.example.model.TipoArquivo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Continuidade de planilhas config de dias seguidos, na virada de um dia para
+ * o outro.
+ *
+ * <p>
+ * 01/06/2024 foi um sábado, week 7, e 02/06/2024 um domingo, week 1.</p>
+ *
+ * @author luisg
+ */
+class ContinuidadeMensalTest {
+
+    private static final String DIA_1 = "20240601";
+    private static final String DIA_2 = "20240602";
+    private static final String DIA_3 = "20240603";
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void viradaSemIntervaloEhOk() throws IOException {
+        assertEquals(Arrays.asList("OK"), verificar(
+                dia(DIA_1, linha(7, "01/06/2024", "23:58"), linha(7, "01/06/2024", "23:59")),
+                dia(DIA_2, linha(1, "02/06/2024", "00:00"), linha(1, "02/06/2024", "00:01"))));
+    }
+
+    @Test
+    void intervaloNaViradaEntreDoisArquivos() throws IOException {
+        assertEquals(Arrays.asList(
+                "",
+                "INTERVALOS SEM REGISTROS",
+                "\tSem registros de 01/06/2024 23:59 a 02/06/2024 00:00 (2 minutos), antes de 20240602_config.csv, linha 2",
+                "\tQtd ocorrências: 1"), verificar(
+                dia(DIA_1, linha(7, "01/06/2024", "23:57"), linha(7, "01/06/2024", "23:58")),
+                dia(DIA_2, linha(1, "02/06/2024", "00:01"), linha(1, "02/06/2024", "00:02"))));
+    }
+
+    @Test
+    void sobreposicaoNaViradaDoDia() throws IOException {
+        String repetida = linha(1, "02/06/2024", "00:00");
+        assertEquals(Arrays.asList(
+                "",
+                "REGISTROS SOBREPOSTOS OU FORA DE ORDEM",
+                "\t20240602_config.csv\tLinha    3 - " + repetida + " (após 02/06/2024 00:00)",
+                "\tQtd ocorrências: 1"), verificar(
+                dia(DIA_1, linha(7, "01/06/2024", "23:58"), linha(7, "01/06/2024", "23:59")),
+                dia(DIA_2, linha(1, "02/06/2024", "00:00"), repetida, linha(1, "02/06/2024", "00:01"))));
+    }
+
+    @Test
+    void diaSemArquivo() throws IOException {
+        assertEquals(Arrays.asList(
+                "",
+                "DIAS SEM ARQUIVO",
+                "\t02/06/2024",
+                "\tQtd ocorrências: 1",
+                "",
+                "INTERVALOS SEM REGISTROS",
+                "\tSem registros de 02/06/2024 00:00 a 02/06/2024 23:59 (1440 minutos), antes de 20240603_config.csv, linha 2",
+                "\tQtd ocorrências: 1"), verificar(
+                dia(DIA_1, linha(7, "01/06/2024", "23:59")),
+                dia(DIA_3, linha(2, "03/06/2024", "00:00"))));
+    }
+
+    /**
+     * Uma linha com a data do dia anterior fica fora da sequência: não é
+     * apontada como sobreposta nem abre um intervalo.
+     */
+    @Test
+    void linhaComDataDiferenteDaDoArquivo() throws IOException {
+        String outroDia = linha(7, "01/06/2024", "23:59");
+        assertEquals(Arrays.asList(
+                "",
+                "LINHA COM DATA DIFERENTE DA DATA DO ARQUIVO",
+                "\t20240602_config.csv\tLinha    2 - " + outroDia,
+                "\tQtd ocorrências: 1"), verificar(
+                dia(DIA_1, linha(7, "01/06/2024", "23:58"), linha(7, "01/06/2024", "23:59")),
+                dia(DIA_2, outroDia, linha(1, "02/06/2024", "00:00"), linha(1, "02/06/2024", "00:01"))));
+    }
+
+    @Test
+    void weekIncompativelComODiaDaSemana() throws IOException {
+        // week 7, do sábado, repetida no domingo
+        String domingo = linha(7, "02/06/2024", "00:00");
+        assertEquals(Arrays.asList(
+                "",
+                "WEEK INCOMPATÍVEL COM O DIA DA SEMANA",
+                "\t20240602_config.csv\tLinha    2 - " + domingo + " (dia da semana: 1)",
+                "\tQtd ocorrências: 1"), verificar(
+                dia(DIA_1, linha(7, "01/06/2024", "23:59")),
+                dia(DIA_2, domingo, linha(1, "02/06/2024", "00:01"))));
+    }
+
+    /**
+     * A coluna week vai de 1 para domingo a 7 para sábado.
+     */
+    @Test
+    void diaDaSemanaComecaNoDomingo() {
+        assertEquals(7, ContinuidadeMensal.diaDaSemana(LocalDate.of(2024, 6, 1).toEpochDay()));
+        assertEquals(1, ContinuidadeMensal.diaDaSemana(LocalDate.of(2024, 6, 2).toEpochDay()));
+        assertEquals(2, ContinuidadeMensal.diaDaSemana(LocalDate.of(2024, 6, 3).toEpochDay()));
+        for (LocalDate dia = LocalDate.of(1960, 1, 1); dia.getYear() < 2040; dia = dia.plusDays(1)) {
+            int esperado = dia.getDayOfWeek() == DayOfWeek.SUNDAY ? 1 : dia.getDayOfWeek().getValue() + 1;
+            assertEquals(esperado, ContinuidadeMensal.diaDaSemana(dia.toEpochDay()), dia.toString());
+        }
+    }
+
+    /**
+     * Só a mudança de config_id exatamente às 00:00 indica uma configuração
+     * interrompida pela exportação; a mesma mudança às 00:01 não é apontada.
+     */
+    @Test
+    void mudancaDeConfigIdExatamenteNaVirada() throws IOException {
+        String meiaNoite = linha(1, "02/06/2024", "00:00").replace("4.6.3", "4.6.4");
+        assertEquals(Arrays.asList(
+                "",
+                "MUDANÇA DE CONFIGURAÇÃO NA VIRADA DO DIA",
+                "\t20240602_config.csv\tLinha    2 - " + meiaNoite
+                + " (anterior: 20240601_config.csv, linha 3, config_id \"4.6.3\")",
+                "\tQtd ocorrências: 1"), verificar(
+                dia(DIA_1, linha(7, "01/06/2024", "23:58"), linha(7, "01/06/2024", "23:59")),
+                dia(DIA_2, meiaNoite, linha(1, "02/06/2024", "00:01"))));
+
+        assertEquals(Arrays.asList("OK"), verificar(
+                dia(DIA_1, linha(7, "01/06/2024", "23:58"), linha(7, "01/06/2024", "23:59")),
+                dia(DIA_2, linha(1, "02/06/2024", "00:00"), linha(1, "02/06/2024", "00:01").replace("4.6.3", "4.6.4"))));
+    }
+
+    private static String linha(int semana, String data, String horario) {
+        return semana + ";" + data + ";" + horario + ":00;\"4.6.3\";4;3;5;S09,S10,S11";
+    }
+
+    /**
+     * @return o nome da planilha config do dia seguido das suas linhas
+     */
+    private static String[] dia(String data, String... linhas) {
+        String[] dia = new String[linhas.length + 1];
+        dia[0] = data + PlanilhaConfig.SUFIXO;
+        System.arraycopy(linhas, 0, dia, 1, linhas.length);
+        return dia;
+    }
+
+    /**
+     * Grava as planilhas em uma pasta nova e verifica a continuidade.
+     *
+     * @return as linhas do relatório após o título e a descrição do período
+     */
+    private List<String> verificar(String[]... dias) throws IOException {
+        Path subpasta = Files.createTempDirectory(pasta, "continuidade");
+        List<Path> arquivos = new ArrayList<>();
+        for (String[] dia : dias) {
+            StringBuilder conteudo = new StringBuilder(PlanilhaConfig.CABECALHO).append('\n');
+            for (int i = 1; i < dia.length; i++) {
+                conteudo.append(dia[i]).append('\n');
+            }
+            Path arquivo = subpasta.resolve(dia[0]);
+            Files.write(arquivo, conteudo.toString().getBytes(Csv.CHARSET));
+            // a ordem dos arquivos não importa
+            arquivos.add(0, arquivo);
+        }
+
+        ResultadoValidacao resultado = ContinuidadeMensal.verificar(TipoArquivo.CONFIG, arquivos, false);
+        assertEquals(StatusArquivo.VALIDADO, resultado.getStatus());
+
+        String periodo = dias[0][0].substring(0, 8) + "_a_" + dias[dias.length - 1][0].substring(0, 8);
+        Path relatorio = Planilha.getPastaRelatorios(subpasta.resolve(dias[0][0]))
+                .resolve(periodo + "_continuidade_" + TipoArquivo.CONFIG + ".txt");
+        List<String> linhas = Files.readAllLines(relatorio, Csv.CHARSET);
+        assertEquals("RELATÓRIO DE CONTINUIDADE", linhas.get(0));
+        return new ArrayList<>(linhas.subList(2, linhas.size()));
+    }
+}
@@ -0,0 +1,217 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.example.csv.Csv;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Compara o relatório da verificação incremental de um arquivo que recebe
+ * linhas em várias gravações com o de uma verificação completa do mesmo
+ * conteúdo, e confere que um arquivo truncado ou reescrito é verificado desde
+ * o início.
+ *
+ * @author luisg
+ */
+class EstadoIncrementalTest {
+
+    private static final String FLIGHTS_VALIDA = "2024-06-01%s;\"4.6.3\";S09;\"CTR07\";\"ASS07\";\"S09\";3;1;TAM%04d;SBGR;SBCT;240601;%s;A1234;I;";
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void configEmVariasGravacoesEquivaleAVerificacaoCompleta() throws IOException {
+        byte[] conteudo = config();
+        assertGravacoesEquivalem("20240601" + PlanilhaConfig.SUFIXO, conteudo,
+                (arquivo, incremental) -> PlanilhaConfig.verificarIntegridade(arquivo, true, incremental));
+    }
+
+    @Test
+    void flightsEmVariasGravacoesEquivaleAVerificacaoCompleta() throws IOException {
+        byte[] conteudo = flights();
+        assertGravacoesEquivalem("20240601" + PlanilhaFlights.SUFIXO, conteudo,
+                (arquivo, incremental) -> PlanilhaFlights.verificarIntegridade(arquivo, true, incremental));
+    }
+
+    @Test
+    void arquivoTruncadoEhVerificadoDesdeOInicio() throws IOException {
+        byte[] conteudo = config();
+        Path arquivo = pasta.resolve("incremental").resolve("20240602" + PlanilhaConfig.SUFIXO);
+        Files.createDirectories(arquivo.getParent());
+        Files.write(arquivo, conteudo);
+        verificar(arquivo, (a, incremental) -> PlanilhaConfig.verificarIntegridade(a, true, incremental), true);
+        assertNotNull(EstadoIncremental.carregar(arquivo, true, Verificacao.class));
+
+        byte[] truncado = Arrays.copyOf(conteudo, conteudo.length / 3);
+        Files.write(arquivo, truncado);
+
+        assertNull(EstadoIncremental.carregar(arquivo, true, Verificacao.class));
+        assertRelatorioCompleto(arquivo, truncado, (a, incremental) -> PlanilhaConfig.verificarIntegridade(a, true, incremental));
+    }
+
+    @Test
+    void arquivoReescritoEhVerificadoDesdeOInicio() throws IOException {
+        byte[] conteudo = flights();
+        Path arquivo = pasta.resolve("incremental").resolve("20240602" + PlanilhaFlights.SUFIXO);
+        Files.createDirectories(arquivo.getParent());
+        Files.write(arquivo, Arrays.copyOf(conteudo, conteudo.length / 2));
+        verificar(arquivo, (a, incremental) -> PlanilhaFlights.verificarIntegridade(a, true, incremental), true);
+
+        // o arquivo cresceu, mas uma linha já verificada foi alterada
+        byte[] reescrito = conteudo.clone();
+        int posicao = new String(reescrito, Csv.CHARSET).indexOf("TAM0002");
+        reescrito[posicao] = 'X';
+        Files.write(arquivo, reescrito);
+
+        assertNull(EstadoIncremental.carregar(arquivo, true, Verificacao.class));
+        assertRelatorioCompleto(arquivo, reescrito, (a, incremental) -> PlanilhaFlights.verificarIntegridade(a, true, incremental));
+    }
+
+    @Test
+    void estadoDeOutraOpcaoDeDetalhamentoNaoEhReaproveitado() throws IOException {
+        Path arquivo = pasta.resolve("incremental").resolve("20240603" + PlanilhaConfig.SUFIXO);
+        Files.createDirectories(arquivo.getParent());
+        Files.write(arquivo, config());
+        verificar(arquivo, (a, incremental) -> PlanilhaConfig.verificarIntegridade(a, true, incremental), true);
+
+        assertNotNull(EstadoIncremental.carregar(arquivo, true, Verificacao.class));
+        assertNull(EstadoIncremental.carregar(arquivo, false, Verificacao.class));
+    }
+
+    @Test
+    void estadoComVerificacaoNaoCombinavelNaoEhReaproveitadoEmPartes() throws IOException {
+        Path arquivo = pasta.resolve("incremental").resolve("20240604" + PlanilhaConfig.SUFIXO);
+        Files.createDirectories(arquivo.getParent());
+        Files.write(arquivo, config());
+        verificar(arquivo, (a, incremental) -> PlanilhaConfig.verificarIntegridade(a, true, incremental), true);
+
+        assertNotNull(EstadoIncremental.carregar(arquivo, true, Verificacao.class));
+        assertNull(EstadoIncremental.carregar(arquivo, true, VerificacaoCombinavel.class));
+    }
+
+    /**
+     * Grava o conteúdo em quatro partes, cortadas no meio de uma linha, logo
+     * após uma quebra de linha e entre o {@code \r} e o {@code \n} de uma
+     * linha, verificando o arquivo de forma incremental após cada gravação.
+     * O relatório final deve ser idêntico ao da verificação completa do
+     * conteúdo.
+     */
+    private void assertGravacoesEquivalem(String nome, byte[] conteudo, Verificador verificador) throws IOException {
+        String texto = new String(conteudo, Csv.CHARSET);
+        int[] cortes = {
+            texto.indexOf('\n', conteudo.length / 4) - 5,
+            texto.indexOf('\n', conteudo.length / 2) + 1,
+            texto.indexOf("\r\n", 3 * conteudo.length / 4) + 1,
+            conteudo.length};
+
+        Path arquivo = pasta.resolve("incremental").resolve(nome);
+        Files.createDirectories(arquivo.getParent());
+        Files.write(arquivo, new byte[0]);
+        int inicio = 0;
+        for (int corte : cortes) {
+            Files.write(arquivo, Arrays.copyOfRange(conteudo, inicio, corte), StandardOpenOption.APPEND);
+            EstadoIncremental<?> anterior = EstadoIncremental.carregar(arquivo, true, Verificacao.class);
+            ResultadoValidacao resultado = verificador.verificar(arquivo, true);
+
+            assertEquals(StatusArquivo.VALIDADO, resultado.getStatus());
+            // apenas as linhas a partir da última linha completa são lidas
+            long inicioLeitura = anterior == null ? 0 : anterior.getPosicao();
+            assertEquals(corte - inicioLeitura, resultado.getQtdBytes());
+            inicio = corte;
+        }
+        assertRelatorioCompleto(arquivo, conteudo, verificador);
+    }
+
+    /**
+     * Confere que o relatório do arquivo é igual ao da verificação completa de
+     * uma cópia do mesmo conteúdo em outra pasta.
+     */
+    private void assertRelatorioCompleto(Path arquivo, byte[] conteudo, Verificador verificador) throws IOException {
+        String relatorioIncremental = ler(verificar(arquivo, verificador, true));
+
+        Path completo = pasta.resolve("completo").resolve(arquivo.getFileName());
+        Files.createDirectories(completo.getParent());
+        Files.write(completo, conteudo);
+
+        assertEquals(ler(verificar(completo, verificador, false)), relatorioIncremental);
+    }
+
+    private static Path verificar(Path arquivo, Verificador verificador, boolean incremental) {
+        ResultadoValidacao resultado = verificador.verificar(arquivo, incremental);
+        assertEquals(StatusArquivo.VALIDADO, resultado.getStatus());
+        return Planilha.getOutputPath(arquivo);
+    }
+
+    /**
+     * Planilha config com o cabeçalho repetido, minutos ausentes e repetidos,
+     * campos vazios e linhas com campos a mais, com terminadores
+     * {@code \n} e {@code \r\n}.
+     */
+    private static byte[] config() {
+        StringBuilder conteudo = new StringBuilder(PlanilhaConfig.CABECALHO).append('\n');
+        for (int minuto = 0; minuto < 600; minuto++) {
+            if (minuto % 97 == 13) {
+                continue;
+            }
+            String linha = String.format("7;01/06/2024;%02d:%02d:00;\"4.6.3\";4;3;%d;S09,S10,S11", minuto / 60, minuto % 60, minuto % 40);
+            if (minuto % 151 == 7) {
+                linha = linha.replace(";4;3;", ";;3;");
+            } else if (minuto % 173 == 11) {
+                linha = linha + ";extra";
+            }
+            conteudo.append(linha).append(minuto % 2 == 0 ? "\n" : "\r\n");
+            if (minuto % 211 == 5) {
+                conteudo.append(linha).append('\n');
+            }
+            if (minuto == 300) {
+                conteudo.append(PlanilhaConfig.CABECALHO).append('\n');
+            }
+        }
+        return conteudo.toString().getBytes(Csv.CHARSET);
+    }
+
+    /**
+     * Planilha flights com campos inválidos, EOBT vazios e linhas com campos
+     * a menos, com terminadores {@code \n} e {@code \r\n}.
+     */
+    private static byte[] flights() {
+        StringBuilder conteudo = new StringBuilder(PlanilhaFlights.CABECALHO).append('\n');
+        for (int i = 0; i < 800; i++) {
+            String hora = String.format("%02d:%02d:%02d", i / 60 % 24, i % 60, i % 7);
+            String linha = String.format(FLIGHTS_VALIDA, hora, i, i % 5 == 0 ? "" : "1230");
+            if (i % 61 == 3) {
+                linha = linha.replace("\"S09\"", "\"S99\"");
+            } else if (i % 67 == 9) {
+                linha = linha.replace(";SBGR;", ";;");
+            } else if (i % 71 == 1) {
+                linha = linha.substring(0, linha.length() - 3);
+            }
+            conteudo.append(linha).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        return conteudo.toString().getBytes(Csv.CHARSET);
+    }
+
+    private static String ler(Path arquivo) throws IOException {
+        return new String(Files.readAllBytes(arquivo), Csv.CHARSET);
+    }
+
+    /**
+     * Verificação de uma planilha, completa ou incremental.
+     */
+    private interface Verificador {
+
+        ResultadoValidacao verificar(Path arquivo, boolean incremental);
+    }
+}
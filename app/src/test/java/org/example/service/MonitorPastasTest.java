@@ -0,0 +1,161 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.example.csv.Csv;
+import org.example.model.ArquivoCSV;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Espera pelo fim da gravação e revalidação de planilhas alteradas durante a
+ * validação no {@link MonitorPastas}, com uma pasta temporária e uma espera
+ * curta.
+ *
+ * @author luisg
+ */
+class MonitorPastasTest {
+
+    private static final long ESPERA_MS = 400;
+    private static final long LIMITE_MS = 15_000;
+    private static final String NOME = "20240601" + PlanilhaConfig.SUFIXO;
+
+    @TempDir
+    Path pasta;
+
+    private final BlockingQueue<Validacao> validacoes = new LinkedBlockingQueue<>();
+    private MonitorPastas monitor;
+    private Thread thread;
+
+    @AfterEach
+    void encerrar() throws InterruptedException {
+        if (monitor != null) {
+            monitor.close();
+            thread.join(LIMITE_MS);
+        }
+    }
+
+    /**
+     * Um arquivo gravado em várias partes, cada uma antes do fim da espera, é
+     * validado uma única vez, após a última gravação.
+     */
+    @Test
+    void gravacaoEmPartesEhValidadaUmaVez() throws IOException, InterruptedException {
+        iniciar(arquivo -> ValidadorArquivos.validarArquivo(arquivo, false, false, false));
+
+        Path arquivo = pasta.resolve(NOME);
+        Files.write(arquivo, (PlanilhaConfig.CABECALHO + "\n").getBytes(Csv.CHARSET));
+        for (int minuto = 0; minuto < 6; minuto++) {
+            Thread.sleep(ESPERA_MS / 4);
+            acrescentar(arquivo, minuto);
+        }
+        long ultimaGravacao = System.nanoTime();
+
+        Validacao validacao = validacoes.poll(LIMITE_MS, TimeUnit.MILLISECONDS);
+        assertNotNull(validacao);
+        assertTrue(validacao.inicio - ultimaGravacao >= TimeUnit.MILLISECONDS.toNanos(ESPERA_MS) / 2,
+                "validado " + TimeUnit.NANOSECONDS.toMillis(validacao.inicio - ultimaGravacao) + " ms após a última gravação");
+        assertEquals(StatusArquivo.VALIDADO, validacao.resultado.getStatus());
+        assertEquals(7, validacao.resultado.getQtdLinhas());
+
+        assertNull(validacoes.poll(3 * ESPERA_MS, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Um arquivo alterado enquanto é validado é validado novamente ao final,
+     * e o monitor não fica consultando o watcher sem espera enquanto isso.
+     */
+    @Test
+    void arquivoAlteradoDuranteAValidacaoEhValidadoNovamente() throws IOException, InterruptedException {
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch liberada = new CountDownLatch(1);
+        AtomicInteger qtdValidacoes = new AtomicInteger();
+        iniciar(arquivo -> {
+            if (qtdValidacoes.incrementAndGet() == 1) {
+                iniciada.countDown();
+                try {
+                    liberada.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return ValidadorArquivos.validarArquivo(arquivo, false, false, false);
+        });
+
+        Path arquivo = pasta.resolve(NOME);
+        Files.write(arquivo, (PlanilhaConfig.CABECALHO + "\n").getBytes(Csv.CHARSET));
+        acrescentar(arquivo, 0);
+        assertTrue(iniciada.await(LIMITE_MS, TimeUnit.MILLISECONDS));
+
+        acrescentar(arquivo, 1);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long cpuAntes = threads.getThreadCpuTime(thread.getId());
+        // o prazo do arquivo alterado vence várias vezes durante a validação
+        Thread.sleep(5 * ESPERA_MS);
+        long cpuDurante = threads.getThreadCpuTime(thread.getId()) - cpuAntes;
+        liberada.countDown();
+
+        Validacao primeira = validacoes.poll(LIMITE_MS, TimeUnit.MILLISECONDS);
+        Validacao segunda = validacoes.poll(LIMITE_MS, TimeUnit.MILLISECONDS);
+        assertNotNull(primeira);
+        assertNotNull(segunda);
+        assertEquals(3, segunda.resultado.getQtdLinhas());
+        assertEquals(2, qtdValidacoes.get());
+        if (cpuAntes >= 0) {
+            assertTrue(cpuDurante < TimeUnit.MILLISECONDS.toNanos(ESPERA_MS),
+                    "monitor usou " + TimeUnit.NANOSECONDS.toMillis(cpuDurante) + " ms de processador aguardando a validação");
+        }
+        assertNull(validacoes.poll(3 * ESPERA_MS, TimeUnit.MILLISECONDS));
+    }
+
+    private void iniciar(Function<ArquivoCSV, ResultadoValidacao> validacao) throws IOException {
+        monitor = new MonitorPastas(Collections.singletonList(pasta), validacao, 1, ESPERA_MS,
+                (arquivo, resultado) -> validacoes.add(new Validacao(resultado)));
+        thread = new Thread(() -> {
+            try {
+                monitor.executar();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "monitor");
+        thread.start();
+    }
+
+    private static void acrescentar(Path arquivo, int minuto) throws IOException {
+        String linha = String.format("7;01/06/2024;00:%02d:00;\"4.6.3\";4;3;22;S09,S10,S11%n", minuto);
+        Files.write(arquivo, linha.getBytes(Csv.CHARSET), StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Resultado de uma validação e quando ela foi concluída.
+     */
+    private static final class Validacao {
+
+        private final long inicio = System.nanoTime();
+        private final ResultadoValidacao resultado;
+
+        private Validacao(ResultadoValidacao resultado) {
+            this.resultado = resultado;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.example.csv.Csv;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Limite de ocorrências listadas por seção do relatório de integridade e
+ * descarte do arquivo temporário de um relatório que não pôde ser criado.
+ *
+ * @author luisg
+ */
+class RelatorioTest {
+
+    private static final String PROPRIEDADE_LIMITE = "validador.relatorio.limite";
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void ocorrenciasAlemDoLimiteSaoResumidas() throws IOException {
+        Ocorrencias ocorrencias = new Ocorrencias(lerLimite("3"));
+        for (int endereco = 1; endereco <= 5; endereco++) {
+            ocorrencias.adicionar(endereco, "linha " + endereco);
+        }
+
+        assertEquals(5, ocorrencias.getTotal());
+        assertEquals(3, ocorrencias.getLinhas().size());
+        assertEquals(2, ocorrencias.getOmitidas());
+        assertTrue(ocorrencias.isCheia());
+        assertFalse(ocorrencias.contar());
+        assertEquals(3, ocorrencias.getOmitidas());
+
+        assertEquals(Arrays.asList(
+                "RELATÓRIO DE INTEGRIDADE",
+                "arquivo.csv",
+                "\tLinha    1 - linha 1",
+                "\tLinha    2 - linha 2",
+                "\tLinha    3 - linha 3",
+                "\t... mais 3 ocorrências não listadas"), escrever(ocorrencias));
+    }
+
+    @Test
+    void ocorrenciasDentroDoLimiteNaoSaoResumidas() throws IOException {
+        Ocorrencias ocorrencias = new Ocorrencias(lerLimite("3"));
+        for (int endereco = 1; endereco <= 3; endereco++) {
+            ocorrencias.adicionar(endereco, "linha " + endereco);
+        }
+
+        assertEquals(0, ocorrencias.getOmitidas());
+        List<String> linhas = escrever(ocorrencias);
+        assertEquals(5, linhas.size());
+        assertEquals("\tLinha    3 - linha 3", linhas.get(4));
+    }
+
+    @Test
+    void limiteZeroOuAusenteListaTodas() {
+        assertEquals(Integer.MAX_VALUE, lerLimite("0"));
+        assertEquals(Integer.MAX_VALUE, lerLimite("-1"));
+        assertEquals(1000, lerLimite(null));
+
+        Ocorrencias ocorrencias = new Ocorrencias(lerLimite("0"));
+        for (int endereco = 1; endereco <= 5000; endereco++) {
+            ocorrencias.adicionar(endereco, "linha");
+        }
+        assertEquals(5000, ocorrencias.getLinhas().size());
+        assertEquals(0, ocorrencias.getOmitidas());
+    }
+
+    /**
+     * As ocorrências das partes de um arquivo verificado em paralelo são
+     * combinadas como se tivessem sido registradas em sequência.
+     */
+    @Test
+    void combinarRespeitaOLimite() {
+        Ocorrencias anterior = new Ocorrencias(3);
+        Ocorrencias posterior = new Ocorrencias(3);
+        Ocorrencias sequencia = new Ocorrencias(3);
+        for (int endereco = 1; endereco <= 6; endereco++) {
+            (endereco <= 2 ? anterior : posterior).adicionar(endereco, "linha");
+            sequencia.adicionar(endereco, "linha");
+        }
+        anterior.combinar(posterior);
+
+        assertEquals(sequencia.getLinhas(), anterior.getLinhas());
+        assertEquals(6, anterior.getTotal());
+        assertEquals(3, anterior.getOmitidas());
+    }
+
+    @Test
+    void falhaNoCabecalhoDescartaOTemporario() {
+        Path destino = pasta.resolve("relatorio.txt");
+        char[] titulo = new char[100_000];
+        Arrays.fill(titulo, 'x');
+        // um surrogate isolado não pode ser codificado
+        titulo[titulo.length / 2] = '\uD800';
+
+        assertThrows(UncheckedIOException.class, () -> Relatorio.criar(destino, new String(titulo), "arquivo.csv"));
+        assertFalse(Files.exists(destino.resolveSibling("relatorio.txt.tmp")));
+        assertFalse(Files.exists(destino));
+    }
+
+    /**
+     * @return o limite lido com a propriedade {@code validador.relatorio.limite}
+     * definida com o valor informado, ou ausente se ele for null
+     */
+    private static int lerLimite(String valor) {
+        String anterior = System.getProperty(PROPRIEDADE_LIMITE);
+        try {
+            if (valor == null) {
+                System.clearProperty(PROPRIEDADE_LIMITE);
+            } else {
+                System.setProperty(PROPRIEDADE_LIMITE, valor);
+            }
+            return Ocorrencias.lerLimite();
+        } finally {
+            if (anterior == null) {
+                System.clearProperty(PROPRIEDADE_LIMITE);
+            } else {
+                System.setProperty(PROPRIEDADE_LIMITE, anterior);
+            }
+        }
+    }
+
+    private List<String> escrever(Ocorrencias ocorrencias) throws IOException {
+        Path destino = pasta.resolve("relatorio.txt");
+        try (Relatorio relatorio = Relatorio.criar(destino, "arquivo.csv")) {
+            relatorio.adicionar(ocorrencias);
+            relatorio.concluir();
+        }
+        return Files.readAllLines(destino, Csv.CHARSET);
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import org.example.csv.Csv;
+import org.example.model.ArquivoCSV;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Validação de arquivos pelo {@link ValidadorArquivos}: a interação entre a
+ * verificação incremental e o cache de validação e a leitura de arquivos
+ * compactados.
+ *
+ * @author luisg
+ */
+class ValidadorArquivosTest {
+
+    @TempDir
+    Path pasta;
+
+    /**
+     * A verificação incremental grava o relatório sem passar pelo cache, então
+     * uma validação seguinte com a opção detalhar não pode reaproveitar o
+     * resultado registrado antes dela.
+     */
+    @Test
+    void verificacaoIncrementalInvalidaEntradaDoCache() throws IOException {
+        ArquivoCSV arquivo = new ArquivoCSV(escreverConfig("20240601_config.csv", 120));
+        Path relatorio = Planilha.getOutputPath(arquivo.getPath());
+
+        ResultadoValidacao detalhada = ValidadorArquivos.validarArquivo(arquivo, true, true, false);
+        String relatorioDetalhado = ler(relatorio);
+        ResultadoValidacao incremental = ValidadorArquivos.validarArquivo(arquivo, false, true, true);
+        String relatorioIncremental = ler(relatorio);
+        ResultadoValidacao novamente = ValidadorArquivos.validarArquivo(arquivo, true, true, false);
+
+        assertEquals(StatusArquivo.VALIDADO, detalhada.getStatus());
+        assertEquals(StatusArquivo.VALIDADO, incremental.getStatus());
+        assertNotEquals(relatorioDetalhado, relatorioIncremental);
+        assertFalse(novamente.isDoCache());
+        assertEquals(relatorioDetalhado, ler(relatorio));
+    }
+
+    @Test
+    void arquivoCompactadoInformaOsBytesDescompactados() throws IOException {
+        Path csv = escreverConfig("20240602_config.csv", 120);
+        Path gz = pasta.resolve("20240603_config.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gz))) {
+            Files.copy(csv, out);
+        }
+
+        ResultadoValidacao resultado = ValidadorArquivos.validarArquivo(new ArquivoCSV(gz), false, false);
+
+        assertEquals(StatusArquivo.VALIDADO, resultado.getStatus());
+        assertEquals(Files.size(csv), resultado.getQtdBytes());
+    }
+
+    private Path escreverConfig(String nome, int qtdLinhas) throws IOException {
+        StringBuilder conteudo = new StringBuilder(PlanilhaConfig.CABECALHO).append('\n');
+        for (int minuto = 0; minuto < qtdLinhas; minuto++) {
+            conteudo.append(String.format("7;01/06/2024;%02d:%02d:00;\"4.6.3\";4;3;22;S09,S10,S11%n", minuto / 60, minuto % 60));
+        }
+        Path arquivo = pasta.resolve(nome);
+        Files.write(arquivo, conteudo.toString().getBytes(Csv.CHARSET));
+        return arquivo;
+    }
+
+    private static String ler(Path arquivo) throws IOException {
+        return new String(Files.readAllBytes(arquivo), Csv.CHARSET);
+    }
+}
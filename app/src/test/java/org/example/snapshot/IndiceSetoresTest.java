@@ -0,0 +1,540 @@
+package org.example.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+import org.example.csv.Csv;
+import org.example.csv.LeitorCsvMapeado;
+import org.example.model.ArquivoCSV;
+import org.example.model.TipoArquivo;
+import org.example.service.IndiceMensal;
+import org.example.service.PlanilhaConfig;
+import org.example.service.PlanilhaSectConfig;
+import org.example.service.ValidadorArquivos;
+import org.example.snapshot.IndiceSetores.Campo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Consultas ao {@link IndiceSetores} montado por {@link IndiceMensal} a
+ * partir de planilhas config e sect_config de três dias de um período de
+ * quatro, conferidas contra uma varredura das linhas das planilhas, e
+ * reaproveitamento do índice enquanto as planilhas não mudam.
+ *
+ * <p>
+ * 01/06/2024 e 02/06/2024 têm as duas planilhas, 03/06/2024 nenhuma e
+ * 04/06/2024 apenas a config. MOV e MOV_ATCO têm mais valores distintos que
+ * {@link IndiceSetores#LIMITE_BITMAPS}, de modo que são filtrados pelos
+ * códigos, e os demais campos pelos mapas de bits.</p>
+ *
+ * @author luisg
+ */
+class IndiceSetoresTest {
+
+    private static final LocalDate PRIMEIRO_DIA = LocalDate.of(2024, 6, 1);
+    private static final int[] DIAS_CONFIG = {0, 1, 3};
+    private static final int[] DIAS_SECT_CONFIG = {0, 1};
+    private static final String[] SETORES = {"S09", "S10", "S11"};
+    private static final int MINUTOS_DIA = 24 * 60;
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void consultasIguaisAVarreduraDasLinhas() throws IOException, InterruptedException {
+        Planilhas planilhas = new Planilhas();
+        IndiceSetores indice = IndiceMensal.construir(planilhas.gravar(pasta), 2);
+
+        assertEquals(ValidadorArquivos.VERSAO_VALIDADOR, indice.getVersaoValidador());
+        assertEquals(PRIMEIRO_DIA, indice.getPrimeiroDia());
+        assertEquals(4, indice.getQtdDias());
+        assertEquals(Arrays.asList(PlanilhaSectConfig.SETORES), indice.getSetores());
+
+        conferir(indice, planilhas, new Pergunta());
+        conferir(indice, planilhas, new Pergunta().setor("S10"));
+        conferir(indice, planilhas, new Pergunta().setor("S11").setor("S09").horario(600, 870));
+        conferir(indice, planilhas, new Pergunta().horario(0, MINUTOS_DIA));
+        conferir(indice, planilhas, new Pergunta().horario(1380, MINUTOS_DIA).setor("S09"));
+        conferir(indice, planilhas, new Pergunta().periodo(LocalDate.of(2024, 6, 2), null));
+        conferir(indice, planilhas, new Pergunta().periodo(null, LocalDate.of(2024, 6, 1)).setor("S10"));
+        conferir(indice, planilhas, new Pergunta().periodo(LocalDate.of(2024, 6, 2), LocalDate.of(2024, 6, 4)).horario(300, 420));
+        conferir(indice, planilhas, new Pergunta().periodo(LocalDate.of(2024, 6, 3), LocalDate.of(2024, 6, 3)));
+        conferir(indice, planilhas, new Pergunta().periodo(LocalDate.of(2024, 5, 20), LocalDate.of(2024, 6, 30)).setor("S10"));
+
+        conferir(indice, planilhas, new Pergunta().filtro(Campo.QTD_CTR, "4", v -> (int) v == 4));
+        conferir(indice, planilhas, new Pergunta().filtro(Campo.QTD_CTR, "!=4", v -> (int) v != 4).filtro(Campo.QTD_ASS, "<2", v -> (int) v < 2));
+        conferir(indice, planilhas, new Pergunta().filtro(Campo.MOV, ">50", v -> (int) v > 50));
+        conferir(indice, planilhas, new Pergunta().filtro(Campo.MOV, ">=50", v -> (int) v >= 50).filtro(Campo.MOV, "<=60", v -> (int) v <= 60));
+        conferir(indice, planilhas, new Pergunta().filtro(Campo.CONFIG_ID, "!=4.6.3", v -> !v.equals("4.6.3")));
+        conferir(indice, planilhas, new Pergunta().filtro(Campo.MOV_SET, "<=5", v -> (int) v <= 5));
+        conferir(indice, planilhas, new Pergunta().filtro(Campo.MOV_ATCO, ">=40", v -> (int) v >= 40).setor("S09"));
+        conferir(indice, planilhas, new Pergunta().filtro(Campo.MOV_ATCO, "!=13", v -> (int) v != 13));
+        conferir(indice, planilhas, new Pergunta().filtro(Campo.CTR, "!=CTR07", v -> !v.equals("CTR07")));
+        conferir(indice, planilhas, new Pergunta().filtro(Campo.ASS, "!=", v -> !v.equals("")).setor("S10"));
+        conferir(indice, planilhas, new Pergunta().filtro(Campo.ASS, "=", v -> v.equals("")));
+        conferir(indice, planilhas, new Pergunta().setor("S10").filtro(Campo.QTD_CTR, ">=4", v -> (int) v >= 4)
+                .filtro(Campo.MOV, "<70", v -> (int) v < 70).filtro(Campo.MOV_SET, ">3", v -> (int) v > 3)
+                .horario(480, 1200).periodo(LocalDate.of(2024, 6, 2), null));
+        conferir(indice, planilhas, new Pergunta().filtro(Campo.MOV_SET, ">99", v -> (int) v > 99));
+
+        ConsultaIndice setorInexistente = new ConsultaIndice();
+        setorInexistente.adicionarSetor("S99");
+        assertThrows(IllegalArgumentException.class, () -> indice.consultar(setorInexistente));
+    }
+
+    /**
+     * O índice montado dos snapshots é igual, byte a byte, ao montado das
+     * planilhas.
+     */
+    @Test
+    void indiceDosSnapshotsIgualAoDasPlanilhas() throws IOException, InterruptedException {
+        List<ArquivoCSV> arquivos = new Planilhas().gravar(pasta);
+        Path caminho = caminhoDoIndice();
+        IndiceMensal.construir(arquivos, 2);
+        byte[] dasPlanilhas = Files.readAllBytes(caminho);
+
+        for (ArquivoCSV arquivo : arquivos) {
+            gravarSnapshot(arquivo.getPath(), arquivo.getTipo());
+            assertNotNull(Snapshot.abrirAtual(arquivo.getPath(), arquivo.getTipo(), ValidadorArquivos.VERSAO_VALIDADOR));
+        }
+        IndiceMensal.construir(arquivos, 2);
+
+        assertArrayEquals(dasPlanilhas, Files.readAllBytes(caminho));
+    }
+
+    @Test
+    void indiceEhMontadoNovamenteQuandoUmaPlanilhaMuda() throws IOException, InterruptedException {
+        Planilhas planilhas = new Planilhas();
+        List<ArquivoCSV> arquivos = planilhas.gravar(pasta);
+        assertNull(IndiceMensal.abrirAtual(arquivos));
+        IndiceMensal.construir(arquivos, 1);
+        assertNotNull(IndiceMensal.abrirAtual(arquivos));
+
+        // a mesma data de modificação com outro tamanho
+        Path sectConfig = pasta.resolve("20240602" + PlanilhaSectConfig.SUFIXO);
+        FileTime modificado = Files.getLastModifiedTime(sectConfig);
+        SetorMinuto acrescentada = new SetorMinuto(1, 1, "S10", "\"4.6.3\"", "CTR09", "ASS09", 15, 77);
+        Files.write(sectConfig, (acrescentada + "\n").getBytes(Csv.CHARSET), StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(sectConfig, modificado);
+        assertNull(IndiceMensal.abrirAtual(arquivos));
+
+        planilhas.setores.add(acrescentada);
+        IndiceSetores indice = IndiceMensal.construir(arquivos, 1);
+        conferir(indice, planilhas, new Pergunta().setor("S10").periodo(LocalDate.of(2024, 6, 2), LocalDate.of(2024, 6, 2)));
+        assertNotNull(IndiceMensal.abrirAtual(arquivos));
+
+        // o mesmo tamanho com outra data de modificação
+        Files.setLastModifiedTime(sectConfig, FileTime.fromMillis(modificado.toMillis() + 1000));
+        assertNull(IndiceMensal.abrirAtual(arquivos));
+        IndiceMensal.construir(arquivos, 1);
+        assertNotNull(IndiceMensal.abrirAtual(arquivos));
+
+        // outra planilha no período
+        List<ArquivoCSV> comOutra = new ArrayList<>(arquivos);
+        Path outra = pasta.resolve("20240604" + PlanilhaSectConfig.SUFIXO);
+        Files.write(outra, (PlanilhaSectConfig.CABECALHO + "\n").getBytes(Csv.CHARSET));
+        comOutra.add(new ArquivoCSV(outra));
+        assertNull(IndiceMensal.abrirAtual(comOutra));
+        assertNotNull(IndiceMensal.abrirAtual(arquivos));
+    }
+
+    @Test
+    void horarioInvalidoEhInformadoComoHHMM() {
+        ConsultaIndice consulta = new ConsultaIndice();
+
+        IllegalArgumentException erro = assertThrows(IllegalArgumentException.class, () -> consulta.setHorario(960, 840));
+        assertEquals("Intervalo de horário inválido: 16:00 a 14:00", erro.getMessage());
+        erro = assertThrows(IllegalArgumentException.class, () -> consulta.setHorario(MINUTOS_DIA, MINUTOS_DIA));
+        assertEquals("Intervalo de horário inválido: 24:00 a 24:00", erro.getMessage());
+    }
+
+    /**
+     * Confere o resultado da consulta com as linhas das planilhas que a
+     * satisfazem, na mesma ordem.
+     */
+    private static void conferir(IndiceSetores indice, Planilhas planilhas, Pergunta pergunta) {
+        IndiceSetores.Resultado resultado = indice.consultar(pergunta.consulta);
+        List<String> obtidas = new ArrayList<>();
+        for (int linha = 0; linha < resultado.getQtdLinhas(); linha++) {
+            StringBuilder texto = new StringBuilder().append(resultado.getData(linha)).append(' ')
+                    .append(horario(resultado.getMinuto(linha))).append(' ').append(resultado.getSetor(linha));
+            for (Campo campo : Campo.values()) {
+                texto.append(' ').append(campo.isTexto() ? resultado.getTexto(campo, linha) : resultado.getNumero(campo, linha));
+            }
+            obtidas.add(texto.toString());
+        }
+        List<String> esperadas = planilhas.varrer(pergunta);
+        assertEquals(esperadas, obtidas, pergunta.toString());
+    }
+
+    private Path caminhoDoIndice() {
+        return pasta.resolve("Relatórios").resolve("20240601_a_20240604" + IndiceMensal.SUFIXO + IndiceSetores.EXTENSAO);
+    }
+
+    private static void gravarSnapshot(Path csv, TipoArquivo tipo) throws IOException {
+        String cabecalho = tipo == TipoArquivo.CONFIG ? PlanilhaConfig.CABECALHO : PlanilhaSectConfig.CABECALHO;
+        GravadorSnapshot gravador = new GravadorSnapshot(cabecalho.split(";"));
+        LeitorCsvMapeado.ler(csv, registro -> {
+            if (!registro.conteudoIgual(cabecalho)) {
+                gravador.adicionar(registro);
+            }
+        });
+        BasicFileAttributes atributos = Files.readAttributes(csv, BasicFileAttributes.class);
+        gravador.gravar(Snapshot.getCaminho(csv), tipo, ValidadorArquivos.VERSAO_VALIDADOR, atributos.size(),
+                atributos.lastModifiedTime().toMillis());
+    }
+
+    private static String horario(int minuto) {
+        return String.format(Locale.ROOT, "%02d:%02d", minuto / 60, minuto % 60);
+    }
+
+    private static String data(int dia) {
+        return String.format(Locale.ROOT, "%02d/06/2024", dia + 1);
+    }
+
+    /**
+     * @return a coluna week do dia: 1 para domingo a 7 para sábado
+     */
+    private static int semana(int dia) {
+        return PRIMEIRO_DIA.plusDays(dia).getDayOfWeek().getValue() % 7 + 1;
+    }
+
+    /**
+     * Uma consulta e o critério equivalente para a varredura das linhas.
+     */
+    private static final class Pergunta {
+
+        private final ConsultaIndice consulta = new ConsultaIndice();
+        private final StringBuilder descricao = new StringBuilder();
+        private final List<Campo> campos = new ArrayList<>();
+        private final List<Predicate<Object>> criterios = new ArrayList<>();
+        private final List<String> setores = new ArrayList<>();
+        private int de = 0;
+        private int ate = Integer.MAX_VALUE;
+        private int inicio = 0;
+        private int fim = MINUTOS_DIA;
+
+        private Pergunta setor(String setor) {
+            consulta.adicionarSetor(setor);
+            setores.add(setor);
+            descricao.append(" --setor ").append(setor);
+            return this;
+        }
+
+        private Pergunta periodo(LocalDate de, LocalDate ate) {
+            consulta.setPeriodo(de, ate);
+            if (de != null) {
+                this.de = (int) (de.toEpochDay() - PRIMEIRO_DIA.toEpochDay());
+                descricao.append(" --de ").append(de);
+            }
+            if (ate != null) {
+                this.ate = (int) (ate.toEpochDay() - PRIMEIRO_DIA.toEpochDay());
+                descricao.append(" --ate ").append(ate);
+            }
+            return this;
+        }
+
+        private Pergunta horario(int inicio, int fim) {
+            consulta.setHorario(inicio, fim);
+            this.inicio = inicio;
+            this.fim = fim;
+            descricao.append(" --horario ").append(IndiceSetoresTest.horario(inicio)).append('-').append(IndiceSetoresTest.horario(fim));
+            return this;
+        }
+
+        private Pergunta filtro(Campo campo, String expressao, Predicate<Object> criterio) {
+            consulta.adicionarFiltro(campo, expressao);
+            campos.add(campo);
+            criterios.add(criterio);
+            descricao.append(" --").append(campo.name().toLowerCase(Locale.ROOT).replace('_', '-')).append(" '").append(expressao).append('\'');
+            return this;
+        }
+
+        private boolean porSetor() {
+            return !setores.isEmpty() || campos.stream().anyMatch(Campo::isPorSetor);
+        }
+
+        /**
+         * @return true se os valores satisfazem os filtros dos campos de um
+         * dos tipos de planilha; um campo filtrado sem valor não satisfaz o
+         * filtro
+         */
+        private boolean aceita(boolean porSetor, Object[] valores) {
+            for (int i = 0; i < campos.size(); i++) {
+                Campo campo = campos.get(i);
+                if (campo.isPorSetor() == porSetor && (valores == null || !criterios.get(i).test(valores[campo.ordinal()]))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return descricao.length() == 0 ? "(sem filtros)" : descricao.toString().trim();
+        }
+    }
+
+    /**
+     * As linhas das planilhas do período e as que ficam no índice.
+     */
+    private static final class Planilhas {
+
+        private final List<Minuto> minutos = new ArrayList<>();
+        private final List<SetorMinuto> setores = new ArrayList<>();
+        private final List<String> extrasConfig = new ArrayList<>();
+        private final List<String> extrasSectConfig = new ArrayList<>();
+
+        private Planilhas() {
+            for (int dia : DIAS_CONFIG) {
+                for (int minuto = 0; minuto < MINUTOS_DIA; minuto += 2) {
+                    String configId = minuto < 600 ? "4.6.3" : minuto < 1000 + dia * 60 ? "4.6.4" : "5.0.1";
+                    minutos.add(new Minuto(dia, minuto, '"' + configId + '"', 3 + (minuto / 60) % 4, (minuto / 60) % 3, (minuto * 7 + dia * 11) % 100));
+                }
+            }
+            for (int dia : DIAS_SECT_CONFIG) {
+                for (int minuto = 0; minuto < MINUTOS_DIA; minuto += 3) {
+                    for (int s = 0; s < SETORES.length; s++) {
+                        if (s == 2 && minuto % 9 == 0) {
+                            continue;
+                        }
+                        String ass = (minuto / 60 + s) % 2 == 0 ? "ASS0" + (7 + s) : "";
+                        setores.add(new SetorMinuto(dia, minuto, SETORES[s], "\"4.6.3\"", "CTR0" + (7 + (minuto / 120 + s) % 3), ass,
+                                (minuto * 5 + s * 3 + dia) % 16, (minuto * 13 + s * 7) % 80));
+                    }
+                }
+            }
+            // linhas que ficam fora do índice: repetida, valor inválido e setor não acompanhado
+            extrasConfig.add("7;01/06/2024;01:40:00;\"4.6.3\";9;9;99;S09,S10,S11");
+            extrasSectConfig.add("1;02/06/2024;05:01:00;\"4.6.3\";\"CTR07\";\"\";\"S10\";4;3;5;x;S09,S10,S11");
+            extrasSectConfig.add("1;02/06/2024;05:03:00;\"4.6.3\";\"CTR07\";\"\";\"S99\";4;3;5;5;S09,S10,S11");
+        }
+
+        /**
+         * Grava as planilhas de cada dia, com as linhas que ficam fora do
+         * índice no meio das demais.
+         *
+         * @return as planilhas, em ordem inversa de data
+         */
+        private List<ArquivoCSV> gravar(Path pasta) throws IOException {
+            List<ArquivoCSV> arquivos = new ArrayList<>();
+            for (int dia : DIAS_CONFIG) {
+                List<String> linhas = new ArrayList<>();
+                minutos.stream().filter(m -> m.dia == dia).forEach(m -> linhas.add(m.toString()));
+                inserir(linhas, extrasConfig, dia);
+                arquivos.add(new ArquivoCSV(escrever(pasta, dia, PlanilhaConfig.SUFIXO, PlanilhaConfig.CABECALHO, linhas)));
+            }
+            for (int dia : DIAS_SECT_CONFIG) {
+                List<String> linhas = new ArrayList<>();
+                setores.stream().filter(s -> s.dia == dia).forEach(s -> linhas.add(s.toString()));
+                inserir(linhas, extrasSectConfig, dia);
+                arquivos.add(new ArquivoCSV(escrever(pasta, dia, PlanilhaSectConfig.SUFIXO, PlanilhaSectConfig.CABECALHO, linhas)));
+            }
+            Collections.reverse(arquivos);
+            return arquivos;
+        }
+
+        /**
+         * Insere as linhas extras do dia após a primeira linha do mesmo
+         * horário ou de horário posterior.
+         */
+        private static void inserir(List<String> linhas, List<String> extras, int dia) {
+            for (String extra : extras) {
+                String[] campos = extra.split(";");
+                if (!campos[1].equals(data(dia))) {
+                    continue;
+                }
+                int posicao = 0;
+                while (posicao < linhas.size() && linhas.get(posicao).split(";")[2].compareTo(campos[2]) <= 0) {
+                    posicao++;
+                }
+                linhas.add(posicao, extra);
+            }
+        }
+
+        private static Path escrever(Path pasta, int dia, String sufixo, String cabecalho, List<String> linhas) throws IOException {
+            StringBuilder conteudo = new StringBuilder(cabecalho).append('\n');
+            for (String linha : linhas) {
+                conteudo.append(linha).append('\n');
+            }
+            Path arquivo = pasta.resolve(PRIMEIRO_DIA.plusDays(dia).toString().replace("-", "") + sufixo);
+            Files.write(arquivo, conteudo.toString().getBytes(Csv.CHARSET));
+            return arquivo;
+        }
+
+        /**
+         * Percorre as linhas de cada setor, ou de cada minuto, em ordem, e
+         * mantém as que satisfazem a consulta.
+         *
+         * @return as linhas encontradas, no formato de
+         * {@link IndiceSetoresTest#conferir}
+         */
+        private List<String> varrer(Pergunta pergunta) {
+            Minuto[][] porMinuto = new Minuto[4][MINUTOS_DIA];
+            for (Minuto minuto : minutos) {
+                porMinuto[minuto.dia][minuto.minuto] = minuto;
+            }
+            List<String> encontradas = new ArrayList<>();
+            if (!pergunta.porSetor()) {
+                for (int dia = Math.max(0, pergunta.de); dia <= Math.min(3, pergunta.ate); dia++) {
+                    for (int minuto = pergunta.inicio; minuto < pergunta.fim; minuto++) {
+                        Minuto linha = porMinuto[dia][minuto];
+                        if (linha != null && pergunta.aceita(false, linha.valores())) {
+                            encontradas.add(texto(dia, minuto, null, linha, null));
+                        }
+                    }
+                }
+                return encontradas;
+            }
+
+            List<String> consultados = pergunta.setores.isEmpty() ? Arrays.asList(PlanilhaSectConfig.SETORES) : pergunta.setores;
+            for (String setor : consultados) {
+                SetorMinuto[][] doSetor = new SetorMinuto[4][MINUTOS_DIA];
+                for (SetorMinuto linha : setores) {
+                    if (linha.setor.equals(setor)) {
+                        doSetor[linha.dia][linha.minuto] = linha;
+                    }
+                }
+                for (int dia = Math.max(0, pergunta.de); dia <= Math.min(3, pergunta.ate); dia++) {
+                    for (int minuto = pergunta.inicio; minuto < pergunta.fim; minuto++) {
+                        Minuto config = porMinuto[dia][minuto];
+                        SetorMinuto linha = doSetor[dia][minuto];
+                        if (linha != null && pergunta.aceita(false, config == null ? null : config.valores())
+                                && pergunta.aceita(true, linha.valores())) {
+                            encontradas.add(texto(dia, minuto, setor, config, linha));
+                        }
+                    }
+                }
+            }
+            return encontradas;
+        }
+
+        private static String texto(int dia, int minuto, String setor, Minuto config, SetorMinuto linha) {
+            StringBuilder texto = new StringBuilder().append(PRIMEIRO_DIA.plusDays(dia)).append(' ')
+                    .append(IndiceSetoresTest.horario(minuto)).append(' ').append(setor);
+            Object[] valores = new Object[Campo.values().length];
+            if (config != null) {
+                mesclar(valores, config.valores());
+            }
+            if (linha != null) {
+                mesclar(valores, linha.valores());
+            }
+            for (Campo campo : Campo.values()) {
+                Object valor = valores[campo.ordinal()];
+                texto.append(' ').append(valor == null && !campo.isTexto() ? IndiceSetores.AUSENTE : valor);
+            }
+            return texto.toString();
+        }
+
+        private static void mesclar(Object[] valores, Object[] origem) {
+            for (int i = 0; i < valores.length; i++) {
+                if (origem[i] != null) {
+                    valores[i] = origem[i];
+                }
+            }
+        }
+    }
+
+    /**
+     * Uma linha da planilha config.
+     */
+    private static final class Minuto {
+
+        private final int dia;
+        private final int minuto;
+        private final String configId;
+        private final int qtdCtr;
+        private final int qtdAss;
+        private final int mov;
+
+        private Minuto(int dia, int minuto, String configId, int qtdCtr, int qtdAss, int mov) {
+            this.dia = dia;
+            this.minuto = minuto;
+            this.configId = configId;
+            this.qtdCtr = qtdCtr;
+            this.qtdAss = qtdAss;
+            this.mov = mov;
+        }
+
+        /**
+         * @return o valor de cada campo da config, sem aspas, na posição do
+         * campo
+         */
+        private Object[] valores() {
+            Object[] valores = new Object[Campo.values().length];
+            valores[Campo.CONFIG_ID.ordinal()] = configId.substring(1, configId.length() - 1);
+            valores[Campo.QTD_CTR.ordinal()] = qtdCtr;
+            valores[Campo.QTD_ASS.ordinal()] = qtdAss;
+            valores[Campo.MOV.ordinal()] = mov;
+            return valores;
+        }
+
+        @Override
+        public String toString() {
+            return semana(dia) + ";" + data(dia) + ";" + horario(minuto) + ":00;" + configId + ";" + qtdCtr + ";" + qtdAss + ";" + mov
+                    + ";S09,S10,S11";
+        }
+    }
+
+    /**
+     * Uma linha da planilha sect_config.
+     */
+    private static final class SetorMinuto {
+
+        private final int dia;
+        private final int minuto;
+        private final String setor;
+        private final String configId;
+        private final String ctr;
+        private final String ass;
+        private final int movSet;
+        private final int movAtco;
+
+        private SetorMinuto(int dia, int minuto, String setor, String configId, String ctr, String ass, int movSet, int movAtco) {
+            this.dia = dia;
+            this.minuto = minuto;
+            this.setor = setor;
+            this.configId = configId;
+            this.ctr = ctr;
+            this.ass = ass;
+            this.movSet = movSet;
+            this.movAtco = movAtco;
+        }
+
+        /**
+         * @return o valor de cada campo da sect_config, sem aspas, na posição
+         * do campo
+         */
+        private Object[] valores() {
+            Object[] valores = new Object[Campo.values().length];
+            valores[Campo.CTR.ordinal()] = ctr;
+            valores[Campo.ASS.ordinal()] = ass;
+            valores[Campo.MOV_SET.ordinal()] = movSet;
+            valores[Campo.MOV_ATCO.ordinal()] = movAtco;
+            return valores;
+        }
+
+        @Override
+        public String toString() {
+            return semana(dia) + ";" + data(dia) + ";" + horario(minuto) + ":00;" + configId + ";\"" + ctr + "\";\"" + ass + "\";\""
+                    + setor + "\";4;3;" + movAtco + ";" + movSet + ";S09,S10,S11";
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package org.example.snapshot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+
+import org.example.csv.Csv;
+import org.example.csv.LeitorCsvMapeado;
+import org.example.model.TipoArquivo;
+import org.example.service.PlanilhaSectConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Gravação e leitura de um {@link Snapshot} de uma planilha sect_config
+ * pequena, e rejeição de snapshots corrompidos ou desatualizados.
+ *
+ * @author luisg
+ */
+class SnapshotTest {
+
+    private static final String VERSAO = "teste";
+    private static final String[] LINHAS = {
+        "7;01/06/2024;00:00:00;\"4.6.3\";\"CTR07\";\"ASS07\";\"S10\";4;3;3;2;S09,S10,S11",
+        "7;01/06/2024;00:00:00;\"4.6.3\";\"CTR08\";\"\";\"S12\";4;3;12;0;S12,S13",
+        "7;01/06/2024;00:01:00;\"4.6.3\";\"CTR07\";\"ASS07\";\"S10\";4;3;5;03;S09,S10,S11",};
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    void snapshotGravadoEhLidoComOsMesmosCampos() throws IOException {
+        Path csv = escreverSectConfig();
+        Snapshot snapshot = Snapshot.abrir(gravar(csv));
+
+        assertEquals(VERSAO, snapshot.getVersaoValidador());
+        assertEquals(TipoArquivo.SECT_CONFIG, snapshot.getTipo());
+        BasicFileAttributes atributos = Files.readAttributes(csv, BasicFileAttributes.class);
+        assertEquals(atributos.size(), snapshot.getTamanhoOrigem());
+        assertEquals(atributos.lastModifiedTime().toMillis(), snapshot.getModificadoOrigem());
+        assertEquals(LINHAS.length, snapshot.getQtdLinhas());
+
+        String[] nomes = PlanilhaSectConfig.CABECALHO.split(";");
+        assertEquals(nomes.length, snapshot.getColunas().size());
+        for (int linha = 0; linha < LINHAS.length; linha++) {
+            // o cabeçalho é a linha 1 do arquivo
+            assertEquals(linha + 2, snapshot.getEndereco(linha));
+            String[] campos = LINHAS[linha].split(";");
+            for (int i = 0; i < nomes.length; i++) {
+                Snapshot.Coluna coluna = snapshot.getColunas().get(i);
+                assertEquals(nomes[i], coluna.getNome());
+                assertEquals(campos[i], coluna.getTexto(linha), nomes[i] + ", linha " + linha);
+                assertEquals(coluna.getCodigo(linha), coluna.buscar(campos[i]));
+            }
+        }
+
+        Snapshot.Coluna setor = snapshot.getColuna(nomes[6]);
+        assertEquals(2, setor.getQtdValores());
+        assertEquals(Snapshot.Coluna.AUSENTE, setor.buscar("\"S01\""));
+        // os códigos seguem a ordem dos textos
+        assertTrue(setor.getCodigo(0) < setor.getCodigo(1));
+
+        Snapshot.Coluna movSet = snapshot.getColuna(nomes[10]);
+        assertEquals(2, movSet.getNumero(movSet.getCodigo(0)));
+        assertEquals(0, movSet.getNumero(movSet.getCodigo(1)));
+        assertEquals(Snapshot.Coluna.NUMERO_INVALIDO, movSet.getNumero(movSet.getCodigo(2)));
+
+        assertNotNull(Snapshot.abrirAtual(csv, TipoArquivo.SECT_CONFIG, VERSAO));
+        assertNull(Snapshot.abrirAtual(csv, TipoArquivo.CONFIG, VERSAO));
+        assertNull(Snapshot.abrirAtual(csv, TipoArquivo.SECT_CONFIG, VERSAO + ".1"));
+    }
+
+    @Test
+    void byteAlteradoEhRejeitadoPeloChecksum() throws IOException {
+        Path csv = escreverSectConfig();
+        byte[] original = Files.readAllBytes(gravar(csv));
+        Path alterado = pasta.resolve("alterado" + Snapshot.EXTENSAO);
+        for (int i = 0; i < original.length; i++) {
+            byte[] dados = original.clone();
+            dados[i] ^= 0x01;
+            Files.write(alterado, dados);
+
+            IOException erro = assertThrows(IOException.class, () -> Snapshot.abrir(alterado), "byte " + i);
+            assertTrue(erro.getMessage().startsWith("Checksum não confere"), erro.getMessage());
+        }
+    }
+
+    @Test
+    void arquivoTruncadoEhRejeitado() throws IOException {
+        Path csv = escreverSectConfig();
+        byte[] original = Files.readAllBytes(gravar(csv));
+        Path truncado = pasta.resolve("truncado" + Snapshot.EXTENSAO);
+        for (int tamanho = 0; tamanho < original.length; tamanho++) {
+            Files.write(truncado, Arrays.copyOf(original, tamanho));
+
+            assertThrows(IOException.class, () -> Snapshot.abrir(truncado), tamanho + " bytes");
+        }
+    }
+
+    @Test
+    void snapshotDeixaDeSerAtualQuandoOArquivoMuda() throws IOException {
+        Path csv = escreverSectConfig();
+        assertFalse(Snapshot.isAtual(csv));
+        gravar(csv);
+        assertTrue(Snapshot.isAtual(csv));
+
+        FileTime modificado = Files.getLastModifiedTime(csv);
+        Files.setLastModifiedTime(csv, FileTime.fromMillis(modificado.toMillis() + 1000));
+        assertFalse(Snapshot.isAtual(csv));
+        Files.setLastModifiedTime(csv, modificado);
+        assertTrue(Snapshot.isAtual(csv));
+
+        Files.write(csv, (LINHAS[0] + "\n").getBytes(Csv.CHARSET), StandardOpenOption.APPEND);
+        Files.setLastModifiedTime(csv, modificado);
+        assertFalse(Snapshot.isAtual(csv));
+        assertNull(Snapshot.abrirAtual(csv, TipoArquivo.SECT_CONFIG, VERSAO));
+    }
+
+    private Path escreverSectConfig() throws IOException {
+        StringBuilder conteudo = new StringBuilder(PlanilhaSectConfig.CABECALHO).append('\n');
+        for (String linha : LINHAS) {
+            conteudo.append(linha).append('\n');
+        }
+        Path csv = pasta.resolve("20240601_sect_config.csv");
+        Files.write(csv, conteudo.toString().getBytes(Csv.CHARSET));
+        return csv;
+    }
+
+    /**
+     * Grava o snapshot das linhas do arquivo, exceto o cabeçalho, com o
+     * tamanho e a data de modificação atuais do arquivo.
+     */
+    private static Path gravar(Path csv) throws IOException {
+        GravadorSnapshot gravador = new GravadorSnapshot(PlanilhaSectConfig.CABECALHO.split(";"));
+        LeitorCsvMapeado.ler(csv, registro -> {
+            if (!registro.conteudoIgual(PlanilhaSectConfig.CABECALHO)) {
+                gravador.adicionar(registro);
+            }
+        });
+        BasicFileAttributes atributos = Files.readAttributes(csv, BasicFileAttributes.class);
+        Path destino = Snapshot.getCaminho(csv);
+        gravador.gravar(destino, TipoArquivo.SECT_CONFIG, VERSAO, atributos.size(), atributos.lastModifiedTime().toMillis());
+        return destino;
+    }
+}
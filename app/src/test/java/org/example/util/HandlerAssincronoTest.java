@@ -0,0 +1,184 @@
+package org.example.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.example.util.HandlerAssincrono.PoliticaBufferCheio;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Entrega, descarte e fechamento do {@link HandlerAssincrono}, com um handler
+ * de destino que segura o escritor até ser liberado.
+ *
+ * @author luisg
+ */
+class HandlerAssincronoTest {
+
+    private static final long ESPERA_MS = 5000;
+
+    @Test
+    void bloquearEsperaPorEspacoSemDescartar() throws InterruptedException {
+        Destino destino = new Destino();
+        HandlerAssincrono handler = new HandlerAssincrono(destino, 2, PoliticaBufferCheio.BLOQUEAR);
+        handler.publish(registro(Level.INFO, "a"));
+        destino.aguardarRecebimento();
+
+        Thread produtor = new Thread(() -> {
+            for (String mensagem : new String[]{"b", "c", "d", "e"}) {
+                handler.publish(registro(Level.FINE, mensagem));
+            }
+        });
+        produtor.start();
+        aguardarEstado(produtor, Thread.State.WAITING);
+        // o buffer tem "b" e "c"; "d" espera por espaço
+        assertTrue(produtor.isAlive());
+
+        destino.liberar();
+        produtor.join(ESPERA_MS);
+        handler.close();
+
+        assertEquals(0, handler.getDescartados());
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), destino.mensagens());
+    }
+
+    @Test
+    void descartarInformaAQuantidadeDescartadaEMantemAvisos() throws InterruptedException {
+        Destino destino = new Destino();
+        HandlerAssincrono handler = new HandlerAssincrono(destino, 2, PoliticaBufferCheio.DESCARTAR);
+        handler.publish(registro(Level.INFO, "a"));
+        destino.aguardarRecebimento();
+
+        for (String mensagem : new String[]{"b", "c", "x1", "x2", "x3"}) {
+            handler.publish(registro(Level.INFO, mensagem));
+        }
+        assertEquals(3, handler.getDescartados());
+
+        // um aviso não é descartado: espera por espaço mesmo com DESCARTAR
+        Thread produtor = new Thread(() -> handler.publish(registro(Level.WARNING, "aviso")));
+        produtor.start();
+        aguardarEstado(produtor, Thread.State.WAITING);
+
+        destino.liberar();
+        produtor.join(ESPERA_MS);
+        handler.close();
+
+        assertEquals(3, handler.getDescartados());
+        List<String> mensagens = destino.mensagens();
+        assertEquals(Arrays.asList("a", "3 mensagens de log descartadas: buffer cheio", "b", "c", "aviso"), mensagens);
+        assertEquals(Level.WARNING, destino.registros.get(1).getLevel());
+    }
+
+    /**
+     * Registros enfileirados depois que {@link HandlerAssincrono#close()}
+     * começou a aguardar os anteriores são escritos antes de o destino ser
+     * fechado.
+     */
+    @Test
+    void fecharEscreveOsRegistrosEnfileiradosDuranteOFechamento() throws InterruptedException {
+        Destino destino = new Destino();
+        // o escritor só sai de "c" quando for interrompido pelo fechamento
+        destino.aoPublicar = record -> record.getMessage().equals("c");
+        HandlerAssincrono handler = new HandlerAssincrono(destino, 10, PoliticaBufferCheio.BLOQUEAR);
+        handler.publish(registro(Level.INFO, "a"));
+        destino.aguardarRecebimento();
+        handler.publish(registro(Level.INFO, "b"));
+
+        Thread fechamento = new Thread(handler::close);
+        fechamento.start();
+        aguardarEstado(fechamento, Thread.State.TIMED_WAITING);
+        handler.publish(registro(Level.INFO, "c"));
+        handler.publish(registro(Level.INFO, "d"));
+
+        destino.liberar();
+        fechamento.join(ESPERA_MS);
+
+        assertEquals(Arrays.asList("a", "b", "c", "d"), destino.mensagens());
+        assertTrue(destino.fechado);
+    }
+
+    private static LogRecord registro(Level nivel, String mensagem) {
+        LogRecord registro = new LogRecord(nivel, mensagem);
+        registro.setLoggerName("teste");
+        return registro;
+    }
+
+    private static void aguardarEstado(Thread thread, Thread.State estado) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ESPERA_MS);
+        while (thread.getState() != estado) {
+            assertTrue(System.nanoTime() < limite, "thread em " + thread.getState() + ", esperado " + estado);
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Handler que guarda os registros recebidos e segura o escritor até
+     * {@link #liberar()}.
+     */
+    private static final class Destino extends Handler {
+
+        private final List<LogRecord> registros = new ArrayList<>();
+        private final CountDownLatch recebido = new CountDownLatch(1);
+        private final CountDownLatch liberado = new CountDownLatch(1);
+        private volatile boolean fechado;
+
+        /**
+         * Registros nos quais o escritor espera até ser interrompido.
+         */
+        private Predicate<LogRecord> aoPublicar = record -> false;
+
+        @Override
+        public void publish(LogRecord record) {
+            synchronized (registros) {
+                registros.add(record);
+            }
+            recebido.countDown();
+            try {
+                liberado.await();
+                if (aoPublicar.test(record)) {
+                    while (true) {
+                        Thread.sleep(10);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+            fechado = true;
+        }
+
+        private void aguardarRecebimento() throws InterruptedException {
+            assertTrue(recebido.await(ESPERA_MS, TimeUnit.MILLISECONDS));
+        }
+
+        private void liberar() {
+            liberado.countDown();
+        }
+
+        private List<String> mensagens() {
+            List<String> mensagens = new ArrayList<>();
+            synchronized (registros) {
+                for (LogRecord registro : registros) {
+                    mensagens.add(registro.getMessage());
+                }
+            }
+            return mensagens;
+        }
+    }
+}
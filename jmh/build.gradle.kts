@@ -0,0 +1,54 @@
+/*
+ * Benchmarks JMH dos caminhos de leitura e validação do módulo app.
+ *
+ * Execução: ./gradlew :jmh:jmh
+ * Apenas alguns benchmarks: ./gradlew :jmh:jmh -Pjmh.includes=Verificacoes
+ * O resultado fica em jmh/build/results/jmh/results.json.
+ */
+
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+repositories {
+    mavenCentral()
+}
+
+dependencies {
+    jmh(project(":app"))
+}
+
+java {
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(17)
+    }
+}
+
+jmh {
+    jmhVersion = libs.versions.jmh
+    benchmarkMode = listOf("thrpt")
+    timeUnit = "s"
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+    jvmArgsAppend = listOf(
+        "-Dvalidador.bench.dados=" + rootProject.file("sampleData").absolutePath,
+        "-Dvalidador.log.nivel=OFF"
+    )
+    providers.gradleProperty("jmh.includes").orNull?.let { includes = listOf(it) }
+}
+
+/*
+ * Gera planilhas sintéticas para testes de escala, por exemplo:
+ * ./gradlew :jmh:gerarDados -Pargs="--saida build/dados --dias 365 --defeitos 0.001"
+ */
+tasks.register<JavaExec>("gerarDados") {
+    group = "application"
+    description = "Gera planilhas config, sect_config e flights sintéticas."
+    classpath = sourceSets["jmh"].runtimeClasspath
+    mainClass = "org.example.bench.GeradorSagitario"
+    args = providers.gradleProperty("args").orNull?.split(" ")?.filter { it.isNotBlank() } ?: emptyList()
+}
@@ -0,0 +1,121 @@
+package org.example.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.example.csv.Csv;
+import org.example.model.TipoArquivo;
+
+/**
+ * Arquivos de entrada dos benchmarks.
+ *
+ * <p>
+ * As planilhas config e sect_config partem do primeiro dia da pasta
+ * sampleData, informada pela propriedade {@code validador.bench.dados}. Com
+ * {@code fator} maior que 1 as linhas do dia são repetidas para formar um
+ * arquivo maior, mantendo um único cabeçalho. Como sampleData não traz
+ * planilhas flights, elas são criadas pelo {@link GeradorSagitario}: cerca
+ * de {@code fator} * 20000 voos, com SSR inválido em 0,1% deles para que o
+ * caminho de erro também seja exercitado.</p>
+ *
+ * @author luisg
+ */
+public final class Amostras {
+
+    public static final String CONFIG = "config";
+    public static final String SECT_CONFIG = "sect_config";
+    public static final String FLIGHTS = "flights";
+
+    /**
+     * Voos na hora de pico que resultam em cerca de 20000 voos por dia.
+     */
+    private static final int VOOS_POR_HORA = 1200;
+
+    private Amostras() {
+    }
+
+    /**
+     * Cria o arquivo de entrada em um diretório temporário, com o nome
+     * esperado pela identificação do tipo de planilha.
+     *
+     * @param tipo {@link #CONFIG}, {@link #SECT_CONFIG} ou {@link #FLIGHTS}
+     * @param fator quantas vezes o conteúdo da amostra é repetido
+     * @return o caminho do arquivo criado
+     * @throws IOException se não for possível ler a amostra ou gravar o
+     * arquivo
+     */
+    public static Path criar(String tipo, int fator) throws IOException {
+        Path diretorio = Files.createTempDirectory("bench-");
+        if (FLIGHTS.equals(tipo)) {
+            return new GeradorSagitario()
+                    .tipos(EnumSet.of(TipoArquivo.FLIGHTS))
+                    .voosPorHora(VOOS_POR_HORA * fator)
+                    .defeito(GeradorSagitario.Defeito.SSR_INVALIDO, 0.001)
+                    .gerar(diretorio)
+                    .get(0);
+        }
+
+        Path arquivo = diretorio.resolve("20240601_" + tipo + ".csv");
+        List<String> linhas = Files.readAllLines(amostra(tipo), Csv.CHARSET);
+        try (BufferedWriter escritor = Files.newBufferedWriter(arquivo, Csv.CHARSET)) {
+            escritor.write(linhas.get(0));
+            escritor.newLine();
+            for (int i = 0; i < fator; i++) {
+                for (String linha : linhas.subList(1, linhas.size())) {
+                    escritor.write(linha);
+                    escritor.newLine();
+                }
+            }
+        }
+        return arquivo;
+    }
+
+    /**
+     * Lê o arquivo inteiro para um buffer, para benchmarks que não devem medir
+     * a leitura do disco.
+     *
+     * @param arquivo o arquivo a ser lido
+     * @return um buffer com o conteúdo do arquivo
+     * @throws IOException se não for possível ler o arquivo
+     */
+    public static ByteBuffer carregar(Path arquivo) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(arquivo));
+    }
+
+    /**
+     * Exclui o diretório temporário criado por {@link #criar(String, int)},
+     * incluindo os relatórios gerados nele.
+     *
+     * @param arquivo o arquivo criado
+     */
+    public static void excluir(Path arquivo) {
+        try (Stream<Path> caminhos = Files.walk(arquivo.getParent())) {
+            for (Path caminho : caminhos.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(caminho);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path amostra(String tipo) throws IOException {
+        Path dados = Paths.get(System.getProperty("validador.bench.dados", "sampleData"));
+        try (Stream<Path> arquivos = Files.list(dados)) {
+            return arquivos
+                    .filter(p -> p.getFileName().toString().matches("\\d{8}_" + tipo + "\\.csv"))
+                    .sorted()
+                    .findFirst()
+                    .orElseThrow(() -> new IOException("Nenhuma amostra " + tipo + " em " + dados.toAbsolutePath()));
+        }
+    }
+}
@@ -0,0 +1,674 @@
+package org.example.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+import org.example.csv.Csv;
+import org.example.model.TipoArquivo;
+import org.example.service.PlanilhaConfig;
+import org.example.service.PlanilhaFlights;
+import org.example.service.PlanilhaSectConfig;
+
+/**
+ * Gerador de planilhas config, sect_config e flights sintéticas, no formato
+ * exportado pelo SAGITARIO.
+ *
+ * <p>
+ * Para cada dia são sorteados os voos de cada hora, conforme um perfil de
+ * tráfego diário e a quantidade de {@link #voosPorHora(int) voos por hora}
+ * informada, e o setor em que cada voo entra. A carga de um setor em um
+ * minuto é a quantidade de voos que entraram nele nos últimos
+ * {@value #PERMANENCIA_MINUTOS} minutos. A configuração (config_id e
+ * agrupamento dos setores em posições) muda a cada 15 minutos, acompanhando o
+ * tráfego. As três planilhas do dia são coerentes entre si: MOV da config é a
+ * soma dos MOV_SET da sect_config no mesmo minuto, e cada voo da flights
+ * aponta o config_id, a posição e o setor vigentes no horário de entrada.</p>
+ *
+ * <p>
+ * Cada {@link Defeito} pode ser injetado com uma taxa própria: a
+ * probabilidade de cada linha, ou de cada minuto nos defeitos de horário,
+ * receber o defeito. A mesma semente gera sempre os mesmos arquivos.</p>
+ *
+ * <p>
+ * Uso pela linha de comando: {@code ./gradlew :jmh:gerarDados
+ * -Pargs="--saida dados --dias 365 --voos-por-hora 1200 --defeitos 0.001"}.
+ * Sem argumentos, lista as opções.</p>
+ *
+ * @author luisg
+ */
+public final class GeradorSagitario {
+
+    /**
+     * Classes de defeito detectadas pelos validadores.
+     */
+    public enum Defeito {
+        /**
+         * Minuto sem nenhuma linha.
+         */
+        HORARIO_AUSENTE(true, TipoArquivo.CONFIG, TipoArquivo.SECT_CONFIG),
+        /**
+         * Minuto com a linha repetida.
+         */
+        HORARIO_DUPLICADO(true, TipoArquivo.CONFIG),
+        /**
+         * Minuto com mais linhas do que setores existentes.
+         */
+        EXCESSO_DE_REGISTROS(true, TipoArquivo.SECT_CONFIG),
+        /**
+         * Linha com um campo a mais.
+         */
+        QTD_CAMPOS(false, TipoArquivo.CONFIG, TipoArquivo.SECT_CONFIG, TipoArquivo.FLIGHTS),
+        /**
+         * Linha com um campo obrigatório vazio.
+         */
+        CAMPO_VAZIO(false, TipoArquivo.CONFIG, TipoArquivo.SECT_CONFIG, TipoArquivo.FLIGHTS),
+        /**
+         * Linha com horário fora da faixa ou data inexistente.
+         */
+        DATA_HORA_INVALIDA(false, TipoArquivo.CONFIG, TipoArquivo.SECT_CONFIG, TipoArquivo.FLIGHTS),
+        /**
+         * Linha com QTD_CTR diferente do config_id.
+         */
+        QTD_CTR_INCOMPATIVEL(false, TipoArquivo.SECT_CONFIG),
+        /**
+         * Linha com QTD_ASS diferente do config_id.
+         */
+        QTD_ASS_INCOMPATIVEL(false, TipoArquivo.SECT_CONFIG),
+        /**
+         * Linha com config_id fora do formato QTD_CTR.X.QTD_ASS.
+         */
+        CONFIG_ID_INVALIDO(false, TipoArquivo.SECT_CONFIG),
+        /**
+         * Voo com código SSR que não é octal.
+         */
+        SSR_INVALIDO(false, TipoArquivo.FLIGHTS);
+
+        private final boolean porMinuto;
+        private final Set<TipoArquivo> tipos;
+
+        Defeito(boolean porMinuto, TipoArquivo primeiro, TipoArquivo... demais) {
+            this.porMinuto = porMinuto;
+            this.tipos = EnumSet.of(primeiro, demais);
+        }
+
+        /**
+         * @return true se a taxa se aplica a cada minuto, false se a cada
+         * linha
+         */
+        public boolean isPorMinuto() {
+            return porMinuto;
+        }
+
+        /**
+         * @return os tipos de planilha em que o defeito pode ser injetado
+         */
+        public Set<TipoArquivo> getTipos() {
+            return tipos;
+        }
+    }
+
+    /**
+     * Minutos que um voo conta na carga do setor em que entrou.
+     */
+    public static final int PERMANENCIA_MINUTOS = 8;
+
+    private static final int MINUTOS_DIA = 24 * 60;
+    private static final int MAX_SETORES_POR_POSICAO = 18;
+    private static final int MIN_POSICOES = 2;
+    private static final int MAX_POSICOES = 18;
+    private static final DateTimeFormatter DIA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final DateTimeFormatter NOME = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter DOF = DateTimeFormatter.ofPattern("yyMMdd");
+    /**
+     * Fração do tráfego de pico em cada hora do dia.
+     */
+    private static final double[] PERFIL = {
+        0.25, 0.18, 0.12, 0.10, 0.12, 0.25, 0.55, 0.85, 1.00, 0.95, 0.90, 0.88,
+        0.85, 0.82, 0.85, 0.90, 0.95, 1.00, 0.98, 0.90, 0.75, 0.60, 0.45, 0.35};
+    private static final String[] EMPRESAS = {"TAM", "GLO", "AZU", "ONE", "PTB", "PAM", "TTL"};
+    private static final String[] AEROPORTOS = {"SBGR", "SBSP", "SBKP", "SBCT", "SBPA", "SBFL", "SBRJ", "SBGL", "SBBR", "SBCF", "SBSJ", "SBNF"};
+
+    private LocalDate inicio = LocalDate.of(2024, 6, 1);
+    private int dias = 1;
+    private int setores = PlanilhaSectConfig.SETORES.length;
+    private int posicoes = 7;
+    private int voosPorHora = 120;
+    private long semente = 1;
+    private Set<TipoArquivo> tipos = EnumSet.of(TipoArquivo.CONFIG, TipoArquivo.SECT_CONFIG, TipoArquivo.FLIGHTS);
+    private final double[] taxas = new double[Defeito.values().length];
+    private final long[] injetados = new long[Defeito.values().length];
+
+    /**
+     * @param inicio o primeiro dia gerado
+     * @return este gerador
+     */
+    public GeradorSagitario inicio(LocalDate inicio) {
+        this.inicio = inicio;
+        return this;
+    }
+
+    /**
+     * @param dias quantidade de dias gerados, com um arquivo de cada tipo
+     * por dia
+     * @return este gerador
+     */
+    public GeradorSagitario dias(int dias) {
+        this.dias = exigirPositivo(dias, "dias");
+        return this;
+    }
+
+    /**
+     * @param setores quantidade de setores ativos, os primeiros de
+     * {@link PlanilhaSectConfig#SETORES}
+     * @return este gerador
+     */
+    public GeradorSagitario setores(int setores) {
+        if (setores < MIN_POSICOES || setores > PlanilhaSectConfig.SETORES.length) {
+            throw new IllegalArgumentException("setores deve estar entre " + MIN_POSICOES + " e " + PlanilhaSectConfig.SETORES.length);
+        }
+        this.setores = setores;
+        return this;
+    }
+
+    /**
+     * @param posicoes quantidade máxima de posições de controle (CTR) abertas
+     * no pico, de 2 a 18, a faixa aceita no config_id
+     * @return este gerador
+     */
+    public GeradorSagitario posicoes(int posicoes) {
+        if (posicoes < MIN_POSICOES || posicoes > MAX_POSICOES) {
+            throw new IllegalArgumentException("posicoes deve estar entre " + MIN_POSICOES + " e " + MAX_POSICOES);
+        }
+        this.posicoes = posicoes;
+        return this;
+    }
+
+    /**
+     * @param voosPorHora quantidade de voos na hora de pico
+     * @return este gerador
+     */
+    public GeradorSagitario voosPorHora(int voosPorHora) {
+        this.voosPorHora = exigirPositivo(voosPorHora, "voosPorHora");
+        return this;
+    }
+
+    /**
+     * @param semente semente dos sorteios
+     * @return este gerador
+     */
+    public GeradorSagitario semente(long semente) {
+        this.semente = semente;
+        return this;
+    }
+
+    /**
+     * @param tipos tipos de planilha gerados
+     * @return este gerador
+     */
+    public GeradorSagitario tipos(Set<TipoArquivo> tipos) {
+        this.tipos = EnumSet.copyOf(tipos);
+        this.tipos.remove(TipoArquivo.DESCONHECIDO);
+        return this;
+    }
+
+    /**
+     * @param defeito a classe de defeito
+     * @param taxa probabilidade, de 0 a 1, de cada linha ou minuto receber o
+     * defeito
+     * @return este gerador
+     */
+    public GeradorSagitario defeito(Defeito defeito, double taxa) {
+        if (taxa < 0 || taxa > 1) {
+            throw new IllegalArgumentException("taxa deve estar entre 0 e 1");
+        }
+        taxas[defeito.ordinal()] = taxa;
+        return this;
+    }
+
+    /**
+     * @param taxa probabilidade aplicada a todas as classes de defeito
+     * @return este gerador
+     */
+    public GeradorSagitario defeitos(double taxa) {
+        for (Defeito defeito : Defeito.values()) {
+            defeito(defeito, taxa);
+        }
+        return this;
+    }
+
+    /**
+     * @param defeito a classe de defeito
+     * @return quantas linhas ou minutos receberam o defeito na última
+     * geração
+     */
+    public long getInjetados(Defeito defeito) {
+        return injetados[defeito.ordinal()];
+    }
+
+    /**
+     * Gera os arquivos de todos os dias.
+     *
+     * @param diretorio onde os arquivos são gravados
+     * @return os arquivos gerados, em ordem de dia e tipo
+     * @throws IOException se não for possível gravar algum arquivo
+     */
+    public List<Path> gerar(Path diretorio) throws IOException {
+        Files.createDirectories(diretorio);
+        Arrays.fill(injetados, 0);
+        List<Path> arquivos = new ArrayList<>();
+        for (int d = 0; d < dias; d++) {
+            LocalDate data = inicio.plusDays(d);
+            new Dia(data, new Random(semente * 31 + data.toEpochDay())).gravar(diretorio, arquivos);
+        }
+        return arquivos;
+    }
+
+    /**
+     * Um dia gerado: voos, carga dos setores e configuração de cada minuto.
+     */
+    private final class Dia {
+
+        private final LocalDate data;
+        private final Random random;
+        private final String semana;
+        private final String dia;
+        /**
+         * Voos do dia em ordem de entrada: segundo do dia e setor.
+         */
+        private int[] segundos = new int[0];
+        private int[] setoresVoos = new int[0];
+        private final int[][] carga = new int[setores][MINUTOS_DIA];
+        private final Configuracao[] configuracoes = new Configuracao[MINUTOS_DIA];
+
+        private Dia(LocalDate data, Random random) {
+            this.data = data;
+            this.random = random;
+            this.semana = Integer.toString(data.getDayOfWeek().getValue() % 7 + 1);
+            this.dia = data.format(DIA);
+            sortearConfiguracoes();
+            sortearVoos();
+        }
+
+        private void sortearConfiguracoes() {
+            int minimo = Math.max(MIN_POSICOES, (setores + MAX_SETORES_POR_POSICAO - 1) / MAX_SETORES_POR_POSICAO);
+            int maximo = Math.min(posicoes, setores);
+            Configuracao atual = null;
+            for (int minuto = 0; minuto < MINUTOS_DIA; minuto += 15) {
+                double perfil = PERFIL[minuto / 60];
+                int qtdCtr = (int) Math.round(maximo * (0.3 + 0.7 * perfil) + random.nextGaussian() * 0.3);
+                qtdCtr = Math.max(minimo, Math.min(maximo, qtdCtr));
+                if (atual == null || atual.qtdCtr != qtdCtr) {
+                    int qtdAss = Math.max(0, qtdCtr - 1 - random.nextInt(2));
+                    atual = new Configuracao(qtdCtr, 1 + random.nextInt(60), qtdAss);
+                }
+                Arrays.fill(configuracoes, minuto, Math.min(MINUTOS_DIA, minuto + 15), atual);
+            }
+        }
+
+        private void sortearVoos() {
+            int total = 0;
+            int[] porHora = new int[24];
+            for (int hora = 0; hora < 24; hora++) {
+                porHora[hora] = Math.max(0, (int) Math.round(voosPorHora * PERFIL[hora] * (1 + random.nextGaussian() * 0.05)));
+                total += porHora[hora];
+            }
+            segundos = new int[total];
+            setoresVoos = new int[total];
+            int v = 0;
+            for (int hora = 0; hora < 24; hora++) {
+                int inicioVoos = v;
+                for (int i = 0; i < porHora[hora]; i++, v++) {
+                    segundos[v] = hora * 3600 + random.nextInt(3600);
+                }
+                Arrays.sort(segundos, inicioVoos, v);
+            }
+            for (v = 0; v < total; v++) {
+                int setor = random.nextInt(setores);
+                setoresVoos[v] = setor;
+                int minuto = segundos[v] / 60;
+                for (int m = minuto; m < Math.min(MINUTOS_DIA, minuto + PERMANENCIA_MINUTOS); m++) {
+                    carga[setor][m]++;
+                }
+            }
+        }
+
+        private void gravar(Path diretorio, List<Path> arquivos) throws IOException {
+            String nome = data.format(NOME);
+            if (tipos.contains(TipoArquivo.CONFIG)) {
+                arquivos.add(gravar(diretorio.resolve(nome + "_config.csv"), PlanilhaConfig.CABECALHO, this::escreverConfig));
+            }
+            if (tipos.contains(TipoArquivo.SECT_CONFIG)) {
+                arquivos.add(gravar(diretorio.resolve(nome + "_sect_config.csv"), PlanilhaSectConfig.CABECALHO, this::escreverSectConfig));
+            }
+            if (tipos.contains(TipoArquivo.FLIGHTS)) {
+                arquivos.add(gravar(diretorio.resolve(nome + "_flights.csv"), PlanilhaFlights.CABECALHO, this::escreverFlights));
+            }
+        }
+
+        private Path gravar(Path arquivo, String cabecalho, Escrita escrita) throws IOException {
+            try (BufferedWriter escritor = Files.newBufferedWriter(arquivo, Csv.CHARSET)) {
+                escritor.write(cabecalho);
+                escritor.write('\n');
+                escrita.escrever(escritor);
+            }
+            return arquivo;
+        }
+
+        private void escreverConfig(BufferedWriter escritor) throws IOException {
+            for (int minuto = 0; minuto < MINUTOS_DIA; minuto++) {
+                if (sortear(Defeito.HORARIO_AUSENTE)) {
+                    continue;
+                }
+                Configuracao c = configuracoes[minuto];
+                int mov = 0;
+                for (int setor = 0; setor < setores; setor++) {
+                    mov += carga[setor][minuto];
+                }
+                String[] campos = {semana, dia, horario(minuto * 60), c.configId, Integer.toString(c.qtdCtr),
+                    Integer.toString(c.qtdAss), Integer.toString(mov), c.sectConfig};
+                String linha = linha(campos, TipoArquivo.CONFIG, 2, 1);
+                escrever(escritor, linha);
+                if (sortear(Defeito.HORARIO_DUPLICADO)) {
+                    escrever(escritor, linha);
+                }
+            }
+        }
+
+        private void escreverSectConfig(BufferedWriter escritor) throws IOException {
+            for (int minuto = 0; minuto < MINUTOS_DIA; minuto++) {
+                if (sortear(Defeito.HORARIO_AUSENTE)) {
+                    continue;
+                }
+                Configuracao c = configuracoes[minuto];
+                List<String> linhas = new ArrayList<>();
+                for (int posicao = 0; posicao < c.qtdCtr; posicao++) {
+                    int movAtco = 0;
+                    for (int setor = c.primeiroSetor[posicao]; setor < c.primeiroSetor[posicao + 1]; setor++) {
+                        movAtco += carga[setor][minuto];
+                    }
+                    for (int setor = c.primeiroSetor[posicao]; setor < c.primeiroSetor[posicao + 1]; setor++) {
+                        // setores sem movimento só aparecem se forem o primeiro da posição
+                        if (carga[setor][minuto] == 0 && setor != c.primeiroSetor[posicao]) {
+                            continue;
+                        }
+                        String[] campos = {semana, dia, horario(minuto * 60), c.configId, ctr(posicao), c.ass(posicao),
+                            aspas(PlanilhaSectConfig.SETORES[setor]), Integer.toString(c.qtdCtr), Integer.toString(c.qtdAss),
+                            Integer.toString(movAtco), Integer.toString(carga[setor][minuto]), c.sectConfig};
+                        if (sortear(Defeito.QTD_CTR_INCOMPATIVEL)) {
+                            campos[7] = Integer.toString(c.qtdCtr + 1);
+                        }
+                        if (sortear(Defeito.QTD_ASS_INCOMPATIVEL)) {
+                            campos[8] = Integer.toString(c.qtdAss + 1);
+                        }
+                        if (sortear(Defeito.CONFIG_ID_INVALIDO)) {
+                            campos[3] = aspas(c.qtdCtr + "x");
+                        }
+                        linhas.add(linha(campos, TipoArquivo.SECT_CONFIG, 2, 1));
+                    }
+                }
+                if (sortear(Defeito.EXCESSO_DE_REGISTROS)) {
+                    while (linhas.size() <= PlanilhaSectConfig.SETORES.length) {
+                        linhas.add(linhas.get(random.nextInt(linhas.size())));
+                    }
+                }
+                for (String linha : linhas) {
+                    escrever(escritor, linha);
+                }
+            }
+        }
+
+        private void escreverFlights(BufferedWriter escritor) throws IOException {
+            String dataVoo = data.toString();
+            String dof = data.format(DOF);
+            for (int v = 0; v < segundos.length; v++) {
+                int segundo = segundos[v];
+                int setor = setoresVoos[v];
+                Configuracao c = configuracoes[segundo / 60];
+                int posicao = c.posicaoDoSetor(setor);
+                int origem = random.nextInt(AEROPORTOS.length);
+                int destino = (origem + 1 + random.nextInt(AEROPORTOS.length - 1)) % AEROPORTOS.length;
+                String eobt = random.nextInt(20) == 0 ? "" : horario(Math.floorMod(segundo - 60 * (20 + random.nextInt(100)), 86400)).substring(0, 5).replace(":", "");
+                String ssr = "A" + Integer.toOctalString(010000 + random.nextInt(010000)).substring(1);
+                if (sortear(Defeito.SSR_INVALIDO)) {
+                    ssr = "A" + (8 + random.nextInt(2)) + ssr.substring(2);
+                }
+                String[] campos = {dataVoo + horario(segundo), c.configId, c.sectConfig, ctr(posicao), c.ass(posicao),
+                    aspas(PlanilhaSectConfig.SETORES[setor]), Integer.toString(c.primeiroSetor[posicao + 1] - c.primeiroSetor[posicao]),
+                    Integer.toString(c.qtdAss), EMPRESAS[random.nextInt(EMPRESAS.length)] + (100 + random.nextInt(9900)),
+                    AEROPORTOS[origem], AEROPORTOS[destino], dof, eobt, ssr, regraDeVoo()};
+                escrever(escritor, linha(campos, TipoArquivo.FLIGHTS, 0, 8) + ";");
+            }
+        }
+
+        private String regraDeVoo() {
+            int sorteio = random.nextInt(100);
+            return sorteio < 95 ? "I" : sorteio < 98 ? "V" : sorteio < 99 ? "Y" : "Z";
+        }
+
+        /**
+         * Junta os campos em uma linha, aplicando os defeitos de linha.
+         *
+         * @param campoHorario índice do campo de horário (ou timestamp)
+         * @param campoObrigatorio índice de um campo que não pode ser vazio
+         */
+        private String linha(String[] campos, TipoArquivo tipo, int campoHorario, int campoObrigatorio) {
+            if (sortear(Defeito.DATA_HORA_INVALIDA, tipo)) {
+                String horario = campos[campoHorario];
+                campos[campoHorario] = horario.substring(0, horario.length() - 8) + "24" + horario.substring(horario.length() - 6);
+            }
+            if (sortear(Defeito.CAMPO_VAZIO, tipo)) {
+                campos[campoObrigatorio] = "";
+            }
+            String linha = String.join(";", campos);
+            if (sortear(Defeito.QTD_CAMPOS, tipo)) {
+                linha += ";extra";
+            }
+            return linha;
+        }
+
+        private boolean sortear(Defeito defeito) {
+            return sortear(defeito, null);
+        }
+
+        private boolean sortear(Defeito defeito, TipoArquivo tipo) {
+            double taxa = taxas[defeito.ordinal()];
+            if (taxa == 0 || (tipo != null && !defeito.getTipos().contains(tipo)) || random.nextDouble() >= taxa) {
+                return false;
+            }
+            injetados[defeito.ordinal()]++;
+            return true;
+        }
+    }
+
+    /**
+     * Configuração vigente em um período: config_id e setores de cada posição.
+     */
+    private final class Configuracao {
+
+        private final int qtdCtr;
+        private final int qtdAss;
+        private final String configId;
+        private final String sectConfig;
+        /**
+         * Índice do primeiro setor de cada posição; os setores de uma posição
+         * são contíguos e a última entrada é a quantidade de setores.
+         */
+        private final int[] primeiroSetor;
+
+        private Configuracao(int qtdCtr, int variante, int qtdAss) {
+            this.qtdCtr = qtdCtr;
+            this.qtdAss = qtdAss;
+            this.configId = aspas(qtdCtr + "." + variante + "." + qtdAss);
+            this.primeiroSetor = new int[qtdCtr + 1];
+            StringBuilder sb = new StringBuilder();
+            for (int posicao = 0; posicao < qtdCtr; posicao++) {
+                primeiroSetor[posicao] = posicao * setores / qtdCtr;
+                primeiroSetor[posicao + 1] = (posicao + 1) * setores / qtdCtr;
+                if (posicao > 0) {
+                    sb.append('|');
+                }
+                for (int setor = primeiroSetor[posicao]; setor < primeiroSetor[posicao + 1]; setor++) {
+                    if (setor > primeiroSetor[posicao]) {
+                        sb.append(',');
+                    }
+                    sb.append(PlanilhaSectConfig.SETORES[setor]);
+                }
+            }
+            this.sectConfig = sb.toString();
+        }
+
+        private int posicaoDoSetor(int setor) {
+            int posicao = 0;
+            while (setor >= primeiroSetor[posicao + 1]) {
+                posicao++;
+            }
+            return posicao;
+        }
+
+        private String ass(int posicao) {
+            return posicao < qtdAss ? aspas(String.format("ASS%02d", posicao + 1)) : "\"\"";
+        }
+    }
+
+    private interface Escrita {
+
+        void escrever(BufferedWriter escritor) throws IOException;
+    }
+
+    private static void escrever(BufferedWriter escritor, String linha) throws IOException {
+        escritor.write(linha);
+        escritor.write('\n');
+    }
+
+    private static String ctr(int posicao) {
+        return aspas(String.format("CTR%02d", posicao + 1));
+    }
+
+    private static String aspas(String texto) {
+        return '"' + texto + '"';
+    }
+
+    private static String horario(int segundoDoDia) {
+        return String.format("%02d:%02d:%02d", segundoDoDia / 3600, segundoDoDia / 60 % 60, segundoDoDia % 60);
+    }
+
+    private static int exigirPositivo(int valor, String nome) {
+        if (valor < 1) {
+            throw new IllegalArgumentException(nome + " deve ser maior que zero");
+        }
+        return valor;
+    }
+
+    private static final String USO = String.join(System.lineSeparator(),
+            "Uso: GeradorSagitario --saida <diretório> [opções]",
+            "",
+            "Opções:",
+            "  --inicio AAAA-MM-DD        primeiro dia gerado (padrão: 2024-06-01)",
+            "  --dias N                   quantidade de dias (padrão: 1)",
+            "  --setores N                setores ativos, de 2 a 20 (padrão: 20)",
+            "  --posicoes N               posições de controle no pico, de 2 a 18 (padrão: 7)",
+            "  --voos-por-hora N          voos na hora de pico (padrão: 120)",
+            "  --semente N                semente dos sorteios (padrão: 1)",
+            "  --tipos a,b                config, sect_config e/ou flights (padrão: todos)",
+            "  --defeitos TAXA            taxa de todas as classes de defeito, de 0 a 1",
+            "  --defeito CLASSE=TAXA      taxa de uma classe de defeito; pode ser repetida",
+            "",
+            "Classes de defeito: " + Arrays.toString(Defeito.values()));
+
+    /**
+     * Gera os arquivos conforme as opções da linha de comando.
+     *
+     * @param args opções, ver {@link #USO}
+     * @throws IOException se não for possível gravar algum arquivo
+     */
+    public static void main(String[] args) throws IOException {
+        GeradorSagitario gerador = new GeradorSagitario();
+        Path saida = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String opcao = args[i];
+                String valor = i + 1 < args.length ? args[++i] : null;
+                if (valor == null) {
+                    throw new IllegalArgumentException("Valor ausente para " + opcao);
+                }
+                switch (opcao) {
+                    case "--saida":
+                        saida = Paths.get(valor);
+                        break;
+                    case "--inicio":
+                        gerador.inicio(LocalDate.parse(valor));
+                        break;
+                    case "--dias":
+                        gerador.dias(Integer.parseInt(valor));
+                        break;
+                    case "--setores":
+                        gerador.setores(Integer.parseInt(valor));
+                        break;
+                    case "--posicoes":
+                        gerador.posicoes(Integer.parseInt(valor));
+                        break;
+                    case "--voos-por-hora":
+                        gerador.voosPorHora(Integer.parseInt(valor));
+                        break;
+                    case "--semente":
+                        gerador.semente(Long.parseLong(valor));
+                        break;
+                    case "--tipos":
+                        Set<TipoArquivo> tipos = EnumSet.noneOf(TipoArquivo.class);
+                        for (String tipo : valor.split(",")) {
+                            tipos.add(TipoArquivo.valueOf(tipo.trim().toUpperCase(Locale.ROOT)));
+                        }
+                        gerador.tipos(tipos);
+                        break;
+                    case "--defeitos":
+                        gerador.defeitos(Double.parseDouble(valor));
+                        break;
+                    case "--defeito":
+                        String[] partes = valor.split("=", 2);
+                        if (partes.length != 2) {
+                            throw new IllegalArgumentException("Use --defeito CLASSE=TAXA");
+                        }
+                        gerador.defeito(Defeito.valueOf(partes[0].trim().toUpperCase(Locale.ROOT)), Double.parseDouble(partes[1]));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Opção desconhecida: " + opcao);
+                }
+            }
+            if (saida == null) {
+                throw new IllegalArgumentException("Informe o diretório de saída com --saida");
+            }
+        } catch (IllegalArgumentException | DateTimeException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USO);
+            System.exit(2);
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        List<Path> arquivos = gerador.gerar(saida);
+        long bytes = 0;
+        for (Path arquivo : arquivos) {
+            bytes += Files.size(arquivo);
+        }
+        System.out.printf("%d arquivos, %.1f MB em %s, %.2f s%n", arquivos.size(), bytes / (1024.0 * 1024.0),
+                saida.toAbsolutePath(), (System.nanoTime() - inicio) / 1e9);
+        for (Defeito defeito : Defeito.values()) {
+            if (gerador.getInjetados(defeito) > 0) {
+                System.out.printf("  %-22s %d%n", defeito, gerador.getInjetados(defeito));
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.csv;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.example.bench.Amostras;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Leitura de um arquivo CSV inteiro: a leitura em {@code String} de
+ * {@link Csv#getLines(Path)} e a leitura mapeada em memória de
+ * {@link LeitorCsvMapeado}.
+ *
+ * @author luisg
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LeituraBenchmark {
+
+    @Param({Amostras.CONFIG, Amostras.SECT_CONFIG, Amostras.FLIGHTS})
+    public String tipo;
+
+    @Param({"1", "8"})
+    public int fator;
+
+    private Path arquivo;
+
+    @Setup
+    public void criarArquivo() throws IOException {
+        arquivo = Amostras.criar(tipo, fator);
+    }
+
+    @TearDown
+    public void excluirArquivo() {
+        Amostras.excluir(arquivo);
+    }
+
+    @Benchmark
+    public Object getLines() throws IOException {
+        return Csv.getLines(arquivo);
+    }
+
+    @Benchmark
+    public int lerMapeado(Blackhole bh) throws IOException {
+        return LeitorCsvMapeado.ler(arquivo, registro -> bh.consume(registro.getQtdCampos()));
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.example.bench.Amostras;
+import org.example.csv.LeitorCsvMapeado;
+import org.example.csv.LeitorDataHora;
+import org.example.csv.RegistroCsv;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Etapas de verificação aplicadas linha a linha, isoladas da leitura do
+ * disco.
+ *
+ * <p>
+ * O arquivo é carregado em memória no setup e cada execução percorre o buffer
+ * com {@link LeitorCsvMapeado#lerIntervalo}, entregando as linhas a uma
+ * única etapa. O benchmark {@link #percorrer} mede apenas a separação das
+ * linhas e campos e serve de base para as demais.</p>
+ *
+ * @author luisg
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VerificacoesBenchmark {
+
+    /**
+     * Conteúdo de uma planilha de qualquer tipo.
+     */
+    @State(Scope.Benchmark)
+    public static class Planilhas {
+
+        @Param({Amostras.CONFIG, Amostras.SECT_CONFIG, Amostras.FLIGHTS})
+        public String tipo;
+
+        @Param({"1", "8"})
+        public int fator;
+
+        ByteBuffer conteudo;
+        int qtdCampos;
+
+        @Setup
+        public void carregar() throws IOException {
+            conteudo = carregarAmostra(tipo, fator);
+            switch (tipo) {
+                case Amostras.CONFIG:
+                    qtdCampos = PlanilhaConfig.QTD_CAMPOS;
+                    break;
+                case Amostras.SECT_CONFIG:
+                    qtdCampos = PlanilhaSectConfig.CABECALHO_LENGTH;
+                    break;
+                default:
+                    qtdCampos = PlanilhaFlights.QTD_CAMPOS;
+            }
+        }
+    }
+
+    /**
+     * Conteúdo de uma planilha flights.
+     */
+    @State(Scope.Benchmark)
+    public static class Flights {
+
+        @Param({"1", "8"})
+        public int fator;
+
+        ByteBuffer conteudo;
+
+        @Setup
+        public void carregar() throws IOException {
+            conteudo = carregarAmostra(Amostras.FLIGHTS, fator);
+        }
+    }
+
+    /**
+     * Conteúdo de uma planilha config.
+     */
+    @State(Scope.Benchmark)
+    public static class Configs {
+
+        @Param({"1", "8"})
+        public int fator;
+
+        ByteBuffer conteudo;
+
+        @Setup
+        public void carregar() throws IOException {
+            conteudo = carregarAmostra(Amostras.CONFIG, fator);
+        }
+    }
+
+    @Benchmark
+    public int percorrer(Planilhas planilha, Blackhole bh) {
+        return ler(planilha.conteudo, registro -> bh.consume(registro.getQtdCampos()));
+    }
+
+    @Benchmark
+    public Object verificarQuantidadeDeCampos(Planilhas planilha) {
+        Verificacao verificacao = new Planilha.VerificarQuantidadeDeCampos(planilha.qtdCampos, false);
+        ler(planilha.conteudo, verificacao::verificar);
+        return verificacao;
+    }
+
+    @Benchmark
+    public Object verificarCamposVazios(Planilhas planilha) {
+        Verificacao verificacao = new Planilha.VerificarCamposVazios(false);
+        ler(planilha.conteudo, verificacao::verificar);
+        return verificacao;
+    }
+
+    @Benchmark
+    public int validarLinha(Flights flights, Blackhole bh) {
+        return ler(flights.conteudo, registro -> bh.consume(PlanilhaFlights.validarLinha(registro)));
+    }
+
+    /**
+     * Indexação das linhas da planilha config pelo minuto do dia, como feita
+     * pela verificação de horários.
+     */
+    @Benchmark
+    public Object indexarMinutos(Configs config) {
+        IndiceMinutos indice = new IndiceMinutos();
+        ler(config.conteudo, registro -> {
+            if (registro.getQtdCampos() > 2) {
+                int minuto = LeitorDataHora.minutoDoDia(registro, registro.inicioCampo(2), registro.fimCampo(2));
+                if (minuto != LeitorDataHora.INVALIDO) {
+                    indice.adicionar(minuto, registro);
+                }
+            }
+        });
+        return indice;
+    }
+
+    private static int ler(ByteBuffer conteudo, Consumer<RegistroCsv> consumidor) {
+        return LeitorCsvMapeado.lerIntervalo(conteudo, 0, conteudo.limit(), 0, new RegistroCsv(), consumidor);
+    }
+
+    private static ByteBuffer carregarAmostra(String tipo, int fator) throws IOException {
+        Path arquivo = Amostras.criar(tipo, fator);
+        try {
+            return Amostras.carregar(arquivo);
+        } finally {
+            Amostras.excluir(arquivo);
+        }
+    }
+}
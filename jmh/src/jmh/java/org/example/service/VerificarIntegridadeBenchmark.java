@@ -0,0 +1,70 @@
+package org.example.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.example.bench.Amostras;
+import org.example.model.ResultadoValidacao;
+import org.example.model.StatusArquivo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Verificação completa de um arquivo, da leitura à gravação do relatório de
+ * integridade, como feita para cada arquivo selecionado na interface.
+ *
+ * @author luisg
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class VerificarIntegridadeBenchmark {
+
+    @Param({Amostras.CONFIG, Amostras.SECT_CONFIG, Amostras.FLIGHTS})
+    public String tipo;
+
+    @Param({"1", "8"})
+    public int fator;
+
+    @Param({"false", "true"})
+    public boolean detalhar;
+
+    private Path arquivo;
+
+    @Setup
+    public void criarArquivo() throws IOException {
+        arquivo = Amostras.criar(tipo, fator);
+    }
+
+    @TearDown
+    public void excluirArquivo() {
+        Amostras.excluir(arquivo);
+    }
+
+    @Benchmark
+    public ResultadoValidacao verificarIntegridade() {
+        ResultadoValidacao resultado;
+        switch (tipo) {
+            case Amostras.CONFIG:
+                resultado = PlanilhaConfig.verificarIntegridade(arquivo, detalhar);
+                break;
+            case Amostras.SECT_CONFIG:
+                resultado = PlanilhaSectConfig.verificarIntegridade(arquivo, detalhar);
+                break;
+            default:
+                resultado = PlanilhaFlights.verificarIntegridade(arquivo, detalhar);
+        }
+        if (resultado.getStatus() != StatusArquivo.VALIDADO) {
+            throw new IllegalStateException("Falha ao verificar " + arquivo);
+        }
+        return resultado;
+    }
+}
@@ -12,4 +12,4 @@ plugins {
 }
 
 rootProject.name = "cpatm_cc"
-include("app")
+include("app", "jmh")